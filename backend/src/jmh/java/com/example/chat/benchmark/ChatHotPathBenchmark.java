@@ -0,0 +1,151 @@
+package com.example.chat.benchmark;
+
+import com.example.chat.ChatApplication;
+import com.example.chat.dto.MessagePageDto;
+import com.example.chat.dto.SendMessageFrame;
+import com.example.chat.model.ChatRoom;
+import com.example.chat.model.Message;
+import com.example.chat.model.MessageStatus;
+import com.example.chat.model.MessageType;
+import com.example.chat.model.User;
+import com.example.chat.repository.ChatRoomRepository;
+import com.example.chat.repository.MessageRepository;
+import com.example.chat.repository.UserRepository;
+import com.example.chat.security.ChatPrincipal;
+import com.example.chat.service.MessageIdGenerator;
+import com.example.chat.service.MessageService;
+import com.example.chat.websocket.ChatWebSocketHandler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PERFORMANCE - Message send and history hot paths on a full application context
+ * Runs against in-memory H2 with the default single-node settings (write-behind on, no cluster
+ * bus, Kafka off). The history room is seeded with SEEDED_MESSAGES rows; sends go to another room.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ChatHotPathBenchmark {
+
+    private static final int SEEDED_MESSAGES = 10_000;
+    private static final int PAGE_SIZE = 50;
+    private static final String DATASOURCE_URL = "jdbc:h2:mem:jmh;DB_CLOSE_DELAY=-1";
+
+    private ConfigurableApplicationContext context;
+    private MessageService messageService;
+    private ChatWebSocketHandler chatWebSocketHandler;
+    private Long historyRoomId;
+    private SendMessageFrame sendPayload;
+    private SimpMessageHeaderAccessor headerAccessor;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        // Command-line arguments, since default properties would lose to application.yml
+        context = new SpringApplicationBuilder(ChatApplication.class)
+                .run(
+                        "--server.port=0",
+                        "--spring.main.banner-mode=off",
+                        "--spring.datasource.url=" + DATASOURCE_URL,
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level.com.example.chat=WARN",
+                        "--logging.level.org.springframework.security=WARN",
+                        "--logging.level.org.springframework.web=WARN",
+                        "--logging.level.org.hibernate.SQL=WARN",
+                        "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN");
+        String datasourceUrl = context.getEnvironment().getProperty("spring.datasource.url");
+        if (!DATASOURCE_URL.equals(datasourceUrl)) {
+            context.close();
+            throw new IllegalStateException("Benchmark must run on in-memory H2, resolved " + datasourceUrl);
+        }
+        messageService = context.getBean(MessageService.class);
+        chatWebSocketHandler = context.getBean(ChatWebSocketHandler.class);
+
+        List<ChatRoom> rooms = context.getBean(ChatRoomRepository.class).findAll();
+        Long sendRoomId = rooms.get(0).getId();
+        historyRoomId = rooms.get(1).getId();
+        seedHistory();
+
+        sendPayload = new SendMessageFrame("benchmark message", sendRoomId, "testuser");
+        headerAccessor = SimpMessageHeaderAccessor.create();
+        headerAccessor.setSessionId("jmh-session");
+        // JWT - As set by the CONNECT interceptor; the send path does no user lookup
+        User sender = context.getBean(UserRepository.class).findByUsername("testuser").orElseThrow();
+        headerAccessor.setUser(ChatPrincipal.of(sender));
+    }
+
+    private void seedHistory() {
+        User sender = context.getBean(UserRepository.class).findByUsername("admin").orElseThrow();
+        MessageIdGenerator idGenerator = context.getBean(MessageIdGenerator.class);
+        LocalDateTime start = LocalDateTime.now().minusDays(1);
+        List<Message> batch = new ArrayList<>(1000);
+        for (int i = 0; i < SEEDED_MESSAGES; i++) {
+            Message message = new Message();
+            message.setId(idGenerator.nextId());
+            message.setContent("seeded history message " + i);
+            message.setType(MessageType.TEXT);
+            message.setStatus(MessageStatus.SENT);
+            message.setSender(sender);
+            message.setChatRoomId(historyRoomId);
+            message.setCreatedAt(start.plusSeconds(i));
+            message.setUpdatedAt(message.getCreatedAt());
+            batch.add(message);
+            if (batch.size() == 1000) {
+                context.getBean(MessageRepository.class).saveAll(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    // Legacy offset page straight from the database
+    @Benchmark
+    public List<Message> getMessagesByRoomId() {
+        return messageService.getMessagesByRoomId(historyRoomId, 0, PAGE_SIZE);
+    }
+
+    // Keyset history as served to clients (recent-message buffer first)
+    @Benchmark
+    public MessagePageDto getRoomHistory() {
+        return messageService.getRoomHistory(historyRoomId, null, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public void sendMessage() {
+        chatWebSocketHandler.sendMessage(sendPayload, headerAccessor);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void sendMessageContended() {
+        chatWebSocketHandler.sendMessage(sendPayload, headerAccessor);
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.chat.benchmark;
+
+import com.example.chat.archive.ArchivedMessage;
+import com.example.chat.archive.MessageArchive;
+import com.example.chat.archive.SegmentFile;
+import com.example.chat.model.Message;
+import com.example.chat.model.MessageType;
+import com.example.chat.repository.UserRepository;
+import com.example.chat.service.MessageCursor;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PERFORMANCE - History page latency of the cold message archive at 100M messages
+ * The corpus is MONTHS months of ROOMS rooms with an equal share of corpusSize messages each,
+ * written straight into segment files (BUCKETS room buckets, 256 messages per block) under
+ * target/archive-benchmark-{corpusSize}. It is generated once (about five minutes, ~1 GB on disk)
+ * and reused by later runs. Every benchmark reads one PAGE_SIZE page of a random room through
+ * MessageArchive.readBefore: the newest archived page, a page below a random cursor anywhere in
+ * the year, and a page whose cursor sits just after a month start, so it spans two months.
+ * mvn -P benchmark verify -Djmh.include=MessageArchive
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MessageArchiveBenchmark {
+
+    private static final YearMonth FIRST_MONTH = YearMonth.of(2023, 1);
+    private static final int MONTHS = 12;
+    private static final int ROOMS = 10_000;
+    private static final int BUCKETS = 16;
+    private static final int BLOCK_SIZE = 256;
+    private static final int PAGE_SIZE = 50;
+    private static final String COMPLETE_MARKER = "corpus.complete";
+
+    @Param({"100000000"})
+    private long corpusSize;
+
+    private MessageArchive archive;
+    private SplittableRandom random;
+    private long start;
+    private long span;
+
+    @Setup(Level.Trial)
+    public void openArchive() throws IOException {
+        Path directory = Paths.get("target", "archive-benchmark-" + corpusSize).toAbsolutePath();
+        if (!Files.exists(directory.resolve(COMPLETE_MARKER))) {
+            long started = System.nanoTime();
+            writeCorpus(directory);
+            Files.createFile(directory.resolve(COMPLETE_MARKER));
+            System.out.printf("%nWrote %d archived messages in %d s%n", corpusSize,
+                    TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - started));
+        }
+
+        archive = new MessageArchive();
+        ReflectionTestUtils.setField(archive, "enabled", true);
+        ReflectionTestUtils.setField(archive, "directory", directory.toString());
+        ReflectionTestUtils.setField(archive, "roomBuckets", BUCKETS);
+        ReflectionTestUtils.setField(archive, "blockSize", BLOCK_SIZE);
+        // Senders are not in the repository: every page goes through the deleted-user placeholder
+        ReflectionTestUtils.setField(archive, "userRepository", Mockito.mock(UserRepository.class));
+        archive.init();
+
+        random = new SplittableRandom(42);
+        LocalDateTime first = FIRST_MONTH.atDay(1).atStartOfDay();
+        start = first.toEpochSecond(ZoneOffset.UTC);
+        span = ChronoUnit.SECONDS.between(first, FIRST_MONTH.plusMonths(MONTHS).atDay(1).atStartOfDay());
+    }
+
+    // Same layout MessageArchiver produces: {dir}/{yyyy-MM}/bucket-{n}/part-*.seg, rooms ascending
+    private void writeCorpus(Path directory) throws IOException {
+        long perRoomMonth = Math.max(1, corpusSize / ((long) MONTHS * ROOMS));
+        List<List<Long>> bucketRooms = new ArrayList<>();
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            bucketRooms.add(new ArrayList<>());
+        }
+        for (long roomId = 1; roomId <= ROOMS; roomId++) {
+            bucketRooms.get(Math.floorMod(Long.hashCode(roomId), BUCKETS)).add(roomId);
+        }
+        long id = 1;
+        for (int m = 0; m < MONTHS; m++) {
+            YearMonth month = FIRST_MONTH.plusMonths(m);
+            LocalDateTime monthStart = month.atDay(1).atStartOfDay();
+            long monthSeconds = ChronoUnit.SECONDS.between(monthStart, month.plusMonths(1).atDay(1).atStartOfDay());
+            for (int bucket = 0; bucket < BUCKETS; bucket++) {
+                Path dir = directory.resolve(month.toString()).resolve(String.format("bucket-%03d", bucket));
+                Files.createDirectories(dir);
+                try (SegmentFile.Writer writer = SegmentFile.writer(dir.resolve("part-0.seg"), BLOCK_SIZE)) {
+                    for (Long roomId : bucketRooms.get(bucket)) {
+                        for (long i = 0; i < perRoomMonth; i++) {
+                            LocalDateTime createdAt = monthStart.plusSeconds(i * monthSeconds / perRoomMonth);
+                            writer.append(new ArchivedMessage(id, roomId, 1 + (id % 1_000), MessageType.TEXT,
+                                    createdAt, "message " + id + " in room " + roomId));
+                            id++;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private long randomRoom() {
+        return 1 + random.nextInt(ROOMS);
+    }
+
+    @Benchmark
+    public List<Message> newestArchivedPage() {
+        return archive.readBefore(randomRoom(), null, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<Message> deepPage() {
+        LocalDateTime at = LocalDateTime.ofEpochSecond(start + random.nextLong(span), 0, ZoneOffset.UTC);
+        return archive.readBefore(randomRoom(), new MessageCursor(at, Long.MAX_VALUE), PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<Message> pageAcrossMonthBoundary() {
+        LocalDateTime monthStart = FIRST_MONTH.plusMonths(1 + random.nextInt(MONTHS - 1)).atDay(1).atStartOfDay();
+        return archive.readBefore(randomRoom(), new MessageCursor(monthStart.plusHours(12), Long.MAX_VALUE), PAGE_SIZE);
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.chat.benchmark;
+
+import com.example.chat.dto.MessageDto;
+import com.example.chat.dto.MessageMapper;
+import com.example.chat.model.Message;
+import com.example.chat.model.MessageStatus;
+import com.example.chat.model.MessageType;
+import com.example.chat.model.User;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PERFORMANCE - Message -> MessageDto mapping and MessageDto JSON encoding
+ * MessageMapper.toDto is what ChatController.convertToDto and the WebSocket path call; the
+ * page benchmarks cover a 50-message history response.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageMappingBenchmark {
+
+    private static final int PAGE_SIZE = 50;
+
+    private ObjectMapper objectMapper;
+    private Message message;
+    private MessageDto dto;
+    private List<Message> page;
+    private List<MessageDto> dtoPage;
+    private String json;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        objectMapper = new ObjectMapper().findAndRegisterModules();
+        User sender = new User();
+        sender.setId(7L);
+        sender.setUsername("alice");
+        sender.setDisplayName("Alice Example");
+
+        page = new ArrayList<>(PAGE_SIZE);
+        dtoPage = new ArrayList<>(PAGE_SIZE);
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            Message m = new Message();
+            m.setId(1_000_000L + i);
+            m.setContent("message number " + i + " with a realistic amount of chat text in it");
+            m.setType(MessageType.TEXT);
+            m.setStatus(MessageStatus.SENT);
+            m.setSender(sender);
+            m.setChatRoomId(1L);
+            m.setCreatedAt(now.minusSeconds(PAGE_SIZE - i));
+            m.setUpdatedAt(m.getCreatedAt());
+            page.add(m);
+            dtoPage.add(MessageMapper.toDto(m));
+        }
+        message = page.get(0);
+        dto = dtoPage.get(0);
+        json = objectMapper.writeValueAsString(dto);
+    }
+
+    @Benchmark
+    public MessageDto toDto() {
+        return MessageMapper.toDto(message);
+    }
+
+    @Benchmark
+    public List<MessageDto> toDtoPage() {
+        List<MessageDto> result = new ArrayList<>(page.size());
+        for (Message m : page) {
+            result.add(MessageMapper.toDto(m));
+        }
+        return result;
+    }
+
+    @Benchmark
+    public byte[] writeDto() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(dto);
+    }
+
+    @Benchmark
+    public byte[] writeDtoPage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(dtoPage);
+    }
+
+    @Benchmark
+    public MessageDto readDto() throws JsonProcessingException {
+        return objectMapper.readValue(json, MessageDto.class);
+    }
+}
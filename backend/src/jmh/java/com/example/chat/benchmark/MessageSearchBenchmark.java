@@ -0,0 +1,136 @@
+package com.example.chat.benchmark;
+
+import com.example.chat.search.InvertedIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PERFORMANCE - Query latency of the in-memory search engine over a synthetic corpus
+ * The corpus has corpusSize messages of 6-14 words drawn from a Zipf-distributed vocabulary
+ * (VOCABULARY words, exponent 1), spread over ROOMS rooms and SENDERS senders with a fixed seed.
+ * Terms are picked by frequency rank: "common" is rank 10, "medium" 1000, "rare" 20000. Each
+ * benchmark asks for the first page (PAGE_SIZE hits); fourCommonTermsInRoom and
+ * noMatchRareTerms find few or no matches, so they walk the whole intersection.
+ * Building the 10M corpus takes about a minute and ~0.5 GB of heap (printed at setup):
+ * mvn -P benchmark verify -Djmh.include=MessageSearch
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class MessageSearchBenchmark {
+
+    private static final int VOCABULARY = 50_000;
+    private static final int ROOMS = 1_000;
+    private static final int SENDERS = 10_000;
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"10000000"})
+    private int corpusSize;
+
+    private InvertedIndex index;
+    private int query;
+
+    @Setup(Level.Trial)
+    public void buildCorpus() {
+        double[] cumulative = new double[VOCABULARY];
+        double total = 0;
+        for (int rank = 0; rank < VOCABULARY; rank++) {
+            total += 1.0 / (rank + 1);
+            cumulative[rank] = total;
+        }
+        SplittableRandom random = new SplittableRandom(42);
+        index = new InvertedIndex();
+        StringBuilder content = new StringBuilder(128);
+        long started = System.nanoTime();
+        for (int i = 0; i < corpusSize; i++) {
+            content.setLength(0);
+            int words = 6 + random.nextInt(9);
+            for (int w = 0; w < words; w++) {
+                content.append(word(sample(cumulative, random.nextDouble() * total))).append(' ');
+            }
+            index.add(1_000_000L + i, (long) random.nextInt(ROOMS), (long) random.nextInt(SENDERS), content.toString());
+        }
+        System.out.printf("%nIndexed %d messages in %d s, ~%d MB%n", index.size(),
+                TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - started), index.sizeInBytes() >> 20);
+    }
+
+    private static int sample(double[] cumulative, double point) {
+        int low = 0;
+        int high = cumulative.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (cumulative[mid] < point) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // Rank 0 is the most frequent word
+    private static String word(int rank) {
+        return "w" + Integer.toString(rank, 36);
+    }
+
+    // Rotate rooms and senders so consecutive calls do not hit the same blocks
+    private long nextRoom() {
+        return (query++ * 7919L) % ROOMS;
+    }
+
+    private long nextSender() {
+        return (query++ * 104_729L) % SENDERS;
+    }
+
+    @Benchmark
+    public InvertedIndex.Hits commonTerm() {
+        return index.search(List.of(word(10)), null, null, -1, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public InvertedIndex.Hits rareTerm() {
+        return index.search(List.of(word(20_000)), null, null, -1, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public InvertedIndex.Hits commonTermInRoom() {
+        return index.search(List.of(word(10)), nextRoom(), null, -1, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public InvertedIndex.Hits twoMediumTermsInRoom() {
+        return index.search(List.of(word(1_000), word(1_001)), nextRoom(), null, -1, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public InvertedIndex.Hits mediumTermBySender() {
+        return index.search(List.of(word(1_000)), null, nextSender(), -1, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public InvertedIndex.Hits fourCommonTermsInRoom() {
+        return index.search(List.of(word(10), word(11), word(12), word(13)), nextRoom(), null, -1, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public InvertedIndex.Hits noMatchRareTerms() {
+        return index.search(List.of(word(20_000), word(20_001)), null, null, -1, PAGE_SIZE);
+    }
+}
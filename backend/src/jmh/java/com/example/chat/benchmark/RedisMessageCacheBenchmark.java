@@ -0,0 +1,125 @@
+package com.example.chat.benchmark;
+
+import com.example.chat.config.RedisConfig;
+import com.example.chat.dto.MessageDto;
+import com.example.chat.dto.UserDto;
+import com.example.chat.service.RedisService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PERFORMANCE - Caching room messages in Redis: three round-trips vs script vs pipelined batch
+ * Runs against a throwaway Redis container (requires Docker). Every benchmark reports messages
+ * cached per second, spread over ROOMS room_messages:* lists.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RedisMessageCacheBenchmark {
+
+    private static final int ROOMS = 50;
+    private static final int BATCH = 100;
+
+    private GenericContainer<?> redis;
+    private LettuceConnectionFactory connectionFactory;
+    private RedisTemplate<String, Object> redisTemplate;
+    private RedisService redisService;
+    private MessageDto[] messages;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        redis = new GenericContainer<>(DockerImageName.parse("redis:7-alpine")).withExposedPorts(6379);
+        redis.start();
+        connectionFactory = new LettuceConnectionFactory(redis.getHost(), redis.getMappedPort(6379));
+        connectionFactory.afterPropertiesSet();
+
+        RedisConfig redisConfig = new RedisConfig();
+        ReflectionTestUtils.setField(redisConfig, "roomMessagesCodec", "compact");
+        ReflectionTestUtils.setField(redisConfig, "userSessionCodec", "compact");
+        ReflectionTestUtils.setField(redisConfig, "compressionThreshold", 1024);
+        redisTemplate = redisConfig.redisTemplate(connectionFactory);
+        redisService = new RedisService();
+        ReflectionTestUtils.setField(redisService, "roomMessageRedisTemplate",
+                redisConfig.roomMessageRedisTemplate(connectionFactory));
+        ReflectionTestUtils.setField(redisService, "userSessionRedisTemplate",
+                redisConfig.userSessionRedisTemplate(connectionFactory));
+
+        messages = new MessageDto[1000];
+        for (int i = 0; i < messages.length; i++) {
+            messages[i] = message(i);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        connectionFactory.destroy();
+        redis.stop();
+    }
+
+    private static MessageDto message(int i) {
+        UserDto sender = new UserDto();
+        sender.setId((long) (i % 100));
+        sender.setUsername("user" + (i % 100));
+        MessageDto message = new MessageDto();
+        message.setId((long) i);
+        message.setContent("benchmark message " + i);
+        message.setType("TEXT");
+        message.setStatus("SENT");
+        message.setSender(sender);
+        return message;
+    }
+
+    private MessageDto nextMessage() {
+        next = (next + 1) % messages.length;
+        return messages[next];
+    }
+
+    // The implementation before scripting: LPUSH, LTRIM and EXPIRE as separate round-trips
+    @Benchmark
+    public void legacyThreeRoundTrips() {
+        String key = "room_messages:" + next % ROOMS;
+        redisTemplate.opsForList().leftPush(key, nextMessage());
+        redisTemplate.opsForList().trim(key, 0, 99);
+        redisTemplate.expire(key, 1, TimeUnit.HOURS);
+    }
+
+    @Benchmark
+    public void scriptedOneRoundTrip() {
+        redisService.cacheMessage(Integer.toString(next % ROOMS), nextMessage());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void pipelinedBatch() {
+        Map<String, List<MessageDto>> byRoom = new LinkedHashMap<>();
+        for (int i = 0; i < BATCH; i++) {
+            byRoom.computeIfAbsent(Integer.toString(next % ROOMS), room -> new ArrayList<>()).add(nextMessage());
+        }
+        redisService.cacheMessages(byRoom);
+    }
+}
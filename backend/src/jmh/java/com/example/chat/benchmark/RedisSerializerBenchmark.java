@@ -0,0 +1,92 @@
+package com.example.chat.benchmark;
+
+import com.example.chat.config.CompactRedisSerializer;
+import com.example.chat.dto.MessageDto;
+import com.example.chat.dto.UserDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PERFORMANCE - Redis value codecs for room_messages:* entries
+ * Encode/decode cost of GenericJackson2Json (the previous codec) vs CompactRedisSerializer,
+ * for a typical short chat line and a long pasted message. Encoded sizes are printed at setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RedisSerializerBenchmark {
+
+    @Param({"64", "4096"})
+    private int contentLength;
+
+    private RedisSerializer<Object> json;
+    private RedisSerializer<MessageDto> compact;
+    private MessageDto message;
+    private byte[] jsonBytes;
+    private byte[] compactBytes;
+
+    @Setup
+    public void setUp() {
+        json = new GenericJackson2JsonRedisSerializer();
+        compact = new CompactRedisSerializer<>(MessageDto.class, 1024);
+        message = message(contentLength);
+        jsonBytes = json.serialize(message);
+        compactBytes = compact.serialize(message);
+        System.out.printf("%ncontent=%d chars: json=%d bytes, compact=%d bytes%n",
+                contentLength, jsonBytes.length, compactBytes.length);
+    }
+
+    @Benchmark
+    public byte[] encodeJson() {
+        return json.serialize(message);
+    }
+
+    @Benchmark
+    public byte[] encodeCompact() {
+        return compact.serialize(message);
+    }
+
+    @Benchmark
+    public Object decodeJson() {
+        return json.deserialize(jsonBytes);
+    }
+
+    @Benchmark
+    public MessageDto decodeCompact() {
+        return compact.deserialize(compactBytes);
+    }
+
+    private static MessageDto message(int contentLength) {
+        UserDto sender = new UserDto(42L, "alice", "alice@example.com", "Alice Example", true);
+        StringBuilder content = new StringBuilder(contentLength);
+        while (content.length() < contentLength) {
+            content.append("the quick brown fox jumps over the lazy dog ");
+        }
+        content.setLength(contentLength);
+
+        MessageDto dto = new MessageDto();
+        dto.setId(123_456_789_012L);
+        dto.setContent(content.toString());
+        dto.setType("TEXT");
+        dto.setStatus("SENT");
+        dto.setSender(sender);
+        dto.setCreatedAt("2024-06-01T12:34:56.789");
+        return dto;
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.chat.benchmark;
+
+import com.example.chat.cluster.ClusterFanoutService;
+import com.example.chat.cluster.RoomDestinations;
+import com.example.chat.dto.MessageDto;
+import com.example.chat.dto.MessageMapper;
+import com.example.chat.model.Message;
+import com.example.chat.model.MessageStatus;
+import com.example.chat.model.MessageType;
+import com.example.chat.model.User;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.broker.SimpleBrokerMessageHandler;
+import org.springframework.messaging.simp.stomp.StompEncoder;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PERFORMANCE - Cost of one room broadcast to N subscribers on the in-memory STOMP broker
+ * The broker and both channels run synchronously, and every delivered frame is STOMP-encoded as
+ * the session handler would do, so a broadcast includes all per-subscriber work.
+ * convertAndSendDto goes through SimpMessagingTemplate and its Jackson converter;
+ * broadcastPreSerialized is ClusterFanoutService (one writeValueAsBytes, shared byte[]).
+ * serializeOnce / serializePerSubscriber isolate the JSON encoding of a single broadcast when
+ * it is done once versus once per subscriber session.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RoomFanoutBenchmark {
+
+    private static final Long ROOM_ID = 42L;
+
+    @Param({"100", "1000"})
+    private int subscribers;
+
+    private ObjectMapper objectMapper;
+    private SimpleBrokerMessageHandler broker;
+    private SimpMessagingTemplate messagingTemplate;
+    private ClusterFanoutService clusterFanout;
+    private MessageDto dto;
+    private long encodedBytes;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new ObjectMapper().findAndRegisterModules();
+        StompEncoder encoder = new StompEncoder();
+
+        ExecutorSubscribableChannel clientInbound = new ExecutorSubscribableChannel();
+        ExecutorSubscribableChannel clientOutbound = new ExecutorSubscribableChannel();
+        ExecutorSubscribableChannel brokerChannel = new ExecutorSubscribableChannel();
+        clientOutbound.subscribe(message -> {
+            // WEBSOCKET - What StompSubProtocolHandler does per session before writing the frame
+            StompHeaderAccessor accessor = StompHeaderAccessor.wrap(message);
+            accessor.updateStompCommandAsServerMessage();
+            encodedBytes += encoder.encode(accessor.getMessageHeaders(), (byte[]) message.getPayload()).length;
+        });
+        broker = new SimpleBrokerMessageHandler(clientInbound, clientOutbound, brokerChannel, List.of("/topic"));
+        broker.start();
+
+        String destination = RoomDestinations.messages(ROOM_ID);
+        for (int i = 0; i < subscribers; i++) {
+            SimpMessageHeaderAccessor subscribe = SimpMessageHeaderAccessor.create(SimpMessageType.SUBSCRIBE);
+            subscribe.setSessionId("session-" + i);
+            subscribe.setSubscriptionId("sub-0");
+            subscribe.setDestination(destination);
+            broker.handleMessage(MessageBuilder.createMessage(new byte[0], subscribe.getMessageHeaders()));
+        }
+
+        MappingJackson2MessageConverter converter = new MappingJackson2MessageConverter();
+        converter.setObjectMapper(objectMapper);
+        messagingTemplate = new SimpMessagingTemplate(brokerChannel);
+        messagingTemplate.setMessageConverter(converter);
+
+        clusterFanout = new ClusterFanoutService();
+        ReflectionTestUtils.setField(clusterFanout, "messagingTemplate", messagingTemplate);
+        ReflectionTestUtils.setField(clusterFanout, "objectMapper", objectMapper);
+
+        User sender = new User();
+        sender.setId(7L);
+        sender.setUsername("alice");
+        sender.setDisplayName("Alice Example");
+        Message message = new Message();
+        message.setId(1_000_000L);
+        message.setContent("a chat message with a realistic amount of text in it");
+        message.setType(MessageType.TEXT);
+        message.setStatus(MessageStatus.SENT);
+        message.setSender(sender);
+        message.setChatRoomId(ROOM_ID);
+        message.setCreatedAt(LocalDateTime.now());
+        message.setUpdatedAt(message.getCreatedAt());
+        dto = MessageMapper.toDto(message);
+    }
+
+    @TearDown
+    public void tearDown() {
+        broker.stop();
+    }
+
+    @Benchmark
+    public long convertAndSendDto() {
+        messagingTemplate.convertAndSend(RoomDestinations.messages(ROOM_ID), dto);
+        return encodedBytes;
+    }
+
+    @Benchmark
+    public long broadcastPreSerialized() {
+        clusterFanout.broadcast(RoomDestinations.messages(ROOM_ID), dto, null);
+        return encodedBytes;
+    }
+
+    @Benchmark
+    public byte[] serializeOnce() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(dto);
+    }
+
+    @Benchmark
+    public long serializePerSubscriber() throws JsonProcessingException {
+        long bytes = 0;
+        for (int i = 0; i < subscribers; i++) {
+            bytes += objectMapper.writeValueAsBytes(dto).length;
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.chat.benchmark;
+
+import com.example.chat.dto.SendMessageFrame;
+import com.example.chat.dto.SystemMessageFrame;
+import com.example.chat.dto.TypingFrame;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PERFORMANCE - Per-frame cost of binding inbound STOMP bodies and building outbound frames
+ * The *Map benchmarks reproduce the previous handlers (body to LinkedHashMap, casts,
+ * Long.valueOf(toString()), Map.of with an ISO timestamp string); the *Record ones bind to and
+ * write the typed frame records. Allocation per frame is gc.alloc.rate.norm from -prof gc
+ * (enabled by default in the benchmark profile): mvn -P benchmark verify -Djmh.include=StompFrame
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StompFrameBenchmark {
+
+    private ObjectMapper objectMapper;
+    private ObjectReader sendMessageReader;
+    private ObjectReader typingReader;
+    private ObjectWriter systemMessageWriter;
+    private byte[] sendMessageBody;
+    private byte[] typingBody;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new ObjectMapper();
+        sendMessageReader = objectMapper.readerFor(SendMessageFrame.class);
+        typingReader = objectMapper.readerFor(TypingFrame.class);
+        systemMessageWriter = objectMapper.writerFor(SystemMessageFrame.class);
+        sendMessageBody = "{\"content\":\"hello everyone, how is it going?\",\"username\":\"testuser\",\"roomId\":42}"
+                .getBytes(StandardCharsets.UTF_8);
+        typingBody = "{\"username\":\"testuser\",\"roomId\":42,\"isTyping\":true}".getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public void sendMessageInboundMap(Blackhole blackhole) throws Exception {
+        Map<String, Object> payload = objectMapper.readValue(sendMessageBody, Map.class);
+        blackhole.consume((String) payload.get("content"));
+        blackhole.consume((String) payload.get("username"));
+        blackhole.consume(Long.valueOf(payload.get("roomId").toString()));
+    }
+
+    @Benchmark
+    public void sendMessageInboundRecord(Blackhole blackhole) throws Exception {
+        SendMessageFrame frame = sendMessageReader.readValue(sendMessageBody);
+        blackhole.consume(frame.content());
+        blackhole.consume(frame.username());
+        blackhole.consume(frame.roomId());
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public void typingInboundMap(Blackhole blackhole) throws Exception {
+        Map<String, Object> payload = objectMapper.readValue(typingBody, Map.class);
+        blackhole.consume((Boolean) payload.get("isTyping"));
+        blackhole.consume(Long.valueOf(payload.get("roomId").toString()));
+        blackhole.consume((String) payload.get("username"));
+    }
+
+    @Benchmark
+    public void typingInboundRecord(Blackhole blackhole) throws Exception {
+        TypingFrame frame = typingReader.readValue(typingBody);
+        blackhole.consume(frame.typing());
+        blackhole.consume(frame.roomId());
+        blackhole.consume(frame.username());
+    }
+
+    @Benchmark
+    public byte[] systemMessageOutboundMap() throws Exception {
+        Map<String, Object> systemMessage = Map.of(
+            "content", "testuser joined the chat",
+            "type", "SYSTEM",
+            "timestamp", LocalDateTime.now().toString()
+        );
+        return objectMapper.writeValueAsBytes(systemMessage);
+    }
+
+    @Benchmark
+    public byte[] systemMessageOutboundRecord() throws Exception {
+        return systemMessageWriter.writeValueAsBytes(SystemMessageFrame.joined("testuser"));
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.chat.loadtest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * PERFORMANCE - Command line options of the STOMP load generator (--name=value)
+ */
+final class LoadTestOptions {
+
+    List<String> urls = new ArrayList<>();  // Empty: start embedded nodes
+    int embeddedNodes = 1;
+    int clients = 1000;
+    int rooms = 20;
+    long firstRoomId = 1;
+    double messageRate = 200;  // Messages per second, all clients together
+    double typingRate = 200;  // Typing events per second, all clients together
+    boolean subscribeTyping = true;
+    int connectRate = 200;  // New connections per second during ramp-up
+    Duration duration = Duration.ofSeconds(60);
+    Duration drain = Duration.ofSeconds(5);
+    String transport = "sockjs";  // sockjs or websocket
+    List<String> usernames = List.of("testuser", "admin", "defaultuser");
+    List<String> passwords = List.of("password123", "admin123", "password");  // For --urls: REST login
+    String report = "target/loadtest-report.json";
+
+    static LoadTestOptions parse(String[] args) {
+        LoadTestOptions options = new LoadTestOptions();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            String name = arg.substring(2, arg.indexOf('='));
+            String value = arg.substring(arg.indexOf('=') + 1);
+            switch (name) {
+                case "urls" -> options.urls = Arrays.asList(value.split(","));
+                case "embedded-nodes" -> options.embeddedNodes = Integer.parseInt(value);
+                case "clients" -> options.clients = Integer.parseInt(value);
+                case "rooms" -> options.rooms = Integer.parseInt(value);
+                case "first-room-id" -> options.firstRoomId = Long.parseLong(value);
+                case "message-rate" -> options.messageRate = Double.parseDouble(value);
+                case "typing-rate" -> options.typingRate = Double.parseDouble(value);
+                case "subscribe-typing" -> options.subscribeTyping = Boolean.parseBoolean(value);
+                case "connect-rate" -> options.connectRate = Integer.parseInt(value);
+                case "duration" -> options.duration = Duration.parse("PT" + value.toUpperCase());
+                case "drain" -> options.drain = Duration.parse("PT" + value.toUpperCase());
+                case "transport" -> options.transport = value;
+                case "usernames" -> options.usernames = Arrays.asList(value.split(","));
+                case "passwords" -> options.passwords = Arrays.asList(value.split(","));
+                case "report" -> options.report = value;
+                default -> throw new IllegalArgumentException("Unknown option --" + name);
+            }
+        }
+        if (!options.transport.equals("sockjs") && !options.transport.equals("websocket")) {
+            throw new IllegalArgumentException("--transport must be sockjs or websocket");
+        }
+        return options;
+    }
+}
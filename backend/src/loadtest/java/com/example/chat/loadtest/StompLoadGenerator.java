@@ -0,0 +1,455 @@
+package com.example.chat.loadtest;
+
+import com.example.chat.ChatApplication;
+import com.example.chat.cluster.ClusterBus;
+import com.example.chat.dto.SendMessageFrame;
+import com.example.chat.dto.TypingFrame;
+import com.example.chat.security.JwtTokenProvider;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.client.WebSocketClient;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+import org.springframework.web.socket.sockjs.client.SockJsClient;
+import org.springframework.web.socket.sockjs.client.WebSocketTransport;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * PERFORMANCE - End-to-end STOMP load generator
+ * Opens many STOMP connections (SockJS or raw WebSocket) to /ws, subscribes each one to a room,
+ * publishes /app/chat.sendMessage and /app/chat.typing at fixed rates from random clients, and
+ * reports delivery latency percentiles, message loss and per-node throughput. Without --urls it
+ * starts --embedded-nodes application nodes on in-memory H2 (joined by the in-memory cluster bus
+ * when there is more than one), so a run needs nothing but this JVM.
+ *
+ *   mvn -P loadtest verify -Dloadtest.args="--clients=2000 --rooms=40 --message-rate=500 --duration=60s"
+ *
+ * Latency is measured from the send call to frame arrival on the subscriber, both in this JVM.
+ * Expected deliveries are the room's subscriber count at send time, so loss is exact only when
+ * every node delivers to every subscriber of a room (single node, or a clustered fan-out).
+ */
+public final class StompLoadGenerator {
+
+    private static final long MAX_TRACKED_LATENCY_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final LoadTestOptions options;
+    private final List<String> nodeUrls;
+    private final Map<String, String> tokens;  // JWT - Bearer token per username for STOMP CONNECT
+    private final String marker = "lt:" + Long.toString(System.nanoTime(), 36) + ":";
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final Histogram latency = new ConcurrentHistogram(MAX_TRACKED_LATENCY_NANOS, 3);
+    private final Queue<Client> connected = new ConcurrentLinkedQueue<>();
+    private final Map<Long, AtomicInteger> subscribersByRoom = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final LongAdder[] sentPerNode;
+    private final LongAdder[] deliveredPerNode;
+    private final LongAdder expected = new LongAdder();
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder overMaxLatency = new LongAdder();
+    private final LongAdder typingSent = new LongAdder();
+    private final LongAdder typingFrames = new LongAdder();
+    private final LongAdder sendFailures = new LongAdder();
+    private final LongAdder connectFailures = new LongAdder();
+    private final LongAdder transportErrors = new LongAdder();
+
+    StompLoadGenerator(LoadTestOptions options, List<String> nodeUrls, Map<String, String> tokens) {
+        this.options = options;
+        this.nodeUrls = nodeUrls;
+        this.tokens = tokens;
+        this.sentPerNode = adders(nodeUrls.size());
+        this.deliveredPerNode = adders(nodeUrls.size());
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        List<ConfigurableApplicationContext> nodes = new ArrayList<>();
+        List<String> urls = options.urls;
+        Map<String, String> tokens = new LinkedHashMap<>();
+        if (urls.isEmpty()) {
+            nodes = startEmbeddedNodes(options.embeddedNodes);
+            urls = nodes.stream()
+                    .map(node -> "http://localhost:" + node.getEnvironment().getProperty("local.server.port") + "/api/ws")
+                    .toList();
+            JwtTokenProvider jwtTokenProvider = nodes.get(0).getBean(JwtTokenProvider.class);
+            options.usernames.forEach(username -> tokens.put(username, jwtTokenProvider.generateToken(username)));
+        } else {
+            for (int i = 0; i < options.usernames.size(); i++) {
+                tokens.put(options.usernames.get(i), login(urls.get(0), options.usernames.get(i), options.passwords.get(i)));
+            }
+        }
+        try {
+            new StompLoadGenerator(options, urls, tokens).run();
+        } finally {
+            nodes.forEach(ConfigurableApplicationContext::close);
+        }
+        System.exit(0);  // WebSocket client threads are not daemons
+    }
+
+    // JWT - POST /auth/login next to the /ws endpoint of the first node
+    private static String login(String wsUrl, String username, String password) throws IOException, InterruptedException {
+        String loginUrl = wsUrl.replaceFirst("/ws$", "/auth/login");
+        ObjectMapper mapper = new ObjectMapper();
+        HttpRequest request = HttpRequest.newBuilder(URI.create(loginUrl))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        mapper.writeValueAsString(Map.of("username", username, "password", password))))
+                .build();
+        HttpResponse<String> response = HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Login failed for " + username + ": HTTP " + response.statusCode());
+        }
+        return mapper.readTree(response.body()).path("token").asText();
+    }
+
+    private static List<ConfigurableApplicationContext> startEmbeddedNodes(int count) {
+        String channel = "loadtest-" + UUID.randomUUID();
+        List<ConfigurableApplicationContext> nodes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            // Command-line arguments, since default properties would lose to application.yml
+            String datasourceUrl = "jdbc:h2:mem:loadtest-" + i + ";DB_CLOSE_DELAY=-1";
+            ConfigurableApplicationContext node = new SpringApplicationBuilder(ChatApplication.class)
+                    .run(
+                            "--server.port=0",
+                            "--server.tomcat.max-connections=20000",
+                            "--spring.main.banner-mode=off",
+                            "--spring.jmx.enabled=false",
+                            "--spring.datasource.url=" + datasourceUrl,
+                            "--spring.jpa.hibernate.ddl-auto=create-drop",
+                            "--spring.jpa.show-sql=false",
+                            "--logging.level.root=WARN",
+                            "--logging.level.com.example.chat=WARN",
+                            "--logging.level.org.springframework.security=WARN",
+                            "--logging.level.org.springframework.web=WARN",
+                            "--logging.level.org.hibernate.SQL=WARN",
+                            "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+                            "--app.cluster.fanout.mode=" + (count > 1 ? "memory" : "none"),
+                            "--app.cluster.fanout.channel=" + channel,
+                            "--app.messages.node-id=" + i);
+            nodes.add(node);
+            // CLUSTER - Without a shared bus every cross-node frame would be reported as lost
+            String problem = null;
+            if (!datasourceUrl.equals(node.getEnvironment().getProperty("spring.datasource.url"))) {
+                problem = "node " + i + " is not on in-memory H2: " + node.getEnvironment().getProperty("spring.datasource.url");
+            } else if (count > 1 && node.getBeanNamesForType(ClusterBus.class).length == 0) {
+                problem = "node " + i + " started without a ClusterBus";
+            }
+            if (problem != null) {
+                nodes.forEach(ConfigurableApplicationContext::close);
+                throw new IllegalStateException("Embedded nodes misconfigured: " + problem);
+            }
+        }
+        return nodes;
+    }
+
+    void run() throws InterruptedException, IOException {
+        ThreadPoolTaskScheduler heartbeats = new ThreadPoolTaskScheduler();
+        heartbeats.setPoolSize(2);
+        heartbeats.setThreadNamePrefix("loadtest-heartbeat-");
+        heartbeats.initialize();
+
+        WebSocketClient webSocketClient = new StandardWebSocketClient();
+        if (options.transport.equals("sockjs")) {
+            webSocketClient = new SockJsClient(List.of(new WebSocketTransport(webSocketClient)));
+        }
+        WebSocketStompClient stompClient = new WebSocketStompClient(webSocketClient);
+        stompClient.setTaskScheduler(heartbeats);
+
+        try {
+            connectClients(stompClient);
+            Thread.sleep(2000);  // Let SUBSCRIBE frames reach the brokers before measuring
+            List<Client> clients = new ArrayList<>(connected);
+            if (clients.isEmpty()) {
+                System.out.println("No client could connect; is the application running at " + nodeUrls + "?");
+                return;
+            }
+
+            long start = System.nanoTime();
+            generateLoad(clients);
+            long sendNanos = System.nanoTime() - start;
+            Thread.sleep(options.drain.toMillis());  // In-flight frames still count as delivered
+            report(clients.size(), sendNanos);
+        } finally {
+            for (Client client : connected) {
+                client.disconnect();
+            }
+            stompClient.stop();
+            heartbeats.shutdown();
+        }
+    }
+
+    // PERFORMANCE - Ramp up at connect-rate; each client subscribes once CONNECTED
+    private void connectClients(WebSocketStompClient stompClient) throws InterruptedException {
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / Math.max(1, options.connectRate);
+        long start = System.nanoTime();
+        List<CompletableFuture<StompSession>> pending = new ArrayList<>(options.clients);
+        for (int i = 0; i < options.clients; i++) {
+            int node = i % nodeUrls.size();
+            Client client = new Client(node, options.firstRoomId + i % options.rooms,
+                    options.usernames.get(i % options.usernames.size()));
+            StompHeaders connectHeaders = new StompHeaders();
+            connectHeaders.add("Authorization", "Bearer " + tokens.get(client.username));  // JWT - Session principal
+            pending.add(stompClient.connectAsync(url(node), new WebSocketHttpHeaders(), connectHeaders, client)
+                    .whenComplete((session, ex) -> {
+                        if (ex != null) {
+                            connectFailures.increment();
+                        }
+                    }));
+            LockSupport.parkNanos(start + (i + 1) * intervalNanos - System.nanoTime());
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        for (CompletableFuture<StompSession> future : pending) {
+            try {
+                future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (Exception e) {
+                // Counted by whenComplete, or still connecting after the deadline
+            }
+        }
+        System.out.printf("Connected %d/%d clients to %s%n", connected.size(), options.clients, nodeUrls);
+    }
+
+    private String url(int node) {
+        String url = nodeUrls.get(node);
+        if (options.transport.equals("websocket")) {
+            return url.replaceFirst("^http", "ws") + "/websocket";  // SockJS endpoint's raw WebSocket path
+        }
+        return url;
+    }
+
+    // PERFORMANCE - Open-loop load: sends are scheduled by rate, not by server responses
+    private void generateLoad(List<Client> clients) throws InterruptedException {
+        ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "loadtest-sender");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long start = System.nanoTime();
+        long[] sent = new long[2];  // Messages, typing events; only touched by the ticker thread
+        ticker.scheduleAtFixedRate(() -> {
+            double elapsed = (System.nanoTime() - start) / 1e9;
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            while (sent[0] < options.messageRate * elapsed) {
+                sendMessage(clients.get(random.nextInt(clients.size())));
+                sent[0]++;
+            }
+            while (sent[1] < options.typingRate * elapsed) {
+                sendTyping(clients.get(random.nextInt(clients.size())), random.nextBoolean());
+                sent[1]++;
+            }
+        }, 0, 10, TimeUnit.MILLISECONDS);
+        Thread.sleep(options.duration.toMillis());
+        ticker.shutdown();
+        ticker.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    private void sendMessage(Client client) {
+        String content = marker + sequence.incrementAndGet() + ":" + System.nanoTime();
+        int subscribers = subscribersByRoom.get(client.roomId).get();
+        if (client.send("/app/chat.sendMessage",
+                new SendMessageFrame(content, client.roomId, client.username))) {
+            expected.add(subscribers);
+            sentPerNode[client.node].increment();
+        }
+    }
+
+    private void sendTyping(Client client, boolean typing) {
+        if (client.send("/app/chat.typing",
+                new TypingFrame(client.roomId, typing, client.username))) {
+            typingSent.increment();
+        }
+    }
+
+    private void onRoomFrame(Client client, byte[] payload) {
+        long arrived = System.nanoTime();
+        String content;
+        try {
+            content = objectMapper.readTree(payload).path("content").asText("");
+        } catch (IOException e) {
+            return;
+        }
+        if (!content.startsWith(marker)) {
+            return;  // System messages, other runs
+        }
+        delivered.increment();
+        deliveredPerNode[client.node].increment();
+        long latencyNanos = arrived - Long.parseLong(content.substring(content.lastIndexOf(':') + 1));
+        if (latencyNanos > MAX_TRACKED_LATENCY_NANOS) {
+            overMaxLatency.increment();
+        } else {
+            latency.recordValue(Math.max(0, latencyNanos));
+        }
+    }
+
+    private void report(int clients, long sendNanos) throws IOException {
+        double seconds = sendNanos / 1e9;
+        long expectedDeliveries = expected.sum();
+        long deliveredCount = delivered.sum();
+        long lost = Math.max(0, expectedDeliveries - deliveredCount);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("transport", options.transport);
+        result.put("clients", clients);
+        result.put("connectFailures", connectFailures.sum());
+        result.put("transportErrors", transportErrors.sum());
+        result.put("rooms", options.rooms);
+        result.put("durationSeconds", seconds);
+        long messagesSent = 0;
+        for (LongAdder sent : sentPerNode) {
+            messagesSent += sent.sum();
+        }
+        result.put("messagesSent", messagesSent);
+        result.put("sendFailures", sendFailures.sum());
+        result.put("expectedDeliveries", expectedDeliveries);
+        result.put("delivered", deliveredCount);
+        result.put("lost", lost);
+        result.put("lossRatio", expectedDeliveries == 0 ? 0.0 : (double) lost / expectedDeliveries);
+        result.put("latencyMs", Map.of(
+                "p50", latency.getValueAtPercentile(50) / 1e6,
+                "p99", latency.getValueAtPercentile(99) / 1e6,
+                "p999", latency.getValueAtPercentile(99.9) / 1e6,
+                "max", latency.getMaxValue() / 1e6,
+                "overOneMinute", overMaxLatency.sum()));
+        result.put("typingSent", typingSent.sum());
+        result.put("typingFramesReceived", typingFrames.sum());
+        List<Map<String, Object>> nodes = new ArrayList<>();
+        for (int i = 0; i < nodeUrls.size(); i++) {
+            nodes.add(Map.of(
+                    "url", nodeUrls.get(i),
+                    "sentPerSecond", sentPerNode[i].sum() / seconds,
+                    "deliveredPerSecond", deliveredPerNode[i].sum() / seconds));
+        }
+        result.put("nodes", nodes);
+
+        ObjectMapper pretty = objectMapper.copy().enable(SerializationFeature.INDENT_OUTPUT);
+        System.out.println(pretty.writeValueAsString(result));
+        File reportFile = new File(options.report);
+        if (reportFile.getParentFile() != null) {
+            reportFile.getParentFile().mkdirs();
+        }
+        pretty.writeValue(reportFile, result);
+        System.out.println("Report written to " + reportFile.getAbsolutePath());
+    }
+
+    private static LongAdder[] adders(int count) {
+        LongAdder[] adders = new LongAdder[count];
+        for (int i = 0; i < count; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+
+    // WEBSOCKET - One simulated user: a STOMP session subscribed to its room (and typing topic)
+    private final class Client extends StompSessionHandlerAdapter {
+
+        final int node;
+        final long roomId;
+        final String username;
+        private volatile StompSession session;
+
+        Client(int node, long roomId, String username) {
+            this.node = node;
+            this.roomId = roomId;
+            this.username = username;
+        }
+
+        @Override
+        public void afterConnected(StompSession session, StompHeaders connectedHeaders) {
+            this.session = session;
+            session.subscribe("/topic/room/" + roomId, new BytesHandler() {
+                @Override
+                public void handleFrame(StompHeaders headers, Object payload) {
+                    onRoomFrame(Client.this, (byte[]) payload);
+                }
+            });
+            if (options.subscribeTyping) {
+                session.subscribe("/topic/room/" + roomId + "/typing", new BytesHandler() {
+                    @Override
+                    public void handleFrame(StompHeaders headers, Object payload) {
+                        typingFrames.increment();
+                    }
+                });
+            }
+            subscribersByRoom.computeIfAbsent(roomId, id -> new AtomicInteger()).incrementAndGet();
+            connected.add(this);
+        }
+
+        boolean send(String destination, Object body) {
+            StompSession current = session;
+            if (current == null || !current.isConnected()) {
+                sendFailures.increment();
+                return false;
+            }
+            try {
+                StompHeaders headers = new StompHeaders();
+                headers.setDestination(destination);
+                headers.setContentType(MimeTypeUtils.APPLICATION_JSON);
+                current.send(headers, objectMapper.writeValueAsBytes(body));
+                return true;
+            } catch (IOException | RuntimeException e) {
+                sendFailures.increment();
+                return false;
+            }
+        }
+
+        void disconnect() {
+            StompSession current = session;
+            if (current != null && current.isConnected()) {
+                current.disconnect();
+            }
+        }
+
+        @Override
+        public void handleException(StompSession session, StompCommand command, StompHeaders headers,
+                                    byte[] payload, Throwable exception) {
+            transportErrors.increment();
+        }
+
+        @Override
+        public void handleTransportError(StompSession session, Throwable exception) {
+            transportErrors.increment();
+        }
+    }
+
+    private abstract static class BytesHandler implements StompFrameHandler {
+        @Override
+        public Type getPayloadType(StompHeaders headers) {
+            return byte[].class;
+        }
+    }
+}
@@ -4,6 +4,7 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Main Spring Boot Application class for Real-time Chat Application
@@ -19,6 +20,7 @@ import org.springframework.scheduling.annotation.EnableAsync;
 @SpringBootApplication
 @EnableCaching  // REDIS - Enable caching support
 @EnableAsync    // ASYNC - Enable asynchronous processing
+@EnableScheduling  // ASYNC - Enable scheduled maintenance tasks (cache eviction, flushes)
 public class ChatApplication {
 
     public ChatApplication() {
@@ -0,0 +1,30 @@
+package com.example.chat.archive;
+
+import com.example.chat.model.Message;
+import com.example.chat.model.MessageType;
+import com.example.chat.service.MessageCursor;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+
+/**
+ * PERFORMANCE - A message as stored in a cold segment: the row minus status and updatedAt
+ * (always SENT and final once archived) and with the sender by id only.
+ */
+public record ArchivedMessage(long id, long roomId, long senderId, MessageType type,
+                              LocalDateTime createdAt, String content) {
+
+    // Segment order; history reads walk it backwards
+    public static final Comparator<ArchivedMessage> ORDER = Comparator.comparingLong(ArchivedMessage::roomId)
+            .thenComparing(ArchivedMessage::createdAt)
+            .thenComparingLong(ArchivedMessage::id);
+
+    public static ArchivedMessage of(Message message) {
+        return new ArchivedMessage(message.getId(), message.getChatRoomId(), message.getSender().getId(),
+                message.getType(), message.getCreatedAt(), message.getContent());
+    }
+
+    public MessageCursor cursor() {
+        return new MessageCursor(createdAt, id);
+    }
+}
@@ -0,0 +1,365 @@
+package com.example.chat.archive;
+
+import com.example.chat.model.Message;
+import com.example.chat.model.MessageStatus;
+import com.example.chat.model.User;
+import com.example.chat.repository.UserRepository;
+import com.example.chat.service.MessageCursor;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * PERFORMANCE - Cold tier of the message store: compressed segment files on local disk
+ * Messages that aged out of the hot table live in {directory}/{yyyy-MM}/bucket-{n}/part-*.seg,
+ * i.e. partitioned by month and by room hash. A history read below a cursor visits the months
+ * at or before the cursor, newest first, and only the one bucket of the room in each. Segment
+ * footers are kept in memory; blocks are read and inflated on demand. The bucket count is fixed
+ * in layout.properties by the first run. In a cluster the directory must be shared storage, and
+ * segments committed by the migrating node are picked up by the others on a periodic rescan.
+ */
+@Component
+public class MessageArchive {
+
+    private static final Logger log = LoggerFactory.getLogger(MessageArchive.class);
+
+    static final String SEGMENT_SUFFIX = ".seg";
+    static final String PENDING_SUFFIX = ".seg.pending";
+    private static final String LAYOUT_FILE = "layout.properties";
+
+    @Value("${app.messages.archive.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.messages.archive.directory:./data/archive}")
+    private String directory;
+
+    @Value("${app.messages.archive.room-buckets:16}")
+    private int roomBuckets;
+
+    @Value("${app.messages.archive.block-size:256}")  // PERFORMANCE - Messages inflated per block read
+    private int blockSize;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private Path root;
+    private final NavigableMap<YearMonth, Map<Integer, List<SegmentFile>>> segments = new ConcurrentSkipListMap<>();
+    private final Set<Path> registered = ConcurrentHashMap.newKeySet();
+    private final AtomicLong partSequence = new AtomicLong();
+    private volatile MessageCursor newestArchived;
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        root = Paths.get(directory).toAbsolutePath();
+        try {
+            Files.createDirectories(root);
+            roomBuckets = readOrWriteLayout();
+            scan();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open message archive " + root, e);
+        }
+        log.info("Message archive {}: {} months, newest archived {}", root, segments.size(),
+                newestArchived != null ? newestArchived.getCreatedAt() : "none");
+    }
+
+    /**
+     * CLUSTER - Register segments committed by another node since the last scan. Only the
+     * migrating node learns of its own segments on commit; without this, the other nodes would
+     * neither read the months it moved out of the hot table nor advance newestArchived.
+     */
+    @Scheduled(fixedDelayString = "${app.messages.archive.rescan-interval-ms:30000}",
+               initialDelayString = "${app.messages.archive.rescan-interval-ms:30000}")
+    public void rescan() {
+        if (!enabled) {
+            return;
+        }
+        int known = registered.size();
+        try {
+            scan();
+        } catch (IOException | UncheckedIOException e) {
+            log.warn("Could not rescan message archive {}", root, e);  // Retried on the next run
+        }
+        if (registered.size() > known) {
+            log.info("Message archive {}: picked up {} new segments, newest archived {}", root,
+                    registered.size() - known, newestArchived != null ? newestArchived.getCreatedAt() : "none");
+        }
+    }
+
+    private void scan() throws IOException {
+        try (Stream<Path> files = Files.walk(root, 3)) {
+            files.filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX)).sorted().forEach(this::register);
+        }
+    }
+
+    // RESOLVE SOLUTION - Changing the bucket count later would send rooms to the wrong bucket
+    private int readOrWriteLayout() throws IOException {
+        Path layout = root.resolve(LAYOUT_FILE);
+        Properties properties = new Properties();
+        if (Files.exists(layout)) {
+            try (Reader reader = Files.newBufferedReader(layout)) {
+                properties.load(reader);
+            }
+            int stored = Integer.parseInt(properties.getProperty("room-buckets"));
+            if (stored != roomBuckets) {
+                log.warn("app.messages.archive.room-buckets={} ignored; the archive was created with {}", roomBuckets, stored);
+            }
+            return stored;
+        }
+        properties.setProperty("room-buckets", String.valueOf(roomBuckets));
+        try (Writer writer = Files.newBufferedWriter(layout)) {
+            properties.store(writer, "Message archive layout");
+        }
+        return roomBuckets;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    public int bucketOf(long roomId) {
+        return Math.floorMod(Long.hashCode(roomId), roomBuckets);
+    }
+
+    /**
+     * PERFORMANCE - Whether everything older than the cursor is already cold, so the hot table
+     * does not need to be queried for that page.
+     */
+    public boolean coversBefore(MessageCursor before) {
+        MessageCursor newest = newestArchived;
+        return enabled && before != null && newest != null && before.compareTo(newest) <= 0;
+    }
+
+    /**
+     * Newest archived messages of a room strictly before the cursor (null: the newest archived
+     * ones), newest first, with their senders loaded in one query.
+     */
+    public List<Message> readBefore(Long roomId, MessageCursor before, int limit) {
+        if (!enabled || limit <= 0 || segments.isEmpty()) {
+            return List.of();
+        }
+        NavigableMap<YearMonth, Map<Integer, List<SegmentFile>>> months = before == null
+                ? segments.descendingMap()
+                : segments.headMap(YearMonth.from(before.getCreatedAt()), true).descendingMap();
+        int bucket = bucketOf(roomId);
+        List<ArchivedMessage> found = new ArrayList<>(limit);
+        for (Map<Integer, List<SegmentFile>> month : months.values()) {
+            List<SegmentFile> parts = month.get(bucket);
+            if (parts == null) {
+                continue;
+            }
+            // Parts of one month may interleave (late arrivals): merge, then keep the newest
+            List<ArchivedMessage> monthMessages = new ArrayList<>();
+            for (SegmentFile part : parts) {
+                monthMessages.addAll(part.readBefore(roomId, before, limit - found.size()));
+            }
+            monthMessages.sort(ArchivedMessage.ORDER.reversed());
+            found.addAll(monthMessages.subList(0, Math.min(monthMessages.size(), limit - found.size())));
+            if (found.size() == limit) {
+                break;
+            }
+        }
+        return toMessages(found);
+    }
+
+    /**
+     * Every archived message of a room, oldest first, handed over in batches of at most
+     * {@code batchSize} with their senders loaded per batch; returns how many were passed on.
+     */
+    public long forEachInRoom(Long roomId, int batchSize, Consumer<List<Message>> consumer) {
+        if (!enabled) {
+            return 0;
+        }
+        int bucket = bucketOf(roomId);
+        long count = 0;
+        List<ArchivedMessage> batch = new ArrayList<>(batchSize);
+        for (Map<Integer, List<SegmentFile>> month : segments.values()) {
+            List<SegmentFile> parts = month.get(bucket);
+            if (parts == null) {
+                continue;
+            }
+            Iterator<ArchivedMessage> messages = parts.size() == 1 ? parts.get(0).scanRoom(roomId) : merge(parts, roomId);
+            while (messages.hasNext()) {
+                batch.add(messages.next());
+                if (batch.size() == batchSize) {
+                    consumer.accept(toMessages(batch));
+                    count += batch.size();
+                    batch.clear();
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            consumer.accept(toMessages(batch));
+            count += batch.size();
+        }
+        return count;
+    }
+
+    // Parts of one month may interleave (late arrivals): k-way merge of their room scans
+    private static Iterator<ArchivedMessage> merge(List<SegmentFile> parts, long roomId) {
+        record Head(ArchivedMessage message, Iterator<ArchivedMessage> rest) {
+        }
+        PriorityQueue<Head> heads = new PriorityQueue<>(Comparator.comparing(Head::message, ArchivedMessage.ORDER));
+        for (SegmentFile part : parts) {
+            Iterator<ArchivedMessage> scan = part.scanRoom(roomId);
+            if (scan.hasNext()) {
+                heads.add(new Head(scan.next(), scan));
+            }
+        }
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return !heads.isEmpty();
+            }
+
+            @Override
+            public ArchivedMessage next() {
+                Head head = heads.remove();
+                if (head.rest().hasNext()) {
+                    heads.add(new Head(head.rest().next(), head.rest()));
+                }
+                return head.message();
+            }
+        };
+    }
+
+    private List<Message> toMessages(List<ArchivedMessage> archived) {
+        if (archived.isEmpty()) {
+            return List.of();
+        }
+        Set<Long> senderIds = new HashSet<>();
+        archived.forEach(message -> senderIds.add(message.senderId()));
+        Map<Long, User> senders = new HashMap<>();
+        userRepository.findAllById(senderIds).forEach(user -> senders.put(user.getId(), user));
+
+        List<Message> messages = new ArrayList<>(archived.size());
+        for (ArchivedMessage entry : archived) {
+            Message message = new Message();
+            message.setId(entry.id());
+            message.setChatRoomId(entry.roomId());
+            message.setSender(senders.computeIfAbsent(entry.senderId(), MessageArchive::deletedUser));
+            message.setType(entry.type());
+            message.setStatus(MessageStatus.SENT);
+            message.setContent(entry.content());
+            message.setCreatedAt(entry.createdAt());
+            message.setUpdatedAt(entry.createdAt());
+            messages.add(message);
+        }
+        return messages;
+    }
+
+    private static User deletedUser(Long id) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername("deleted-user-" + id);
+        user.setDisplayName("Deleted user");
+        return user;
+    }
+
+    /**
+     * A new, not yet visible segment file for one month and bucket.
+     */
+    Path newPendingSegment(YearMonth month, int bucket) {
+        try {
+            Path dir = root.resolve(month.toString()).resolve(String.format("bucket-%03d", bucket));
+            Files.createDirectories(dir);
+            return dir.resolve("part-" + System.currentTimeMillis() + "-" + partSequence.incrementAndGet() + PENDING_SUFFIX);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Make a pending segment visible to readers (atomic rename).
+     */
+    void commit(Path pending) {
+        String name = pending.getFileName().toString();
+        Path committed = pending.resolveSibling(name.substring(0, name.length() - PENDING_SUFFIX.length()) + SEGMENT_SUFFIX);
+        try {
+            Files.move(pending, committed, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not commit segment " + pending, e);
+        }
+        register(committed);
+    }
+
+    void discard(Path pending) {
+        try {
+            Files.deleteIfExists(pending);
+        } catch (IOException e) {
+            log.warn("Could not delete pending segment {}", pending, e);
+        }
+    }
+
+    List<Path> pendingSegments() {
+        try (Stream<Path> files = Files.walk(root, 3)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(PENDING_SUFFIX)).sorted().toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // {root}/{yyyy-MM}/bucket-{n}/part-*.seg; a commit and a rescan may both see the same file
+    private synchronized void register(Path file) {
+        if (registered.contains(file)) {
+            return;
+        }
+        SegmentFile segment = SegmentFile.open(file);
+        YearMonth month = YearMonth.parse(file.getParent().getParent().getFileName().toString());
+        int bucket = Integer.parseInt(file.getParent().getFileName().toString().substring("bucket-".length()));
+        segments.computeIfAbsent(month, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(bucket, key -> new CopyOnWriteArrayList<>())
+                .add(segment);
+        registered.add(file);
+        MessageCursor newest = segment.newestKey();
+        if (newest != null && (newestArchived == null || newest.compareTo(newestArchived) > 0)) {
+            newestArchived = newest;
+        }
+    }
+
+    public long getSegmentCount() {
+        return segments.values().stream().flatMap(month -> month.values().stream()).mapToLong(List::size).sum();
+    }
+
+    // Oldest archived month first
+    public List<YearMonth> getMonths() {
+        return new ArrayList<>(segments.keySet());
+    }
+}
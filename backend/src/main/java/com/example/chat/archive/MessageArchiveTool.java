@@ -0,0 +1,61 @@
+package com.example.chat.archive;
+
+import com.example.chat.ChatApplication;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * PERFORMANCE - One-off migration/backfill of the hot messages table into the cold archive
+ * Starts the application against the configured database (random port, scheduled migration off),
+ * rolls forward any interrupted segment, archives every month before --before (default: the
+ * months already past app.messages.archive.hot-retention) and exits. Other arguments are passed
+ * to Spring, e.g. --spring.profiles.active=docker --app.messages.archive.directory=/mnt/archive:
+ * java -Dloader.main=com.example.chat.archive.MessageArchiveTool
+ *      -cp realtime-chat-app.jar org.springframework.boot.loader.PropertiesLauncher --before=2024-06
+ */
+public final class MessageArchiveTool {
+
+    private MessageArchiveTool() {}
+
+    public static void main(String[] args) {
+        YearMonth before = null;
+        List<String> springArgs = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("--before=")) {
+                before = YearMonth.parse(arg.substring("--before=".length()));
+            } else {
+                springArgs.add(arg);
+            }
+        }
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(ChatApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.main.banner-mode=off",
+                        "app.messages.archive.enabled=true",
+                        "app.messages.archive.migrate=false",
+                        "app.search.rebuild.on-startup=false")
+                .run(springArgs.toArray(String[]::new));
+        int exitCode = 0;
+        try {
+            MessageArchiver archiver = context.getBean(MessageArchiver.class);
+            MessageArchive archive = context.getBean(MessageArchive.class);
+            YearMonth cutoff = before != null ? before : archiver.eligibleBefore();
+            long started = System.nanoTime();
+            long moved = archiver.migrate(cutoff);
+            System.out.printf("Archived %d messages older than %s in %d s; archive has %d segments in %d months%n",
+                    moved, cutoff, (System.nanoTime() - started) / 1_000_000_000L,
+                    archive.getSegmentCount(), archive.getMonths().size());
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            exitCode = 1;
+        }
+        int code = exitCode;
+        System.exit(SpringApplication.exit(context, () -> code));
+    }
+}
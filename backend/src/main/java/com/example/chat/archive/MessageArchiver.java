@@ -0,0 +1,223 @@
+package com.example.chat.archive;
+
+import com.example.chat.repository.MessageRepository;
+import com.example.chat.service.MessageCursor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * PERFORMANCE - Moves whole months of messages from the hot table to the cold archive
+ * A month becomes eligible once all of it is older than app.messages.archive.hot-retention. Each
+ * (month, room bucket) is streamed room by room in keyset batches into one pending segment,
+ * which is synced to disk; its rows are then deleted in one transaction and the segment is
+ * renamed into place. A pending segment found at startup is complete and synced if it can be
+ * opened, so recovery rolls it forward (deletes whatever rows remain, then commits it); one that
+ * cannot be opened was cut short before any row was deleted and is discarded.
+ */
+@Component
+public class MessageArchiver {
+
+    private static final Logger log = LoggerFactory.getLogger(MessageArchiver.class);
+
+    private static final int DELETE_CHUNK = 1000;
+
+    @Value("${app.messages.archive.hot-retention:90d}")
+    private Duration hotRetention;
+
+    @Value("${app.messages.archive.migrate:true}")  // CLUSTER - Enable on one node only
+    private boolean scheduled;
+
+    @Value("${app.messages.archive.batch-size:2000}")  // PERFORMANCE - Rows read per keyset batch
+    private int batchSize;
+
+    @Autowired
+    private MessageArchive archive;
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final ReentrantLock running = new ReentrantLock();
+    private TransactionTemplate transaction;
+    private TransactionTemplate readOnlyTransaction;
+    private Counter migrated;
+    private Timer migrateTimer;
+
+    @PostConstruct
+    void init() {
+        transaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        migrated = meterRegistry.counter("chat.archive.migrated");
+        migrateTimer = meterRegistry.timer("chat.archive.migrate");
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void recoverOnStartup() {
+        if (archive.isEnabled() && scheduled) {
+            recoverPending();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.messages.archive.migrate-interval-ms:3600000}",
+               initialDelayString = "${app.messages.archive.migrate-interval-ms:3600000}")
+    public void scheduledMigrate() {
+        if (!archive.isEnabled() || !scheduled) {
+            return;
+        }
+        try {
+            migrate(eligibleBefore());
+        } catch (RuntimeException e) {
+            log.error("Message archive migration failed", e);
+        }
+    }
+
+    // Months strictly before this one are entirely older than the hot retention
+    public YearMonth eligibleBefore() {
+        return YearMonth.from(LocalDateTime.now().minus(hotRetention));
+    }
+
+    /**
+     * Archive every month strictly before {@code before}; returns the number of messages moved,
+     * or -1 when another migration is running.
+     */
+    public long migrate(YearMonth before) {
+        if (!archive.isEnabled()) {
+            throw new IllegalStateException("app.messages.archive.enabled is false");
+        }
+        if (!running.tryLock()) {
+            return -1;
+        }
+        try {
+            recoverPending();
+            LocalDateTime oldest = messageRepository.findOldestCreatedAt();
+            long total = 0;
+            for (YearMonth month = oldest == null ? before : YearMonth.from(oldest);
+                 month.isBefore(before); month = month.plusMonths(1)) {
+                YearMonth current = month;
+                total += migrateTimer.record(() -> migrateMonth(current));
+            }
+            return total;
+        } finally {
+            running.unlock();
+        }
+    }
+
+    private long migrateMonth(YearMonth month) {
+        LocalDateTime from = month.atDay(1).atStartOfDay();
+        LocalDateTime to = month.plusMonths(1).atDay(1).atStartOfDay();
+        List<Long> roomIds = readOnlyTransaction.execute(status -> messageRepository.findRoomIdsCreatedBetween(from, to));
+        if (roomIds == null || roomIds.isEmpty()) {
+            return 0;
+        }
+        Map<Integer, List<Long>> byBucket = new TreeMap<>();
+        for (Long roomId : roomIds) {
+            byBucket.computeIfAbsent(archive.bucketOf(roomId), bucket -> new ArrayList<>()).add(roomId);
+        }
+        long moved = 0;
+        for (Map.Entry<Integer, List<Long>> bucket : byBucket.entrySet()) {
+            Collections.sort(bucket.getValue());  // Segment order is by room first
+            moved += migrateBucket(month, bucket.getKey(), bucket.getValue(), from, to);
+        }
+        log.info("Archived {} messages of {} into {} buckets", moved, month, byBucket.size());
+        return moved;
+    }
+
+    private long migrateBucket(YearMonth month, int bucket, List<Long> roomIds, LocalDateTime from, LocalDateTime to) {
+        Path pending = archive.newPendingSegment(month, bucket);
+        List<Long> ids = new ArrayList<>();
+        try (SegmentFile.Writer writer = SegmentFile.writer(pending, archive.getBlockSize())) {
+            for (Long roomId : roomIds) {
+                MessageCursor after = new MessageCursor(from, Long.MIN_VALUE);
+                int read;
+                do {
+                    MessageCursor cursor = after;
+                    // PERFORMANCE - One short read-only transaction per batch; entities are dropped with it
+                    List<ArchivedMessage> batch = readOnlyTransaction.execute(status -> messageRepository
+                            .findRoomBatchAfter(roomId, cursor.getCreatedAt(), cursor.getId(), to, PageRequest.ofSize(batchSize))
+                            .stream().map(ArchivedMessage::of).toList());
+                    read = batch == null ? 0 : batch.size();
+                    for (int i = 0; i < read; i++) {
+                        writer.append(batch.get(i));
+                        ids.add(batch.get(i).id());
+                    }
+                    if (read > 0) {
+                        after = batch.get(read - 1).cursor();
+                    }
+                } while (read == batchSize);
+            }
+        } catch (RuntimeException e) {
+            archive.discard(pending);
+            throw e;
+        }
+        if (ids.isEmpty()) {
+            archive.discard(pending);
+            return 0;
+        }
+        try {
+            deleteRows(ids);
+        } catch (RuntimeException e) {
+            archive.discard(pending);  // Rows are still hot; the month is retried next run
+            throw e;
+        }
+        archive.commit(pending);
+        migrated.increment(ids.size());
+        return ids.size();
+    }
+
+    // RESOLVE SOLUTION - All rows of a segment go in one transaction: all hot or all cold
+    private void deleteRows(List<Long> ids) {
+        transaction.executeWithoutResult(status -> {
+            for (int start = 0; start < ids.size(); start += DELETE_CHUNK) {
+                messageRepository.deleteByIds(ids.subList(start, Math.min(start + DELETE_CHUNK, ids.size())));
+            }
+        });
+    }
+
+    // RESOLVE SOLUTION - Finish migrations interrupted by a crash or shutdown
+    public void recoverPending() {
+        for (Path pending : archive.pendingSegments()) {
+            List<Long> ids;
+            try {
+                ids = SegmentFile.open(pending).readIds();
+            } catch (UncheckedIOException e) {
+                log.warn("Discarding incomplete archive segment {}", pending, e);
+                archive.discard(pending);
+                continue;
+            }
+            deleteRows(ids);
+            archive.commit(pending);
+            log.info("Recovered archive segment {} ({} messages)", pending, ids.size());
+        }
+    }
+}
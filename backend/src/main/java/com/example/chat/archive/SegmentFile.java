@@ -0,0 +1,360 @@
+package com.example.chat.archive;
+
+import com.example.chat.model.MessageType;
+import com.example.chat.service.MessageCursor;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * PERFORMANCE - Immutable cold-storage file holding one month of messages for one room bucket
+ * Messages are sorted by (roomId, createdAt, id) and cut into deflate-compressed blocks of at
+ * most blockSize messages; a block never spans two rooms. The footer lists every block with its
+ * room, first and last (createdAt, id) key and file position, so a history read seeks straight to
+ * the blocks of one room below a cursor and inflates only those.
+ * Layout: MAGIC, blocks..., footer (block count, block entries), footer offset, MAGIC.
+ */
+public final class SegmentFile {
+
+    private static final int MAGIC = 0x43534731;  // "CSG1"
+    private static final int TRAILER_BYTES = Long.BYTES + Integer.BYTES;
+
+    private final Path path;
+    private final List<Block> blocks;
+
+    private SegmentFile(Path path, List<Block> blocks) {
+        this.path = path;
+        this.blocks = blocks;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public int getMessageCount() {
+        return blocks.stream().mapToInt(Block::count).sum();
+    }
+
+    // Largest key in the file, or null when it is empty
+    public MessageCursor newestKey() {
+        MessageCursor newest = null;
+        for (Block block : blocks) {
+            if (newest == null || block.last().compareTo(newest) > 0) {
+                newest = block.last();
+            }
+        }
+        return newest;
+    }
+
+    /**
+     * Read the footer of a segment.
+     */
+    public static SegmentFile open(Path path) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            ByteBuffer trailer = read(channel, size - TRAILER_BYTES, TRAILER_BYTES);
+            long footerOffset = trailer.getLong();
+            if (trailer.getInt() != MAGIC) {
+                throw new IOException("Not a message segment: " + path);
+            }
+            DataInputStream footer = new DataInputStream(new ByteArrayInputStream(
+                    read(channel, footerOffset, (int) (size - TRAILER_BYTES - footerOffset)).array()));
+            int count = footer.readInt();
+            List<Block> blocks = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                blocks.add(new Block(footer.readLong(), readKey(footer), readKey(footer),
+                        footer.readLong(), footer.readInt(), footer.readInt()));
+            }
+            return new SegmentFile(path, blocks);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open segment " + path, e);
+        }
+    }
+
+    /**
+     * Newest messages of a room strictly before {@code before} (or the newest of all when null),
+     * newest first, at most {@code limit}.
+     */
+    public List<ArchivedMessage> readBefore(long roomId, MessageCursor before, int limit) {
+        List<ArchivedMessage> result = new ArrayList<>(Math.min(limit, 256));
+        int last = lastBlockOf(roomId);
+        if (last < 0) {
+            return result;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            for (int i = last; i >= 0 && result.size() < limit; i--) {
+                Block block = blocks.get(i);
+                if (block.roomId() != roomId) {
+                    break;
+                }
+                if (before != null && block.first().compareTo(before) >= 0) {
+                    continue;  // Whole block is at or after the cursor
+                }
+                List<ArchivedMessage> messages = decode(channel, block);
+                for (int j = messages.size() - 1; j >= 0 && result.size() < limit; j--) {
+                    ArchivedMessage message = messages.get(j);
+                    if (before == null || message.cursor().compareTo(before) < 0) {
+                        result.add(message);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read segment " + path, e);
+        }
+        return result;
+    }
+
+    /**
+     * Every message of a room, oldest first, inflating one block at a time as it is consumed.
+     */
+    public Iterator<ArchivedMessage> scanRoom(long roomId) {
+        int last = lastBlockOf(roomId);
+        int first = last;
+        while (first > 0 && blocks.get(first - 1).roomId() == roomId) {
+            first--;
+        }
+        int start = first;
+        return new Iterator<>() {
+            private int next = start;
+            private List<ArchivedMessage> current = List.of();
+            private int position;
+
+            @Override
+            public boolean hasNext() {
+                while (position == current.size() && next >= 0 && next <= last) {
+                    current = readBlock(blocks.get(next++));
+                    position = 0;
+                }
+                return position < current.size();
+            }
+
+            @Override
+            public ArchivedMessage next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return current.get(position++);
+            }
+        };
+    }
+
+    private List<ArchivedMessage> readBlock(Block block) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return decode(channel, block);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read segment " + path, e);
+        }
+    }
+
+    /**
+     * Ids of every message in the segment (crash recovery of pending segments).
+     */
+    public List<Long> readIds() {
+        List<Long> ids = new ArrayList<>(getMessageCount());
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            for (Block block : blocks) {
+                for (ArchivedMessage message : decode(channel, block)) {
+                    ids.add(message.id());
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read segment " + path, e);
+        }
+        return ids;
+    }
+
+    // Blocks are sorted by room: binary search for the last block of the room
+    private int lastBlockOf(long roomId) {
+        int low = 0;
+        int high = blocks.size() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (blocks.get(mid).roomId() <= roomId) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return high >= 0 && blocks.get(high).roomId() == roomId ? high : -1;
+    }
+
+    private static List<ArchivedMessage> decode(FileChannel channel, Block block) throws IOException {
+        byte[] compressed = read(channel, block.offset(), block.length()).array();
+        List<ArchivedMessage> messages = new ArrayList<>(block.count());
+        Inflater inflater = new Inflater();
+        // PERFORMANCE - Buffered: DataInputStream reads field by field, unbuffered that is one inflate call per byte
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new InflaterInputStream(new ByteArrayInputStream(compressed), inflater, 8 * 1024), 16 * 1024))) {
+            for (int i = 0; i < block.count(); i++) {
+                long id = in.readLong();
+                long senderId = in.readLong();
+                int type = in.readByte();
+                LocalDateTime createdAt = LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+                byte[] content = new byte[in.readInt()];
+                in.readFully(content);
+                messages.add(new ArchivedMessage(id, block.roomId(), senderId,
+                        type < 0 ? null : MessageType.values()[type], createdAt,
+                        new String(content, StandardCharsets.UTF_8)));
+            }
+        } finally {
+            inflater.end();  // Release native memory now rather than at GC
+        }
+        return messages;
+    }
+
+    private static ByteBuffer read(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Truncated segment");
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    // LocalDateTime is stored as UTC seconds and nanos so cursors round-trip exactly
+    private static MessageCursor readKey(DataInputStream in) throws IOException {
+        LocalDateTime createdAt = LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+        return new MessageCursor(createdAt, in.readLong());
+    }
+
+    private static void writeKey(DataOutputStream out, MessageCursor key) throws IOException {
+        out.writeLong(key.getCreatedAt().toEpochSecond(ZoneOffset.UTC));
+        out.writeInt(key.getCreatedAt().getNano());
+        out.writeLong(key.getId());
+    }
+
+    public static Writer writer(Path path, int blockSize) {
+        return new Writer(path, blockSize);
+    }
+
+    /**
+     * Streams messages into a new segment; they must arrive in ArchivedMessage.ORDER. close()
+     * writes the footer and forces the file to disk.
+     */
+    public static final class Writer implements Closeable {
+
+        private final FileOutputStream file;
+        private final DataOutputStream out;
+        private final int blockSize;
+        private final List<Block> blocks = new ArrayList<>();
+        private final ByteArrayOutputStream blockBytes = new ByteArrayOutputStream(64 * 1024);
+        private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+        private DataOutputStream block;
+        private long offset;
+        private ArchivedMessage first;
+        private ArchivedMessage previous;
+        private int count;
+
+        private Writer(Path path, int blockSize) {
+            try {
+                this.file = new FileOutputStream(path.toFile());
+                this.out = new DataOutputStream(new BufferedOutputStream(file, 64 * 1024));
+                this.blockSize = blockSize;
+                out.writeInt(MAGIC);
+                offset = Integer.BYTES;
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not create segment " + path, e);
+            }
+        }
+
+        public void append(ArchivedMessage message) {
+            try {
+                if (previous != null && ArchivedMessage.ORDER.compare(previous, message) >= 0) {
+                    throw new IllegalArgumentException("Message " + message.id() + " is out of segment order");
+                }
+                if (block != null && (count == blockSize || previous.roomId() != message.roomId())) {
+                    finishBlock();
+                }
+                if (block == null) {
+                    deflater.reset();
+                    blockBytes.reset();
+                    block = new DataOutputStream(new BufferedOutputStream(
+                            new DeflaterOutputStream(blockBytes, deflater, 8 * 1024), 16 * 1024));
+                    first = message;
+                    count = 0;
+                }
+                byte[] content = message.content() == null ? new byte[0]
+                        : message.content().getBytes(StandardCharsets.UTF_8);
+                block.writeLong(message.id());
+                block.writeLong(message.senderId());
+                block.writeByte(message.type() == null ? -1 : message.type().ordinal());
+                block.writeLong(message.createdAt().toEpochSecond(ZoneOffset.UTC));
+                block.writeInt(message.createdAt().getNano());
+                block.writeInt(content.length);
+                block.write(content);
+                previous = message;
+                count++;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void finishBlock() throws IOException {
+            block.close();  // Finishes the deflate stream into blockBytes; the deflater is reused
+            blockBytes.writeTo(out);
+            blocks.add(new Block(first.roomId(), first.cursor(), previous.cursor(), offset, blockBytes.size(), count));
+            offset += blockBytes.size();
+            block = null;
+        }
+
+        @Override
+        public void close() {
+            try {
+                if (block != null) {
+                    finishBlock();
+                }
+                long footerOffset = offset;
+                out.writeInt(blocks.size());
+                for (Block entry : blocks) {
+                    out.writeLong(entry.roomId());
+                    writeKey(out, entry.first());
+                    writeKey(out, entry.last());
+                    out.writeLong(entry.offset());
+                    out.writeInt(entry.length());
+                    out.writeInt(entry.count());
+                }
+                out.writeLong(footerOffset);
+                out.writeInt(MAGIC);
+                out.flush();
+                file.getFD().sync();  // Durable before the rows it replaces are deleted
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                deflater.end();
+                try {
+                    out.close();
+                } catch (IOException ignored) {
+                    // Already failed or synced
+                }
+            }
+        }
+    }
+
+    private record Block(long roomId, MessageCursor first, MessageCursor last, long offset, int length, int count) {
+    }
+}
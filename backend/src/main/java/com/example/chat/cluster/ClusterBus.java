@@ -0,0 +1,15 @@
+package com.example.chat.cluster;
+
+import java.util.function.Consumer;
+
+/**
+ * CLUSTER - Shared bus used to fan room frames out to every node
+ * Each node publishes the frames it accepts and re-delivers frames from other nodes to its
+ * own local STOMP subscribers.
+ */
+public interface ClusterBus {
+
+    void publish(ClusterEnvelope envelope);
+
+    void subscribe(Consumer<ClusterEnvelope> listener);
+}
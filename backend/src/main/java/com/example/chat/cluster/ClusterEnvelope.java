@@ -0,0 +1,53 @@
+package com.example.chat.cluster;
+
+/**
+ * CLUSTER - Frame travelling between nodes: already-serialized JSON payload plus routing data
+ */
+public class ClusterEnvelope {
+
+    private String origin;  // Node that accepted the frame; it has already delivered locally
+    private String id;  // De-duplication key (message id), null for frames that need none
+    private String destination;
+    private String payload;
+
+    public ClusterEnvelope() {}
+
+    public ClusterEnvelope(String origin, String id, String destination, String payload) {
+        this.origin = origin;
+        this.id = id;
+        this.destination = destination;
+        this.payload = payload;
+    }
+
+    public String getOrigin() {
+        return origin;
+    }
+
+    public void setOrigin(String origin) {
+        this.origin = origin;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getDestination() {
+        return destination;
+    }
+
+    public void setDestination(String destination) {
+        this.destination = destination;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public void setPayload(String payload) {
+        this.payload = payload;
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.chat.cluster;
+
+import com.example.chat.dto.MessageDto;
+import com.example.chat.model.Message;
+import com.example.chat.model.MessageStatus;
+import com.example.chat.model.User;
+import com.example.chat.receipt.UnreadTracker;
+import com.example.chat.service.RecentMessageBuffer;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Service;
+import org.springframework.util.MimeTypeUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CLUSTER - Delivers room frames to local subscribers and to every other node
+ * The payload (a DTO or frame record, never an entity) is serialized exactly once, straight to
+ * UTF-8 bytes. The broker hands that one byte[] to every subscriber session, and the same bytes
+ * (as text) are published on the bus. Frames from the bus are skipped when they originate here
+ * and de-duplicated by id, since a bus may redeliver. Without a bus bean this is a plain local send.
+ * Chat messages from other nodes are also recorded in this node's history buffer and unread tails,
+ * so those in-memory views do not miss what was sent elsewhere.
+ */
+@Service
+public class ClusterFanoutService {
+
+    private static final Logger log = LoggerFactory.getLogger(ClusterFanoutService.class);
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;  // WEBSOCKET - Local broker
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired(required = false)
+    private ClusterBus clusterBus;  // CLUSTER - Absent in single-node mode
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private RecentMessageBuffer recentMessageBuffer;
+
+    @Autowired
+    private UnreadTracker unreadTracker;
+
+    private Timer serializeTimer;
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final Cache<String, Boolean> seen = Caffeine.newBuilder()
+            .maximumSize(100_000)
+            .expireAfterWrite(Duration.ofMinutes(2))
+            .build();
+
+    @PostConstruct
+    void subscribe() {
+        if (meterRegistry != null) {
+            serializeTimer = meterRegistry.timer("chat.fanout.serialize");  // PERFORMANCE - Once per broadcast
+        }
+        if (clusterBus != null) {
+            clusterBus.subscribe(this::onRemoteFrame);
+        }
+    }
+
+    // WEBSOCKET - Send a frame to a room destination on every node; id may be null
+    public void broadcast(String destination, Object payload, String id) {
+        byte[] body = serialize(destination, payload);
+        if (id != null) {
+            seen.put(id, Boolean.TRUE);
+        }
+        deliverLocally(destination, body);
+        if (clusterBus != null) {
+            try {
+                clusterBus.publish(new ClusterEnvelope(nodeId, id, destination, new String(body, StandardCharsets.UTF_8)));
+            } catch (RuntimeException e) {
+                log.warn("Cluster publish to {} failed; delivered locally only", destination, e);
+            }
+        }
+    }
+
+    void onRemoteFrame(ClusterEnvelope envelope) {
+        if (nodeId.equals(envelope.getOrigin())) {
+            return;
+        }
+        if (envelope.getId() != null && seen.asMap().putIfAbsent(envelope.getId(), Boolean.TRUE) != null) {
+            return;  // Already delivered on this node
+        }
+        Long roomId = envelope.getId() != null ? RoomDestinations.messagesRoomId(envelope.getDestination()) : null;
+        if (roomId != null) {
+            recordRemoteMessage(roomId, envelope.getPayload());  // Before delivery: a receiver may fetch history next
+        }
+        deliverLocally(envelope.getDestination(), envelope.getPayload().getBytes(StandardCharsets.UTF_8));
+    }
+
+    // CLUSTER - Keep the in-memory views current with messages accepted on other nodes. Room
+    // summaries are not recorded here: the origin node flushes them to the shared table, so they
+    // show up on this node after at most one flush interval.
+    private void recordRemoteMessage(Long roomId, String payload) {
+        MessageDto dto;
+        LocalDateTime createdAt;
+        try {
+            dto = objectMapper.readValue(payload, MessageDto.class);
+            if (dto.getId() == null || dto.getCreatedAt() == null || dto.getSender() == null) {
+                return;
+            }
+            createdAt = LocalDateTime.parse(dto.getCreatedAt());
+        } catch (JsonProcessingException | DateTimeParseException e) {
+            log.warn("Unreadable remote message frame for room {}", roomId, e);
+            return;
+        }
+        Message message = new Message();
+        message.setId(dto.getId());
+        message.setChatRoomId(roomId);
+        message.setCreatedAt(createdAt);
+        User sender = new User();
+        sender.setId(dto.getSender().getId());
+        message.setSender(sender);
+
+        if (MessageStatus.PENDING.toString().equals(dto.getStatus())) {
+            dto.setStatus(MessageStatus.SENT.toString());  // History shows the durable state, as on the origin node
+        }
+        recentMessageBuffer.record(message, dto);
+        unreadTracker.record(message);
+    }
+
+    private byte[] serialize(String destination, Object payload) {
+        long started = System.nanoTime();
+        try {
+            return objectMapper.writeValueAsBytes(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Could not serialize frame for " + destination, e);
+        } finally {
+            if (serializeTimer != null) {
+                serializeTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    // PERFORMANCE - Hand the broker pre-serialized bytes; no message converter runs, and the
+    // broker shares this payload between all subscriber sessions of the destination
+    private void deliverLocally(String destination, byte[] body) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        accessor.setLeaveMutable(true);
+        messagingTemplate.send(destination, MessageBuilder.createMessage(body, accessor.getMessageHeaders()));
+    }
+}
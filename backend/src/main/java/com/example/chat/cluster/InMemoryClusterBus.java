@@ -0,0 +1,49 @@
+package com.example.chat.cluster;
+
+import org.springframework.beans.factory.DisposableBean;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * CLUSTER - In-JVM stand-in for the shared bus
+ * All application contexts in the same JVM that use the same channel see each other's frames,
+ * which lets tests and local runs exercise multi-node delivery without Redis.
+ */
+public class InMemoryClusterBus implements ClusterBus, DisposableBean {
+
+    private static final Map<String, List<Consumer<ClusterEnvelope>>> CHANNELS = new ConcurrentHashMap<>();
+
+    private final String channel;
+    private final List<Consumer<ClusterEnvelope>> ownListeners = new CopyOnWriteArrayList<>();
+
+    public InMemoryClusterBus(String channel) {
+        this.channel = channel;
+    }
+
+    @Override
+    public void publish(ClusterEnvelope envelope) {
+        for (Consumer<ClusterEnvelope> listener : CHANNELS.getOrDefault(channel, List.of())) {
+            listener.accept(envelope);
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<ClusterEnvelope> listener) {
+        ownListeners.add(listener);
+        CHANNELS.computeIfAbsent(channel, name -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+
+    // Detach this node when its context closes so the static hub does not leak listeners
+    @Override
+    public void destroy() {
+        List<Consumer<ClusterEnvelope>> listeners = CHANNELS.get(channel);
+        if (listeners != null) {
+            listeners.removeAll(ownListeners);
+        }
+        ownListeners.clear();
+    }
+}
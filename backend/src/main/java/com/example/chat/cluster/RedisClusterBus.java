@@ -0,0 +1,55 @@
+package com.example.chat.cluster;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.io.IOException;
+import java.util.function.Consumer;
+
+/**
+ * REDIS - Cluster bus on Redis pub/sub
+ * Pub/sub is fire-and-forget, which matches the simple broker: nodes that are down miss frames
+ * and clients recover through history on reconnect.
+ */
+public class RedisClusterBus implements ClusterBus {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisClusterBus.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final ObjectMapper objectMapper;
+    private final ChannelTopic topic;
+
+    public RedisClusterBus(StringRedisTemplate redisTemplate, RedisMessageListenerContainer listenerContainer,
+                           ObjectMapper objectMapper, String channel) {
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.objectMapper = objectMapper;
+        this.topic = new ChannelTopic(channel);
+    }
+
+    @Override
+    public void publish(ClusterEnvelope envelope) {
+        try {
+            redisTemplate.convertAndSend(topic.getTopic(), objectMapper.writeValueAsString(envelope));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not encode cluster envelope", e);
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<ClusterEnvelope> listener) {
+        listenerContainer.addMessageListener((message, pattern) -> {
+            try {
+                listener.accept(objectMapper.readValue(message.getBody(), ClusterEnvelope.class));
+            } catch (IOException e) {
+                log.warn("Dropping malformed cluster envelope", e);
+            }
+        }, topic);
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.chat.cluster;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * WEBSOCKET - Cached STOMP destination strings per room
+ * Every broadcast used to concatenate "/topic/room/" + roomId (+ suffix); the strings are now built
+ * once per room and reused. Bounded, so rooms that are never used again eventually drop out.
+ */
+public final class RoomDestinations {
+
+    private static final String ROOM_PREFIX = "/topic/room/";
+
+    private static final Cache<Long, RoomDestinations> CACHE = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .build();
+
+    private final String messages;
+    private final String typing;
+    private final String status;
+    private final String receipts;
+
+    private RoomDestinations(Long roomId) {
+        this.messages = ROOM_PREFIX + roomId;
+        this.typing = messages + "/typing";
+        this.status = messages + "/status";
+        this.receipts = messages + "/receipts";
+    }
+
+    private static RoomDestinations of(Long roomId) {
+        return CACHE.get(roomId, RoomDestinations::new);
+    }
+
+    // Messages and system notices
+    public static String messages(Long roomId) {
+        return of(roomId).messages;
+    }
+
+    // Room of a messages destination, or null for any other destination (typing, status, ...)
+    public static Long messagesRoomId(String destination) {
+        if (destination == null || !destination.startsWith(ROOM_PREFIX) || destination.length() == ROOM_PREFIX.length()) {
+            return null;
+        }
+        for (int i = ROOM_PREFIX.length(); i < destination.length(); i++) {
+            if (!Character.isDigit(destination.charAt(i))) {
+                return null;
+            }
+        }
+        try {
+            return Long.valueOf(destination.substring(ROOM_PREFIX.length()));
+        } catch (NumberFormatException e) {
+            return null;  // Too long for a room id
+        }
+    }
+
+    // Coalesced typing deltas (TypingAggregator)
+    public static String typing(Long roomId) {
+        return of(roomId).typing;
+    }
+
+    // Persistence status batches (MessageWriteBehindQueue)
+    public static String status(Long roomId) {
+        return of(roomId).status;
+    }
+
+    // Coalesced read/delivery watermarks (ReceiptService)
+    public static String receipts(Long roomId) {
+        return of(roomId).receipts;
+    }
+}
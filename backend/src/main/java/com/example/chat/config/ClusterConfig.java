@@ -0,0 +1,49 @@
+package com.example.chat.config;
+
+import com.example.chat.cluster.ClusterBus;
+import com.example.chat.cluster.InMemoryClusterBus;
+import com.example.chat.cluster.RedisClusterBus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+/**
+ * CLUSTER - Selects the cross-node fan-out bus
+ * app.cluster.fanout.mode: none (single node, default), memory (in-JVM stand-in) or redis.
+ */
+@Configuration
+public class ClusterConfig {
+
+    @Value("${app.cluster.fanout.channel:chat:fanout}")
+    private String channel;
+
+    // CLUSTER - In-JVM bus for tests and local multi-context runs
+    @Bean
+    @ConditionalOnProperty(name = "app.cluster.fanout.mode", havingValue = "memory")
+    public ClusterBus inMemoryClusterBus() {
+        return new InMemoryClusterBus(channel);
+    }
+
+    // REDIS - Listener container for the pub/sub channel
+    @Bean
+    @ConditionalOnProperty(name = "app.cluster.fanout.mode", havingValue = "redis")
+    public RedisMessageListenerContainer clusterListenerContainer(RedisConnectionFactory connectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        return container;
+    }
+
+    // REDIS - Redis pub/sub bus
+    @Bean
+    @ConditionalOnProperty(name = "app.cluster.fanout.mode", havingValue = "redis")
+    public ClusterBus redisClusterBus(StringRedisTemplate redisTemplate,
+                                      RedisMessageListenerContainer clusterListenerContainer,
+                                      ObjectMapper objectMapper) {
+        return new RedisClusterBus(redisTemplate, clusterListenerContainer, objectMapper, channel);
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.chat.config;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * REDIS - Compact binary value serializer for a single, known value type
+ * Values are encoded as Smile (binary JSON with back-referenced field names) against a fixed
+ * Java type, so no class names are stored per entry. Encodings at or above the compression
+ * threshold are deflated. The first byte of every value records which form follows.
+ * Values written by the previous JSON codec start with '{' or '[' and, when a legacy serializer
+ * is given, are still read through it until their keys expire.
+ */
+public class CompactRedisSerializer<T> implements RedisSerializer<T> {
+
+    private static final byte PLAIN = 0;
+    private static final byte DEFLATED = 1;
+
+    // REDIS - Tolerate fields written by newer nodes during rolling deploys
+    private static final ObjectMapper SMILE_MAPPER = new ObjectMapper(new SmileFactory())
+            .findAndRegisterModules()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    private final ObjectWriter writer;
+    private final ObjectReader reader;
+    private final int compressionThreshold;
+    private final JavaType type;
+    private final RedisSerializer<?> legacy;
+
+    public CompactRedisSerializer(Class<T> type, int compressionThreshold) {
+        this(SMILE_MAPPER.constructType(type), compressionThreshold, null);
+    }
+
+    public CompactRedisSerializer(JavaType type, int compressionThreshold, RedisSerializer<?> legacy) {
+        this.writer = SMILE_MAPPER.writerFor(type);
+        this.reader = SMILE_MAPPER.readerFor(type);
+        this.compressionThreshold = compressionThreshold;
+        this.type = type;
+        this.legacy = legacy;
+    }
+
+    @Override
+    public byte[] serialize(T value) throws SerializationException {
+        if (value == null) {
+            return null;
+        }
+        try {
+            byte[] encoded = writer.writeValueAsBytes(value);
+            if (compressionThreshold > 0 && encoded.length >= compressionThreshold) {
+                byte[] deflated = deflate(encoded);
+                if (deflated.length < encoded.length) {
+                    return deflated;
+                }
+            }
+            byte[] framed = new byte[encoded.length + 1];
+            framed[0] = PLAIN;
+            System.arraycopy(encoded, 0, framed, 1, encoded.length);
+            return framed;
+        } catch (IOException e) {
+            throw new SerializationException("Could not write compact value", e);
+        }
+    }
+
+    @Override
+    public T deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        try {
+            if (bytes[0] == DEFLATED) {
+                byte[] inflated = inflate(bytes);
+                return reader.readValue(inflated);
+            }
+            if (bytes[0] == PLAIN) {
+                return reader.readValue(bytes, 1, bytes.length - 1);
+            }
+            if (legacy != null && (bytes[0] == '{' || bytes[0] == '[')) {
+                return readLegacy(bytes);  // REDIS - Written by the JSON codec before the switch
+            }
+            throw new SerializationException("Unknown compact value header " + bytes[0]);
+        } catch (IOException | DataFormatException e) {
+            throw new SerializationException("Could not read compact value", e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private T readLegacy(byte[] bytes) {
+        Object value = legacy.deserialize(bytes);
+        if (value != null && !type.getRawClass().isInstance(value)) {
+            throw new SerializationException("Legacy value is a " + value.getClass().getName()
+                    + ", expected " + type.getRawClass().getName());
+        }
+        return (T) value;
+    }
+
+    private static byte[] deflate(byte[] input) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(input);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(input.length / 2 + 16);
+            out.write(DEFLATED);
+            byte[] buffer = new byte[4096];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] framed) throws DataFormatException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(framed, 1, framed.length - 1);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(framed.length * 3);
+            byte[] buffer = new byte[4096];
+            while (!inflater.finished()) {
+                int read = inflater.inflate(buffer);
+                if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new DataFormatException("Truncated compact value");
+                }
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -10,6 +10,7 @@ import com.example.chat.model.Role;
 import com.example.chat.repository.ChatRoomRepository;
 import com.example.chat.repository.MessageRepository;
 import com.example.chat.repository.UserRepository;
+import com.example.chat.service.MessageIdGenerator;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -32,6 +33,9 @@ public class DataInitializer implements CommandLineRunner {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private MessageIdGenerator messageIdGenerator;
+
     @Override
     public void run(String... args) throws Exception {
         // Create sample users
@@ -95,6 +99,7 @@ public class DataInitializer implements CommandLineRunner {
 
             if (user1 != null && room1 != null) {
                 Message message1 = new Message();
+                message1.setId(messageIdGenerator.nextId());
                 message1.setContent("Hello everyone! Welcome to the chat!");
                 message1.setType(MessageType.TEXT);
                 message1.setStatus(MessageStatus.SENT);
@@ -105,6 +110,7 @@ public class DataInitializer implements CommandLineRunner {
                 messageRepository.save(message1);
 
                 Message message2 = new Message();
+                message2.setId(messageIdGenerator.nextId());
                 message2.setContent("This is a sample message to test the chat system.");
                 message2.setType(MessageType.TEXT);
                 message2.setStatus(MessageStatus.SENT);
@@ -0,0 +1,39 @@
+package com.example.chat.config;
+
+import com.example.chat.presence.InMemoryPresenceStore;
+import com.example.chat.presence.PresenceStore;
+import com.example.chat.presence.RedisPresenceStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+
+/**
+ * PRESENCE - Selects the presence store
+ * app.presence.store: memory (single node, default) or redis (shared by the cluster).
+ */
+@Configuration
+public class PresenceConfig {
+
+    @Value("${app.presence.shards:16}")
+    private int shards;
+
+    @Value("${app.presence.ttl:90s}")
+    private Duration ttl;
+
+    @Bean
+    @ConditionalOnProperty(name = "app.presence.store", havingValue = "memory", matchIfMissing = true)
+    public PresenceStore inMemoryPresenceStore() {
+        return new InMemoryPresenceStore(shards);
+    }
+
+    // REDIS - Sorted-set presence for multi-node deployments
+    @Bean
+    @ConditionalOnProperty(name = "app.presence.store", havingValue = "redis")
+    public PresenceStore redisPresenceStore(StringRedisTemplate redisTemplate) {
+        return new RedisPresenceStore(redisTemplate, shards, ttl);
+    }
+}
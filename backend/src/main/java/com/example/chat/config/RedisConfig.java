@@ -1,12 +1,19 @@
 package com.example.chat.config;
 
+import com.example.chat.dto.MessageDto;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
+import java.util.Map;
+
 /**
  * REDIS - Redis configuration for caching and session management
  * TECHNICAL CONCEPT: REDIS
@@ -14,6 +21,16 @@ import org.springframework.data.redis.serializer.StringRedisSerializer;
 @Configuration
 public class RedisConfig {
 
+    // PERFORMANCE - Value codec per key prefix: compact (binary, typed) or json (class names per entry)
+    @Value("${app.redis.codec.room-messages:compact}")
+    private String roomMessagesCodec;
+
+    @Value("${app.redis.codec.user-session:compact}")
+    private String userSessionCodec;
+
+    @Value("${app.redis.codec.compression-threshold:1024}")  // Bytes; larger values are deflated
+    private int compressionThreshold;
+
     // REDIS - Redis template configuration for data serialization
     @Bean
     public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory connectionFactory) {
@@ -31,4 +48,41 @@ public class RedisConfig {
         template.afterPropertiesSet();
         return template;
     }
+
+    // REDIS - Template for room_messages:* lists
+    @Bean
+    public RedisTemplate<String, MessageDto> roomMessageRedisTemplate(RedisConnectionFactory connectionFactory) {
+        JavaType type = TypeFactory.defaultInstance().constructType(MessageDto.class);
+        return typedTemplate(connectionFactory, valueSerializer(roomMessagesCodec, type));
+    }
+
+    // REDIS - Template for user_session:* values
+    @Bean
+    public RedisTemplate<String, Map<String, Object>> userSessionRedisTemplate(RedisConnectionFactory connectionFactory) {
+        JavaType type = TypeFactory.defaultInstance().constructMapType(Map.class, String.class, Object.class);
+        return typedTemplate(connectionFactory, valueSerializer(userSessionCodec, type));
+    }
+
+    private <T> RedisTemplate<String, T> typedTemplate(RedisConnectionFactory connectionFactory,
+                                                       RedisSerializer<T> valueSerializer) {
+        RedisTemplate<String, T> template = new RedisTemplate<>();
+        template.setConnectionFactory(connectionFactory);
+        template.setKeySerializer(new StringRedisSerializer());
+        template.setValueSerializer(valueSerializer);
+        template.afterPropertiesSet();
+        return template;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> RedisSerializer<T> valueSerializer(String codec, JavaType type) {
+        switch (codec) {
+            case "compact":
+                // REDIS - Values cached as JSON before the switch stay readable until they expire
+                return new CompactRedisSerializer<>(type, compressionThreshold, new GenericJackson2JsonRedisSerializer());
+            case "json":
+                return (RedisSerializer<T>) new GenericJackson2JsonRedisSerializer();
+            default:
+                throw new IllegalArgumentException("Unknown Redis value codec: " + codec);
+        }
+    }
 }
@@ -0,0 +1,40 @@
+package com.example.chat.config;
+
+import com.example.chat.repository.MessageRepository;
+import com.example.chat.search.InMemoryMessageSearchIndex;
+import com.example.chat.search.MessageSearchIndex;
+import com.example.chat.search.PostgresMessageSearchIndex;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * PERFORMANCE - Selects the message search engine
+ * app.search.engine: memory (in-process inverted index, single node, default) or postgres
+ * (tsvector + GIN index in the shared database; the docker profile uses it).
+ */
+@Configuration
+public class SearchConfig {
+
+    @Value("${app.search.rebuild.batch-size:5000}")
+    private int rebuildBatchSize;
+
+    @Bean
+    @ConditionalOnProperty(name = "app.search.engine", havingValue = "memory", matchIfMissing = true)
+    public MessageSearchIndex inMemoryMessageSearchIndex(MessageRepository messageRepository,
+                                                         PlatformTransactionManager transactionManager,
+                                                         MeterRegistry meterRegistry) {
+        return new InMemoryMessageSearchIndex(messageRepository, transactionManager, rebuildBatchSize,
+                meterRegistry);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.search.engine", havingValue = "postgres")
+    public MessageSearchIndex postgresMessageSearchIndex(NamedParameterJdbcTemplate jdbcTemplate) {
+        return new PostgresMessageSearchIndex(jdbcTemplate);
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.chat.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -14,6 +15,8 @@ import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
 import java.util.Arrays;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * SESSION/COOKIES - Session management and security configuration
@@ -23,10 +26,32 @@ import java.util.Arrays;
 @EnableWebSecurity
 public class SecurityConfig {
 
+    private static final Pattern BCRYPT_COST = Pattern.compile("\\A\\$2[aby]?\\$(\\d\\d)\\$");
+
+    @Value("${app.auth.bcrypt.strength:10}")  // SESSION/COOKIES - BCrypt cost (log2 rounds, 4-31)
+    private int bcryptStrength;
+
     // SESSION/COOKIES - Password encoding for secure storage
+    // PERFORMANCE - upgradeEncoding reports any stored hash whose cost differs from the configured
+    // one (higher or lower), so AuthService rehashes it on the next successful login
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new BCryptPasswordEncoder(bcryptStrength) {
+            @Override
+            public boolean upgradeEncoding(String encodedPassword) {
+                int cost = bcryptCost(encodedPassword);
+                return cost > 0 && cost != bcryptStrength;
+            }
+        };
+    }
+
+    // Cost of a "$2a$10$..." hash; -1 when the value is not a bcrypt hash
+    static int bcryptCost(String encodedPassword) {
+        if (encodedPassword == null) {
+            return -1;
+        }
+        Matcher matcher = BCRYPT_COST.matcher(encodedPassword);
+        return matcher.find() ? Integer.parseInt(matcher.group(1)) : -1;
     }
 
     // SESSION/COOKIES - Security filter chain configuration
@@ -1,10 +1,28 @@
 package com.example.chat.config;
 
+import com.example.chat.security.StompAuthChannelInterceptor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.converter.MessageConverter;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * WEBSOCKET - WebSocket configuration for real-time communication
@@ -14,6 +32,52 @@ import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerCo
 @EnableWebSocketMessageBroker  // WEBSOCKET - Enable WebSocket message broker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    // PERFORMANCE - Inbound channel runs @MessageMapping handlers
+    @Value("${app.websocket.inbound.core-pool-size:16}")
+    private int inboundCorePoolSize;
+
+    @Value("${app.websocket.inbound.max-pool-size:64}")
+    private int inboundMaxPoolSize;
+
+    @Value("${app.websocket.inbound.queue-capacity:10000}")
+    private int inboundQueueCapacity;
+
+    // PERFORMANCE - Opt-in: run handlers on virtual threads so blocking I/O does not pin pool threads
+    @Value("${app.websocket.inbound.virtual-threads:false}")
+    private boolean inboundVirtualThreads;
+
+    @Value("${app.websocket.inbound.virtual-max-concurrency:1024}")
+    private int inboundVirtualMaxConcurrency;
+
+    // PERFORMANCE - Outbound channel writes frames to client sessions
+    @Value("${app.websocket.outbound.core-pool-size:16}")
+    private int outboundCorePoolSize;
+
+    @Value("${app.websocket.outbound.max-pool-size:64}")
+    private int outboundMaxPoolSize;
+
+    @Value("${app.websocket.outbound.queue-capacity:10000}")
+    private int outboundQueueCapacity;
+
+    // PERFORMANCE - Per-session transport limits; slow consumers are cut off instead of buffering forever
+    @Value("${app.websocket.transport.send-buffer-size-limit:524288}")
+    private int sendBufferSizeLimit;
+
+    @Value("${app.websocket.transport.send-time-limit-ms:10000}")
+    private int sendTimeLimitMs;
+
+    @Value("${app.websocket.transport.message-size-limit:65536}")
+    private int messageSizeLimit;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private StompAuthChannelInterceptor stompAuthChannelInterceptor;  // JWT - Authenticate once at CONNECT
+
+    @Autowired
+    private ObjectMapper objectMapper;  // PERFORMANCE - Application mapper; its serializer caches are already warm
+
     // WEBSOCKET - Configure message broker for real-time messaging
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
@@ -28,4 +92,81 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
                 .setAllowedOriginPatterns("*")  // WEBSOCKET - Allow all origins
                 .withSockJS();  // WEBSOCKET - Enable SockJS fallback
     }
+
+    // PERFORMANCE - Dedicated, bounded executor for inbound STOMP frames
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        ThreadPoolTaskExecutor executor = inboundVirtualThreads
+                ? channelExecutor("inbound", inboundVirtualMaxConcurrency, inboundVirtualMaxConcurrency, inboundQueueCapacity)
+                : channelExecutor("inbound", inboundCorePoolSize, inboundMaxPoolSize, inboundQueueCapacity);
+        if (inboundVirtualThreads) {
+            executor.setThreadFactory(Thread.ofVirtual().name("ws-inbound-vt-", 0).factory());
+            executor.setAllowCoreThreadTimeOut(true);
+        }
+        registration.taskExecutor(executor);
+        registration.interceptors(stompAuthChannelInterceptor);
+    }
+
+    // PERFORMANCE - Dedicated, bounded executor for outbound frames
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor(channelExecutor("outbound", outboundCorePoolSize, outboundMaxPoolSize, outboundQueueCapacity));
+    }
+
+    // PERFORMANCE - Inbound bodies bind straight to the typed frame records (no intermediate Map)
+    // with the application ObjectMapper; the default converters stay registered behind it
+    @Override
+    public boolean configureMessageConverters(List<MessageConverter> messageConverters) {
+        MappingJackson2MessageConverter converter = new MappingJackson2MessageConverter();
+        converter.setObjectMapper(objectMapper);
+        messageConverters.add(converter);
+        return true;
+    }
+
+    // PERFORMANCE - Transport limits per WebSocket session
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.setSendBufferSizeLimit(sendBufferSizeLimit);
+        registration.setSendTimeLimit(sendTimeLimitMs);
+        registration.setMessageSizeLimit(messageSizeLimit);
+    }
+
+    // PERFORMANCE - Queue depth, active threads and completed tasks of both channel executors
+    @Bean
+    public MeterBinder webSocketExecutorMetrics(
+            @Qualifier("clientInboundChannelExecutor") ThreadPoolTaskExecutor inboundExecutor,
+            @Qualifier("clientOutboundChannelExecutor") ThreadPoolTaskExecutor outboundExecutor) {
+        return registry -> {
+            ExecutorServiceMetrics.monitor(registry, inboundExecutor.getThreadPoolExecutor(), "websocket.inbound");
+            ExecutorServiceMetrics.monitor(registry, outboundExecutor.getThreadPoolExecutor(), "websocket.outbound");
+        };
+    }
+
+    // Spring initializes the executor as the clientInbound/OutboundChannelExecutor bean
+    private ThreadPoolTaskExecutor channelExecutor(String channel, int corePoolSize, int maxPoolSize, int queueCapacity) {
+        Timer queueWait = Timer.builder("chat.websocket.task.wait").tag("channel", channel)
+                .description("Time a frame waited in the channel queue").register(meterRegistry);
+        Timer execution = Timer.builder("chat.websocket.task.duration").tag("channel", channel)
+                .description("Time spent handling a frame").register(meterRegistry);
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("ws-" + channel + "-");
+        executor.setCorePoolSize(corePoolSize);
+        executor.setMaxPoolSize(maxPoolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setKeepAliveSeconds(60);
+        executor.setTaskDecorator(task -> {
+            long submitted = System.nanoTime();
+            return () -> {
+                long started = System.nanoTime();
+                queueWait.record(started - submitted, TimeUnit.NANOSECONDS);
+                try {
+                    task.run();
+                } finally {
+                    execution.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                }
+            };
+        });
+        return executor;
+    }
 }
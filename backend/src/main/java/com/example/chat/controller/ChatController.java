@@ -1,15 +1,39 @@
 package com.example.chat.controller;
 
+import com.example.chat.directory.RoomDirectoryService;
 import com.example.chat.dto.ChatRoomDto;
+import com.example.chat.dto.ChatRoomMapper;
 import com.example.chat.dto.MessageDto;
+import com.example.chat.dto.MessageMapper;
+import com.example.chat.dto.MessagePageDto;
+import com.example.chat.dto.MessageReceiptsDto;
+import com.example.chat.dto.MessageSearchPageDto;
+import com.example.chat.dto.OnlineUsersPageDto;
+import com.example.chat.dto.RoomDirectoryPageDto;
+import com.example.chat.dto.RoomSummaryPageDto;
+import com.example.chat.dto.RoomUnreadDto;
+import com.example.chat.exception.ValidationException;
+import com.example.chat.export.ExportFormat;
+import com.example.chat.export.MessageExportService;
 import com.example.chat.model.ChatRoom;
 import com.example.chat.model.Message;
+import com.example.chat.presence.PresenceService;
+import com.example.chat.receipt.ReceiptService;
+import com.example.chat.search.MessageSearchService;
 import com.example.chat.service.ChatService;
 import com.example.chat.service.MessageService;
+import com.example.chat.service.UserLookupCache;
+import com.example.chat.summary.RoomSummaryService;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -24,13 +48,59 @@ public class ChatController {
     @Autowired
     private MessageService messageService;
 
+    @Autowired
+    private PresenceService presenceService;
+
+    @Autowired
+    private ReceiptService receiptService;
+
+    @Autowired
+    private UserLookupCache userLookupCache;
+
+    @Autowired
+    private MessageSearchService messageSearchService;
+
+    @Autowired
+    private MessageExportService messageExportService;
+
+    @Autowired
+    private RoomSummaryService roomSummaryService;
+
+    @Autowired
+    private RoomDirectoryService roomDirectoryService;
+
+    // PERFORMANCE - Cached listing; If-None-Match with the current ETag gets an empty 304
     @GetMapping("/rooms")
-    public ResponseEntity<List<ChatRoomDto>> getRooms() {
-        List<ChatRoom> rooms = chatService.getAllRooms();
-        List<ChatRoomDto> roomDtos = rooms.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(roomDtos);
+    public ResponseEntity<List<ChatRoomDto>> getRooms(WebRequest request) {
+        RoomDirectoryService.Listing<List<ChatRoomDto>> listing = roomDirectoryService.getUnpagedRooms();
+        if (request.checkNotModified(listing.etag())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(listing.etag())
+                .cacheControl(CacheControl.noCache())
+                .body(listing.body());
+    }
+
+    // PERFORMANCE - Room directory page: type and name prefix filters, sort=name|created|activity;
+    // pass nextCursor back as "after" for the next page
+    @GetMapping(value = "/rooms", params = "limit")
+    public ResponseEntity<RoomDirectoryPageDto> getRoomDirectory(
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) String prefix,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "50") int limit,
+            WebRequest request) {
+        RoomDirectoryService.Listing<RoomDirectoryPageDto> listing =
+                roomDirectoryService.getPage(type, prefix, sort, after, limit);
+        if (request.checkNotModified(listing.etag())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(listing.etag())
+                .cacheControl(CacheControl.noCache())
+                .body(listing.body());
     }
 
     @PostMapping("/rooms")
@@ -50,13 +120,71 @@ public class ChatController {
             @PathVariable Long roomId,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size) {
-        List<Message> messages = messageService.getMessagesByRoomId(roomId, page, size);
-        List<MessageDto> messageDtos = messages.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        List<MessageDto> messageDtos = messageService.getRecentMessages(roomId, page, size);
         return ResponseEntity.ok(messageDtos);
     }
 
+    // PERFORMANCE - Cursor mode: /rooms/{roomId}/messages?before=<cursor>&limit=<n>
+    @GetMapping(value = "/rooms/{roomId}/messages", params = "limit")
+    public ResponseEntity<MessagePageDto> getRoomMessagesBefore(
+            @PathVariable Long roomId,
+            @RequestParam(required = false) String before,
+            @RequestParam int limit) {
+        return ResponseEntity.ok(messageService.getRoomHistory(roomId, before, limit));
+    }
+
+    // PERFORMANCE - Full-text search within a room; pass nextCursor back as "before" for the next page
+    @GetMapping("/rooms/{roomId}/messages/search")
+    public ResponseEntity<MessageSearchPageDto> searchRoomMessages(
+            @PathVariable Long roomId,
+            @RequestParam String q,
+            @RequestParam(required = false) String sender,
+            @RequestParam(required = false) String before,
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(messageSearchService.search(roomId, sender, q, before, limit));
+    }
+
+    // PERFORMANCE - Full-text search across rooms, optionally only one sender's messages
+    @GetMapping("/messages/search")
+    public ResponseEntity<MessageSearchPageDto> searchMessages(
+            @RequestParam String q,
+            @RequestParam(required = false) String sender,
+            @RequestParam(required = false) String before,
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(messageSearchService.search(null, sender, q, before, limit));
+    }
+
+    // PERFORMANCE - Streaming backfill of the search index on a background thread
+    @PostMapping("/search/rebuild")
+    public ResponseEntity<Void> rebuildSearchIndex() {
+        return ResponseEntity.status(messageSearchService.startRebuild() ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT)
+                .build();
+    }
+
+    // PERFORMANCE - Whole room history streamed straight to the response: ?format=ndjson|csv&gzip=true
+    @GetMapping("/rooms/{roomId}/messages/export")
+    public void exportRoomMessages(
+            @PathVariable Long roomId,
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            HttpServletResponse response) throws IOException {
+        ExportFormat exportFormat = ExportFormat.parse(format);  // RESOLVE SOLUTION - Throws ValidationException
+        chatService.getRoomById(roomId);  // Fails before any byte is written
+        if (!messageExportService.tryBeginExport()) {
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "60");
+            return;
+        }
+        try {
+            String filename = "room-" + roomId + "." + exportFormat.getExtension() + (gzip ? ".gz" : "");
+            response.setContentType(gzip ? "application/gzip" : exportFormat.getContentType() + ";charset=UTF-8");
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"");
+            messageExportService.export(roomId, exportFormat, gzip, response.getOutputStream());
+        } finally {
+            messageExportService.endExport();
+        }
+    }
+
     @PostMapping("/rooms/{roomId}/messages")
     public ResponseEntity<MessageDto> sendMessage(
             @PathVariable Long roomId,
@@ -76,37 +204,62 @@ public class ChatController {
         return ResponseEntity.ok().build();
     }
 
+    // PRESENCE - Paginated by username; pass nextCursor back as "after" for the next page
     @GetMapping("/users/online")
-    public ResponseEntity<List<String>> getOnlineUsers() {
-        List<String> onlineUsers = chatService.getOnlineUsers();
-        return ResponseEntity.ok(onlineUsers);
+    public ResponseEntity<OnlineUsersPageDto> getOnlineUsers(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(presenceService.getOnlineUsers(after, limit));
+    }
+
+    @GetMapping("/rooms/{roomId}/users/online")
+    public ResponseEntity<OnlineUsersPageDto> getOnlineUsersInRoom(
+            @PathVariable Long roomId,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(presenceService.getOnlineUsersInRoom(roomId, after, limit));
+    }
+
+    // PERFORMANCE - Counts derived from the room's read/delivery watermarks, no per-message rows
+    @GetMapping("/rooms/{roomId}/messages/{messageId}/receipts")
+    public ResponseEntity<MessageReceiptsDto> getMessageReceipts(
+            @PathVariable Long roomId,
+            @PathVariable Long messageId) {
+        return ResponseEntity.ok(receiptService.getMessageReceipts(roomId, messageId));
+    }
+
+    // PERFORMANCE - One capped count per room (O(rooms)); roomIds defaults to the most active
+    // rooms of the directory, at most limit of them
+    @GetMapping("/users/{username}/unread")
+    public ResponseEntity<List<RoomUnreadDto>> getUnreadCounts(
+            @PathVariable String username,
+            @RequestParam(required = false) List<Long> roomIds,
+            @RequestParam(defaultValue = "50") int limit) {
+        Long userId = userLookupCache.getSender(username).getId();  // RESOLVE SOLUTION - Throws UserNotFoundException
+        if (roomIds != null && roomIds.size() > RoomDirectoryService.MAX_PAGE_SIZE) {
+            throw new ValidationException("At most " + RoomDirectoryService.MAX_PAGE_SIZE + " roomIds per request");
+        }
+        List<Long> rooms = roomIds != null ? roomIds
+                : roomDirectoryService.getPage(null, null, "activity", null, limit).body().getRooms().stream()
+                        .map(ChatRoomDto::getId).collect(Collectors.toList());
+        return ResponseEntity.ok(receiptService.getUnreadCounts(userId, rooms));
+    }
+
+    // PERFORMANCE - Room list for one user, most recently active first, in one call;
+    // pass nextCursor back as "after" for the next page
+    @GetMapping("/users/{username}/rooms")
+    public ResponseEntity<RoomSummaryPageDto> getRoomSummaries(
+            @PathVariable String username,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(roomSummaryService.getRoomSummaries(username, after, limit));
     }
 
     private ChatRoomDto convertToDto(ChatRoom room) {
-        ChatRoomDto dto = new ChatRoomDto();
-        dto.setId(room.getId());
-        dto.setName(room.getName());
-        dto.setDescription(room.getDescription());
-        dto.setType(room.getType().toString());
-        dto.setCreatedAt(room.getCreatedAt().toString());
-        return dto;
+        return ChatRoomMapper.toDto(room);
     }
 
     private MessageDto convertToDto(Message message) {
-        MessageDto dto = new MessageDto();
-        dto.setId(message.getId());
-        dto.setContent(message.getContent());
-        dto.setType(message.getType().toString());
-        dto.setStatus(message.getStatus().toString());
-        dto.setCreatedAt(message.getCreatedAt().toString());
-        
-        // Convert sender
-        com.example.chat.dto.UserDto senderDto = new com.example.chat.dto.UserDto();
-        senderDto.setId(message.getSender().getId());
-        senderDto.setUsername(message.getSender().getUsername());
-        senderDto.setDisplayName(message.getSender().getDisplayName());
-        dto.setSender(senderDto);
-        
-        return dto;
+        return MessageMapper.toDto(message);
     }
 }
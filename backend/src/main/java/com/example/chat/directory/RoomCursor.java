@@ -0,0 +1,39 @@
+package com.example.chat.directory;
+
+import com.example.chat.exception.ValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * PERFORMANCE - Opaque keyset cursor of the room directory
+ * Encodes the sort, the sort key of the last room of a page (name key or timestamp) and its id.
+ * A cursor only continues the sort it was issued for.
+ */
+record RoomCursor(RoomSort sort, String key, long id) {
+
+    private static final char SEPARATOR = '|';
+
+    String encode() {
+        String raw = sort.name() + SEPARATOR + key + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static RoomCursor decode(String cursor, RoomSort expected) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int first = raw.indexOf(SEPARATOR);
+            int last = raw.lastIndexOf(SEPARATOR);
+            if (first < 0 || first == last) {
+                throw new IllegalArgumentException("missing separator");
+            }
+            RoomSort sort = RoomSort.valueOf(raw.substring(0, first));
+            if (sort != expected) {
+                throw new ValidationException("Cursor belongs to sort=" + sort.name().toLowerCase());
+            }
+            return new RoomCursor(sort, raw.substring(first + 1, last), Long.parseLong(raw.substring(last + 1)));
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("Invalid room cursor");
+        }
+    }
+}
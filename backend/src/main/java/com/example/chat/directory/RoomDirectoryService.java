@@ -0,0 +1,299 @@
+package com.example.chat.directory;
+
+import com.example.chat.dto.ChatRoomDto;
+import com.example.chat.dto.ChatRoomMapper;
+import com.example.chat.dto.RoomDirectoryPageDto;
+import com.example.chat.exception.ValidationException;
+import com.example.chat.model.ChatRoom;
+import com.example.chat.model.RoomType;
+import com.example.chat.repository.ChatRoomRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * PERFORMANCE - Paged, filtered room directory behind a versioned listing cache
+ * Every listing is a keyset page over an index (name, creation time, or last activity through
+ * the room summaries), filtered by room type and name prefix. Mapped pages are cached with their
+ * ETag under the current directory version; creating or deleting a room bumps the version, so
+ * later requests miss and rebuild while a request that raced the change can only fill an entry
+ * no one reads any more. Activity-ordered pages change without a version bump and expire after
+ * activity-ttl instead.
+ */
+@Service
+public class RoomDirectoryService {
+
+    private static final Logger log = LoggerFactory.getLogger(RoomDirectoryService.class);
+
+    public static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_PREFIX_LENGTH = 100;
+    private static final LocalDateTime END_OF_TIME = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
+    @Value("${app.rooms.directory.cache-ttl:60s}")  // CLUSTER - Rooms created on other nodes show up after at most this
+    private Duration cacheTtl;
+
+    @Value("${app.rooms.directory.activity-ttl:5s}")
+    private Duration activityTtl;
+
+    @Value("${app.rooms.directory.max-entries:1000}")
+    private long maxEntries;
+
+    @Value("${app.rooms.directory.unpaged-limit:1000}")
+    private int unpagedLimit;
+
+    @Autowired
+    private ChatRoomRepository chatRoomRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final AtomicLong version = new AtomicLong();
+    private Cache<ListingKey, Listing<?>> listings;
+    private TransactionTemplate readOnlyTransaction;
+    private Counter hits;
+    private Counter misses;
+
+    @PostConstruct
+    void init() {
+        listings = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfter(new Expiry<ListingKey, Listing<?>>() {
+                    @Override
+                    public long expireAfterCreate(ListingKey key, Listing<?> listing, long currentTime) {
+                        return (key.sort() == RoomSort.ACTIVITY ? activityTtl : cacheTtl).toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(ListingKey key, Listing<?> listing, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, listing, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(ListingKey key, Listing<?> listing, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        hits = Counter.builder("chat.rooms.directory.requests").tag("result", "hit").register(meterRegistry);
+        misses = Counter.builder("chat.rooms.directory.requests").tag("result", "miss").register(meterRegistry);
+    }
+
+    // RESOLVE SOLUTION - Rows written before the directory columns were maintained
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        Integer updated = transaction.execute(status -> chatRoomRepository.backfillNameKeys()
+                + chatRoomRepository.backfillCreatedAt(LocalDateTime.now()));
+        if (updated != null && updated > 0) {
+            log.info("Backfilled room directory keys of {} rooms", updated);
+            invalidate();
+        }
+    }
+
+    /**
+     * Called after a room was created or deleted (and committed).
+     */
+    public void invalidate() {
+        version.incrementAndGet();
+        listings.invalidateAll();
+    }
+
+    /**
+     * The first unpaged-limit rooms by name, for clients of the unpaged listing; mapped once per
+     * directory version rather than once per request.
+     */
+    public Listing<List<ChatRoomDto>> getUnpagedRooms() {
+        return cached(new ListingKey(version.get(), null, null, RoomSort.NAME, null, 0), () -> {
+            List<ChatRoomDto> rooms = loadPage(null, null, RoomSort.NAME, null, unpagedLimit).body().getRooms();
+            return new Listing<>(rooms, etag(rooms, null));
+        });
+    }
+
+    /**
+     * One page of rooms of the given type (null: any) whose name starts with the given prefix
+     * (case-insensitive, null: any), in the given order. Pass nextCursor back as {@code after}.
+     */
+    public Listing<RoomDirectoryPageDto> getPage(String type, String prefix, String sort, String after, int limit) {
+        RoomType roomType = parseType(type);
+        String namePrefix = normalizePrefix(prefix);
+        RoomSort roomSort = RoomSort.parse(sort);
+        int pageSize = Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+        String cursor = after == null || after.isBlank() ? null : after;
+        RoomCursor afterRoom = cursor == null ? null : RoomCursor.decode(cursor, roomSort);
+        ListingKey key = new ListingKey(version.get(), roomType, namePrefix, roomSort, cursor, pageSize);
+        return cached(key, () -> loadPage(roomType, namePrefix, roomSort, afterRoom, pageSize));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> Listing<T> cached(ListingKey key, Supplier<Listing<T>> loader) {
+        Listing<T> listing = (Listing<T>) listings.getIfPresent(key);
+        if (listing != null) {
+            hits.increment();
+            return listing;
+        }
+        misses.increment();
+        listing = readOnlyTransaction.execute(status -> loader.get());
+        listings.put(key, listing);
+        return listing;
+    }
+
+    private Listing<RoomDirectoryPageDto> loadPage(RoomType type, String prefix, RoomSort sort, RoomCursor after, int pageSize) {
+        String prefixEnd = prefix == null ? null : prefixEnd(prefix);
+        String pattern = prefix == null ? null : likePattern(prefix);
+        PageRequest probe = PageRequest.ofSize(pageSize + 1);  // One extra row tells us whether more pages exist
+
+        List<ChatRoom> rooms = new ArrayList<>(pageSize + 1);
+        List<String> sortKeys = new ArrayList<>(pageSize + 1);
+        switch (sort) {
+            case NAME -> {
+                rooms.addAll(chatRoomRepository.findDirectoryByName(type, prefix, prefixEnd, pattern,
+                        after != null ? after.key() : "", after != null ? after.id() : Long.MIN_VALUE, probe));
+                rooms.forEach(room -> sortKeys.add(room.getNameKey()));
+            }
+            case CREATED -> {
+                rooms.addAll(chatRoomRepository.findDirectoryByCreated(type, prefix, prefixEnd, pattern,
+                        after != null ? parseTime(after.key()) : END_OF_TIME,
+                        after != null ? after.id() : Long.MAX_VALUE, probe));
+                rooms.forEach(room -> sortKeys.add(room.getCreatedAt().toString()));
+            }
+            case ACTIVITY -> {
+                for (Object[] row : chatRoomRepository.findDirectoryByActivity(type, prefix, prefixEnd, pattern,
+                        after != null ? parseTime(after.key()) : END_OF_TIME,
+                        after != null ? after.id() : Long.MAX_VALUE, probe)) {
+                    rooms.add((ChatRoom) row[0]);
+                    sortKeys.add(row[1].toString());
+                }
+            }
+        }
+
+        boolean hasMore = rooms.size() > pageSize;
+        int size = Math.min(rooms.size(), pageSize);
+        List<ChatRoomDto> page = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            page.add(ChatRoomMapper.toDto(rooms.get(i)));
+        }
+        String nextCursor = hasMore
+                ? new RoomCursor(sort, sortKeys.get(size - 1), rooms.get(size - 1).getId()).encode()
+                : null;
+        return new Listing<>(new RoomDirectoryPageDto(page, nextCursor, hasMore), etag(page, nextCursor));
+    }
+
+    private static RoomType parseType(String type) {
+        if (type == null || type.isBlank()) {
+            return null;
+        }
+        try {
+            return RoomType.valueOf(type.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("Unknown room type: " + type);
+        }
+    }
+
+    private static String normalizePrefix(String prefix) {
+        if (prefix == null || prefix.isBlank()) {
+            return null;
+        }
+        String normalized = prefix.strip().toLowerCase(Locale.ROOT);
+        if (normalized.length() > MAX_PREFIX_LENGTH) {
+            throw new ValidationException("Room name prefix is longer than " + MAX_PREFIX_LENGTH + " characters");
+        }
+        return normalized;
+    }
+
+    // Smallest string above every string starting with the prefix
+    static String prefixEnd(String prefix) {
+        StringBuilder end = new StringBuilder(prefix);
+        int last = end.length() - 1;
+        while (last >= 0 && end.charAt(last) == Character.MAX_VALUE) {
+            end.setLength(last--);
+        }
+        if (last < 0) {
+            return prefix + Character.MAX_VALUE;  // Only reachable for prefixes of U+FFFF characters
+        }
+        end.setCharAt(last, (char) (end.charAt(last) + 1));
+        return end.toString();
+    }
+
+    // LIKE pattern with '!' as escape character (see ChatRoomRepository.DIRECTORY_FILTER)
+    static String likePattern(String prefix) {
+        StringBuilder pattern = new StringBuilder(prefix.length() + 2);
+        for (int i = 0; i < prefix.length(); i++) {
+            char c = prefix.charAt(i);
+            if (c == '!' || c == '%' || c == '_') {
+                pattern.append('!');
+            }
+            pattern.append(c);
+        }
+        return pattern.append('%').toString();
+    }
+
+    private static LocalDateTime parseTime(String key) {
+        try {
+            return LocalDateTime.parse(key);
+        } catch (RuntimeException e) {
+            throw new ValidationException("Invalid room cursor");
+        }
+    }
+
+    // PERFORMANCE - Strong validator over exactly what the response contains (64-bit FNV-1a)
+    static String etag(List<ChatRoomDto> rooms, String nextCursor) {
+        long hash = 0xcbf29ce484222325L;
+        for (ChatRoomDto room : rooms) {
+            hash = fnv(hash, String.valueOf(room.getId()));
+            hash = fnv(hash, room.getName());
+            hash = fnv(hash, room.getDescription());
+            hash = fnv(hash, room.getType());
+            hash = fnv(hash, room.getCreatedAt());
+        }
+        hash = fnv(hash, nextCursor);
+        return "\"" + Long.toHexString(hash) + "\"";
+    }
+
+    private static long fnv(long hash, String value) {
+        if (value != null) {
+            for (int i = 0; i < value.length(); i++) {
+                hash = (hash ^ value.charAt(i)) * 0x100000001b3L;
+            }
+        }
+        return (hash ^ 0x1f) * 0x100000001b3L;  // Field separator, so ("ab", "c") differs from ("a", "bc")
+    }
+
+    long getVersion() {
+        return version.get();
+    }
+
+    private record ListingKey(long version, RoomType type, String prefix, RoomSort sort, String after, int limit) {
+    }
+
+    /**
+     * A cached response body with its ETag.
+     */
+    public record Listing<T>(T body, String etag) {
+    }
+}
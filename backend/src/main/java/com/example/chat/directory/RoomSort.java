@@ -0,0 +1,26 @@
+package com.example.chat.directory;
+
+import com.example.chat.exception.ValidationException;
+
+import java.util.Locale;
+
+/**
+ * Orders of the room directory; each one is a keyset over an index.
+ */
+public enum RoomSort {
+
+    NAME,      // name_key ascending
+    CREATED,   // newest rooms first
+    ACTIVITY;  // most recent message first (room summaries)
+
+    public static RoomSort parse(String sort) {
+        if (sort == null || sort.isBlank()) {
+            return NAME;
+        }
+        try {
+            return valueOf(sort.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("Unsupported room sort: " + sort + " (name, created or activity)");
+        }
+    }
+}
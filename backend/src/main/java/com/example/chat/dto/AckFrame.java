@@ -0,0 +1,11 @@
+package com.example.chat.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * WEBSOCKET - Inbound /app/chat.ack frame: everything up to messageId was delivered (read=false)
+ * or read (read=true) in the room
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record AckFrame(Long roomId, Long messageId, boolean read, String username) {
+}
@@ -0,0 +1,77 @@
+package com.example.chat.dto;
+
+/**
+ * KAFKA - Event published to the chat topics; JSON encoded, keyed by room id (or username)
+ */
+public class ChatEventDto {
+
+    public static final String MESSAGE = "MESSAGE";
+    public static final String USER_ACTIVITY = "USER_ACTIVITY";
+    public static final String SYSTEM = "SYSTEM";
+
+    private String type;
+    private Long roomId;
+    private MessageDto message;
+    private String username;
+    private String detail;
+    private long timestamp;
+
+    public ChatEventDto() {}
+
+    public ChatEventDto(String type, Long roomId, MessageDto message, String username, String detail) {
+        this.type = type;
+        this.roomId = roomId;
+        this.message = message;
+        this.username = username;
+        this.detail = detail;
+        this.timestamp = System.currentTimeMillis();
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public Long getRoomId() {
+        return roomId;
+    }
+
+    public void setRoomId(Long roomId) {
+        this.roomId = roomId;
+    }
+
+    public MessageDto getMessage() {
+        return message;
+    }
+
+    public void setMessage(MessageDto message) {
+        this.message = message;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public String getDetail() {
+        return detail;
+    }
+
+    public void setDetail(String detail) {
+        this.detail = detail;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(long timestamp) {
+        this.timestamp = timestamp;
+    }
+}
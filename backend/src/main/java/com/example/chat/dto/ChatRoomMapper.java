@@ -0,0 +1,21 @@
+package com.example.chat.dto;
+
+import com.example.chat.model.ChatRoom;
+
+/**
+ * DESIGN PATTERN - Mapper shared by the room endpoints and the room directory for ChatRoom -> ChatRoomDto
+ */
+public final class ChatRoomMapper {
+
+    private ChatRoomMapper() {}
+
+    public static ChatRoomDto toDto(ChatRoom room) {
+        ChatRoomDto dto = new ChatRoomDto();
+        dto.setId(room.getId());
+        dto.setName(room.getName());
+        dto.setDescription(room.getDescription());
+        dto.setType(room.getType() != null ? room.getType().toString() : null);
+        dto.setCreatedAt(room.getCreatedAt() != null ? room.getCreatedAt().toString() : null);
+        return dto;
+    }
+}
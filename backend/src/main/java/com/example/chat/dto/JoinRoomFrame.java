@@ -0,0 +1,10 @@
+package com.example.chat.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * WEBSOCKET - Inbound /app/chat.addUser frame
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record JoinRoomFrame(Long roomId, String username) {
+}
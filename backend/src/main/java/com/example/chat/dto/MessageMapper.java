@@ -0,0 +1,29 @@
+package com.example.chat.dto;
+
+import com.example.chat.model.Message;
+
+/**
+ * DESIGN PATTERN - Mapper shared by the REST and WebSocket layers for Message -> MessageDto
+ */
+public final class MessageMapper {
+
+    private MessageMapper() {}
+
+    public static MessageDto toDto(Message message) {
+        MessageDto dto = new MessageDto();
+        dto.setId(message.getId());
+        dto.setContent(message.getContent());
+        dto.setType(message.getType().toString());
+        dto.setStatus(message.getStatus().toString());
+        dto.setCreatedAt(message.getCreatedAt().toString());
+
+        // Convert sender
+        UserDto senderDto = new UserDto();
+        senderDto.setId(message.getSender().getId());
+        senderDto.setUsername(message.getSender().getUsername());
+        senderDto.setDisplayName(message.getSender().getDisplayName());
+        dto.setSender(senderDto);
+
+        return dto;
+    }
+}
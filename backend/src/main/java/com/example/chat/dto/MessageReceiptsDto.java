@@ -0,0 +1,50 @@
+package com.example.chat.dto;
+
+public class MessageReceiptsDto {
+
+    private Long messageId;
+    private String status;  // SENT, DELIVERED or READ, derived from the room's watermarks
+    private long deliveredCount;
+    private long readCount;
+
+    public MessageReceiptsDto() {}
+
+    public MessageReceiptsDto(Long messageId, String status, long deliveredCount, long readCount) {
+        this.messageId = messageId;
+        this.status = status;
+        this.deliveredCount = deliveredCount;
+        this.readCount = readCount;
+    }
+
+    public Long getMessageId() {
+        return messageId;
+    }
+
+    public void setMessageId(Long messageId) {
+        this.messageId = messageId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public long getDeliveredCount() {
+        return deliveredCount;
+    }
+
+    public void setDeliveredCount(long deliveredCount) {
+        this.deliveredCount = deliveredCount;
+    }
+
+    public long getReadCount() {
+        return readCount;
+    }
+
+    public void setReadCount(long readCount) {
+        this.readCount = readCount;
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.chat.dto;
+
+import java.util.List;
+
+public class MessageSearchHitDto {
+
+    private MessageDto message;
+    private List<int[]> highlights;  // PERFORMANCE - [start, end) character ranges of matched terms in content
+
+    public MessageSearchHitDto() {}
+
+    public MessageSearchHitDto(MessageDto message, List<int[]> highlights) {
+        this.message = message;
+        this.highlights = highlights;
+    }
+
+    public MessageDto getMessage() {
+        return message;
+    }
+
+    public void setMessage(MessageDto message) {
+        this.message = message;
+    }
+
+    public List<int[]> getHighlights() {
+        return highlights;
+    }
+
+    public void setHighlights(List<int[]> highlights) {
+        this.highlights = highlights;
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.chat.dto;
+
+import java.util.List;
+
+public class MessageSearchPageDto {
+
+    private List<MessageSearchHitDto> hits;
+    private String nextCursor;
+    private boolean hasMore;
+
+    public MessageSearchPageDto() {}
+
+    public MessageSearchPageDto(List<MessageSearchHitDto> hits, String nextCursor, boolean hasMore) {
+        this.hits = hits;
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+    }
+
+    public List<MessageSearchHitDto> getHits() {
+        return hits;
+    }
+
+    public void setHits(List<MessageSearchHitDto> hits) {
+        this.hits = hits;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+}
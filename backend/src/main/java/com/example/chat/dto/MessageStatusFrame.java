@@ -0,0 +1,9 @@
+package com.example.chat.dto;
+
+import java.util.List;
+
+/**
+ * WEBSOCKET - Outbound persistence status for a batch of messages on /topic/room/{id}/status
+ */
+public record MessageStatusFrame(String status, List<Long> messageIds) {
+}
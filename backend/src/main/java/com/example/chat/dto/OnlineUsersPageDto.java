@@ -0,0 +1,42 @@
+package com.example.chat.dto;
+
+import java.util.List;
+
+public class OnlineUsersPageDto {
+
+    private List<String> users;
+    private String nextCursor;
+    private long total;
+
+    public OnlineUsersPageDto() {}
+
+    public OnlineUsersPageDto(List<String> users, String nextCursor, long total) {
+        this.users = users;
+        this.nextCursor = nextCursor;
+        this.total = total;
+    }
+
+    public List<String> getUsers() {
+        return users;
+    }
+
+    public void setUsers(List<String> users) {
+        this.users = users;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+}
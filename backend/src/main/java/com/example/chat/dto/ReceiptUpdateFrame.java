@@ -0,0 +1,14 @@
+package com.example.chat.dto;
+
+import java.util.List;
+
+/**
+ * WEBSOCKET - Outbound watermark changes on /topic/room/{id}/receipts, one frame per room per flush
+ * A client marks its own message delivered/read for a user once the message id is at or below
+ * that user's watermark.
+ */
+public record ReceiptUpdateFrame(List<Entry> receipts) {
+
+    public record Entry(String username, long lastDeliveredMessageId, long lastReadMessageId) {
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.chat.dto;
+
+import java.util.List;
+
+public class RoomDirectoryPageDto {
+
+    private List<ChatRoomDto> rooms;
+    private String nextCursor;
+    private boolean hasMore;
+
+    public RoomDirectoryPageDto() {}
+
+    public RoomDirectoryPageDto(List<ChatRoomDto> rooms, String nextCursor, boolean hasMore) {
+        this.rooms = rooms;
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+    }
+
+    public List<ChatRoomDto> getRooms() {
+        return rooms;
+    }
+
+    public void setRooms(List<ChatRoomDto> rooms) {
+        this.rooms = rooms;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.chat.dto;
+
+public class RoomSummaryDto {
+
+    private Long roomId;
+    private String name;
+    private String type;
+    private long messageCount;
+    private long lastMessageId;  // 0 while the room is empty
+    private String lastMessagePreview;
+    private String lastSender;
+    private String lastActivityAt;  // Newest message, or room creation while empty
+    private long unread;
+    private boolean unreadCapped;  // True when there are at least "unread" messages (shown as e.g. "99+")
+
+    public RoomSummaryDto() {}
+
+    public Long getRoomId() {
+        return roomId;
+    }
+
+    public void setRoomId(Long roomId) {
+        this.roomId = roomId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public long getMessageCount() {
+        return messageCount;
+    }
+
+    public void setMessageCount(long messageCount) {
+        this.messageCount = messageCount;
+    }
+
+    public long getLastMessageId() {
+        return lastMessageId;
+    }
+
+    public void setLastMessageId(long lastMessageId) {
+        this.lastMessageId = lastMessageId;
+    }
+
+    public String getLastMessagePreview() {
+        return lastMessagePreview;
+    }
+
+    public void setLastMessagePreview(String lastMessagePreview) {
+        this.lastMessagePreview = lastMessagePreview;
+    }
+
+    public String getLastSender() {
+        return lastSender;
+    }
+
+    public void setLastSender(String lastSender) {
+        this.lastSender = lastSender;
+    }
+
+    public String getLastActivityAt() {
+        return lastActivityAt;
+    }
+
+    public void setLastActivityAt(String lastActivityAt) {
+        this.lastActivityAt = lastActivityAt;
+    }
+
+    public long getUnread() {
+        return unread;
+    }
+
+    public void setUnread(long unread) {
+        this.unread = unread;
+    }
+
+    public boolean isUnreadCapped() {
+        return unreadCapped;
+    }
+
+    public void setUnreadCapped(boolean unreadCapped) {
+        this.unreadCapped = unreadCapped;
+    }
+}
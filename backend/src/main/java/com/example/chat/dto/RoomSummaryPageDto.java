@@ -0,0 +1,42 @@
+package com.example.chat.dto;
+
+import java.util.List;
+
+public class RoomSummaryPageDto {
+
+    private List<RoomSummaryDto> rooms;
+    private String nextCursor;
+    private boolean hasMore;
+
+    public RoomSummaryPageDto() {}
+
+    public RoomSummaryPageDto(List<RoomSummaryDto> rooms, String nextCursor, boolean hasMore) {
+        this.rooms = rooms;
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+    }
+
+    public List<RoomSummaryDto> getRooms() {
+        return rooms;
+    }
+
+    public void setRooms(List<RoomSummaryDto> rooms) {
+        this.rooms = rooms;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.chat.dto;
+
+public class RoomUnreadDto {
+
+    private Long roomId;
+    private long lastReadMessageId;
+    private long unread;
+    private boolean capped;  // True when there are at least "unread" messages (shown as e.g. "99+")
+
+    public RoomUnreadDto() {}
+
+    public RoomUnreadDto(Long roomId, long lastReadMessageId, long unread, boolean capped) {
+        this.roomId = roomId;
+        this.lastReadMessageId = lastReadMessageId;
+        this.unread = unread;
+        this.capped = capped;
+    }
+
+    public Long getRoomId() {
+        return roomId;
+    }
+
+    public void setRoomId(Long roomId) {
+        this.roomId = roomId;
+    }
+
+    public long getLastReadMessageId() {
+        return lastReadMessageId;
+    }
+
+    public void setLastReadMessageId(long lastReadMessageId) {
+        this.lastReadMessageId = lastReadMessageId;
+    }
+
+    public long getUnread() {
+        return unread;
+    }
+
+    public void setUnread(long unread) {
+        this.unread = unread;
+    }
+
+    public boolean isCapped() {
+        return capped;
+    }
+
+    public void setCapped(boolean capped) {
+        this.capped = capped;
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.chat.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * WEBSOCKET - Inbound /app/chat.sendMessage frame
+ * Bound straight from the STOMP body; username is only read for anonymous sessions.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record SendMessageFrame(String content, Long roomId, String username) {
+}
@@ -0,0 +1,13 @@
+package com.example.chat.dto;
+
+/**
+ * WEBSOCKET - Outbound system notice on /topic/room/{id}; timestamp is epoch milliseconds
+ */
+public record SystemMessageFrame(String content, String type, long timestamp) {
+
+    public static final String SYSTEM = "SYSTEM";
+
+    public static SystemMessageFrame joined(String username) {
+        return new SystemMessageFrame(username + " joined the chat", SYSTEM, System.currentTimeMillis());
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.chat.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * WEBSOCKET - Inbound /app/chat.typing frame
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record TypingFrame(Long roomId, @JsonProperty("isTyping") boolean typing, String username) {
+}
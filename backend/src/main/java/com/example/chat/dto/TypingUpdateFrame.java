@@ -0,0 +1,9 @@
+package com.example.chat.dto;
+
+import java.util.List;
+
+/**
+ * WEBSOCKET - Outbound typing delta on /topic/room/{id}/typing (see TypingAggregator)
+ */
+public record TypingUpdateFrame(List<String> started, List<String> stopped) {
+}
@@ -0,0 +1,21 @@
+package com.example.chat.exception;
+
+import java.time.Duration;
+
+/**
+ * RESOLVE SOLUTION - Login refused before verification (too many attempts or verifier saturated)
+ * TECHNICAL CONCEPT: RESOLVE SOLUTION
+ */
+public class LoginThrottledException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public LoginThrottledException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
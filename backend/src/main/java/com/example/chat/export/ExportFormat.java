@@ -0,0 +1,151 @@
+package com.example.chat.export;
+
+import com.example.chat.exception.ValidationException;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Locale;
+
+/**
+ * PERFORMANCE - Line-oriented export encodings; each row is written as soon as it is read.
+ */
+public enum ExportFormat {
+
+    NDJSON("application/x-ndjson", "ndjson") {
+        @Override
+        RowWriter open(Writer out, JsonFactory jsonFactory) throws IOException {
+            JsonGenerator json = jsonFactory.createGenerator(out);
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            json.setRootValueSeparator(null);  // Rows are separated by the newline below instead
+            return new RowWriter() {
+                @Override
+                public void write(ExportedMessage message) throws IOException {
+                    json.writeStartObject();
+                    json.writeNumberField("id", message.id());
+                    json.writeNumberField("roomId", message.roomId());
+                    json.writeNumberField("senderId", message.senderId());
+                    json.writeStringField("sender", message.senderUsername());
+                    json.writeStringField("type", message.type() != null ? message.type().name() : null);
+                    json.writeStringField("status", message.status() != null ? message.status().name() : null);
+                    json.writeStringField("createdAt", message.createdAt() != null ? message.createdAt().toString() : null);
+                    json.writeStringField("content", message.content());
+                    json.writeEndObject();
+                    json.writeRaw('\n');
+                }
+
+                @Override
+                public void finish() throws IOException {
+                    json.flush();
+                }
+            };
+        }
+    },
+
+    CSV("text/csv", "csv") {
+        @Override
+        RowWriter open(Writer out, JsonFactory jsonFactory) throws IOException {
+            out.write("id,room_id,sender_id,sender,type,status,created_at,content\r\n");
+            return new RowWriter() {
+                @Override
+                public void write(ExportedMessage message) throws IOException {
+                    out.write(String.valueOf(message.id()));
+                    out.write(',');
+                    out.write(String.valueOf(message.roomId()));
+                    out.write(',');
+                    out.write(String.valueOf(message.senderId()));
+                    out.write(',');
+                    writeField(out, message.senderUsername());
+                    out.write(',');
+                    writeField(out, message.type() != null ? message.type().name() : null);
+                    out.write(',');
+                    writeField(out, message.status() != null ? message.status().name() : null);
+                    out.write(',');
+                    writeField(out, message.createdAt() != null ? message.createdAt().toString() : null);
+                    out.write(',');
+                    writeField(out, message.content());
+                    out.write("\r\n");
+                }
+
+                @Override
+                public void finish() {
+                    // Nothing buffered here
+                }
+            };
+        }
+    };
+
+    private final String contentType;
+    private final String extension;
+
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    abstract RowWriter open(Writer out, JsonFactory jsonFactory) throws IOException;
+
+    public static ExportFormat parse(String format) {
+        if (format == null || format.isBlank()) {
+            return NDJSON;
+        }
+        try {
+            return valueOf(format.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("Unsupported export format: " + format + " (ndjson or csv)");
+        }
+    }
+
+    // RFC 4180: quote fields holding a separator, quote or line break; double embedded quotes.
+    // Text cells that a spreadsheet would evaluate as a formula are prefixed with ' first.
+    private static void writeField(Writer out, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        if (isFormula(value)) {
+            value = "'" + value;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            out.write(value);
+            return;
+        }
+        out.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                out.write('"');
+            }
+            out.write(c);
+        }
+        out.write('"');
+    }
+
+    static boolean isFormula(String value) {
+        if (value.isEmpty()) {
+            return false;
+        }
+        char first = value.charAt(0);
+        return first == '=' || first == '+' || first == '-' || first == '@' || first == '\t' || first == '\r';
+    }
+
+    interface RowWriter {
+
+        void write(ExportedMessage message) throws IOException;
+
+        void finish() throws IOException;
+    }
+}
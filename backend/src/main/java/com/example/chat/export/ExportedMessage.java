@@ -0,0 +1,22 @@
+package com.example.chat.export;
+
+import com.example.chat.model.Message;
+import com.example.chat.model.MessageStatus;
+import com.example.chat.model.MessageType;
+
+import java.time.LocalDateTime;
+
+/**
+ * PERFORMANCE - One exported message: a flat row built straight by the export query, so no
+ * entity (and no sender entity) is attached to the persistence context per row.
+ */
+public record ExportedMessage(Long id, Long roomId, Long senderId, String senderUsername,
+                              MessageType type, MessageStatus status, LocalDateTime createdAt, String content) {
+
+    // Archived messages arrive as transient Message objects with their senders already loaded
+    public static ExportedMessage of(Message message) {
+        return new ExportedMessage(message.getId(), message.getChatRoomId(), message.getSender().getId(),
+                message.getSender().getUsername(), message.getType(), message.getStatus(),
+                message.getCreatedAt(), message.getContent());
+    }
+}
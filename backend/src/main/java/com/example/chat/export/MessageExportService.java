@@ -0,0 +1,118 @@
+package com.example.chat.export;
+
+import com.example.chat.archive.MessageArchive;
+import com.example.chat.repository.MessageRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * PERFORMANCE - Full room export in constant memory
+ * Archived months are read segment block by segment block, then the hot table through a
+ * forward-only cursor of unmanaged rows; every row is encoded into a fixed-size buffer in front
+ * of the response stream. Writes block while the client is slow to read, so the database cursor
+ * only advances as fast as the client consumes (back-pressure), and nothing accumulates per row.
+ * Concurrent exports are capped because each holds a connection and a request thread.
+ */
+@Service
+public class MessageExportService {
+
+    static final int ARCHIVE_BATCH_SIZE = 1000;  // Same as the hot cursor's fetch size
+    private static final int BUFFER_BYTES = 64 * 1024;
+
+    @Value("${app.messages.export.max-concurrent:2}")
+    private int maxConcurrent;
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Autowired
+    private MessageArchive messageArchive;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Semaphore exports;
+    private Counter exported;
+    private Timer exportTimer;
+
+    @PostConstruct
+    void init() {
+        exports = new Semaphore(Math.max(1, maxConcurrent));
+        exported = meterRegistry.counter("chat.export.messages");
+        exportTimer = meterRegistry.timer("chat.export");
+    }
+
+    /**
+     * Reserve one of the concurrent export slots; false when all are taken. Release with endExport().
+     */
+    public boolean tryBeginExport() {
+        return exports.tryAcquire();
+    }
+
+    public void endExport() {
+        exports.release();
+    }
+
+    /**
+     * Write every message of the room, oldest first (archived months, then the hot table), to
+     * {@code out}; returns the number of messages written. The stream is flushed, not closed.
+     */
+    @Transactional(readOnly = true)  // PERFORMANCE - Needed for the streaming cursor; also one consistent snapshot
+    public long export(Long roomId, ExportFormat format, boolean gzip, OutputStream out) throws IOException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        GZIPOutputStream compressed = gzip ? new GZIPOutputStream(out, BUFFER_BYTES) : null;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(compressed != null ? compressed : out,
+                StandardCharsets.UTF_8), BUFFER_BYTES);
+        ExportFormat.RowWriter rows = format.open(writer, objectMapper.getFactory());
+        long count;
+        try {
+            count = messageArchive.forEachInRoom(roomId, ARCHIVE_BATCH_SIZE, batch -> {
+                try {
+                    for (int i = 0; i < batch.size(); i++) {
+                        rows.write(ExportedMessage.of(batch.get(i)));
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            try (Stream<ExportedMessage> hot = messageRepository.streamExportByRoomId(roomId)) {
+                for (Iterator<ExportedMessage> it = hot.iterator(); it.hasNext(); count++) {
+                    rows.write(it.next());
+                }
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();  // Usually the client went away
+        }
+        rows.finish();
+        writer.flush();
+        if (compressed != null) {
+            compressed.finish();
+        }
+        out.flush();
+        exported.increment(count);
+        sample.stop(exportTimer);
+        return count;
+    }
+}
@@ -2,9 +2,16 @@ package com.example.chat.model;
 
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
+import java.util.Locale;
 
 @Entity
-@Table(name = "chat_rooms")
+@Table(name = "chat_rooms", indexes = {
+    // PERFORMANCE - Room directory: name order and name-prefix search, with and without a type filter
+    @Index(name = "idx_chat_rooms_name_key", columnList = "name_key, id"),
+    @Index(name = "idx_chat_rooms_type_name_key", columnList = "type, name_key, id"),
+    // PERFORMANCE - Room directory: newest rooms first
+    @Index(name = "idx_chat_rooms_created", columnList = "created_at, id")
+})
 public class ChatRoom {
     
     @Id
@@ -14,17 +21,28 @@ public class ChatRoom {
     @Column(nullable = false)
     private String name;
     
+    // PERFORMANCE - Lower-cased name for case-insensitive sorting and prefix search on an index
+    @Column(name = "name_key")
+    private String nameKey;
+    
     private String description;
     
     @Enumerated(EnumType.STRING)
     private RoomType type;
     
+    @Column(name = "created_at")
     private LocalDateTime createdAt;
     
     private LocalDateTime updatedAt;
 
     public ChatRoom() {}
 
+    @PrePersist
+    @PreUpdate
+    void updateNameKey() {
+        this.nameKey = name != null ? name.toLowerCase(Locale.ROOT) : null;
+    }
+
     public Long getId() {
         return id;
     }
@@ -41,6 +59,10 @@ public class ChatRoom {
         this.name = name;
     }
 
+    public String getNameKey() {
+        return nameKey;
+    }
+
     public String getDescription() {
         return description;
     }
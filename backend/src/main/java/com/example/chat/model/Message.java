@@ -1,14 +1,23 @@
 package com.example.chat.model;
 
 import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "messages")
-public class Message {
+@Table(name = "messages", indexes = {
+    // PERFORMANCE - Composite index backing keyset (seek) pagination of room history
+    @Index(name = "idx_messages_room_created_id", columnList = "chat_room_id, created_at, id"),
+    // PERFORMANCE - Id range scans per room (unread counts above a read watermark)
+    @Index(name = "idx_messages_room_id", columnList = "chat_room_id, id"),
+    // PERFORMANCE - Oldest-first scans by the archive migration
+    @Index(name = "idx_messages_created_id", columnList = "created_at, id")
+})
+public class Message implements Persistable<Long> {
     
+    // PERFORMANCE - Time-ordered id assigned by MessageIdGenerator so inserts can be JDBC-batched
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     
     @Column(nullable = false, columnDefinition = "TEXT")
@@ -27,12 +36,29 @@ public class Message {
     @Column(name = "chat_room_id")
     private Long chatRoomId;
     
+    @Column(name = "created_at")
     private LocalDateTime createdAt;
     
     private LocalDateTime updatedAt;
 
+    // PERFORMANCE - Assigned ids would otherwise make Spring Data merge (SELECT + INSERT) instead of persist
+    @Transient
+    private boolean isNew = true;
+
     public Message() {}
 
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostPersist
+    @PostLoad
+    void markNotNew() {
+        this.isNew = false;
+    }
+
+    @Override
     public Long getId() {
         return id;
     }
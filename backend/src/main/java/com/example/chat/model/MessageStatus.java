@@ -1,6 +1,7 @@
 package com.example.chat.model;
 
 public enum MessageStatus {
+    PENDING,  // Accepted and broadcast, waiting in the write-behind queue
     SENT,
     DELIVERED,
     READ,
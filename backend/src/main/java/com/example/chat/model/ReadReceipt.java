@@ -0,0 +1,111 @@
+package com.example.chat.model;
+
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * PERFORMANCE - Per-user, per-room receipt watermarks instead of a status row per recipient
+ * Message ids are time-ordered, so "delivered/read up to id N" covers every earlier message of
+ * the room; a message is read by a user when its id is at or below that user's watermark.
+ */
+@Entity
+@Table(name = "read_receipts", indexes = {
+    @Index(name = "idx_read_receipts_room", columnList = "chat_room_id")
+})
+@IdClass(ReadReceiptId.class)
+public class ReadReceipt implements Persistable<ReadReceiptId> {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Id
+    @Column(name = "chat_room_id")
+    private Long chatRoomId;
+
+    private String username;  // Denormalized for receipt frames; no user join on load
+
+    private long lastDeliveredMessageId;
+
+    private long lastReadMessageId;
+
+    private LocalDateTime updatedAt;
+
+    // PERFORMANCE - Assigned composite ids would otherwise make Spring Data merge (SELECT + INSERT)
+    @Transient
+    private boolean isNew = true;
+
+    public ReadReceipt() {}
+
+    public ReadReceipt(Long userId, Long chatRoomId, String username) {
+        this.userId = userId;
+        this.chatRoomId = chatRoomId;
+        this.username = username;
+    }
+
+    @Override
+    public ReadReceiptId getId() {
+        return new ReadReceiptId(userId, chatRoomId);
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostPersist
+    @PostLoad
+    void markNotNew() {
+        this.isNew = false;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public Long getChatRoomId() {
+        return chatRoomId;
+    }
+
+    public void setChatRoomId(Long chatRoomId) {
+        this.chatRoomId = chatRoomId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public long getLastDeliveredMessageId() {
+        return lastDeliveredMessageId;
+    }
+
+    public void setLastDeliveredMessageId(long lastDeliveredMessageId) {
+        this.lastDeliveredMessageId = lastDeliveredMessageId;
+    }
+
+    public long getLastReadMessageId() {
+        return lastReadMessageId;
+    }
+
+    public void setLastReadMessageId(long lastReadMessageId) {
+        this.lastReadMessageId = lastReadMessageId;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
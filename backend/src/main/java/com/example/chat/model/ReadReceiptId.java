@@ -0,0 +1,44 @@
+package com.example.chat.model;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Composite key of ReadReceipt: one watermark row per user and room.
+ */
+public class ReadReceiptId implements Serializable {
+
+    private Long userId;
+    private Long chatRoomId;
+
+    public ReadReceiptId() {}
+
+    public ReadReceiptId(Long userId, Long chatRoomId) {
+        this.userId = userId;
+        this.chatRoomId = chatRoomId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public Long getChatRoomId() {
+        return chatRoomId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ReadReceiptId other)) {
+            return false;
+        }
+        return Objects.equals(userId, other.userId) && Objects.equals(chatRoomId, other.chatRoomId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(userId, chatRoomId);
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.chat.model;
+
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * PERFORMANCE - Denormalized room list row: message count and newest message of a room
+ * Kept current from the send path (coalesced deltas, see RoomSummaryService) so the room list
+ * does not need a history query per room.
+ */
+@Entity
+@Table(name = "room_summaries", indexes = {
+    // PERFORMANCE - Keyset paging of the room list by most recent activity
+    @Index(name = "idx_room_summaries_activity", columnList = "last_activity_at, room_id")
+})
+public class RoomSummary implements Persistable<Long> {
+
+    @Id
+    @Column(name = "room_id")
+    private Long roomId;
+
+    private long messageCount;
+
+    private long lastMessageId;  // 0 until the first message
+
+    private Long lastSenderId;
+
+    private String lastSenderUsername;
+
+    @Column(length = 500)
+    private String lastPreview;
+
+    @Column(name = "last_activity_at", nullable = false)
+    private LocalDateTime lastActivityAt;  // Newest message, or room creation while empty
+
+    // PERFORMANCE - Assigned ids would otherwise make Spring Data merge (SELECT + INSERT)
+    @Transient
+    private boolean isNew = true;
+
+    public RoomSummary() {}
+
+    public RoomSummary(Long roomId, LocalDateTime lastActivityAt) {
+        this.roomId = roomId;
+        this.lastActivityAt = lastActivityAt;
+    }
+
+    @Override
+    public Long getId() {
+        return roomId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostPersist
+    @PostLoad
+    void markNotNew() {
+        this.isNew = false;
+    }
+
+    public Long getRoomId() {
+        return roomId;
+    }
+
+    public void setRoomId(Long roomId) {
+        this.roomId = roomId;
+    }
+
+    public long getMessageCount() {
+        return messageCount;
+    }
+
+    public void setMessageCount(long messageCount) {
+        this.messageCount = messageCount;
+    }
+
+    public long getLastMessageId() {
+        return lastMessageId;
+    }
+
+    public void setLastMessageId(long lastMessageId) {
+        this.lastMessageId = lastMessageId;
+    }
+
+    public Long getLastSenderId() {
+        return lastSenderId;
+    }
+
+    public void setLastSenderId(Long lastSenderId) {
+        this.lastSenderId = lastSenderId;
+    }
+
+    public String getLastSenderUsername() {
+        return lastSenderUsername;
+    }
+
+    public void setLastSenderUsername(String lastSenderUsername) {
+        this.lastSenderUsername = lastSenderUsername;
+    }
+
+    public String getLastPreview() {
+        return lastPreview;
+    }
+
+    public void setLastPreview(String lastPreview) {
+        this.lastPreview = lastPreview;
+    }
+
+    public LocalDateTime getLastActivityAt() {
+        return lastActivityAt;
+    }
+
+    public void setLastActivityAt(LocalDateTime lastActivityAt) {
+        this.lastActivityAt = lastActivityAt;
+    }
+}
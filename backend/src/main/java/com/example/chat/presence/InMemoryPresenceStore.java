@@ -0,0 +1,186 @@
+package com.example.chat.presence;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * PRESENCE - Single-node presence store
+ * Global presence is split into shards by username hash so heartbeats from different users
+ * rarely contend on the same lock.
+ */
+public class InMemoryPresenceStore implements PresenceStore {
+
+    private final PresenceSet[] shards;
+    private final Map<Long, PresenceSet> rooms = new ConcurrentHashMap<>();
+
+    public InMemoryPresenceStore(int shardCount) {
+        shards = new PresenceSet[Math.max(shardCount, 1)];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new PresenceSet();
+        }
+    }
+
+    @Override
+    public void touch(String username, Collection<Long> roomIds, long nowMillis) {
+        shard(username).touch(username, nowMillis);
+        for (Long roomId : roomIds) {
+            rooms.compute(roomId, (id, room) -> {
+                PresenceSet set = room != null ? room : new PresenceSet();
+                set.touch(username, nowMillis);
+                return set;
+            });
+        }
+    }
+
+    @Override
+    public void remove(String username, Collection<Long> roomIds) {
+        shard(username).remove(username);
+        roomIds.forEach(roomId -> leaveRoom(roomId, username));
+    }
+
+    @Override
+    public void leaveRoom(Long roomId, String username) {
+        PresenceSet room = rooms.get(roomId);
+        if (room != null) {
+            room.remove(username);
+        }
+    }
+
+    @Override
+    public List<String> online(String after, int limit) {
+        // Each shard is sorted by name, so the first page of the merge needs at most limit names per shard
+        List<String> merged = new ArrayList<>();
+        for (PresenceSet shard : shards) {
+            merged.addAll(shard.page(after, limit));
+        }
+        merged.sort(Comparator.naturalOrder());
+        return merged.size() > limit ? new ArrayList<>(merged.subList(0, limit)) : merged;
+    }
+
+    @Override
+    public List<String> onlineInRoom(Long roomId, String after, int limit) {
+        PresenceSet room = rooms.get(roomId);
+        return room == null ? List.of() : room.page(after, limit);
+    }
+
+    @Override
+    public long countOnline() {
+        long total = 0;
+        for (PresenceSet shard : shards) {
+            total += shard.size();
+        }
+        return total;
+    }
+
+    @Override
+    public long countOnlineInRoom(Long roomId) {
+        PresenceSet room = rooms.get(roomId);
+        return room == null ? 0 : room.size();
+    }
+
+    @Override
+    public long sweep(long cutoffMillis) {
+        long removed = 0;
+        for (PresenceSet shard : shards) {
+            removed += shard.sweep(cutoffMillis);
+        }
+        for (Long roomId : rooms.keySet()) {
+            rooms.computeIfPresent(roomId, (id, room) -> {
+                room.sweep(cutoffMillis);
+                return room.isEmpty() ? null : room;  // Removed atomically with respect to touch()
+            });
+        }
+        return removed;
+    }
+
+    private PresenceSet shard(String username) {
+        return shards[Math.floorMod(username.hashCode(), shards.length)];
+    }
+
+    /**
+     * Users ordered two ways: by name for paging and by last-seen for sweeping.
+     */
+    private static final class PresenceSet {
+
+        private final NavigableMap<String, Long> byName = new TreeMap<>();
+        private final TreeSet<Seen> byLastSeen = new TreeSet<>();
+
+        synchronized void touch(String username, long nowMillis) {
+            Long previous = byName.put(username, nowMillis);
+            if (previous != null) {
+                byLastSeen.remove(new Seen(previous, username));
+            }
+            byLastSeen.add(new Seen(nowMillis, username));
+        }
+
+        synchronized void remove(String username) {
+            Long previous = byName.remove(username);
+            if (previous != null) {
+                byLastSeen.remove(new Seen(previous, username));
+            }
+        }
+
+        synchronized int sweep(long cutoffMillis) {
+            int removed = 0;
+            while (!byLastSeen.isEmpty() && byLastSeen.first().lastSeen < cutoffMillis) {
+                byName.remove(byLastSeen.pollFirst().username);
+                removed++;
+            }
+            return removed;
+        }
+
+        synchronized List<String> page(String after, int limit) {
+            NavigableMap<String, Long> view = after == null ? byName : byName.tailMap(after, false);
+            List<String> names = new ArrayList<>(Math.min(limit, view.size()));
+            for (String name : view.keySet()) {
+                if (names.size() == limit) {
+                    break;
+                }
+                names.add(name);
+            }
+            return names;
+        }
+
+        synchronized int size() {
+            return byName.size();
+        }
+
+        synchronized boolean isEmpty() {
+            return byName.isEmpty();
+        }
+    }
+
+    private static final class Seen implements Comparable<Seen> {
+
+        private final long lastSeen;
+        private final String username;
+
+        Seen(long lastSeen, String username) {
+            this.lastSeen = lastSeen;
+            this.username = username;
+        }
+
+        @Override
+        public int compareTo(Seen other) {
+            int byTime = Long.compare(lastSeen, other.lastSeen);
+            return byTime != 0 ? byTime : username.compareTo(other.username);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Seen seen && seen.lastSeen == lastSeen && seen.username.equals(username);
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(lastSeen) * 31 + username.hashCode();
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.chat.presence;
+
+import com.example.chat.dto.OnlineUsersPageDto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.messaging.SessionConnectEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * PRESENCE - Tracks who is online from WebSocket session events and heartbeats
+ * Every session that identifies a user refreshes that user's last-seen time (throttled, so a
+ * chatty session does not write on every frame). Sessions that are still open here are
+ * re-touched on every sweep, since idle clients send no frames; only users that no node has
+ * touched within the TTL (crashed nodes, lost connections) are swept. A clean disconnect removes
+ * this node's share of the user at once unless another local session of the same user is still
+ * open.
+ */
+@Service
+public class PresenceService {
+
+    public static final int MAX_PAGE_SIZE = 200;
+
+    @Value("${app.presence.ttl:90s}")  // Users not seen for this long are offline
+    private Duration ttl;
+
+    @Value("${app.presence.touch-interval:15s}")  // Minimum time between store writes per session
+    private Duration touchInterval;
+
+    @Autowired
+    private PresenceStore presenceStore;
+
+    private final Map<String, SessionPresence> sessions = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> sessionsByUser = new ConcurrentHashMap<>();
+
+    // WEBSOCKET - The authenticated principal names the user; anonymous sessions may send a "username" header
+    @EventListener
+    public void onConnect(SessionConnectEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        String username = event.getUser() != null
+                ? event.getUser().getName()
+                : accessor.getFirstNativeHeader("username");
+        if (username != null && accessor.getSessionId() != null) {
+            register(accessor.getSessionId(), username);
+        }
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        disconnect(event.getSessionId());
+    }
+
+    public void register(String sessionId, String username) {
+        SessionPresence session = sessions.computeIfAbsent(sessionId, id -> new SessionPresence(username));
+        sessionsByUser.computeIfAbsent(username, name -> ConcurrentHashMap.newKeySet()).add(sessionId);
+        touch(session, true);
+    }
+
+    public void joinRoom(String sessionId, String username, Long roomId) {
+        SessionPresence session = sessions.computeIfAbsent(sessionId, id -> new SessionPresence(username));
+        sessionsByUser.computeIfAbsent(username, name -> ConcurrentHashMap.newKeySet()).add(sessionId);
+        session.rooms.add(roomId);
+        touch(session, true);
+    }
+
+    // PERFORMANCE - Called for every inbound frame; writes to the store at most once per touch interval
+    public void heartbeat(String sessionId) {
+        SessionPresence session = sessionId == null ? null : sessions.get(sessionId);
+        if (session != null) {
+            touch(session, false);
+        }
+    }
+
+    // WEBSOCKET - Whether the session joined the room (/app/chat.addUser); rooms have no other membership
+    public boolean hasJoined(String sessionId, Long roomId) {
+        SessionPresence session = sessionId == null ? null : sessions.get(sessionId);
+        return session != null && session.rooms.contains(roomId);
+    }
+
+    public void disconnect(String sessionId) {
+        SessionPresence session = sessions.remove(sessionId);
+        if (session == null) {
+            return;
+        }
+        Set<String> remaining = sessionsByUser.computeIfPresent(session.username, (name, ids) -> {
+            ids.remove(sessionId);
+            return ids.isEmpty() ? null : ids;
+        });
+        if (remaining == null) {
+            presenceStore.remove(session.username, session.rooms);
+            return;
+        }
+        // Another tab is still open: only leave rooms no other session of this user is in
+        Set<Long> stillJoined = new HashSet<>();
+        for (String otherId : remaining) {
+            SessionPresence other = sessions.get(otherId);
+            if (other != null) {
+                stillJoined.addAll(other.rooms);
+            }
+        }
+        for (Long roomId : session.rooms) {
+            if (!stillJoined.contains(roomId)) {
+                presenceStore.leaveRoom(roomId, session.username);
+            }
+        }
+    }
+
+    public OnlineUsersPageDto getOnlineUsers(String after, int limit) {
+        int pageSize = clampPageSize(limit);
+        return toPage(presenceStore.online(blankToNull(after), pageSize + 1), pageSize, presenceStore.countOnline());
+    }
+
+    public OnlineUsersPageDto getOnlineUsersInRoom(Long roomId, String after, int limit) {
+        int pageSize = clampPageSize(limit);
+        return toPage(presenceStore.onlineInRoom(roomId, blankToNull(after), pageSize + 1), pageSize,
+                presenceStore.countOnlineInRoom(roomId));
+    }
+
+    // PRESENCE - Keep open sessions alive, then expire users nobody refreshed (crashed nodes, lost connections)
+    @Scheduled(fixedDelayString = "${app.presence.sweep-interval-ms:10000}")
+    public void sweep() {
+        // WEBSOCKET - An open session is online even when idle; the transport reports dead ones as disconnects
+        for (SessionPresence session : sessions.values()) {
+            touch(session, false);
+        }
+        presenceStore.sweep(System.currentTimeMillis() - ttl.toMillis());
+    }
+
+    private void touch(SessionPresence session, boolean force) {
+        long now = System.currentTimeMillis();
+        if (!force && now - session.lastTouch < touchInterval.toMillis()) {
+            return;
+        }
+        session.lastTouch = now;
+        presenceStore.touch(session.username, session.rooms, now);
+    }
+
+    private OnlineUsersPageDto toPage(List<String> names, int pageSize, long total) {
+        boolean hasMore = names.size() > pageSize;
+        List<String> page = hasMore ? names.subList(0, pageSize) : names;
+        String nextCursor = hasMore ? page.get(page.size() - 1) : null;
+        return new OnlineUsersPageDto(List.copyOf(page), nextCursor, total);
+    }
+
+    private int clampPageSize(int size) {
+        return Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+
+    private static final class SessionPresence {
+
+        private final String username;
+        private final Set<Long> rooms = ConcurrentHashMap.newKeySet();
+        private volatile long lastTouch;
+
+        SessionPresence(String username) {
+            this.username = username;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.chat.presence;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * PRESENCE - Storage for per-user last-seen timestamps, globally and per room
+ * Entries are scored by last-seen time so expired users can be swept without scanning
+ * everyone, and listed in username order so pages stay stable while users heartbeat.
+ */
+public interface PresenceStore {
+
+    // Refresh the user globally and in the given rooms
+    void touch(String username, Collection<Long> roomIds, long nowMillis);
+
+    // This node no longer holds a session for the user; a shared store keeps the entry while other nodes do
+    void remove(String username, Collection<Long> roomIds);
+
+    void leaveRoom(Long roomId, String username);
+
+    // Up to limit online usernames strictly after the given name (null for the first page)
+    List<String> online(String after, int limit);
+
+    List<String> onlineInRoom(Long roomId, String after, int limit);
+
+    long countOnline();
+
+    long countOnlineInRoom(Long roomId);
+
+    // Drop every entry last seen before the cutoff; returns the number of global entries removed
+    long sweep(long cutoffMillis);
+}
@@ -0,0 +1,206 @@
+package com.example.chat.presence;
+
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.Limit;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * REDIS - Cluster-wide presence store
+ * Each shard is a pair of sorted sets: presence:seen:{n} scored by last-seen millis (for sweeps)
+ * and presence:names:{n} with score 0 (for lexicographic paging). Rooms use the same pair under
+ * presence:room:{id}:*. Multi-key updates are pipelined and sweeps run as a Lua script so a
+ * concurrent heartbeat cannot be lost between reading and deleting expired names.
+ * Every entry also keeps a presence:nodes:* sorted set of the nodes holding a session for it,
+ * scored by their last touch. A disconnect only withdraws this node; the user goes offline once
+ * no node with a fresh touch is left, so closing a tab on one node does not hide a user who is
+ * still connected to another.
+ */
+public class RedisPresenceStore implements PresenceStore {
+
+    private static final String ROOMS_KEY = "presence:rooms";
+    private static final int SWEEP_BATCH = 1000;
+
+    // KEYS[1] = seen zset, KEYS[2] = names zset, ARGV[1] = cutoff, ARGV[2] = batch size
+    private static final RedisScript<Long> SWEEP_SCRIPT = new DefaultRedisScript<>(
+            "local expired = redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', '(' .. ARGV[1], 'LIMIT', 0, ARGV[2]) " +
+            "if #expired > 0 then " +
+            "  redis.call('ZREM', KEYS[1], unpack(expired)) " +
+            "  redis.call('ZREM', KEYS[2], unpack(expired)) " +
+            "end " +
+            "return #expired", Long.class);
+
+    // KEYS[1] = nodes zset, KEYS[2] = seen zset, KEYS[3] = names zset,
+    // ARGV[1] = this node, ARGV[2] = username, ARGV[3] = cutoff for contributions of crashed nodes
+    private static final RedisScript<Long> WITHDRAW_SCRIPT = new DefaultRedisScript<>(
+            "redis.call('ZREM', KEYS[1], ARGV[1]) " +
+            "redis.call('ZREMRANGEBYSCORE', KEYS[1], '-inf', '(' .. ARGV[3]) " +
+            "if redis.call('ZCARD', KEYS[1]) > 0 then return 0 end " +
+            "redis.call('ZREM', KEYS[2], ARGV[2]) " +
+            "redis.call('ZREM', KEYS[3], ARGV[2]) " +
+            "return 1", Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final int shardCount;
+    private final long ttlMillis;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    public RedisPresenceStore(StringRedisTemplate redisTemplate, int shardCount, Duration ttl) {
+        this.redisTemplate = redisTemplate;
+        this.shardCount = Math.max(shardCount, 1);
+        this.ttlMillis = ttl.toMillis();
+    }
+
+    @Override
+    public void touch(String username, Collection<Long> roomIds, long nowMillis) {
+        int shard = shard(username);
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection redis = (StringRedisConnection) connection;
+            redis.zAdd(seenKey(shard), nowMillis, username);
+            redis.zAdd(namesKey(shard), 0, username);
+            contribute(redis, nodesKey(username), nowMillis);
+            for (Long roomId : roomIds) {
+                redis.zAdd(roomSeenKey(roomId), nowMillis, username);
+                redis.zAdd(roomNamesKey(roomId), 0, username);
+                contribute(redis, roomNodesKey(roomId, username), nowMillis);
+                redis.sAdd(ROOMS_KEY, roomId.toString());
+            }
+            return null;
+        });
+    }
+
+    // CLUSTER - Mark this node as holding the entry; the key expires one TTL after the last touch by any node
+    private void contribute(StringRedisConnection redis, String nodesKey, long nowMillis) {
+        redis.zAdd(nodesKey, nowMillis, nodeId);
+        redis.pExpire(nodesKey, ttlMillis);
+    }
+
+    @Override
+    public void remove(String username, Collection<Long> roomIds) {
+        long cutoff = System.currentTimeMillis() - ttlMillis;
+        int shard = shard(username);
+        withdraw(nodesKey(username), seenKey(shard), namesKey(shard), username, cutoff);
+        for (Long roomId : roomIds) {
+            withdraw(roomNodesKey(roomId, username), roomSeenKey(roomId), roomNamesKey(roomId), username, cutoff);
+        }
+    }
+
+    @Override
+    public void leaveRoom(Long roomId, String username) {
+        withdraw(roomNodesKey(roomId, username), roomSeenKey(roomId), roomNamesKey(roomId), username,
+                System.currentTimeMillis() - ttlMillis);
+    }
+
+    // CLUSTER - Atomic, so a touch from another node cannot slip in between the check and the removal
+    private void withdraw(String nodesKey, String seenKey, String namesKey, String username, long cutoffMillis) {
+        redisTemplate.execute(WITHDRAW_SCRIPT, List.of(nodesKey, seenKey, namesKey),
+                nodeId, username, Long.toString(cutoffMillis));
+    }
+
+    @Override
+    public List<String> online(String after, int limit) {
+        List<String> merged = new ArrayList<>();
+        for (int shard = 0; shard < shardCount; shard++) {
+            merged.addAll(page(namesKey(shard), after, limit));
+        }
+        merged.sort(Comparator.naturalOrder());
+        return merged.size() > limit ? new ArrayList<>(merged.subList(0, limit)) : merged;
+    }
+
+    @Override
+    public List<String> onlineInRoom(Long roomId, String after, int limit) {
+        return page(roomNamesKey(roomId), after, limit);
+    }
+
+    @Override
+    public long countOnline() {
+        long total = 0;
+        for (int shard = 0; shard < shardCount; shard++) {
+            Long size = redisTemplate.opsForZSet().zCard(namesKey(shard));
+            total += size == null ? 0 : size;
+        }
+        return total;
+    }
+
+    @Override
+    public long countOnlineInRoom(Long roomId) {
+        Long size = redisTemplate.opsForZSet().zCard(roomNamesKey(roomId));
+        return size == null ? 0 : size;
+    }
+
+    @Override
+    public long sweep(long cutoffMillis) {
+        long removed = 0;
+        for (int shard = 0; shard < shardCount; shard++) {
+            removed += sweepPair(seenKey(shard), namesKey(shard), cutoffMillis);
+        }
+        Set<String> roomIds = redisTemplate.opsForSet().members(ROOMS_KEY);
+        if (roomIds != null) {
+            for (String roomId : roomIds) {
+                Long id = Long.valueOf(roomId);
+                sweepPair(roomSeenKey(id), roomNamesKey(id), cutoffMillis);
+                if (countOnlineInRoom(id) == 0) {
+                    redisTemplate.opsForSet().remove(ROOMS_KEY, roomId);
+                }
+            }
+        }
+        return removed;
+    }
+
+    private long sweepPair(String seenKey, String namesKey, long cutoffMillis) {
+        long removed = 0;
+        long batch;
+        do {
+            Long count = redisTemplate.execute(SWEEP_SCRIPT, List.of(seenKey, namesKey),
+                    Long.toString(cutoffMillis), Integer.toString(SWEEP_BATCH));
+            batch = count == null ? 0 : count;
+            removed += batch;
+        } while (batch == SWEEP_BATCH);
+        return removed;
+    }
+
+    private List<String> page(String namesKey, String after, int limit) {
+        Range<String> range = after == null ? Range.unbounded() : Range.rightUnbounded(Range.Bound.exclusive(after));
+        Set<String> names = redisTemplate.opsForZSet().rangeByLex(namesKey, range, Limit.limit().count(limit));
+        return names == null ? List.of() : new ArrayList<>(names);
+    }
+
+    private int shard(String username) {
+        return Math.floorMod(username.hashCode(), shardCount);
+    }
+
+    private static String nodesKey(String username) {
+        return "presence:nodes:" + username;
+    }
+
+    private static String roomNodesKey(Long roomId, String username) {
+        return "presence:room:" + roomId + ":nodes:" + username;
+    }
+
+    private static String seenKey(int shard) {
+        return "presence:seen:" + shard;
+    }
+
+    private static String namesKey(int shard) {
+        return "presence:names:" + shard;
+    }
+
+    private static String roomSeenKey(Long roomId) {
+        return "presence:room:" + roomId + ":seen";
+    }
+
+    private static String roomNamesKey(Long roomId) {
+        return "presence:room:" + roomId + ":names";
+    }
+}
@@ -0,0 +1,286 @@
+package com.example.chat.receipt;
+
+import com.example.chat.cluster.ClusterFanoutService;
+import com.example.chat.cluster.RoomDestinations;
+import com.example.chat.dto.MessageReceiptsDto;
+import com.example.chat.dto.ReceiptUpdateFrame;
+import com.example.chat.dto.RoomUnreadDto;
+import com.example.chat.exception.ValidationException;
+import com.example.chat.model.MessageStatus;
+import com.example.chat.model.ReadReceipt;
+import com.example.chat.model.ReadReceiptId;
+import com.example.chat.repository.MessageRepository;
+import com.example.chat.repository.ReadReceiptRepository;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * PERFORMANCE - Delivery and read receipts as per-user, per-room watermarks
+ * Acknowledgements only move an in-memory watermark forward; changed watermarks are upserted in
+ * one batch per flush interval and announced with one frame per room, however many acks arrived.
+ * Delivered/read counts of a message are derived on demand from the room's watermarks, and unread
+ * counts come from UnreadTracker (at worst one bounded index count per room). Rooms' watermarks
+ * are loaded lazily and expire, so other nodes' acknowledgements are picked up after at most
+ * app.receipts.room-ttl.
+ */
+@Service
+public class ReceiptService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReceiptService.class);
+
+    @Value("${app.receipts.unread-cap:99}")  // PERFORMANCE - Unread counts stop here ("99+")
+    private int unreadCap;
+
+    @Value("${app.receipts.max-rooms:10000}")
+    private long maxRooms;
+
+    @Value("${app.receipts.room-ttl:60s}")
+    private Duration roomTtl;
+
+    @Autowired
+    private ReadReceiptRepository readReceiptRepository;
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Autowired
+    private UnreadTracker unreadTracker;  // PERFORMANCE - Newest (id, sender) pairs per room
+
+    @Autowired
+    private ClusterFanoutService clusterFanout;  // CLUSTER - Local + cross-node delivery
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<ReadReceiptId, Watermark> dirty = new ConcurrentHashMap<>();
+    private LoadingCache<Long, Map<Long, Watermark>> rooms;  // roomId -> userId -> watermark
+    private TransactionTemplate transactionTemplate;
+    private Counter acks;
+    private Counter flushed;
+
+    @PostConstruct
+    void init() {
+        rooms = Caffeine.newBuilder()
+                .maximumSize(maxRooms)
+                .expireAfterWrite(roomTtl)
+                .build(this::loadRoom);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        acks = meterRegistry.counter("chat.receipts.acks");
+        flushed = meterRegistry.counter("chat.receipts.flushed");
+        Gauge.builder("chat.receipts.pending", dirty, Map::size).register(meterRegistry);
+    }
+
+    // DESIGN PATTERN - Repository pattern - one query per room, only on a cache miss
+    private Map<Long, Watermark> loadRoom(Long roomId) {
+        Map<Long, Watermark> watermarks = new ConcurrentHashMap<>();
+        for (ReadReceipt receipt : readReceiptRepository.findByChatRoomId(roomId)) {
+            watermarks.put(receipt.getUserId(), new Watermark(receipt.getUsername(),
+                    receipt.getLastDeliveredMessageId(), receipt.getLastReadMessageId()));
+        }
+        return watermarks;
+    }
+
+    /**
+     * WEBSOCKET - Record that a user has received (read=false) or read (read=true) every message
+     * of the room up to messageId. Older or repeated acknowledgements are no-ops; an id above the
+     * room's newest message (or any id of an unknown room) is rejected, since watermarks never
+     * move back and would otherwise cover messages not sent yet.
+     */
+    public void acknowledge(Long userId, String username, Long roomId, long messageId, boolean read) {
+        acks.increment();
+        // RESOLVE SOLUTION - Checked before the room's watermarks are loaded, so bogus rooms cost no cache entry
+        if (!unreadTracker.isKnownId(roomId, messageId)) {
+            throw new ValidationException("Message " + messageId + " is not a message of room " + roomId);
+        }
+        Watermark watermark = rooms.get(roomId).computeIfAbsent(userId, id -> new Watermark(username, 0, 0));
+        if (!watermark.advance(messageId, read)) {
+            return;
+        }
+        // A reloaded room may hold a fresh Watermark while an older one is still pending
+        dirty.compute(new ReadReceiptId(userId, roomId), (key, pending) -> {
+            if (pending != null && pending != watermark) {
+                watermark.advanceTo(pending);
+            }
+            return watermark;
+        });
+    }
+
+    // PERFORMANCE - One upsert batch and one frame per room per interval
+    @Scheduled(fixedDelayString = "${app.receipts.flush-interval-ms:1000}")
+    public void flush() {
+        if (dirty.isEmpty()) {
+            return;
+        }
+        Map<ReadReceiptId, Watermark> batch = new HashMap<>();
+        for (ReadReceiptId key : dirty.keySet()) {
+            Watermark watermark = dirty.remove(key);
+            if (watermark != null) {
+                batch.put(key, watermark);
+            }
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> upsert(batch));
+        } catch (RuntimeException e) {
+            log.warn("Could not persist {} receipt watermarks; retrying next flush", batch.size(), e);
+            batch.forEach(dirty::putIfAbsent);
+            return;
+        }
+        flushed.increment(batch.size());
+        publish(batch);
+    }
+
+    private void upsert(Map<ReadReceiptId, Watermark> batch) {
+        Map<ReadReceiptId, ReadReceipt> rows = new HashMap<>();
+        for (ReadReceipt existing : readReceiptRepository.findAllById(batch.keySet())) {
+            rows.put(existing.getId(), existing);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        batch.forEach((key, watermark) -> {
+            ReadReceipt row = rows.computeIfAbsent(key,
+                    id -> new ReadReceipt(id.getUserId(), id.getChatRoomId(), watermark.username));
+            row.setLastDeliveredMessageId(Math.max(row.getLastDeliveredMessageId(), watermark.delivered()));
+            row.setLastReadMessageId(Math.max(row.getLastReadMessageId(), watermark.read()));
+            row.setUpdatedAt(now);
+        });
+        readReceiptRepository.saveAll(rows.values());
+    }
+
+    private void publish(Map<ReadReceiptId, Watermark> batch) {
+        Map<Long, List<ReceiptUpdateFrame.Entry>> byRoom = new LinkedHashMap<>();
+        batch.forEach((key, watermark) -> byRoom.computeIfAbsent(key.getChatRoomId(), id -> new ArrayList<>())
+                .add(new ReceiptUpdateFrame.Entry(watermark.username, watermark.delivered(), watermark.read())));
+        byRoom.forEach((roomId, entries) -> {
+            try {
+                clusterFanout.broadcast(RoomDestinations.receipts(roomId), new ReceiptUpdateFrame(entries), null);
+            } catch (RuntimeException e) {
+                log.debug("Could not publish receipts for room {}", roomId, e);
+            }
+        });
+    }
+
+    /**
+     * Delivered and read counts of one message, derived from the room's watermarks (O(readers),
+     * no per-message rows). Every user whose watermark covers the message is counted.
+     */
+    public MessageReceiptsDto getMessageReceipts(Long roomId, Long messageId) {
+        long delivered = 0;
+        long read = 0;
+        for (Watermark watermark : rooms.get(roomId).values()) {
+            if (watermark.delivered() >= messageId) {
+                delivered++;
+            }
+            if (watermark.read() >= messageId) {
+                read++;
+            }
+        }
+        MessageStatus status = read > 0 ? MessageStatus.READ
+                : delivered > 0 ? MessageStatus.DELIVERED
+                : MessageStatus.SENT;
+        return new MessageReceiptsDto(messageId, status.name(), delivered, read);
+    }
+
+    /**
+     * Unread counts of a user for the given rooms: counted from each room's in-memory tail, or
+     * one capped index count per room when the tail cannot tell, so the cost grows with the
+     * number of rooms rather than the number of messages.
+     */
+    public List<RoomUnreadDto> getUnreadCounts(Long userId, Collection<Long> roomIds) {
+        Map<Long, Long> stored = new HashMap<>();
+        for (ReadReceipt receipt : readReceiptRepository.findByUserId(userId)) {
+            stored.put(receipt.getChatRoomId(), receipt.getLastReadMessageId());
+        }
+        List<RoomUnreadDto> counts = new ArrayList<>(roomIds.size());
+        for (Long roomId : roomIds) {
+            long lastRead = lastRead(userId, roomId, stored.getOrDefault(roomId, 0L));
+            long unread = unreadTracker.countUnread(roomId, userId, lastRead);
+            if (unread < 0) {
+                unread = messageRepository.countUnreadCapped(roomId, lastRead, userId, unreadCap + 1);
+            }
+            counts.add(new RoomUnreadDto(roomId, lastRead, Math.min(unread, unreadCap), unread > unreadCap));
+        }
+        return counts;
+    }
+
+    // The in-memory watermark may be ahead of the stored one until the next flush
+    private long lastRead(Long userId, Long roomId, long storedLastRead) {
+        Map<Long, Watermark> room = rooms.getIfPresent(roomId);
+        Watermark watermark = room != null ? room.get(userId) : null;
+        return watermark != null ? Math.max(watermark.read(), storedLastRead) : storedLastRead;
+    }
+
+    int pendingCount() {
+        return dirty.size();
+    }
+
+    /**
+     * Highest message id delivered to and read by one user in one room; only moves forward.
+     */
+    static final class Watermark {
+
+        private final String username;
+        private long delivered;
+        private long read;
+
+        Watermark(String username, long delivered, long read) {
+            this.username = username;
+            this.delivered = delivered;
+            this.read = read;
+        }
+
+        // Reading implies delivery; returns whether anything moved
+        synchronized boolean advance(long messageId, boolean isRead) {
+            boolean changed = false;
+            if (messageId > delivered) {
+                delivered = messageId;
+                changed = true;
+            }
+            if (isRead && messageId > read) {
+                read = messageId;
+                changed = true;
+            }
+            return changed;
+        }
+
+        void advanceTo(Watermark other) {
+            long otherDelivered = other.delivered();  // Never hold both locks
+            long otherRead = other.read();
+            synchronized (this) {
+                delivered = Math.max(delivered, otherDelivered);
+                read = Math.max(read, otherRead);
+            }
+        }
+
+        synchronized long delivered() {
+            return delivered;
+        }
+
+        synchronized long read() {
+            return read;
+        }
+    }
+}
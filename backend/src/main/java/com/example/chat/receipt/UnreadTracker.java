@@ -0,0 +1,181 @@
+package com.example.chat.receipt;
+
+import com.example.chat.model.Message;
+import com.example.chat.repository.MessageRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * PERFORMANCE - Unread counts answered from memory
+ * Unread counts are capped (unread-cap, "99+"), so they only ever depend on a room's newest
+ * unread-cap + 1 messages. Each room keeps just the (id, senderId) pairs of those messages in two
+ * long arrays, appended to on the send path and seeded once from the (chat_room_id, id) index.
+ * A user's unread count is then a scan of at most unread-cap + 1 entries above their read
+ * watermark, with no per-user state to update when a message is sent. When the tail cannot
+ * decide (a long-unread room full of the user's own messages) the caller falls back to the
+ * database count. Tails expire after room-ttl, which picks up messages sent on other nodes.
+ */
+@Component
+public class UnreadTracker {
+
+    @Value("${app.receipts.unread-cap:99}")
+    private int unreadCap;
+
+    @Value("${app.receipts.max-rooms:10000}")
+    private long maxRooms;
+
+    @Value("${app.receipts.room-ttl:60s}")  // CLUSTER - Messages sent on other nodes are seen after at most this
+    private Duration roomTtl;
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Cache<Long, RoomTail> rooms;
+    private Counter seeds;
+
+    @PostConstruct
+    void init() {
+        rooms = Caffeine.newBuilder()
+                .maximumSize(maxRooms)
+                .expireAfterWrite(roomTtl)
+                .build();
+        seeds = meterRegistry.counter("chat.receipts.unread.seeds");
+    }
+
+    // WRITE PATH - O(1) for messages arriving in id order
+    public void record(Message message) {
+        if (message.getId() == null || message.getChatRoomId() == null || message.getSender() == null) {
+            return;
+        }
+        rooms.get(message.getChatRoomId(), id -> new RoomTail(unreadCap + 1))
+                .add(message.getId(), message.getSender().getId());
+    }
+
+    /**
+     * Messages of other users after {@code afterId}, counted up to unreadCap + 1, or -1 when the
+     * tail alone cannot tell.
+     */
+    public long countUnread(Long roomId, Long userId, long afterId) {
+        return seededTail(roomId).count(afterId, userId);
+    }
+
+    /**
+     * Whether {@code messageId} does not exceed the newest message of the room, i.e. whether a
+     * watermark may move up to it. Answered from the tail; an id above it is checked once against
+     * the (chat_room_id, id) index, which also covers messages the tail has not seen yet. Rooms
+     * without messages, including unknown rooms, accept no id.
+     */
+    public boolean isKnownId(Long roomId, long messageId) {
+        if (messageId <= 0) {
+            return false;
+        }
+        RoomTail tail = seededTail(roomId);
+        if (messageId <= tail.newestId()) {
+            return true;
+        }
+        List<Object[]> newest = messageRepository.findRecentSenders(roomId, PageRequest.ofSize(1));
+        if (newest.isEmpty()) {
+            return false;
+        }
+        tail.add((Long) newest.get(0)[0], (Long) newest.get(0)[1]);
+        return messageId <= (Long) newest.get(0)[0];
+    }
+
+    private RoomTail seededTail(Long roomId) {
+        RoomTail tail = rooms.get(roomId, id -> new RoomTail(unreadCap + 1));
+        if (!tail.isSeeded()) {
+            List<Object[]> newest = messageRepository.findRecentSenders(roomId, PageRequest.ofSize(unreadCap + 1));
+            tail.seed(newest);
+            seeds.increment();
+        }
+        return tail;
+    }
+
+    public void invalidate(Long roomId) {
+        rooms.invalidate(roomId);
+    }
+
+    /**
+     * The newest messages of one room as parallel id/sender arrays, ascending by id.
+     */
+    static final class RoomTail {
+
+        private final long[] ids;
+        private final long[] senders;
+        private int size;
+        private boolean seeded;
+
+        RoomTail(int capacity) {
+            this.ids = new long[capacity];
+            this.senders = new long[capacity];
+        }
+
+        synchronized boolean isSeeded() {
+            return seeded;
+        }
+
+        synchronized void add(long id, Long senderId) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position >= 0) {
+                return;  // Already known (seed and send path overlap)
+            }
+            int insertAt = -position - 1;
+            if (size == ids.length) {
+                if (insertAt == 0) {
+                    return;  // Older than everything kept
+                }
+                // Drop the oldest entry to make room
+                System.arraycopy(ids, 1, ids, 0, insertAt - 1);
+                System.arraycopy(senders, 1, senders, 0, insertAt - 1);
+                insertAt--;
+            } else {
+                System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+                System.arraycopy(senders, insertAt, senders, insertAt + 1, size - insertAt);
+                size++;
+            }
+            ids[insertAt] = id;
+            senders[insertAt] = senderId != null ? senderId : 0L;
+        }
+
+        // Rows of (id, senderId); merged with whatever the send path added meanwhile
+        synchronized void seed(List<Object[]> rows) {
+            for (Object[] row : rows) {
+                add((Long) row[0], (Long) row[1]);
+            }
+            seeded = true;
+        }
+
+        // 0 for an empty tail
+        synchronized long newestId() {
+            return size == 0 ? 0 : ids[size - 1];
+        }
+
+        synchronized long count(long afterId, Long userId) {
+            long unread = 0;
+            for (int i = size - 1; i >= 0; i--) {
+                if (ids[i] <= afterId) {
+                    return unread;  // Reached the watermark: exact
+                }
+                if (userId == null || senders[i] != userId) {
+                    unread++;
+                }
+            }
+            // Everything kept is unread: exact only if the tail holds the whole room or the cap is reached
+            return size < ids.length || unread == ids.length ? unread : -1;
+        }
+    }
+}
@@ -1,9 +1,70 @@
 package com.example.chat.repository;
 
 import com.example.chat.model.ChatRoom;
+import com.example.chat.model.RoomType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 @Repository
 public interface ChatRoomRepository extends JpaRepository<ChatRoom, Long> {
+
+    // Room directory filters shared by the queries below: optional type, optional name prefix.
+    // The range on name_key lets the index seek to the prefix; LIKE keeps the match exact.
+    String DIRECTORY_FILTER = "(:type IS NULL OR r.type = :type) " +
+            "AND (:prefix IS NULL OR (r.nameKey >= :prefix AND r.nameKey < :prefixEnd " +
+            "AND r.nameKey LIKE :pattern ESCAPE '!')) ";
+
+    // PERFORMANCE - Keyset page by name, served from (name_key, id) or (type, name_key, id)
+    @Query("SELECT r FROM ChatRoom r WHERE " + DIRECTORY_FILTER +
+           "AND (r.nameKey > :afterKey OR (r.nameKey = :afterKey AND r.id > :afterId)) " +
+           "ORDER BY r.nameKey, r.id")
+    List<ChatRoom> findDirectoryByName(@Param("type") RoomType type,
+                                       @Param("prefix") String prefix,
+                                       @Param("prefixEnd") String prefixEnd,
+                                       @Param("pattern") String pattern,
+                                       @Param("afterKey") String afterKey,
+                                       @Param("afterId") Long afterId,
+                                       Pageable pageable);
+
+    // PERFORMANCE - Keyset page of the newest rooms, served from (created_at, id)
+    @Query("SELECT r FROM ChatRoom r WHERE " + DIRECTORY_FILTER +
+           "AND (r.createdAt < :beforeAt OR (r.createdAt = :beforeAt AND r.id < :beforeId)) " +
+           "ORDER BY r.createdAt DESC, r.id DESC")
+    List<ChatRoom> findDirectoryByCreated(@Param("type") RoomType type,
+                                          @Param("prefix") String prefix,
+                                          @Param("prefixEnd") String prefixEnd,
+                                          @Param("pattern") String pattern,
+                                          @Param("beforeAt") LocalDateTime beforeAt,
+                                          @Param("beforeId") Long beforeId,
+                                          Pageable pageable);
+
+    // PERFORMANCE - Keyset page by last activity, from the room summaries' (last_activity_at, room_id) index
+    @Query("SELECT r, s.lastActivityAt FROM ChatRoom r JOIN RoomSummary s ON s.roomId = r.id WHERE " +
+           DIRECTORY_FILTER +
+           "AND (s.lastActivityAt < :beforeAt OR (s.lastActivityAt = :beforeAt AND r.id < :beforeId)) " +
+           "ORDER BY s.lastActivityAt DESC, r.id DESC")
+    List<Object[]> findDirectoryByActivity(@Param("type") RoomType type,
+                                           @Param("prefix") String prefix,
+                                           @Param("prefixEnd") String prefixEnd,
+                                           @Param("pattern") String pattern,
+                                           @Param("beforeAt") LocalDateTime beforeAt,
+                                           @Param("beforeId") Long beforeId,
+                                           Pageable pageable);
+
+    // Rows written before name_key existed
+    @Modifying
+    @Query("UPDATE ChatRoom r SET r.nameKey = LOWER(r.name) WHERE r.nameKey IS NULL")
+    int backfillNameKeys();
+
+    // Rows written without a creation time would never appear in the newest-first listing
+    @Modifying
+    @Query("UPDATE ChatRoom r SET r.createdAt = :now WHERE r.createdAt IS NULL")
+    int backfillCreatedAt(@Param("now") LocalDateTime now);
 }
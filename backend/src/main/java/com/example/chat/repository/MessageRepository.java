@@ -1,9 +1,102 @@
 package com.example.chat.repository;
 
+import com.example.chat.export.ExportedMessage;
 import com.example.chat.model.Message;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
 @Repository
 public interface MessageRepository extends JpaRepository<Message, Long> {
+
+    // PERFORMANCE - Newest messages of a room, served from the (chat_room_id, created_at, id) index
+    @Query("SELECT m FROM Message m JOIN FETCH m.sender " +
+           "WHERE m.chatRoomId = :roomId " +
+           "ORDER BY m.createdAt DESC, m.id DESC")
+    List<Message> findLatestByRoomId(@Param("roomId") Long roomId, Pageable pageable);
+
+    // PERFORMANCE - Keyset (seek) query: messages strictly older than the (createdAt, id) cursor
+    @Query("SELECT m FROM Message m JOIN FETCH m.sender " +
+           "WHERE m.chatRoomId = :roomId " +
+           "AND (m.createdAt < :createdAt OR (m.createdAt = :createdAt AND m.id < :id)) " +
+           "ORDER BY m.createdAt DESC, m.id DESC")
+    List<Message> findByRoomIdBefore(@Param("roomId") Long roomId,
+                                     @Param("createdAt") LocalDateTime createdAt,
+                                     @Param("id") Long id,
+                                     Pageable pageable);
+
+    // PERFORMANCE - Search hits of one page, with their senders, in a single query
+    @Query("SELECT m FROM Message m JOIN FETCH m.sender WHERE m.id IN :ids")
+    List<Message> findAllWithSenderByIdIn(@Param("ids") Collection<Long> ids);
+
+    // PERFORMANCE - Keyset batches in id order for streaming backfills (search index rebuild)
+    @Query("SELECT m FROM Message m WHERE m.id > :afterId ORDER BY m.id")
+    List<Message> findBatchAfter(@Param("afterId") long afterId, Pageable pageable);
+
+    // PERFORMANCE - Forward-only cursor over a whole room, oldest first, fetched 1000 rows at a time.
+    // Rows are unmanaged projections, so the persistence context does not grow while streaming.
+    // Must be consumed (and closed) inside a transaction
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.example.chat.export.ExportedMessage(m.id, m.chatRoomId, s.id, s.username, " +
+           "m.type, m.status, m.createdAt, m.content) " +
+           "FROM Message m JOIN m.sender s " +
+           "WHERE m.chatRoomId = :roomId " +
+           "ORDER BY m.createdAt, m.id")
+    Stream<ExportedMessage> streamExportByRoomId(@Param("roomId") Long roomId);
+
+    // PERFORMANCE - Start of the next archive migration, from the (created_at, id) index
+    @Query("SELECT MIN(m.createdAt) FROM Message m")
+    LocalDateTime findOldestCreatedAt();
+
+    @Query("SELECT DISTINCT m.chatRoomId FROM Message m WHERE m.createdAt >= :from AND m.createdAt < :to")
+    List<Long> findRoomIdsCreatedBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    // PERFORMANCE - Keyset batches of one room, oldest first, after the cursor and before :to
+    @Query("SELECT m FROM Message m " +
+           "WHERE m.chatRoomId = :roomId AND m.createdAt < :to " +
+           "AND (m.createdAt > :createdAt OR (m.createdAt = :createdAt AND m.id > :id)) " +
+           "ORDER BY m.createdAt, m.id")
+    List<Message> findRoomBatchAfter(@Param("roomId") Long roomId,
+                                     @Param("createdAt") LocalDateTime createdAt,
+                                     @Param("id") Long id,
+                                     @Param("to") LocalDateTime to,
+                                     Pageable pageable);
+
+    // PERFORMANCE - Rows moved to the cold tier
+    @Modifying
+    @Query("DELETE FROM Message m WHERE m.id IN :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+
+    // KAFKA - Ids already stored, so redelivered events are not inserted twice
+    @Query("SELECT m.id FROM Message m WHERE m.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    // PERFORMANCE - (id, senderId) of a room's newest messages, from the (chat_room_id, id) index;
+    // seeds the in-memory tail that unread counts are taken from
+    @Query("SELECT m.id, m.sender.id FROM Message m WHERE m.chatRoomId = :roomId ORDER BY m.id DESC")
+    List<Object[]> findRecentSenders(@Param("roomId") Long roomId, Pageable pageable);
+
+    // (roomId, message count, newest id) per room; one-off backfill of room summaries
+    @Query("SELECT m.chatRoomId, COUNT(m), MAX(m.id) FROM Message m " +
+           "WHERE m.chatRoomId IN :roomIds GROUP BY m.chatRoomId")
+    List<Object[]> countAndNewestByRoomIdIn(@Param("roomIds") Collection<Long> roomIds);
+
+    // PERFORMANCE - Other users' messages after a watermark, counted only up to :cap rows
+    // of the (chat_room_id, id) index, so the cost per room is bounded
+    @Query(value = "SELECT COUNT(*) FROM (SELECT 1 FROM messages " +
+                   "WHERE chat_room_id = :roomId AND id > :afterId AND sender_id <> :userId LIMIT :cap) unread",
+           nativeQuery = true)
+    long countUnreadCapped(@Param("roomId") Long roomId, @Param("afterId") long afterId,
+                           @Param("userId") Long userId, @Param("cap") int cap);
 }
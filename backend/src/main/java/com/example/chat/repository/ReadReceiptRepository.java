@@ -0,0 +1,17 @@
+package com.example.chat.repository;
+
+import com.example.chat.model.ReadReceipt;
+import com.example.chat.model.ReadReceiptId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ReadReceiptRepository extends JpaRepository<ReadReceipt, ReadReceiptId> {
+
+    // PERFORMANCE - All watermarks of a room, loaded once when the room is first needed
+    List<ReadReceipt> findByChatRoomId(Long chatRoomId);
+
+    List<ReadReceipt> findByUserId(Long userId);
+}
@@ -0,0 +1,51 @@
+package com.example.chat.repository;
+
+import com.example.chat.model.ChatRoom;
+import com.example.chat.model.RoomSummary;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface RoomSummaryRepository extends JpaRepository<RoomSummary, Long> {
+
+    // PERFORMANCE - First page of the room list, served from the (last_activity_at, room_id) index
+    @Query("SELECT s FROM RoomSummary s ORDER BY s.lastActivityAt DESC, s.roomId DESC")
+    List<RoomSummary> findMostActive(Pageable pageable);
+
+    // PERFORMANCE - Keyset (seek) query: rooms strictly less recently active than the cursor
+    @Query("SELECT s FROM RoomSummary s " +
+           "WHERE s.lastActivityAt < :activityAt OR (s.lastActivityAt = :activityAt AND s.roomId < :roomId) " +
+           "ORDER BY s.lastActivityAt DESC, s.roomId DESC")
+    List<RoomSummary> findMostActiveBefore(@Param("activityAt") LocalDateTime activityAt,
+                                           @Param("roomId") Long roomId,
+                                           Pageable pageable);
+
+    // PERFORMANCE - Apply one node's coalesced messages atomically, so concurrent nodes never lose
+    // increments; the newest message only replaces the stored one if its id is higher
+    @Modifying
+    @Query("UPDATE RoomSummary s SET s.messageCount = s.messageCount + :delta, " +
+           "s.lastSenderId = CASE WHEN s.lastMessageId < :lastId THEN :senderId ELSE s.lastSenderId END, " +
+           "s.lastSenderUsername = CASE WHEN s.lastMessageId < :lastId THEN :username ELSE s.lastSenderUsername END, " +
+           "s.lastPreview = CASE WHEN s.lastMessageId < :lastId THEN :preview ELSE s.lastPreview END, " +
+           "s.lastActivityAt = CASE WHEN s.lastMessageId < :lastId THEN :activityAt ELSE s.lastActivityAt END, " +
+           "s.lastMessageId = CASE WHEN s.lastMessageId < :lastId THEN :lastId ELSE s.lastMessageId END " +
+           "WHERE s.roomId = :roomId")
+    int applyMessages(@Param("roomId") Long roomId,
+                      @Param("delta") long delta,
+                      @Param("lastId") long lastId,
+                      @Param("senderId") Long senderId,
+                      @Param("username") String username,
+                      @Param("preview") String preview,
+                      @Param("activityAt") LocalDateTime activityAt);
+
+    // Rooms created before summaries existed, or by another path than ChatService
+    @Query("SELECT r FROM ChatRoom r WHERE r.id NOT IN (SELECT s.roomId FROM RoomSummary s)")
+    List<ChatRoom> findRoomsWithoutSummary();
+}
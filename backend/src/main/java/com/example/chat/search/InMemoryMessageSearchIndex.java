@@ -0,0 +1,154 @@
+package com.example.chat.search;
+
+import com.example.chat.exception.ValidationException;
+import com.example.chat.model.Message;
+import com.example.chat.repository.MessageRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.LongStream;
+
+/**
+ * PERFORMANCE - Search engine backed by an InvertedIndex in this JVM
+ * Persisted messages are appended as they are written. The index is not stored: it starts empty
+ * and is backfilled by rebuild(), which streams the messages table in id-ordered keyset batches
+ * into a fresh index while the old one keeps answering queries. Messages persisted during the
+ * backfill are indexed live and replayed into the fresh index (unless the backfill already saw
+ * them) just before it replaces the old one. Only sees messages persisted by this node, so it
+ * suits single-node deployments; clusters use the postgres engine.
+ */
+public class InMemoryMessageSearchIndex implements MessageSearchIndex {
+
+    private final MessageRepository messageRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int batchSize;
+
+    private final Object liveLock = new Object();
+    private volatile Generation current = new Generation(0, new InvertedIndex());
+    private List<Message> pendingLive;  // Guarded by liveLock; set while a rebuild runs
+
+    public InMemoryMessageSearchIndex(MessageRepository messageRepository,
+                                      PlatformTransactionManager transactionManager,
+                                      int batchSize,
+                                      MeterRegistry meterRegistry) {
+        this.messageRepository = messageRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.batchSize = batchSize;
+        if (meterRegistry != null) {
+            Gauge.builder("chat.search.documents", this, index -> index.current.index().size())
+                    .register(meterRegistry);
+        }
+    }
+
+    @Override
+    public boolean open() {
+        return true;
+    }
+
+    @Override
+    public void index(Collection<Message> messages) {
+        synchronized (liveLock) {
+            InvertedIndex index = current.index();
+            for (Message message : messages) {
+                add(index, message);
+            }
+            if (pendingLive != null) {
+                pendingLive.addAll(messages);
+            }
+        }
+    }
+
+    @Override
+    public SearchHits search(SearchQuery query) {
+        Generation generation = current;
+        int beforeDoc = query.before() == null || query.before().isBlank() ? -1 : decode(query.before(), generation);
+        InvertedIndex.Hits hits = generation.index().search(
+                query.terms(), query.roomId(), query.senderId(), beforeDoc, query.limit());
+        List<Long> messageIds = LongStream.of(hits.messageIds()).boxed().toList();
+        return new SearchHits(messageIds, hits.nextDoc() < 0 ? null : encode(generation.number(), hits.nextDoc()));
+    }
+
+    @Override
+    public long rebuild() {
+        synchronized (liveLock) {
+            if (pendingLive != null) {
+                throw new IllegalStateException("A search index rebuild is already running");
+            }
+            pendingLive = new ArrayList<>();
+        }
+        try {
+            InvertedIndex fresh = new InvertedIndex();
+            long afterId = Long.MIN_VALUE;
+            int read;
+            do {
+                long from = afterId;
+                // PERFORMANCE - One short read-only transaction per batch; entities are dropped with it
+                List<Message> batch = readOnlyTransaction.execute(status -> {
+                    List<Message> rows = messageRepository.findBatchAfter(from, PageRequest.ofSize(batchSize));
+                    rows.forEach(message -> add(fresh, message));
+                    return rows;
+                });
+                read = batch == null ? 0 : batch.size();
+                if (read > 0) {
+                    afterId = batch.get(read - 1).getId();
+                }
+            } while (read == batchSize);
+
+            synchronized (liveLock) {
+                int backfilled = fresh.size();
+                for (Message message : pendingLive) {
+                    if (!fresh.containsSorted(message.getId(), backfilled)) {
+                        add(fresh, message);
+                    }
+                }
+                current = new Generation(current.number() + 1, fresh);
+                return fresh.size();
+            }
+        } finally {
+            synchronized (liveLock) {
+                pendingLive = null;
+            }
+        }
+    }
+
+    private static void add(InvertedIndex index, Message message) {
+        Long senderId = message.getSender() != null ? message.getSender().getId() : null;
+        index.add(message.getId(), message.getChatRoomId(), senderId, message.getContent());
+    }
+
+    // Cursors name a document of one index generation; a rebuild renumbers documents
+    private static String encode(int generation, int doc) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((generation + ":" + doc).getBytes(StandardCharsets.UTF_8));
+    }
+
+    // RESOLVE SOLUTION - Reject tampered or outdated cursors with a 400 instead of wrong pages
+    private static int decode(String cursor, Generation generation) {
+        String raw;
+        int separator;
+        int doc;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            separator = raw.indexOf(':');
+            doc = Integer.parseInt(raw.substring(separator + 1));
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("Invalid search cursor", e);
+        }
+        if (separator < 0 || !raw.substring(0, separator).equals(String.valueOf(generation.number()))) {
+            throw new ValidationException("Search index was rebuilt; repeat the search");
+        }
+        return doc;
+    }
+
+    private record Generation(int number, InvertedIndex index) {
+    }
+}
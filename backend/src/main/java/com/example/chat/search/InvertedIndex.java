@@ -0,0 +1,168 @@
+package com.example.chat.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * PERFORMANCE - In-process inverted index over message content
+ * Every message gets the next document number; its distinct terms, its room and its sender are
+ * posted under that number (room and sender as reserved terms that no token can produce), so a
+ * room- or sender-scoped query is just one more list in the intersection. Queries return the
+ * newest matching documents first: the rarest list leads and the others are advanced to its
+ * candidates, so the cost follows the rarest term rather than the size of the room.
+ * Appends take the write lock briefly; queries share the read lock.
+ */
+public final class InvertedIndex {
+
+    private static final String ROOM_TERM = "\u0000r";
+    private static final String SENDER_TERM = "\u0000s";
+
+    private final Map<String, PostingsList> postings = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private long[] messageIds = new long[1024];  // document number -> message id
+    private int documents;
+
+    /**
+     * Index one message and return its document number.
+     */
+    public int add(long messageId, Long roomId, Long senderId, String content) {
+        List<String> terms = MessageAnalyzer.terms(content);  // Tokenize outside the lock
+        lock.writeLock().lock();
+        try {
+            int doc = documents++;
+            if (doc == messageIds.length) {
+                messageIds = Arrays.copyOf(messageIds, doc * 2);
+            }
+            messageIds[doc] = messageId;
+            for (String term : terms) {
+                post(term, doc);
+            }
+            if (roomId != null) {
+                post(ROOM_TERM + roomId, doc);
+            }
+            if (senderId != null) {
+                post(SENDER_TERM + senderId, doc);
+            }
+            return doc;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void post(String term, int doc) {
+        postings.computeIfAbsent(term, key -> new PostingsList()).add(doc);
+    }
+
+    /**
+     * Newest documents containing every term, optionally limited to a room and/or a sender and to
+     * documents numbered below {@code beforeDoc} (the nextDoc of the previous page, or -1).
+     */
+    public Hits search(Collection<String> terms, Long roomId, Long senderId, int beforeDoc, int limit) {
+        lock.readLock().lock();
+        try {
+            List<PostingsList.Cursor> cursors = new ArrayList<>(terms.size() + 2);
+            for (String term : terms) {
+                if (!addCursor(cursors, term)) {
+                    return Hits.EMPTY;
+                }
+            }
+            if ((roomId != null && !addCursor(cursors, ROOM_TERM + roomId))
+                    || (senderId != null && !addCursor(cursors, SENDER_TERM + senderId))
+                    || cursors.isEmpty()) {
+                return Hits.EMPTY;
+            }
+            cursors.sort((a, b) -> Integer.compare(a.cost(), b.cost()));  // Rarest list leads
+            return intersect(cursors, (beforeDoc < 0 ? documents : Math.min(beforeDoc, documents)) - 1, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private boolean addCursor(List<PostingsList.Cursor> cursors, String term) {
+        PostingsList list = postings.get(term);
+        if (list == null) {
+            return false;
+        }
+        cursors.add(list.cursor());
+        return true;
+    }
+
+    private Hits intersect(List<PostingsList.Cursor> cursors, int upTo, int limit) {
+        PostingsList.Cursor lead = cursors.get(0);
+        long[] found = new long[limit];
+        int count = 0;
+        int lastDoc = -1;
+        int doc = lead.advance(upTo);
+        while (doc >= 0) {
+            int agreed = doc;
+            for (int i = 1; i < cursors.size() && agreed == doc; i++) {
+                agreed = cursors.get(i).advance(doc);
+            }
+            if (agreed < 0) {
+                break;
+            }
+            if (agreed != doc) {
+                doc = lead.advance(agreed);  // Skip the lead down to the other list's candidate
+                continue;
+            }
+            if (count == limit) {
+                return new Hits(found, lastDoc);  // One more match exists
+            }
+            found[count++] = messageIds[doc];
+            lastDoc = doc;
+            doc = lead.advance(doc - 1);
+        }
+        return new Hits(Arrays.copyOf(found, count), -1);
+    }
+
+    /**
+     * Binary search of documents [0, toDoc), which must have been added in ascending message id
+     * order (a backfill), for a message id.
+     */
+    public boolean containsSorted(long messageId, int toDoc) {
+        lock.readLock().lock();
+        try {
+            return Arrays.binarySearch(messageIds, 0, Math.min(toDoc, documents), messageId) >= 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Approximate heap taken by postings and the document table
+    public long sizeInBytes() {
+        lock.readLock().lock();
+        try {
+            long bytes = 8L * messageIds.length;
+            for (Map.Entry<String, PostingsList> entry : postings.entrySet()) {
+                bytes += 2L * entry.getKey().length() + 64 + entry.getValue().sizeInBytes();
+            }
+            return bytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Message ids of one page, newest first. nextDoc is the beforeDoc of the following page, or
+     * -1 when this is the last one.
+     */
+    public record Hits(long[] messageIds, int nextDoc) {
+
+        static final Hits EMPTY = new Hits(new long[0], -1);
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.chat.search;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * PERFORMANCE - Tokenizer shared by indexing, querying and highlighting
+ * A token is a maximal run of letters and digits, lower-cased with Locale.ROOT. Tokens longer
+ * than MAX_TOKEN_LENGTH (pasted hashes, URLs without separators) are not indexed.
+ */
+public final class MessageAnalyzer {
+
+    public static final int MAX_TOKEN_LENGTH = 40;
+
+    private MessageAnalyzer() {}
+
+    /**
+     * Distinct terms of a text, in order of first appearance.
+     */
+    public static List<String> terms(String text) {
+        Set<String> terms = new LinkedHashSet<>();
+        tokenize(text, (start, end, term) -> terms.add(term));
+        return new ArrayList<>(terms);
+    }
+
+    /**
+     * Character ranges [start, end) of the tokens of {@code content} that are one of {@code terms}.
+     */
+    public static List<int[]> highlights(String content, Collection<String> terms) {
+        List<int[]> ranges = new ArrayList<>();
+        tokenize(content, (start, end, term) -> {
+            if (terms.contains(term)) {
+                ranges.add(new int[] {start, end});
+            }
+        });
+        return ranges;
+    }
+
+    static void tokenize(String text, TokenConsumer consumer) {
+        if (text == null) {
+            return;
+        }
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            int codePoint = text.codePointAt(i);
+            if (!Character.isLetterOrDigit(codePoint)) {
+                i += Character.charCount(codePoint);
+                continue;
+            }
+            int start = i;
+            while (i < length && Character.isLetterOrDigit(codePoint = text.codePointAt(i))) {
+                i += Character.charCount(codePoint);
+            }
+            if (i - start <= MAX_TOKEN_LENGTH) {
+                consumer.accept(start, i, text.substring(start, i).toLowerCase(Locale.ROOT));
+            }
+        }
+    }
+
+    @FunctionalInterface
+    interface TokenConsumer {
+        void accept(int start, int end, String term);
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.chat.search;
+
+import com.example.chat.model.Message;
+
+import java.util.Collection;
+
+/**
+ * PERFORMANCE - Full-text index over message content
+ * Implementations: InMemoryMessageSearchIndex (in-process inverted index, single node) and
+ * PostgresMessageSearchIndex (tsvector expression with a GIN index, shared by the cluster),
+ * selected by app.search.engine in SearchConfig.
+ */
+public interface MessageSearchIndex {
+
+    /**
+     * Prepare the index once the schema exists. Returns true when the index starts empty and has
+     * to be backfilled from the messages table.
+     */
+    boolean open();
+
+    /**
+     * Add messages that have just been persisted.
+     */
+    void index(Collection<Message> messages);
+
+    SearchHits search(SearchQuery query);
+
+    /**
+     * Rebuild the index from the messages table; returns the number of messages indexed.
+     */
+    long rebuild();
+}
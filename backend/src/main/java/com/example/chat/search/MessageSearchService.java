@@ -0,0 +1,137 @@
+package com.example.chat.search;
+
+import com.example.chat.dto.MessageMapper;
+import com.example.chat.dto.MessageSearchHitDto;
+import com.example.chat.dto.MessageSearchPageDto;
+import com.example.chat.exception.ValidationException;
+import com.example.chat.model.Message;
+import com.example.chat.repository.MessageRepository;
+import com.example.chat.service.UserLookupCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * PERFORMANCE - Full-text search over chat history
+ * The index only answers which message ids match; the page's messages are then loaded with
+ * their senders in one query and highlighted with the same analyzer that indexed them.
+ */
+@Service
+public class MessageSearchService {
+
+    private static final Logger log = LoggerFactory.getLogger(MessageSearchService.class);
+
+    public static final int MAX_PAGE_SIZE = 100;
+
+    @Value("${app.search.max-query-terms:8}")
+    private int maxQueryTerms;
+
+    @Value("${app.search.rebuild.on-startup:true}")  // PERFORMANCE - Backfill engines that start empty
+    private boolean rebuildOnStartup;
+
+    @Autowired
+    private MessageSearchIndex searchIndex;
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Autowired
+    private UserLookupCache userLookupCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private Timer queryTimer;
+
+    @PostConstruct
+    void init() {
+        queryTimer = meterRegistry.timer("chat.search.query");
+    }
+
+    // The schema exists once the context is up
+    @EventListener(ApplicationReadyEvent.class)
+    public void openIndex() {
+        if (searchIndex.open() && rebuildOnStartup) {
+            startRebuild();
+        }
+    }
+
+    /**
+     * Newest messages containing every term of {@code query}, optionally within one room and/or
+     * from one sender. Pass nextCursor back as {@code before} for the next page.
+     */
+    @Transactional(readOnly = true)
+    public MessageSearchPageDto search(Long roomId, String senderUsername, String query, String before, int limit) {
+        List<String> terms = MessageAnalyzer.terms(query);
+        if (terms.isEmpty()) {
+            throw new ValidationException("Search query must contain at least one word");
+        }
+        if (terms.size() > maxQueryTerms) {
+            terms = terms.subList(0, maxQueryTerms);
+        }
+        Long senderId = senderUsername == null || senderUsername.isBlank() ? null
+                : userLookupCache.getSender(senderUsername).getId();  // RESOLVE SOLUTION - Throws UserNotFoundException
+        SearchQuery searchQuery = new SearchQuery(terms, roomId, senderId, before,
+                Math.min(Math.max(limit, 1), MAX_PAGE_SIZE));
+
+        SearchHits hits = queryTimer.record(() -> searchIndex.search(searchQuery));
+        List<MessageSearchHitDto> page = new ArrayList<>(hits.messageIds().size());
+        if (!hits.messageIds().isEmpty()) {
+            Map<Long, Message> byId = new HashMap<>();
+            for (Message message : messageRepository.findAllWithSenderByIdIn(hits.messageIds())) {
+                byId.put(message.getId(), message);
+            }
+            for (Long id : hits.messageIds()) {
+                Message message = byId.get(id);
+                if (message != null) {
+                    page.add(new MessageSearchHitDto(MessageMapper.toDto(message),
+                            MessageAnalyzer.highlights(message.getContent(), searchQuery.terms())));
+                }
+            }
+        }
+        return new MessageSearchPageDto(page, hits.nextCursor(), hits.nextCursor() != null);
+    }
+
+    /**
+     * Rebuild the index on a background thread. Returns false when a rebuild is already running.
+     */
+    public boolean startRebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return false;
+        }
+        Thread rebuild = new Thread(() -> {
+            long started = System.nanoTime();
+            try {
+                long indexed = searchIndex.rebuild();
+                log.info("Search index rebuilt: {} messages in {} ms", indexed,
+                        (System.nanoTime() - started) / 1_000_000);
+            } catch (RuntimeException e) {
+                log.error("Search index rebuild failed", e);
+            } finally {
+                rebuilding.set(false);
+            }
+        }, "search-rebuild");
+        rebuild.setDaemon(true);
+        rebuild.start();
+        return true;
+    }
+
+    public boolean isRebuilding() {
+        return rebuilding.get();
+    }
+}
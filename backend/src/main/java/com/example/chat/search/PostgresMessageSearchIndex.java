@@ -0,0 +1,90 @@
+package com.example.chat.search;
+
+import com.example.chat.exception.ValidationException;
+import com.example.chat.model.Message;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * PERFORMANCE - Search engine backed by PostgreSQL full-text search
+ * Queries match to_tsvector('simple', content) against the analyzed terms, served by a GIN
+ * expression index that PostgreSQL keeps current on every insert, so index() has nothing to do
+ * and all nodes of a cluster see the same results. Pages are keyset-paginated on the message id.
+ */
+public class PostgresMessageSearchIndex implements MessageSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(PostgresMessageSearchIndex.class);
+
+    static final String INDEX_NAME = "idx_messages_content_fts";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public PostgresMessageSearchIndex(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // Hibernate creates the table; the expression index is not expressible as a JPA @Index
+    @Override
+    public boolean open() {
+        jdbcTemplate.getJdbcTemplate().execute("CREATE INDEX IF NOT EXISTS " + INDEX_NAME
+                + " ON messages USING GIN (to_tsvector('simple', content))");
+        return false;
+    }
+
+    @Override
+    public void index(Collection<Message> messages) {
+        // Maintained by the database with the row
+    }
+
+    @Override
+    public SearchHits search(SearchQuery query) {
+        // Terms are runs of letters and digits only, so joining them cannot inject tsquery operators
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("query", String.join(" & ", query.terms()))
+                .addValue("limit", query.limit() + 1);  // One extra row tells us whether more pages exist
+        StringBuilder sql = new StringBuilder("SELECT id FROM messages "
+                + "WHERE to_tsvector('simple', content) @@ to_tsquery('simple', :query)");
+        if (query.roomId() != null) {
+            sql.append(" AND chat_room_id = :roomId");
+            params.addValue("roomId", query.roomId());
+        }
+        if (query.senderId() != null) {
+            sql.append(" AND sender_id = :senderId");
+            params.addValue("senderId", query.senderId());
+        }
+        if (query.before() != null && !query.before().isBlank()) {
+            sql.append(" AND id < :before");
+            params.addValue("before", decode(query.before()));
+        }
+        sql.append(" ORDER BY id DESC LIMIT :limit");
+
+        List<Long> ids = jdbcTemplate.queryForList(sql.toString(), params, Long.class);
+        if (ids.size() <= query.limit()) {
+            return new SearchHits(ids, null);
+        }
+        List<Long> page = ids.subList(0, query.limit());
+        return new SearchHits(page, String.valueOf(page.get(page.size() - 1)));
+    }
+
+    @Override
+    public long rebuild() {
+        log.info("Reindexing {}", INDEX_NAME);
+        open();
+        jdbcTemplate.getJdbcTemplate().execute("REINDEX INDEX " + INDEX_NAME);
+        Long rows = jdbcTemplate.getJdbcTemplate().queryForObject("SELECT COUNT(*) FROM messages", Long.class);
+        return rows != null ? rows : 0;
+    }
+
+    private static long decode(String cursor) {
+        try {
+            return Long.parseLong(cursor);
+        } catch (NumberFormatException e) {
+            throw new ValidationException("Invalid search cursor", e);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.chat.search;
+
+import java.util.Arrays;
+
+/**
+ * PERFORMANCE - Compressed, append-only list of ascending document numbers for one term
+ * Documents are grouped in blocks of BLOCK_SIZE. The first document of each block is kept in a
+ * skip table; the rest are varint-encoded gaps, so a posting usually takes one or two bytes.
+ * Cursors walk the list from the newest document down and jump between blocks with a binary
+ * search of the skip table, which keeps intersections with long lists (a busy room) cheap.
+ * Not thread-safe: InvertedIndex guards it with its read/write lock.
+ */
+final class PostingsList {
+
+    static final int BLOCK_SIZE = 128;
+
+    private byte[] gaps = new byte[8];
+    private int length;
+    private int[] blockFirstDoc = new int[1];
+    private int[] blockOffset = new int[1];
+    private int blocks;
+    private int size;
+    private int lastDoc = -1;
+
+    // Documents must be added in ascending order
+    void add(int doc) {
+        if (doc <= lastDoc) {
+            throw new IllegalArgumentException("Document " + doc + " is not after " + lastDoc);
+        }
+        if (size % BLOCK_SIZE == 0) {
+            if (blocks == blockFirstDoc.length) {
+                blockFirstDoc = Arrays.copyOf(blockFirstDoc, blocks * 2);
+                blockOffset = Arrays.copyOf(blockOffset, blocks * 2);
+            }
+            blockFirstDoc[blocks] = doc;
+            blockOffset[blocks] = length;
+            blocks++;
+        } else {
+            writeVarInt(doc - lastDoc);
+        }
+        lastDoc = doc;
+        size++;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long sizeInBytes() {
+        return gaps.length + 8L * blockFirstDoc.length;
+    }
+
+    Cursor cursor() {
+        return new Cursor();
+    }
+
+    private void writeVarInt(int value) {
+        if (length + 5 > gaps.length) {
+            gaps = Arrays.copyOf(gaps, Math.max(gaps.length * 2, length + 5));
+        }
+        while ((value & ~0x7F) != 0) {
+            gaps[length++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        gaps[length++] = (byte) value;
+    }
+
+    // Decodes one block into docs[]; returns the number of documents in it
+    private int decodeBlock(int block, int[] docs) {
+        int count = Math.min(BLOCK_SIZE, size - block * BLOCK_SIZE);
+        int doc = blockFirstDoc[block];
+        int offset = blockOffset[block];
+        docs[0] = doc;
+        for (int i = 1; i < count; i++) {
+            int gap = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = gaps[offset++];
+                gap |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            doc += gap;
+            docs[i] = doc;
+        }
+        return count;
+    }
+
+    // Last block whose first document is <= target, or -1
+    private int findBlock(int target, int upTo) {
+        int low = 0;
+        int high = upTo;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (blockFirstDoc[mid] <= target) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return high;
+    }
+
+    /**
+     * Descending iterator. doc() is the current document, or -1 once the list is exhausted.
+     */
+    final class Cursor {
+
+        private final int[] docs = new int[BLOCK_SIZE];
+        private int block = -1;
+        private int position = -1;
+        private int doc = Integer.MAX_VALUE;
+
+        int doc() {
+            return doc;
+        }
+
+        int cost() {
+            return size;
+        }
+
+        /**
+         * Move to the largest document <= target (never forward) and return it, or -1.
+         */
+        int advance(int target) {
+            if (doc <= target) {
+                return doc;
+            }
+            if (block >= 0 && position >= 0 && target >= docs[0]) {
+                while (docs[position] > target) {
+                    position--;
+                }
+                return doc = docs[position];
+            }
+            int candidate = findBlock(target, (block >= 0 ? block : blocks) - 1);
+            if (candidate < 0) {
+                block = -1;
+                position = -1;
+                return doc = -1;
+            }
+            block = candidate;
+            position = decodeBlock(block, docs) - 1;
+            while (docs[position] > target) {
+                position--;
+            }
+            return doc = docs[position];
+        }
+    }
+}
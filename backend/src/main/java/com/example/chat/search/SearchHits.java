@@ -0,0 +1,10 @@
+package com.example.chat.search;
+
+import java.util.List;
+
+/**
+ * PERFORMANCE - Message ids of one page of search results, newest first
+ * nextCursor is opaque and engine-specific; null when there are no further matches.
+ */
+public record SearchHits(List<Long> messageIds, String nextCursor) {
+}
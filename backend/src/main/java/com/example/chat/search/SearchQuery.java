@@ -0,0 +1,10 @@
+package com.example.chat.search;
+
+import java.util.List;
+
+/**
+ * PERFORMANCE - An analyzed search: every term must match; roomId and senderId narrow the scope
+ * when set. before is the nextCursor of the previous page, or null for the newest matches.
+ */
+public record SearchQuery(List<String> terms, Long roomId, Long senderId, String before, int limit) {
+}
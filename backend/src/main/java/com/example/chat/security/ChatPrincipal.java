@@ -0,0 +1,58 @@
+package com.example.chat.security;
+
+import com.example.chat.model.User;
+
+import java.io.Serializable;
+import java.security.Principal;
+
+/**
+ * JWT - Authenticated STOMP session user, resolved once at CONNECT
+ * Carries only what the message path needs, so frames never have to look the user up again.
+ */
+public final class ChatPrincipal implements Principal, Serializable {
+
+    private final Long id;
+    private final String username;
+    private final String displayName;
+
+    public ChatPrincipal(Long id, String username, String displayName) {
+        this.id = id;
+        this.username = username;
+        this.displayName = displayName;
+    }
+
+    public static ChatPrincipal of(User user) {
+        return new ChatPrincipal(user.getId(), user.getUsername(), user.getDisplayName());
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    @Override
+    public String getName() {
+        return username;
+    }
+
+    // Detached sender reference for new messages; never attached to a persistence context
+    public User toUser() {
+        User user = new User();
+        user.setId(id);
+        user.setUsername(username);
+        user.setDisplayName(displayName);
+        return user;
+    }
+
+    @Override
+    public String toString() {
+        return "ChatPrincipal{" + username + "}";
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.chat.security;
+
+import com.example.chat.exception.LoginThrottledException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * PERFORMANCE - Sliding-window login throttle per username and per client address
+ * Each key keeps the timestamps of its last N attempts in a ring; an attempt is refused while
+ * the oldest of those is still inside the window. Checked before the user lookup and the bcrypt
+ * verification, so a login storm costs a map lookup per refused attempt instead of a hash.
+ * A successful login clears the username's window; address windows only age out.
+ */
+@Component
+public class LoginAttemptLimiter {
+
+    @Value("${app.auth.throttle.window:1m}")
+    private Duration window = Duration.ofMinutes(1);
+
+    @Value("${app.auth.throttle.max-per-username:10}")  // PERFORMANCE - 0 disables
+    private int maxPerUsername = 10;
+
+    @Value("${app.auth.throttle.max-per-address:100}")  // PERFORMANCE - 0 disables
+    private int maxPerAddress = 100;
+
+    @Value("${app.auth.throttle.max-keys:100000}")  // PERFORMANCE - Bounds memory under spraying
+    private long maxKeys = 100_000;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    LongSupplier clock = System::nanoTime;
+
+    private Cache<String, SlidingWindow> windows;
+    private Counter throttledByUsername;
+    private Counter throttledByAddress;
+
+    @PostConstruct
+    public void init() {
+        windows = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(window)
+                .build();
+        if (meterRegistry != null) {
+            throttledByUsername = meterRegistry.counter("chat.auth.throttled", "key", "username");
+            throttledByAddress = meterRegistry.counter("chat.auth.throttled", "key", "address");
+        }
+    }
+
+    /**
+     * Record a login attempt, or throw LoginThrottledException (with the time until the oldest
+     * attempt leaves the window) when the username or the address is over its limit.
+     */
+    public void acquire(String username, String clientAddress) {
+        long now = clock.getAsLong();
+        if (clientAddress != null && maxPerAddress > 0) {
+            long wait = windows.get("a:" + clientAddress, key -> new SlidingWindow(maxPerAddress))
+                    .tryAcquire(now, window.toNanos());
+            if (wait > 0) {
+                increment(throttledByAddress);
+                throw new LoginThrottledException("Too many login attempts from this address", Duration.ofNanos(wait));
+            }
+        }
+        if (username != null && maxPerUsername > 0) {
+            long wait = windows.get("u:" + username, key -> new SlidingWindow(maxPerUsername))
+                    .tryAcquire(now, window.toNanos());
+            if (wait > 0) {
+                increment(throttledByUsername);
+                throw new LoginThrottledException("Too many login attempts for this user", Duration.ofNanos(wait));
+            }
+        }
+    }
+
+    // SESSION/COOKIES - The owner got in; earlier failures no longer count against the username
+    public void reset(String username) {
+        if (username != null) {
+            windows.invalidate("u:" + username);
+        }
+    }
+
+    private static void increment(Counter counter) {
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+
+    /**
+     * Timestamps of the last {@code limit} attempts, oldest at {@code next} once the ring is full.
+     */
+    static final class SlidingWindow {
+
+        private final long[] attempts;
+        private int next;
+        private int size;
+
+        SlidingWindow(int limit) {
+            this.attempts = new long[limit];
+        }
+
+        // Returns 0 when the attempt is admitted, otherwise the nanoseconds until one would be
+        synchronized long tryAcquire(long now, long windowNanos) {
+            if (size == attempts.length) {
+                long age = now - attempts[next];
+                if (age < windowNanos) {
+                    return windowNanos - age;
+                }
+            } else {
+                size++;
+            }
+            attempts[next] = now;
+            next = (next + 1) % attempts.length;
+            return 0;
+        }
+    }
+}
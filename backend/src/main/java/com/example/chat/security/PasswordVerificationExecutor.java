@@ -0,0 +1,130 @@
+package com.example.chat.security;
+
+import com.example.chat.exception.AuthenticationException;
+import com.example.chat.exception.LoginThrottledException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * PERFORMANCE - Bounded executor for password hashing (bcrypt matches and rehashes)
+ * A fixed number of threads caps the cores bcrypt can take during a login storm, leaving the
+ * rest to the message path. Waiting work is held in a bounded queue; when it is full, or a
+ * caller has waited longer than the timeout, the login is refused with LoginThrottledException
+ * (HTTP 429) instead of piling up request threads.
+ */
+@Component
+public class PasswordVerificationExecutor {
+
+    @Value("${app.auth.verify.threads:0}")  // PERFORMANCE - 0: half the available processors
+    private int threads;
+
+    @Value("${app.auth.verify.queue-capacity:64}")
+    private int queueCapacity = 64;
+
+    @Value("${app.auth.verify.timeout:5s}")  // PERFORMANCE - Longest a login waits for its turn and hash
+    private Duration timeout = Duration.ofSeconds(5);
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    private ThreadPoolExecutor executor;
+    private Timer verifyTimer;
+    private Timer waitTimer;
+    private Counter rejected;
+
+    @PostConstruct
+    public void init() {
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("login-verify-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        if (meterRegistry != null) {
+            verifyTimer = meterRegistry.timer("chat.auth.verify");
+            waitTimer = meterRegistry.timer("chat.auth.verify.wait");
+            rejected = meterRegistry.counter("chat.auth.verify.rejected");
+            Gauge.builder("chat.auth.verify.queue_depth", executor.getQueue(), BlockingQueue::size)
+                    .register(meterRegistry);
+            ExecutorServiceMetrics.monitor(meterRegistry, executor, "auth.verify");
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Run a hashing task on the verification pool and wait for its result.
+     */
+    public <T> T call(Callable<T> task) {
+        long submitted = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long started = System.nanoTime();
+                record(waitTimer, started - submitted);
+                try {
+                    return task.call();
+                } finally {
+                    record(verifyTimer, System.nanoTime() - started);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            reject();
+            throw new LoginThrottledException("Login verification is saturated", Duration.ofSeconds(1));
+        }
+
+        try {
+            return future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            reject();
+            throw new LoginThrottledException("Login verification timed out", Duration.ofSeconds(1));
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new AuthenticationException("Login verification interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new AuthenticationException("Login verification failed", e.getCause());
+        }
+    }
+
+    int queueDepth() {
+        return executor.getQueue().size();
+    }
+
+    private void reject() {
+        if (rejected != null) {
+            rejected.increment();
+        }
+    }
+
+    private static void record(Timer timer, long nanos) {
+        if (timer != null) {
+            timer.record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.chat.security;
+
+import com.example.chat.exception.AuthenticationException;
+import com.example.chat.exception.UserNotFoundException;
+import com.example.chat.service.UserLookupCache;
+import io.jsonwebtoken.Claims;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+
+/**
+ * JWT - Authenticates STOMP sessions once, on the CONNECT frame
+ * The token comes from the "Authorization: Bearer ..." (or "token") native header. On success a
+ * ChatPrincipal is set as the session user; Spring keeps it for every later frame of the session,
+ * so handlers read the sender from the header accessor instead of trusting payload fields.
+ * Other frames pass through untouched. A CONNECT without a token is accepted as anonymous (handlers
+ * then fall back to the payload username) until app.websocket.auth.required is switched on; an
+ * invalid token is always rejected.
+ */
+@Component
+public class StompAuthChannelInterceptor implements ChannelInterceptor {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    @Value("${app.websocket.auth.required:false}")
+    private boolean authRequired;
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;  // JWT - Cached verification
+
+    @Autowired
+    private UserLookupCache userLookupCache;  // PERFORMANCE - One cached lookup per session, not per frame
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() != StompCommand.CONNECT) {
+            return message;
+        }
+
+        String token = resolveToken(accessor);
+        if (token == null) {
+            if (authRequired) {
+                throw new AuthenticationException("Missing token on STOMP CONNECT");
+            }
+            return message;
+        }
+
+        Claims claims = jwtTokenProvider.verifyToken(token)
+                .orElseThrow(() -> new AuthenticationException("Invalid token on STOMP CONNECT"));
+        try {
+            accessor.setUser(ChatPrincipal.of(userLookupCache.getSender(claims.getSubject())));
+        } catch (UserNotFoundException e) {
+            throw new AuthenticationException("Token subject is not a known user", e);
+        }
+        return message;
+    }
+
+    private static String resolveToken(StompHeaderAccessor accessor) {
+        String authorization = accessor.getFirstNativeHeader("Authorization");
+        if (authorization != null && authorization.startsWith(BEARER_PREFIX)) {
+            return authorization.substring(BEARER_PREFIX.length());
+        }
+        String token = accessor.getFirstNativeHeader("token");
+        return token == null || token.isEmpty() ? null : token;
+    }
+}
@@ -6,7 +6,10 @@ import com.example.chat.dto.RegisterRequest;
 import com.example.chat.dto.UserDto;
 import com.example.chat.model.User;
 import com.example.chat.repository.UserRepository;
+import com.example.chat.exception.LoginThrottledException;
 import com.example.chat.security.JwtTokenProvider;
+import com.example.chat.security.LoginAttemptLimiter;
+import com.example.chat.security.PasswordVerificationExecutor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -27,14 +30,35 @@ public class AuthService {
     @Autowired
     private JwtTokenProvider jwtTokenProvider;  // JWT - Token provider
 
+    @Autowired
+    private UserLookupCache userLookupCache;  // PERFORMANCE - Sender cache to invalidate on user changes
+
+    @Autowired
+    private LoginAttemptLimiter loginAttemptLimiter;  // PERFORMANCE - Sliding-window throttle per username/address
+
+    @Autowired
+    private PasswordVerificationExecutor passwordVerificationExecutor;  // PERFORMANCE - Bounded bcrypt pool
+
     // JWT - User login with token generation
     public AuthResponse login(LoginRequest loginRequest) {
+        return login(loginRequest, null);
+    }
+
+    // JWT - User login; clientAddress (may be null) is throttled alongside the username
+    public AuthResponse login(LoginRequest loginRequest, String clientAddress) {
+        loginAttemptLimiter.acquire(loginRequest.getUsername(), clientAddress);  // PERFORMANCE - Throws LoginThrottledException
+
         User user = userRepository.findByUsername(loginRequest.getUsername())
                 .orElseThrow(() -> new RuntimeException("User not found"));  // RESOLVE SOLUTION - Exception handling
 
-        if (!passwordEncoder.matches(loginRequest.getPassword(), user.getPassword())) {  // SESSION/COOKIES - Password validation
+        String storedHash = user.getPassword();
+        boolean matches = passwordVerificationExecutor.call(
+                () -> passwordEncoder.matches(loginRequest.getPassword(), storedHash));  // SESSION/COOKIES - Password validation
+        if (!matches) {
             throw new RuntimeException("Invalid password");  // RESOLVE SOLUTION - Exception handling
         }
+        loginAttemptLimiter.reset(user.getUsername());
+        rehashIfCostChanged(user, loginRequest.getPassword());
 
         String token = jwtTokenProvider.generateToken(user.getUsername());  // JWT - Generate token
         UserDto userDto = new UserDto(user.getId(), user.getUsername(), user.getEmail(), 
@@ -43,6 +67,19 @@ public class AuthService {
         return new AuthResponse(token, userDto);  // DESIGN PATTERN - DTO pattern
     }
 
+    // SESSION/COOKIES - Re-encode at the configured bcrypt cost while the plain password is at hand
+    private void rehashIfCostChanged(User user, String rawPassword) {
+        if (!passwordEncoder.upgradeEncoding(user.getPassword())) {
+            return;
+        }
+        try {
+            user.setPassword(passwordVerificationExecutor.call(() -> passwordEncoder.encode(rawPassword)));
+            userRepository.save(user);
+        } catch (LoginThrottledException e) {
+            // PERFORMANCE - Best effort: under load the rehash waits for a later login
+        }
+    }
+
     // JWT - User registration with token generation
     public AuthResponse register(RegisterRequest registerRequest) {
         if (userRepository.existsByUsername(registerRequest.getUsername())) {  // DESIGN PATTERN - Repository pattern
@@ -60,6 +97,7 @@ public class AuthService {
         user.setPassword(passwordEncoder.encode(registerRequest.getPassword()));  // SESSION/COOKIES - Password encoding
 
         User savedUser = userRepository.save(user);  // DESIGN PATTERN - Repository pattern
+        userLookupCache.invalidate(savedUser.getUsername());  // PERFORMANCE - Drop any stale sender entry
 
         String token = jwtTokenProvider.generateToken(savedUser.getUsername());  // JWT - Generate token
         UserDto userDto = new UserDto(savedUser.getId(), savedUser.getUsername(), 
@@ -0,0 +1,162 @@
+package com.example.chat.service;
+
+import com.example.chat.cluster.ClusterFanoutService;
+import com.example.chat.cluster.RoomDestinations;
+import com.example.chat.dto.ChatEventDto;
+import com.example.chat.dto.MessageDto;
+import com.example.chat.dto.MessageMapper;
+import com.example.chat.exception.UserNotFoundException;
+import com.example.chat.model.Message;
+import com.example.chat.model.MessageType;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * KAFKA - Consumes chat-messages and fans the events into persistence and WebSocket rooms
+ * Active when app.messages.ingest=kafka: WebSocket nodes only publish, and whichever node owns a
+ * partition persists its events in one batch per poll and relays them to the room destinations
+ * (through the cluster fan-out, so subscribers on every node receive them). Offsets are committed
+ * after the batch is stored; redelivered events are recognised by message id and not stored twice.
+ */
+@Component
+@ConditionalOnProperty(name = "app.messages.ingest", havingValue = "kafka")
+public class ChatEventConsumer {
+
+    private static final Logger log = LoggerFactory.getLogger(ChatEventConsumer.class);
+
+    @Autowired
+    private MessageService messageService;
+
+    @Autowired
+    private UserLookupCache userLookupCache;  // PERFORMANCE - Sender references without a query
+
+    @Autowired
+    private ClusterFanoutService clusterFanout;  // WEBSOCKET - Relay to room subscribers
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<TopicPartition, AtomicLong> lagByPartition = new ConcurrentHashMap<>();
+
+    private Counter consumed;
+    private Counter skipped;
+    private Timer batchTimer;
+    private Timer endToEnd;
+
+    @PostConstruct
+    void init() {
+        consumed = meterRegistry.counter("chat.kafka.consumer.consumed");
+        skipped = meterRegistry.counter("chat.kafka.consumer.skipped");
+        batchTimer = meterRegistry.timer("chat.kafka.consumer.batch");
+        endToEnd = meterRegistry.timer("chat.kafka.consumer.delay");  // Publish-to-relay latency
+    }
+
+    @KafkaListener(id = "chat-events", topics = KafkaService.MESSAGE_TOPIC,
+            containerFactory = "chatEventListenerFactory")
+    public void onEvents(List<ConsumerRecord<String, String>> records, Consumer<?, ?> consumer) {
+        batchTimer.record(() -> process(records));
+        recordLag(consumer);
+    }
+
+    private void process(List<ConsumerRecord<String, String>> records) {
+        consumed.increment(records.size());
+        List<Message> messages = new ArrayList<>(records.size());
+        List<Long> publishedAt = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, String> record : records) {
+            Message message = toMessage(record);
+            if (message != null) {
+                messages.add(message);
+                publishedAt.add(record.timestamp());
+            }
+        }
+        if (messages.isEmpty()) {
+            return;
+        }
+
+        // PERFORMANCE - One transaction and one saveAll per poll; ids already stored are not relayed again
+        List<Message> stored = messageService.saveConsumedBatch(messages);
+
+        // WEBSOCKET - Relay in partition order, i.e. in send order per room
+        long now = System.currentTimeMillis();
+        for (Message message : stored) {
+            clusterFanout.broadcast(RoomDestinations.messages(message.getChatRoomId()),
+                    MessageMapper.toDto(message), String.valueOf(message.getId()));
+        }
+        for (Long timestamp : publishedAt) {
+            endToEnd.record(Math.max(0, now - timestamp), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // RESOLVE SOLUTION - A malformed event or unknown sender is logged and skipped, not retried forever
+    private Message toMessage(ConsumerRecord<String, String> record) {
+        try {
+            ChatEventDto event = objectMapper.readValue(record.value(), ChatEventDto.class);
+            if (!ChatEventDto.MESSAGE.equals(event.getType()) || event.getMessage() == null
+                    || event.getMessage().getSender() == null) {
+                skipped.increment();
+                return null;
+            }
+            MessageDto dto = event.getMessage();
+            Message message = new Message();
+            message.setId(dto.getId());
+            message.setContent(dto.getContent());
+            message.setType(dto.getType() != null ? MessageType.valueOf(dto.getType()) : MessageType.TEXT);
+            message.setSender(userLookupCache.getSender(dto.getSender().getUsername()));
+            message.setChatRoomId(event.getRoomId());
+            LocalDateTime createdAt = dto.getCreatedAt() != null ? LocalDateTime.parse(dto.getCreatedAt()) : LocalDateTime.now();
+            message.setCreatedAt(createdAt);
+            message.setUpdatedAt(createdAt);
+            return message;
+        } catch (JsonProcessingException | UserNotFoundException | DateTimeParseException | IllegalArgumentException e) {
+            log.warn("Skipping chat event at {}-{}@{}", record.topic(), record.partition(), record.offset(), e);
+            skipped.increment();
+            return null;
+        }
+    }
+
+    // KAFKA - Records behind the log end per assigned partition, as seen by this consumer
+    private void recordLag(Consumer<?, ?> consumer) {
+        for (TopicPartition partition : consumer.assignment()) {
+            OptionalLong lag = consumer.currentLag(partition);
+            if (lag.isPresent()) {
+                lagByPartition.computeIfAbsent(partition, this::registerLagGauge).set(lag.getAsLong());
+            }
+        }
+    }
+
+    private AtomicLong registerLagGauge(TopicPartition partition) {
+        AtomicLong lag = new AtomicLong();
+        Gauge.builder("chat.kafka.consumer.lag", lag, AtomicLong::get)
+                .tags(Tags.of("topic", partition.topic(), "partition", String.valueOf(partition.partition())))
+                .register(meterRegistry);
+        return lag;
+    }
+}
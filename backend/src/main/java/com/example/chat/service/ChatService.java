@@ -1,14 +1,14 @@
 package com.example.chat.service;
 
+import com.example.chat.directory.RoomDirectoryService;
 import com.example.chat.model.ChatRoom;
 import com.example.chat.model.RoomType;
 import com.example.chat.repository.ChatRoomRepository;
+import com.example.chat.summary.RoomSummaryService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.List;
 
 @Service
 public class ChatService {
@@ -16,9 +16,14 @@ public class ChatService {
     @Autowired
     private ChatRoomRepository chatRoomRepository;
 
-    public List<ChatRoom> getAllRooms() {
-        return chatRoomRepository.findAll();
-    }
+    @Autowired
+    private RecentMessageBuffer recentMessageBuffer;
+
+    @Autowired
+    private RoomSummaryService roomSummaryService;
+
+    @Autowired
+    private RoomDirectoryService roomDirectoryService;
 
     public ChatRoom getRoomById(Long roomId) {
         return chatRoomRepository.findById(roomId)
@@ -32,19 +37,17 @@ public class ChatService {
         room.setType(RoomType.PUBLIC);
         room.setCreatedAt(LocalDateTime.now());
         room.setUpdatedAt(LocalDateTime.now());
-        return chatRoomRepository.save(room);
+        ChatRoom saved = chatRoomRepository.save(room);
+        roomSummaryService.roomCreated(saved);  // PERFORMANCE - Listed before its first message
+        roomDirectoryService.invalidate();
+        return saved;
     }
 
     public void deleteRoom(Long roomId) {
         ChatRoom room = getRoomById(roomId);
         chatRoomRepository.delete(room);
-    }
-
-    public List<String> getOnlineUsers() {
-        // For now, return a mock list of online users
-        // In a real application, you would track online users
-        List<String> onlineUsers = new ArrayList<>();
-        onlineUsers.add("Luncantat");
-        return onlineUsers;
+        recentMessageBuffer.invalidate(roomId);
+        roomSummaryService.roomDeleted(roomId);
+        roomDirectoryService.invalidate();
     }
 }
@@ -1,28 +1,171 @@
 package com.example.chat.service;
 
+import com.example.chat.dto.ChatEventDto;
+import com.example.chat.dto.MessageDto;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * KAFKA - Asynchronous chat event publisher
+ * Events are JSON encoded and keyed (room id for messages, username for activity) so each key
+ * stays on one partition and keeps its order. Sends never wait for the broker: the number of
+ * unacknowledged events is bounded, and once the bound is reached new events are either dropped
+ * or wait up to block-timeout-ms for a slot (app.kafka.producer.overflow-policy). Completion
+ * callbacks feed the chat.kafka.producer.* metrics.
+ */
 @Service
 public class KafkaService {
 
+    private static final Logger log = LoggerFactory.getLogger(KafkaService.class);
+
+    public static final String MESSAGE_TOPIC = "chat-messages";
+    public static final String USER_ACTIVITY_TOPIC = "user-activity";
+    public static final String SYSTEM_TOPIC = "system-notifications";
+
+    @Value("${app.kafka.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.kafka.producer.max-in-flight-events:10000}")
+    private int maxInFlightEvents;
+
+    @Value("${app.kafka.producer.overflow-policy:drop}")  // drop or block
+    private String overflowPolicy;
+
+    @Value("${app.kafka.producer.block-timeout-ms:200}")
+    private long blockTimeoutMs;
+
     @Autowired
     private KafkaTemplate<String, String> kafkaTemplate;
 
-    private static final String MESSAGE_TOPIC = "chat-messages";
-    private static final String USER_ACTIVITY_TOPIC = "user-activity";
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Semaphore inFlight;
+    private boolean blockWhenFull;
+
+    private Counter acked;
+    private Counter failed;
+    private Counter dropped;
+    private Timer ackLatency;
 
-    public void sendMessage(String message) {
-        kafkaTemplate.send(MESSAGE_TOPIC, message);
+    @PostConstruct
+    void init() {
+        switch (overflowPolicy) {
+            case "drop" -> blockWhenFull = false;
+            case "block" -> blockWhenFull = true;
+            default -> throw new IllegalArgumentException("Unknown Kafka overflow policy: " + overflowPolicy);
+        }
+        inFlight = new Semaphore(maxInFlightEvents);
+        acked = meterRegistry.counter("chat.kafka.producer.acked");
+        failed = meterRegistry.counter("chat.kafka.producer.failed");
+        dropped = meterRegistry.counter("chat.kafka.producer.dropped");
+        ackLatency = meterRegistry.timer("chat.kafka.producer.ack");
+        Gauge.builder("chat.kafka.producer.in_flight", inFlight,
+                        permits -> maxInFlightEvents - permits.availablePermits())
+                .register(meterRegistry);
     }
 
-    public void sendUserActivity(String username, String activity) {
-        String activityMessage = username + ":" + activity;
-        kafkaTemplate.send(USER_ACTIVITY_TOPIC, activityMessage);
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // KAFKA - Message events are keyed by room id: one partition per room keeps room order
+    public boolean publishMessage(Long roomId, MessageDto message) {
+        return publishMessage(roomId, message, null);
+    }
+
+    /**
+     * Like {@link #publishMessage(Long, MessageDto)}, and runs {@code onFailure} (on a producer
+     * thread) if the broker later fails the send that this call accepted.
+     */
+    public boolean publishMessage(Long roomId, MessageDto message, Runnable onFailure) {
+        ChatEventDto event = new ChatEventDto(ChatEventDto.MESSAGE, roomId, message, null, null);
+        return publish(MESSAGE_TOPIC, String.valueOf(roomId), event, onFailure);
+    }
+
+    public boolean sendUserActivity(String username, String activity) {
+        ChatEventDto event = new ChatEventDto(ChatEventDto.USER_ACTIVITY, null, null, username, activity);
+        return publish(USER_ACTIVITY_TOPIC, username, event, null);
+    }
+
+    public boolean sendSystemNotification(String notification) {
+        ChatEventDto event = new ChatEventDto(ChatEventDto.SYSTEM, null, null, null, notification);
+        return publish(SYSTEM_TOPIC, null, event, null);
+    }
+
+    /**
+     * Hand an event to the producer. Returns false when publishing is disabled, the event was
+     * dropped by the overflow policy, or the producer rejected it synchronously; onFailure only
+     * covers sends that failed after this returned true.
+     */
+    boolean publish(String topic, String key, ChatEventDto event, Runnable onFailure) {
+        if (!enabled) {
+            return false;
+        }
+        if (!acquireSlot()) {
+            dropped.increment();
+            return false;
+        }
+
+        // The template can report a failure both by throwing and through the future
+        AtomicBoolean settled = new AtomicBoolean();
+        long start = System.nanoTime();
+        try {
+            String payload = objectMapper.writeValueAsString(event);
+            kafkaTemplate.send(topic, key, payload).whenComplete((result, ex) -> {
+                if (!settled.compareAndSet(false, true)) {
+                    return;
+                }
+                inFlight.release();
+                ackLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                if (ex == null) {
+                    acked.increment();
+                } else {
+                    failed.increment();
+                    log.warn("Kafka send to {} (key {}) failed", topic, key, ex);
+                    if (onFailure != null) {
+                        onFailure.run();
+                    }
+                }
+            });
+            return true;
+        } catch (JsonProcessingException | RuntimeException e) {
+            if (settled.compareAndSet(false, true)) {
+                inFlight.release();
+                failed.increment();
+            }
+            log.warn("Kafka send to {} (key {}) rejected", topic, key, e);
+            return false;
+        }
     }
 
-    public void sendSystemNotification(String notification) {
-        kafkaTemplate.send("system-notifications", notification);
+    private boolean acquireSlot() {
+        if (!blockWhenFull) {
+            return inFlight.tryAcquire();
+        }
+        try {
+            return inFlight.tryAcquire(blockTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
     }
 }
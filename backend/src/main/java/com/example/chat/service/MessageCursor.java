@@ -0,0 +1,67 @@
+package com.example.chat.service;
+
+import com.example.chat.exception.ValidationException;
+import com.example.chat.model.Message;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * PERFORMANCE - Opaque keyset cursor for room history pagination
+ * Encodes the (createdAt, id) position of the oldest message of a page so the next
+ * page can seek on the composite index instead of using OFFSET.
+ */
+public final class MessageCursor implements Comparable<MessageCursor> {
+
+    private static final char SEPARATOR = '|';
+
+    private final LocalDateTime createdAt;
+    private final Long id;
+
+    public MessageCursor(LocalDateTime createdAt, Long id) {
+        this.createdAt = createdAt;
+        this.id = id;
+    }
+
+    public static MessageCursor of(Message message) {
+        return new MessageCursor(message.getCreatedAt(), message.getId());
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    // Same ordering as the history queries: createdAt, then id
+    @Override
+    public int compareTo(MessageCursor other) {
+        int byTime = createdAt.compareTo(other.createdAt);
+        return byTime != 0 ? byTime : id.compareTo(other.id);
+    }
+
+    public String encode() {
+        String raw = createdAt.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // RESOLVE SOLUTION - Reject tampered or malformed cursors with a 400 instead of a 500
+    public static MessageCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new ValidationException("Invalid message cursor");
+            }
+            return new MessageCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.valueOf(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new ValidationException("Invalid message cursor", e);
+        }
+    }
+}
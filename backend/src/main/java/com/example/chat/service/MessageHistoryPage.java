@@ -0,0 +1,32 @@
+package com.example.chat.service;
+
+import com.example.chat.model.Message;
+
+import java.util.List;
+
+/**
+ * PERFORMANCE - One keyset page of room history, oldest message first
+ */
+public class MessageHistoryPage {
+
+    private final List<Message> messages;
+    private final String nextCursor;
+
+    public MessageHistoryPage(List<Message> messages, String nextCursor) {
+        this.messages = messages;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<Message> getMessages() {
+        return messages;
+    }
+
+    // Cursor for the page of older messages, or null when the start of the room was reached
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean hasMore() {
+        return nextCursor != null;
+    }
+}
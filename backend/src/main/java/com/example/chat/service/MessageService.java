@@ -1,40 +1,157 @@
 package com.example.chat.service;
 
+import com.example.chat.archive.MessageArchive;
+import com.example.chat.dto.MessageDto;
+import com.example.chat.dto.MessageMapper;
+import com.example.chat.dto.MessagePageDto;
 import com.example.chat.model.Message;
 import com.example.chat.model.MessageType;
 import com.example.chat.model.MessageStatus;
 import com.example.chat.model.User;
+import com.example.chat.receipt.UnreadTracker;
 import com.example.chat.repository.MessageRepository;
-import com.example.chat.repository.UserRepository;
+import com.example.chat.search.MessageSearchIndex;
+import com.example.chat.summary.RoomSummaryService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 public class MessageService {
 
+    public static final int MAX_PAGE_SIZE = 100;
+
     @Autowired
     private MessageRepository messageRepository;
 
     @Autowired
-    private UserRepository userRepository;
+    private UserLookupCache userLookupCache;  // PERFORMANCE - No user query per message in steady state
+
+    @Autowired
+    private RecentMessageBuffer recentMessageBuffer;  // PERFORMANCE - Hot-room tail cache
+
+    @Autowired
+    private MessageIdGenerator messageIdGenerator;  // PERFORMANCE - Locally generated, time-ordered ids
+
+    @Autowired
+    private MessageWriteBehindQueue writeBehindQueue;  // PERFORMANCE - Batched asynchronous persistence
+
+    @Autowired
+    private MessageArchive messageArchive;  // PERFORMANCE - Cold tier for months past the hot retention
 
+    @Autowired
+    private MessageSearchIndex searchIndex;  // PERFORMANCE - Updated incrementally as messages are persisted
+
+    @Autowired
+    private RoomSummaryService roomSummaryService;  // PERFORMANCE - Room list rows and unread tails
+
+    @Autowired
+    private RedisService redisService;  // REDIS - room_messages:* tails, when enabled
+
+    @Autowired
+    private UnreadTracker unreadTracker;  // PERFORMANCE - Newest ids per room, for unread counts and ack checks
+
+    // PERFORMANCE - Page N of the newest messages, returned oldest first for display
+    @Transactional(readOnly = true)
     public List<Message> getMessagesByRoomId(Long roomId, int page, int size) {
-        // Return all messages for the room (simple implementation)
-        return messageRepository.findAll().stream()
-                .filter(message -> message.getChatRoomId().equals(roomId))
+        List<Message> messages = new ArrayList<>(messageRepository.findLatestByRoomId(
+                roomId, PageRequest.of(Math.max(page, 0), clampPageSize(size))));
+        Collections.reverse(messages);
+        return messages;
+    }
+
+    // PERFORMANCE - Keyset pagination: seek before the cursor instead of scanning with OFFSET
+    @Transactional(readOnly = true)
+    public MessageHistoryPage getMessagesBefore(Long roomId, String before, int limit) {
+        int pageSize = clampPageSize(limit);
+        PageRequest probe = PageRequest.ofSize(pageSize + 1);  // One extra row tells us whether more pages exist
+
+        MessageCursor cursor = before == null || before.isBlank() ? null : MessageCursor.decode(before);
+        List<Message> rows;
+        if (messageArchive.coversBefore(cursor)) {
+            rows = new ArrayList<>();  // PERFORMANCE - Cursor is in the cold tier: the hot table has nothing older
+        } else if (cursor == null) {
+            rows = new ArrayList<>(messageRepository.findLatestByRoomId(roomId, probe));
+        } else {
+            rows = new ArrayList<>(messageRepository.findByRoomIdBefore(roomId, cursor.getCreatedAt(), cursor.getId(), probe));
+        }
+        if (rows.size() <= pageSize && messageArchive.isEnabled()) {
+            // The hot table ran out: continue below its oldest row in the cold tier
+            MessageCursor from = rows.isEmpty() ? cursor : MessageCursor.of(rows.get(rows.size() - 1));
+            rows.addAll(messageArchive.readBefore(roomId, from, pageSize + 1 - rows.size()));
+        }
+
+        boolean hasMore = rows.size() > pageSize;
+        List<Message> page = new ArrayList<>(hasMore ? rows.subList(0, pageSize) : rows);
+        String nextCursor = hasMore ? MessageCursor.of(page.get(page.size() - 1)).encode() : null;
+        Collections.reverse(page);
+        return new MessageHistoryPage(page, nextCursor);
+    }
+
+    // PERFORMANCE - Room history as DTOs, answered from the hot-room buffer whenever possible
+    @Transactional(readOnly = true)
+    public MessagePageDto getRoomHistory(Long roomId, String before, int limit) {
+        int pageSize = clampPageSize(limit);
+        MessagePageDto cached = recentMessageBuffer.read(roomId, before, pageSize);
+        if (cached == null && (before == null || before.isBlank()) && warmBuffer(roomId)) {
+            cached = recentMessageBuffer.read(roomId, null, pageSize);
+        }
+        if (cached != null) {
+            return cached;
+        }
+
+        MessageHistoryPage page = getMessagesBefore(roomId, before, pageSize);
+        List<MessageDto> messageDtos = page.getMessages().stream()
+                .map(MessageMapper::toDto)
+                .toList();
+        return new MessagePageDto(messageDtos, page.getNextCursor(), page.hasMore());
+    }
+
+    // PERFORMANCE - Offset pages; the newest page is served from the hot-room buffer
+    @Transactional(readOnly = true)
+    public List<MessageDto> getRecentMessages(Long roomId, int page, int size) {
+        if (page <= 0) {
+            return getRoomHistory(roomId, null, size).getMessages();
+        }
+        return getMessagesByRoomId(roomId, page, size).stream()
+                .map(MessageMapper::toDto)
                 .toList();
     }
 
+    // PERFORMANCE - Load a full buffer's worth of the newest rows once for a cold room
+    private boolean warmBuffer(Long roomId) {
+        if (!recentMessageBuffer.isEnabled()) {
+            return false;
+        }
+        int capacity = recentMessageBuffer.getCapacity();
+        List<Message> newest = messageRepository.findLatestByRoomId(roomId, PageRequest.ofSize(capacity + 1));
+        // Older messages may be archived, so the buffer can only hold the whole room without a cold tier
+        recentMessageBuffer.seed(roomId, newest, newest.size() <= capacity && !messageArchive.isEnabled());
+        return true;
+    }
+
+    private int clampPageSize(int size) {
+        return Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+    }
+
     public Message sendMessage(Long roomId, String content, String username) {
-        // Try to find user, if not found, use the first available user
-        User sender = userRepository.findByUsername(username)
-                .orElse(userRepository.findAll().stream().findFirst()
-                        .orElseThrow(() -> new RuntimeException("No users found in database")));
+        User sender = userLookupCache.getSender(username);
 
         Message message = new Message();
+        message.setId(messageIdGenerator.nextId());
         message.setContent(content);
         message.setType(MessageType.TEXT);
         message.setStatus(MessageStatus.SENT);
@@ -43,10 +160,132 @@ public class MessageService {
         message.setCreatedAt(LocalDateTime.now());
         message.setUpdatedAt(LocalDateTime.now());
 
-        return messageRepository.save(message);
+        Message saved = messageRepository.save(message);
+        recentMessageBuffer.record(saved);
+        roomSummaryService.record(saved);
+        searchIndex.index(List.of(saved));
+        redisService.cachePersisted(List.of(saved));
+        return saved;
     }
 
     public Message saveMessage(Message message) {
-        return messageRepository.save(message);
+        if (message.getId() == null) {
+            message.setId(messageIdGenerator.nextId());
+        }
+        if (message.getStatus() == MessageStatus.PENDING) {
+            message.setStatus(MessageStatus.SENT);
+        }
+        Message saved = messageRepository.save(message);
+        recentMessageBuffer.record(saved);  // PERFORMANCE - Keep the hot-room tail current
+        roomSummaryService.record(saved);
+        searchIndex.index(List.of(saved));
+        redisService.cachePersisted(List.of(saved));
+        return saved;
+    }
+
+    /**
+     * KAFKA - Direct-path fallback for a message whose publish failed. The failure may be
+     * ambiguous (the broker stored the event but the ack was lost), so the consumer may already
+     * have stored and relayed the same id. Returns null when it did, so the caller neither
+     * broadcasts twice nor queues a row that would collide with the stored one.
+     */
+    public MessageDto acceptUnlessStored(Message message) {
+        if (messageRepository.existsById(message.getId())) {
+            return null;
+        }
+        try {
+            return MessageMapper.toDto(saveMessage(message));
+        } catch (DataIntegrityViolationException e) {
+            return null;  // The consumer stored it between the check and the insert
+        }
+    }
+
+    /**
+     * KAFKA - Assign an id and take the PENDING snapshot of a message that will be persisted and
+     * delivered by the chat-messages consumer rather than on this node.
+     */
+    public MessageDto stageMessage(Message message) {
+        message.setId(messageIdGenerator.nextId());
+        message.setStatus(MessageStatus.PENDING);
+        return MessageMapper.toDto(message);
+    }
+
+    /**
+     * KAFKA - Persist a batch of consumed messages in one transaction. Messages whose id is
+     * already stored (redelivery after a rebalance or a failed commit, or a message the sending
+     * node persisted itself after an ambiguous publish failure) are skipped. Returns only the
+     * messages stored by this call, in their original order and in SENT state; the skipped ones
+     * were relayed by whoever stored them.
+     */
+    @Transactional
+    public List<Message> saveConsumedBatch(List<Message> messages) {
+        if (messages.isEmpty()) {
+            return messages;
+        }
+        Map<Long, Message> byId = new LinkedHashMap<>();
+        for (Message message : messages) {
+            message.setStatus(MessageStatus.SENT);
+            byId.putIfAbsent(message.getId(), message);
+        }
+        Set<Long> existing = new HashSet<>(messageRepository.findExistingIds(byId.keySet()));
+        List<Message> fresh = new ArrayList<>(byId.size());
+        for (Message message : byId.values()) {
+            if (!existing.contains(message.getId())) {
+                fresh.add(message);
+            }
+        }
+        if (!fresh.isEmpty()) {
+            messageRepository.saveAll(fresh);
+            fresh.forEach(recentMessageBuffer::record);
+            afterCommit(fresh);
+        }
+        return fresh;
+    }
+
+    // PERFORMANCE - Room summaries, search and the Redis tails only see messages whose rows are committed
+    private void afterCommit(List<Message> messages) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            recordCommitted(messages);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                recordCommitted(messages);
+            }
+        });
+    }
+
+    private void recordCommitted(List<Message> messages) {
+        messages.forEach(roomSummaryService::record);
+        searchIndex.index(messages);
+        redisService.cachePersisted(messages);
+    }
+
+    /**
+     * PERFORMANCE - Accept a message for broadcast without waiting for the database.
+     * The message gets its id immediately and is handed to the write-behind queue; if the queue
+     * is disabled or saturated it is saved synchronously instead. Returns the DTO snapshot to
+     * broadcast, taken before the writer thread can touch the entity. A message staged for Kafka
+     * keeps its id, so the consumer and this path cannot both store it.
+     */
+    public MessageDto acceptMessage(Message message) {
+        if (message.getId() == null) {
+            message.setId(messageIdGenerator.nextId());
+        }
+        if (!writeBehindQueue.isEnabled()) {
+            return MessageMapper.toDto(saveMessage(message));
+        }
+
+        message.setStatus(MessageStatus.SENT);
+        recentMessageBuffer.record(message, MessageMapper.toDto(message));  // History shows the durable state
+        unreadTracker.record(message);  // Receivers may acknowledge it before the batch is flushed
+        message.setStatus(MessageStatus.PENDING);
+        MessageDto dto = MessageMapper.toDto(message);
+        if (!writeBehindQueue.submit(message)) {
+            saveMessage(message);  // Back-pressure: persist on the caller's thread
+            dto.setStatus(MessageStatus.SENT.toString());
+        }
+        return dto;
     }
 }
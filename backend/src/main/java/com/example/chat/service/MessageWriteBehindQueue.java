@@ -0,0 +1,293 @@
+package com.example.chat.service;
+
+import com.example.chat.cluster.ClusterFanoutService;
+import com.example.chat.cluster.RoomDestinations;
+import com.example.chat.dto.MessageStatusFrame;
+import com.example.chat.model.Message;
+import com.example.chat.model.MessageStatus;
+import com.example.chat.repository.MessageRepository;
+import com.example.chat.search.MessageSearchIndex;
+import com.example.chat.summary.RoomSummaryService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PERFORMANCE - Write-behind persistence pipeline for chat messages
+ * Accepted messages are broadcast immediately and queued here; a single writer thread flushes
+ * them with saveAll in batches triggered by size or elapsed time. The queue is bounded: when it
+ * stays full past the offer timeout the caller persists synchronously, which pushes back on the
+ * inbound channel instead of growing the heap. Remaining messages are drained on shutdown.
+ */
+@Component
+public class MessageWriteBehindQueue implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(MessageWriteBehindQueue.class);
+
+    @Value("${app.messages.write-behind.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.messages.write-behind.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${app.messages.write-behind.batch-size:200}")
+    private int batchSize;
+
+    @Value("${app.messages.write-behind.flush-interval-ms:50}")
+    private long flushIntervalMs;
+
+    @Value("${app.messages.write-behind.offer-timeout-ms:100}")
+    private long offerTimeoutMs;
+
+    @Value("${app.messages.write-behind.shutdown-timeout-ms:30000}")
+    private long shutdownTimeoutMs;
+
+    @Value("${app.messages.write-behind.retry-attempts:5}")
+    private int retryAttempts;
+
+    @Value("${app.messages.write-behind.retry-backoff-ms:200}")
+    private long retryBackoffMs;
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ClusterFanoutService clusterFanout;
+
+    @Autowired
+    private MessageSearchIndex searchIndex;  // PERFORMANCE - Indexed once the batch is durable
+
+    @Autowired
+    private RoomSummaryService roomSummaryService;  // PERFORMANCE - Counts only messages that are durable
+
+    @Autowired
+    private RedisService redisService;  // REDIS - room_messages:* tails, one pipeline per batch
+
+    @Autowired
+    private RecentMessageBuffer recentMessageBuffer;  // PERFORMANCE - Already holds accepted messages as SENT
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private BlockingQueue<Message> queue;
+    private TransactionTemplate transactionTemplate;
+    private Thread writer;
+    private volatile boolean running;
+
+    private Counter persisted;
+    private Counter failed;
+    private Counter rejected;
+    private Counter retried;
+    private Timer flushTimer;
+
+    @PostConstruct
+    void init() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        persisted = meterRegistry.counter("chat.messages.write_behind.persisted");
+        failed = meterRegistry.counter("chat.messages.write_behind.failed");
+        rejected = meterRegistry.counter("chat.messages.write_behind.rejected");
+        retried = meterRegistry.counter("chat.messages.write_behind.retried");
+        flushTimer = meterRegistry.timer("chat.messages.write_behind.flush");
+        Gauge.builder("chat.messages.write_behind.queue_depth", queue, BlockingQueue::size)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queue a message for persistence. Returns false when write-behind is disabled, stopped or
+     * saturated, in which case the caller must persist the message itself.
+     */
+    public boolean submit(Message message) {
+        if (!enabled || !running) {
+            return false;
+        }
+        try {
+            if (queue.offer(message, offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        rejected.increment();
+        return false;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // ASYNC - Writer loop: block for the first message, then fill the batch until size or deadline
+    private void drainLoop() {
+        List<Message> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Message first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0 || !running) {
+                        break;
+                    }
+                    Message next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next != null) {
+                        batch.add(next);
+                    }
+                }
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (RuntimeException e) {
+                log.error("Write-behind flush loop failed", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<Message> batch) {
+        LocalDateTime now = LocalDateTime.now();
+        for (Message message : batch) {
+            message.setStatus(MessageStatus.SENT);  // PENDING -> SENT once the row is durable
+            message.setUpdatedAt(now);
+        }
+        if (!saveBatch(batch)) {
+            flushIndividually(batch);
+            return;
+        }
+        persisted.increment(batch.size());
+        batch.forEach(roomSummaryService::record);
+        searchIndex.index(batch);
+        redisService.cachePersisted(batch);
+        publishStatus(batch, MessageStatus.SENT);
+    }
+
+    // RESOLVE SOLUTION - Retry the whole batch with exponential backoff so a short outage loses nothing
+    private boolean saveBatch(List<Message> batch) {
+        long backoffMs = retryBackoffMs;
+        for (int attempt = 0; ; attempt++) {
+            try {
+                flushTimer.record(() -> transactionTemplate.executeWithoutResult(
+                        status -> messageRepository.saveAll(batch)));
+                return true;
+            } catch (RuntimeException e) {
+                if (attempt >= retryAttempts) {
+                    log.warn("Batch of {} messages failed {} times, retrying one by one", batch.size(), attempt + 1, e);
+                    return false;
+                }
+                log.warn("Batch of {} messages failed, retrying in {} ms: {}", batch.size(), backoffMs, e.toString());
+            }
+            retried.increment();
+            try {
+                Thread.sleep(backoffMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+            backoffMs *= 2;
+        }
+    }
+
+    // RESOLVE SOLUTION - Isolate a poison message so the rest of the batch still lands
+    private void flushIndividually(List<Message> batch) {
+        List<Message> saved = new ArrayList<>();
+        List<Message> lost = new ArrayList<>();
+        for (Message message : batch) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> messageRepository.save(message));
+                saved.add(message);
+            } catch (RuntimeException e) {
+                log.error("Could not persist message {} in room {}", message.getId(), message.getChatRoomId(), e);
+                message.setStatus(MessageStatus.FAILED);
+                recentMessageBuffer.remove(message);  // History must not serve a row that was never stored
+                lost.add(message);
+            }
+        }
+        persisted.increment(saved.size());
+        failed.increment(lost.size());
+        saved.forEach(roomSummaryService::record);
+        searchIndex.index(saved);
+        redisService.cachePersisted(saved);
+        publishStatus(saved, MessageStatus.SENT);
+        publishStatus(lost, MessageStatus.FAILED);
+    }
+
+    // WEBSOCKET - One status frame per room per batch rather than one per message
+    private void publishStatus(List<Message> messages, MessageStatus status) {
+        Map<Long, List<Long>> idsByRoom = new LinkedHashMap<>();
+        for (Message message : messages) {
+            idsByRoom.computeIfAbsent(message.getChatRoomId(), id -> new ArrayList<>()).add(message.getId());
+        }
+        idsByRoom.forEach((roomId, ids) -> {
+            try {
+                clusterFanout.broadcast(RoomDestinations.status(roomId),
+                        new MessageStatusFrame(status.name(), ids), null);
+            } catch (RuntimeException e) {
+                log.debug("Could not publish status for room {}", roomId, e);
+            }
+        });
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        writer = new Thread(this::drainLoop, "message-write-behind");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    // Drain whatever is still queued before the DataSource goes away
+    @Override
+    public void stop() {
+        running = false;
+        if (writer != null) {
+            try {
+                writer.join(shutdownTimeoutMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            writer = null;
+        }
+        // Late submissions that raced with shutdown are flushed on the stopping thread
+        List<Message> leftovers = new ArrayList<>();
+        queue.drainTo(leftovers);
+        if (!leftovers.isEmpty()) {
+            flush(leftovers);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
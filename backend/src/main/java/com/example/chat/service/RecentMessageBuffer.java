@@ -0,0 +1,259 @@
+package com.example.chat.service;
+
+import com.example.chat.dto.MessageDto;
+import com.example.chat.dto.MessageMapper;
+import com.example.chat.dto.MessagePageDto;
+import com.example.chat.model.Message;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * PERFORMANCE - In-process ring buffer of the most recent messages per hot room
+ * Populated on the write path and answers tail-of-history reads without touching the database.
+ * A read is only served when the requested window lies entirely inside the buffered tail;
+ * everything else falls back to the repository.
+ */
+@Component
+public class RecentMessageBuffer {
+
+    @Value("${app.history.buffer.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.history.buffer.capacity:200}")  // Messages kept per room
+    private int capacity;
+
+    @Value("${app.history.buffer.max-rooms:1000}")  // Rooms kept before least recently used ones are evicted
+    private int maxRooms;
+
+    @Value("${app.history.buffer.idle-timeout:10m}")  // Rooms not touched for this long are evicted
+    private Duration idleTimeout;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<Long, RoomBuffer> rooms = new ConcurrentHashMap<>();
+
+    private Counter hits;
+    private Counter misses;
+
+    @PostConstruct
+    void registerMetrics() {
+        hits = Counter.builder("chat.history.buffer.requests").tag("result", "hit")
+                .description("History reads answered from the in-memory buffer").register(meterRegistry);
+        misses = Counter.builder("chat.history.buffer.requests").tag("result", "miss")
+                .description("History reads that fell back to the database").register(meterRegistry);
+        Gauge.builder("chat.history.buffer.rooms", rooms, Map::size)
+                .description("Rooms currently held in the history buffer").register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    // WRITE PATH - Remember a freshly persisted message
+    public void record(Message message) {
+        if (enabled) {
+            record(message, MessageMapper.toDto(message));
+        }
+    }
+
+    // WRITE PATH - Remember a message using a DTO snapshot the caller already built
+    public void record(Message message, MessageDto dto) {
+        if (!enabled || message.getId() == null) {
+            return;
+        }
+        rooms.computeIfAbsent(message.getChatRoomId(), id -> new RoomBuffer(capacity))
+                .add(MessageCursor.of(message), dto);
+    }
+
+    // READ PATH - Seed a room buffer from the newest rows read from the database (newest first)
+    public void seed(Long roomId, List<Message> newestFirst, boolean wholeRoom) {
+        if (!enabled) {
+            return;
+        }
+        RoomBuffer buffer = rooms.computeIfAbsent(roomId, id -> new RoomBuffer(capacity));
+        synchronized (buffer) {
+            if (buffer.seeded) {
+                return;  // Already seeded; writes since then keep the tail current
+            }
+            // Messages recorded before the first read (e.g. right after a restart) are merged with
+            // the rows rather than leaving a partial tail that misses until it fills up
+            int before = buffer.size;
+            int rows = Math.min(newestFirst.size(), capacity);
+            for (int i = rows - 1; i >= 0; i--) {
+                Message message = newestFirst.get(i);
+                buffer.add(MessageCursor.of(message), MessageMapper.toDto(message));
+            }
+            buffer.complete = wholeRoom && newestFirst.size() <= capacity && before + rows <= capacity;
+            buffer.seeded = true;
+        }
+    }
+
+    // READ PATH - Page of messages older than the cursor (or the newest page), or null on a miss
+    public MessagePageDto read(Long roomId, String before, int limit) {
+        if (!enabled) {
+            return null;
+        }
+        RoomBuffer buffer = rooms.get(roomId);
+        MessagePageDto page = buffer == null ? null
+                : buffer.read(before == null || before.isBlank() ? null : MessageCursor.decode(before), limit);
+        (page == null ? misses : hits).increment();
+        return page;
+    }
+
+    // WRITE PATH - Drop a message that was buffered on accept but could not be persisted
+    public void remove(Message message) {
+        if (!enabled || message.getId() == null) {
+            return;
+        }
+        RoomBuffer buffer = rooms.get(message.getChatRoomId());
+        if (buffer != null) {
+            buffer.remove(MessageCursor.of(message));
+        }
+    }
+
+    public void invalidate(Long roomId) {
+        rooms.remove(roomId);
+    }
+
+    // PERFORMANCE - Idle-time and size-based eviction across rooms
+    @Scheduled(fixedDelayString = "${app.history.buffer.sweep-interval-ms:30000}")
+    public void evict() {
+        long idleBefore = System.nanoTime() - idleTimeout.toNanos();
+        rooms.entrySet().removeIf(entry -> entry.getValue().lastAccess - idleBefore < 0);
+
+        int excess = rooms.size() - maxRooms;
+        if (excess > 0) {
+            rooms.entrySet().stream()
+                    .sorted(Comparator.comparingLong(entry -> entry.getValue().lastAccess))
+                    .limit(excess)
+                    .map(Map.Entry::getKey)
+                    .toList()
+                    .forEach(rooms::remove);
+        }
+    }
+
+    /**
+     * Fixed-size ring of buffered messages kept in (createdAt, id) order, oldest at head.
+     */
+    static final class RoomBuffer {
+
+        private final MessageCursor[] keys;
+        private final MessageDto[] messages;
+        private int head;
+        private int size;
+        // True while the buffer holds every message of the room, so short rooms can answer hasMore=false
+        private boolean complete;
+        // True once the newest database rows have been merged in
+        private boolean seeded;
+        private volatile long lastAccess = System.nanoTime();
+
+        RoomBuffer(int capacity) {
+            this.keys = new MessageCursor[capacity];
+            this.messages = new MessageDto[capacity];
+        }
+
+        synchronized void add(MessageCursor key, MessageDto message) {
+            lastAccess = System.nanoTime();
+            // Fast path is a plain append; out-of-order commits shift a few slots from the tail
+            int position = size;
+            while (position > 0) {
+                int cmp = keyAt(position - 1).compareTo(key);
+                if (cmp == 0) {
+                    return;  // Already buffered; checked before evicting so a full ring keeps its size
+                }
+                if (cmp < 0) {
+                    break;
+                }
+                position--;
+            }
+            if (size == keys.length) {
+                if (position == 0) {
+                    return;  // Older than everything we keep
+                }
+                keys[head] = null;
+                messages[head] = null;
+                head = (head + 1) % keys.length;
+                size--;
+                position--;
+                complete = false;
+            }
+            for (int i = size; i > position; i--) {
+                keys[slot(i)] = keys[slot(i - 1)];
+                messages[slot(i)] = messages[slot(i - 1)];
+            }
+            keys[slot(position)] = key;
+            messages[slot(position)] = message;
+            size++;
+        }
+
+        synchronized void remove(MessageCursor key) {
+            int position = size - 1;
+            while (position >= 0 && keyAt(position).compareTo(key) > 0) {
+                position--;
+            }
+            if (position < 0 || keyAt(position).compareTo(key) != 0) {
+                return;
+            }
+            for (int i = position; i < size - 1; i++) {
+                keys[slot(i)] = keys[slot(i + 1)];
+                messages[slot(i)] = messages[slot(i + 1)];
+            }
+            keys[slot(size - 1)] = null;
+            messages[slot(size - 1)] = null;
+            size--;
+        }
+
+        synchronized MessagePageDto read(MessageCursor before, int limit) {
+            lastAccess = System.nanoTime();
+            int end = size;
+            if (before != null) {
+                end = 0;
+                while (end < size && keyAt(end).compareTo(before) < 0) {
+                    end++;
+                }
+            }
+
+            int start = end - limit;
+            boolean hasMore = start > 0;
+            if (start < 0 || (start == 0 && !complete)) {
+                if (!complete) {
+                    return null;  // Window reaches past the buffered tail
+                }
+                start = 0;
+            }
+
+            List<MessageDto> page = new ArrayList<>(end - start);
+            for (int i = start; i < end; i++) {
+                page.add(messages[slot(i)]);
+            }
+            String nextCursor = hasMore ? keyAt(start).encode() : null;
+            return new MessagePageDto(page, nextCursor, hasMore);
+        }
+
+        private MessageCursor keyAt(int index) {
+            return keys[slot(index)];
+        }
+
+        private int slot(int index) {
+            return (head + index) % keys.length;
+        }
+    }
+}
@@ -1,45 +1,147 @@
 package com.example.chat.service;
 
+import com.example.chat.dto.MessageDto;
+import com.example.chat.dto.MessageMapper;
+import com.example.chat.model.Message;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.stereotype.Service;
 
-import java.util.Set;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 @Service
 public class RedisService {
 
+    private static final Logger log = LoggerFactory.getLogger(RedisService.class);
+
+    private static final int ROOM_MESSAGES_KEPT = 100;  // Keep last 100 messages
+    private static final long ROOM_MESSAGES_TTL_SECONDS = TimeUnit.HOURS.toSeconds(1);
+
+    // PERFORMANCE - LPUSH + LTRIM + EXPIRE as one atomic server-side unit (one round-trip)
+    private static final RedisScript<Long> CACHE_MESSAGE_SCRIPT = new DefaultRedisScript<>(
+            "local size = redis.call('LPUSH', KEYS[1], ARGV[1]) " +
+            "redis.call('LTRIM', KEYS[1], 0, tonumber(ARGV[2]) - 1) " +
+            "redis.call('EXPIRE', KEYS[1], tonumber(ARGV[3])) " +
+            "return size", Long.class);
+
+    private static final byte[] KEPT_ARG = Integer.toString(ROOM_MESSAGES_KEPT).getBytes(StandardCharsets.UTF_8);
+    private static final byte[] TTL_ARG = Long.toString(ROOM_MESSAGES_TTL_SECONDS).getBytes(StandardCharsets.UTF_8);
+
+    @Value("${app.redis.message-cache.enabled:false}")  // REDIS - Requires a Redis server
+    private boolean messageCacheEnabled;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
     @Autowired
-    private RedisTemplate<String, Object> redisTemplate;
+    private RedisTemplate<String, MessageDto> roomMessageRedisTemplate;  // REDIS - Codec chosen for room_messages:*
 
-    public void setOnlineUser(String username) {
-        redisTemplate.opsForSet().add("online_users", username);
-        redisTemplate.expire("online_users", 30, TimeUnit.MINUTES);
-    }
+    @Autowired
+    private RedisTemplate<String, Map<String, Object>> userSessionRedisTemplate;  // REDIS - Codec chosen for user_session:*
+
+    private Counter cacheFailures;
 
-    public void setOfflineUser(String username) {
-        redisTemplate.opsForSet().remove("online_users", username);
+    @PostConstruct
+    void init() {
+        if (meterRegistry != null) {
+            cacheFailures = meterRegistry.counter("chat.redis.message_cache.failed");
+        }
     }
 
-    public Set<Object> getOnlineUsers() {
-        return redisTemplate.opsForSet().members("online_users");
+    /**
+     * WRITE PATH - Push durable messages onto their rooms' room_messages:* lists: a single message
+     * with the script, several with one pipeline. Best effort; a Redis failure never fails the write.
+     */
+    public void cachePersisted(List<Message> messages) {
+        if (!messageCacheEnabled || messages.isEmpty()) {
+            return;
+        }
+        try {
+            if (messages.size() == 1) {
+                Message message = messages.get(0);
+                cacheMessage(String.valueOf(message.getChatRoomId()), MessageMapper.toDto(message));
+                return;
+            }
+            Map<String, List<MessageDto>> byRoom = new LinkedHashMap<>();
+            for (Message message : messages) {
+                byRoom.computeIfAbsent(String.valueOf(message.getChatRoomId()), room -> new ArrayList<>())
+                        .add(MessageMapper.toDto(message));
+            }
+            cacheMessages(byRoom);
+        } catch (RuntimeException e) {
+            if (cacheFailures != null) {
+                cacheFailures.increment();
+            }
+            log.warn("Could not cache {} messages in Redis", messages.size(), e);
+        }
     }
 
-    public void cacheMessage(String roomId, Object message) {
+    public void cacheMessage(String roomId, MessageDto message) {
         String key = "room_messages:" + roomId;
-        redisTemplate.opsForList().leftPush(key, message);
-        redisTemplate.opsForList().trim(key, 0, 99); // Keep last 100 messages
-        redisTemplate.expire(key, 1, TimeUnit.HOURS);
+        roomMessageRedisTemplate.execute(CACHE_MESSAGE_SCRIPT, RedisSerializer.byteArray(), null,
+                Collections.singletonList(key), serializeValue(message), KEPT_ARG, TTL_ARG);
     }
 
-    public void cacheUserSession(String username, Object sessionData) {
+    // PERFORMANCE - Cache many rooms' messages in one pipeline; messages per room in chronological order
+    public void cacheMessages(Map<String, List<MessageDto>> messagesByRoom) {
+        if (messagesByRoom.isEmpty()) {
+            return;
+        }
+        roomMessageRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (Map.Entry<String, List<MessageDto>> room : messagesByRoom.entrySet()) {
+                if (!room.getValue().isEmpty()) {
+                    pushRoomMessages(connection, "room_messages:" + room.getKey(), room.getValue());
+                }
+            }
+            return null;
+        });
+    }
+
+    public void cacheUserSession(String username, Map<String, Object> sessionData) {
         String key = "user_session:" + username;
-        redisTemplate.opsForValue().set(key, sessionData, 24, TimeUnit.HOURS);
+        userSessionRedisTemplate.opsForValue().set(key, sessionData, 24, TimeUnit.HOURS);
     }
 
-    public Object getUserSession(String username) {
+    public Map<String, Object> getUserSession(String username) {
         String key = "user_session:" + username;
-        return redisTemplate.opsForValue().get(key);
+        return userSessionRedisTemplate.opsForValue().get(key);
+    }
+
+    private void pushRoomMessages(RedisConnection connection, String key, List<MessageDto> messages) {
+        byte[] rawKey = serializeKey(key);
+        byte[][] rawValues = new byte[messages.size()][];
+        for (int i = 0; i < rawValues.length; i++) {
+            rawValues[i] = serializeValue(messages.get(i));
+        }
+        connection.listCommands().lPush(rawKey, rawValues);
+        connection.listCommands().lTrim(rawKey, 0, ROOM_MESSAGES_KEPT - 1);
+        connection.keyCommands().expire(rawKey, ROOM_MESSAGES_TTL_SECONDS);
+    }
+
+    @SuppressWarnings("unchecked")
+    private byte[] serializeKey(String key) {
+        return ((RedisSerializer<String>) roomMessageRedisTemplate.getKeySerializer()).serialize(key);
+    }
+
+    @SuppressWarnings("unchecked")
+    private byte[] serializeValue(MessageDto value) {
+        return ((RedisSerializer<MessageDto>) roomMessageRedisTemplate.getValueSerializer()).serialize(value);
     }
 }
@@ -0,0 +1,100 @@
+package com.example.chat.service;
+
+import com.example.chat.exception.UserNotFoundException;
+import com.example.chat.model.User;
+import com.example.chat.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * PERFORMANCE - Bounded, expiring username -> sender reference cache for the message send path
+ * Only the immutable bits a message needs (id, username, display name) are cached; each lookup
+ * returns a fresh detached User so no entity instance is shared between threads or sessions.
+ * Unknown usernames are not cached, so a later registration is visible immediately.
+ */
+@Component
+public class UserLookupCache {
+
+    @Value("${app.users.cache.max-size:10000}")
+    private long maxSize;
+
+    @Value("${app.users.cache.ttl:10m}")
+    private Duration ttl;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private LoadingCache<String, SenderRef> cache;
+
+    @PostConstruct
+    void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build(this::load);
+        // Exposes cache.gets{result=hit|miss}, cache.load.duration and cache.evictions
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "chat.users.sender");
+    }
+
+    // DESIGN PATTERN - Repository pattern - only reached on a cache miss
+    private SenderRef load(String username) {
+        return userRepository.findByUsername(username)
+                .map(user -> new SenderRef(user.getId(), user.getUsername(), user.getDisplayName()))
+                .orElse(null);
+    }
+
+    // RESOLVE SOLUTION - Fail fast for unknown senders instead of scanning for a substitute
+    public User getSender(String username) {
+        SenderRef ref = username == null ? null : cache.get(username);
+        if (ref == null) {
+            throw new UserNotFoundException("User not found: " + username);
+        }
+        return ref.toUser();
+    }
+
+    public void invalidate(String username) {
+        if (username != null) {
+            cache.invalidate(username);
+        }
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * Immutable snapshot of the sender fields used by messages.
+     */
+    static final class SenderRef {
+
+        private final Long id;
+        private final String username;
+        private final String displayName;
+
+        SenderRef(Long id, String username, String displayName) {
+            this.id = id;
+            this.username = username;
+            this.displayName = displayName;
+        }
+
+        User toUser() {
+            User user = new User();
+            user.setId(id);
+            user.setUsername(username);
+            user.setDisplayName(displayName);
+            return user;
+        }
+    }
+}
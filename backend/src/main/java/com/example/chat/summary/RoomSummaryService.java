@@ -0,0 +1,337 @@
+package com.example.chat.summary;
+
+import com.example.chat.dto.RoomSummaryDto;
+import com.example.chat.dto.RoomSummaryPageDto;
+import com.example.chat.dto.RoomUnreadDto;
+import com.example.chat.model.ChatRoom;
+import com.example.chat.model.Message;
+import com.example.chat.model.RoomSummary;
+import com.example.chat.receipt.ReceiptService;
+import com.example.chat.receipt.UnreadTracker;
+import com.example.chat.repository.ChatRoomRepository;
+import com.example.chat.repository.MessageRepository;
+import com.example.chat.repository.RoomSummaryRepository;
+import com.example.chat.service.MessageCursor;
+import com.example.chat.service.UserLookupCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * PERFORMANCE - Room list with last message, activity and unread counts in one call
+ * The send path only folds each message into an in-memory per-room delta (count + newest
+ * message) and the room's unread tail. Deltas are applied once per flush interval as one atomic
+ * UPDATE per active room, so several nodes can add to the same row. A page of the room list is
+ * one keyset query on (last_activity_at, room_id), one room lookup and one receipt lookup, with
+ * deltas not yet flushed overlaid; unread counts come from UnreadTracker.
+ */
+@Service
+public class RoomSummaryService {
+
+    private static final Logger log = LoggerFactory.getLogger(RoomSummaryService.class);
+
+    public static final int MAX_PAGE_SIZE = 100;
+    private static final int BACKFILL_CHUNK = 500;
+
+    @Value("${app.rooms.summary.preview-length:120}")  // PERFORMANCE - Characters of the last message kept
+    private int previewLength;
+
+    @Autowired
+    private RoomSummaryRepository roomSummaryRepository;
+
+    @Autowired
+    private ChatRoomRepository chatRoomRepository;
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Autowired
+    private ReceiptService receiptService;
+
+    @Autowired
+    private UnreadTracker unreadTracker;
+
+    @Autowired
+    private UserLookupCache userLookupCache;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<Long, Delta> pending = new ConcurrentHashMap<>();
+    private TransactionTemplate transactionTemplate;
+    private TransactionTemplate readOnlyTransaction;
+    private Counter flushed;
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        flushed = meterRegistry.counter("chat.rooms.summary.flushed");
+        Gauge.builder("chat.rooms.summary.pending", pending, Map::size).register(meterRegistry);
+    }
+
+    // WRITE PATH - Called once per accepted message; no database access
+    public void record(Message message) {
+        if (message.getChatRoomId() == null || message.getId() == null) {
+            return;
+        }
+        unreadTracker.record(message);
+        String preview = preview(message.getContent());
+        pending.compute(message.getChatRoomId(), (roomId, delta) -> {
+            Delta next = delta != null ? delta : new Delta();
+            next.add(message, preview);
+            return next;
+        });
+    }
+
+    // PERFORMANCE - One UPDATE per active room per interval, however many messages it received
+    @Scheduled(fixedDelayString = "${app.rooms.summary.flush-interval-ms:1000}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        Map<Long, Delta> batch = new HashMap<>();
+        for (Long roomId : pending.keySet()) {
+            Delta delta = pending.remove(roomId);
+            if (delta != null) {
+                batch.put(roomId, delta);
+            }
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> apply(batch));
+        } catch (RuntimeException e) {
+            log.warn("Could not persist summaries of {} rooms; retrying next flush", batch.size(), e);
+            batch.forEach((roomId, delta) -> pending.merge(roomId, delta, Delta::merge));
+            return;
+        }
+        flushed.increment(batch.size());
+    }
+
+    private void apply(Map<Long, Delta> batch) {
+        List<RoomSummary> created = new ArrayList<>();
+        batch.forEach((roomId, delta) -> {
+            int updated = roomSummaryRepository.applyMessages(roomId, delta.count, delta.lastId, delta.senderId,
+                    delta.senderUsername, delta.preview, delta.activityAt);
+            if (updated == 0) {
+                // Room created on a path that skipped roomCreated(); start counting from here
+                RoomSummary summary = new RoomSummary(roomId, delta.activityAt);
+                delta.applyTo(summary);
+                created.add(summary);
+            }
+        });
+        if (!created.isEmpty()) {
+            roomSummaryRepository.saveAll(created);
+        }
+    }
+
+    public void roomCreated(ChatRoom room) {
+        roomSummaryRepository.save(new RoomSummary(room.getId(),
+                room.getCreatedAt() != null ? room.getCreatedAt() : LocalDateTime.now()));
+    }
+
+    public void roomDeleted(Long roomId) {
+        pending.remove(roomId);
+        unreadTracker.invalidate(roomId);
+        roomSummaryRepository.deleteById(roomId);
+    }
+
+    /**
+     * RESOLVE SOLUTION - Summaries for rooms that predate them: one grouped count per chunk of
+     * rooms and one query for their newest messages. Runs once; afterwards every room has a row.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        List<ChatRoom> missing = readOnlyTransaction.execute(status -> roomSummaryRepository.findRoomsWithoutSummary());
+        if (missing == null || missing.isEmpty()) {
+            return;
+        }
+        try {
+            for (int start = 0; start < missing.size(); start += BACKFILL_CHUNK) {
+                List<ChatRoom> chunk = missing.subList(start, Math.min(start + BACKFILL_CHUNK, missing.size()));
+                transactionTemplate.executeWithoutResult(status -> backfill(chunk));
+            }
+            log.info("Created summaries for {} rooms", missing.size());
+        } catch (RuntimeException e) {
+            log.warn("Room summary backfill failed; rooms without a summary are missing from the room list", e);
+        }
+    }
+
+    private void backfill(List<ChatRoom> rooms) {
+        Map<Long, RoomSummary> summaries = new HashMap<>();
+        for (ChatRoom room : rooms) {
+            summaries.put(room.getId(), new RoomSummary(room.getId(),
+                    room.getCreatedAt() != null ? room.getCreatedAt() : LocalDateTime.now()));
+        }
+        List<Long> newestIds = new ArrayList<>();
+        for (Object[] row : messageRepository.countAndNewestByRoomIdIn(summaries.keySet())) {
+            summaries.get((Long) row[0]).setMessageCount((Long) row[1]);
+            newestIds.add((Long) row[2]);
+        }
+        if (!newestIds.isEmpty()) {
+            for (Message newest : messageRepository.findAllWithSenderByIdIn(newestIds)) {
+                RoomSummary summary = summaries.get(newest.getChatRoomId());
+                summary.setLastMessageId(newest.getId());
+                summary.setLastSenderId(newest.getSender().getId());
+                summary.setLastSenderUsername(newest.getSender().getUsername());
+                summary.setLastPreview(preview(newest.getContent()));
+                summary.setLastActivityAt(newest.getCreatedAt());
+            }
+        }
+        roomSummaryRepository.saveAll(summaries.values());
+    }
+
+    /**
+     * Rooms ordered by most recent activity, with each room's last message and the user's unread
+     * count. Pass nextCursor back as {@code after} for the next page.
+     */
+    public RoomSummaryPageDto getRoomSummaries(String username, String after, int limit) {
+        int pageSize = Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+        Long userId = userLookupCache.getSender(username).getId();  // RESOLVE SOLUTION - Throws UserNotFoundException
+        MessageCursor cursor = after == null || after.isBlank() ? null : MessageCursor.decode(after);
+
+        PageRequest probe = PageRequest.ofSize(pageSize + 1);  // One extra row tells us whether more pages exist
+        List<RoomSummary> rows = readOnlyTransaction.execute(status -> cursor == null
+                ? roomSummaryRepository.findMostActive(probe)
+                : roomSummaryRepository.findMostActiveBefore(cursor.getCreatedAt(), cursor.getId(), probe));
+        boolean hasMore = rows.size() > pageSize;
+        List<RoomSummary> page = hasMore ? rows.subList(0, pageSize) : rows;
+        if (page.isEmpty()) {
+            return new RoomSummaryPageDto(List.of(), null, false);
+        }
+
+        List<Long> roomIds = page.stream().map(RoomSummary::getRoomId).toList();
+        Map<Long, ChatRoom> rooms = new HashMap<>();
+        chatRoomRepository.findAllById(roomIds).forEach(room -> rooms.put(room.getId(), room));
+        Map<Long, RoomUnreadDto> unread = new HashMap<>();
+        receiptService.getUnreadCounts(userId, roomIds).forEach(count -> unread.put(count.getRoomId(), count));
+
+        List<RoomSummaryDto> summaries = new ArrayList<>(page.size());
+        for (RoomSummary summary : page) {
+            ChatRoom room = rooms.get(summary.getRoomId());
+            if (room == null) {
+                continue;  // Deleted meanwhile
+            }
+            summaries.add(toDto(summary, room, pending.get(summary.getRoomId()), unread.get(summary.getRoomId())));
+        }
+        RoomSummary last = page.get(page.size() - 1);
+        String nextCursor = hasMore ? new MessageCursor(last.getLastActivityAt(), last.getRoomId()).encode() : null;
+        return new RoomSummaryPageDto(summaries, nextCursor, hasMore);
+    }
+
+    // Stored row plus what this node has not flushed yet
+    private static RoomSummaryDto toDto(RoomSummary summary, ChatRoom room, Delta delta, RoomUnreadDto unread) {
+        RoomSummaryDto dto = new RoomSummaryDto();
+        dto.setRoomId(room.getId());
+        dto.setName(room.getName());
+        dto.setType(room.getType() != null ? room.getType().toString() : null);
+        dto.setMessageCount(summary.getMessageCount());
+        dto.setLastMessageId(summary.getLastMessageId());
+        dto.setLastMessagePreview(summary.getLastPreview());
+        dto.setLastSender(summary.getLastSenderUsername());
+        LocalDateTime activityAt = summary.getLastActivityAt();
+        if (delta != null) {
+            synchronized (delta) {
+                dto.setMessageCount(dto.getMessageCount() + delta.count);
+                if (delta.lastId > dto.getLastMessageId()) {
+                    dto.setLastMessageId(delta.lastId);
+                    dto.setLastMessagePreview(delta.preview);
+                    dto.setLastSender(delta.senderUsername);
+                    activityAt = delta.activityAt;
+                }
+            }
+        }
+        dto.setLastActivityAt(activityAt != null ? activityAt.toString() : null);
+        if (unread != null) {
+            dto.setUnread(unread.getUnread());
+            dto.setUnreadCapped(unread.isCapped());
+        }
+        return dto;
+    }
+
+    // First previewLength characters, never splitting a surrogate pair
+    private String preview(String content) {
+        if (content == null || content.length() <= previewLength) {
+            return content;
+        }
+        int end = previewLength;
+        if (Character.isHighSurrogate(content.charAt(end - 1))) {
+            end--;
+        }
+        return content.substring(0, end);
+    }
+
+    int pendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Messages of one room not yet applied to its stored summary: how many, and the newest.
+     */
+    static final class Delta {
+
+        private long count;
+        private long lastId;
+        private Long senderId;
+        private String senderUsername;
+        private String preview;
+        private LocalDateTime activityAt;
+
+        synchronized void add(Message message, String messagePreview) {
+            count++;
+            if (message.getId() > lastId) {
+                lastId = message.getId();
+                senderId = message.getSender() != null ? message.getSender().getId() : null;
+                senderUsername = message.getSender() != null ? message.getSender().getUsername() : null;
+                preview = messagePreview;
+                activityAt = message.getCreatedAt() != null ? message.getCreatedAt() : LocalDateTime.now();
+            }
+        }
+
+        // A failed flush folded back into whatever arrived meanwhile
+        static Delta merge(Delta newer, Delta failed) {
+            synchronized (newer) {
+                newer.count += failed.count;
+                if (failed.lastId > newer.lastId) {
+                    newer.lastId = failed.lastId;
+                    newer.senderId = failed.senderId;
+                    newer.senderUsername = failed.senderUsername;
+                    newer.preview = failed.preview;
+                    newer.activityAt = failed.activityAt;
+                }
+            }
+            return newer;
+        }
+
+        void applyTo(RoomSummary summary) {
+            summary.setMessageCount(count);
+            summary.setLastMessageId(lastId);
+            summary.setLastSenderId(senderId);
+            summary.setLastSenderUsername(senderUsername);
+            summary.setLastPreview(preview);
+            summary.setLastActivityAt(activityAt);
+        }
+    }
+}
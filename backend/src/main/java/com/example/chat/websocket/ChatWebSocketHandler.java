@@ -1,20 +1,34 @@
 package com.example.chat.websocket;
 
+import com.example.chat.cluster.ClusterFanoutService;
+import com.example.chat.cluster.RoomDestinations;
+import com.example.chat.dto.AckFrame;
+import com.example.chat.dto.JoinRoomFrame;
+import com.example.chat.dto.MessageDto;
+import com.example.chat.dto.SendMessageFrame;
+import com.example.chat.dto.SystemMessageFrame;
+import com.example.chat.dto.TypingFrame;
+import com.example.chat.exception.ValidationException;
 import com.example.chat.model.Message;
 import com.example.chat.model.MessageType;
 import com.example.chat.model.MessageStatus;
-import com.example.chat.model.User;
-import com.example.chat.repository.UserRepository;
+import com.example.chat.presence.PresenceService;
+import com.example.chat.receipt.ReceiptService;
+import com.example.chat.security.ChatPrincipal;
+import com.example.chat.service.KafkaService;
 import com.example.chat.service.MessageService;
+import com.example.chat.service.UserLookupCache;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Controller;
 
 import java.time.LocalDateTime;
-import java.util.Map;
 
 /**
  * WEBSOCKET - WebSocket handler for real-time chat messaging
@@ -24,70 +38,150 @@ import java.util.Map;
 public class ChatWebSocketHandler {
 
     @Autowired
-    private SimpMessagingTemplate messagingTemplate;  // WEBSOCKET - Message template for sending
+    private UserLookupCache userLookupCache;  // PERFORMANCE - Cached lookup for anonymous sessions only
 
     @Autowired
-    private UserRepository userRepository;  // DESIGN PATTERN - Repository pattern
+    private MessageService messageService;  // DESIGN PATTERN - Service pattern
 
     @Autowired
-    private MessageService messageService;  // DESIGN PATTERN - Service pattern
+    private ClusterFanoutService clusterFanout;  // CLUSTER - Local + cross-node delivery
+
+    @Autowired
+    private TypingAggregator typingAggregator;  // PERFORMANCE - Typing indicator coalescing
+
+    @Autowired
+    private PresenceService presenceService;  // PRESENCE - Heartbeat-driven online tracking
+
+    @Autowired
+    private ReceiptService receiptService;  // PERFORMANCE - Coalesced read/delivery watermarks
+
+    @Autowired
+    private KafkaService kafkaService;  // KAFKA - Chat event stream (no-op unless app.kafka.enabled)
+
+    @Autowired
+    @Qualifier("clientInboundChannelExecutor")
+    private TaskExecutor inboundExecutor;  // KAFKA - Runs the direct path for sends the broker failed
+
+    @Value("${app.messages.ingest:direct}")  // KAFKA - direct, or kafka (consumer persists and delivers)
+    private String ingestMode;
 
     // WEBSOCKET - Handle real-time message sending
     @MessageMapping("/chat.sendMessage")
-    public void sendMessage(@Payload Map<String, Object> payload, SimpMessageHeaderAccessor headerAccessor) {
-        String content = (String) payload.get("content");
-        String username = (String) payload.get("username");
-        Long roomId = Long.valueOf(payload.get("roomId").toString());
-
-        User sender = userRepository.findByUsername(username)  // DESIGN PATTERN - Repository pattern
-                .orElseThrow(() -> new RuntimeException("User not found"));  // RESOLVE SOLUTION - Exception handling
+    public void sendMessage(@Payload SendMessageFrame frame, SimpMessageHeaderAccessor headerAccessor) {
+        Long roomId = requireRoomId(frame.roomId());
+        ChatPrincipal sender = sender(headerAccessor, frame.username());  // JWT - No user lookup per frame
+        presenceService.heartbeat(headerAccessor.getSessionId());
 
         Message message = new Message();
-        message.setContent(content);
+        message.setContent(frame.content());
         message.setType(MessageType.TEXT);
         message.setStatus(MessageStatus.SENT);
-        message.setSender(sender);
+        message.setSender(sender.toUser());
         message.setChatRoomId(roomId);
         message.setCreatedAt(LocalDateTime.now());
-        message.setUpdatedAt(LocalDateTime.now());
+        message.setUpdatedAt(message.getCreatedAt());
+
+        // KAFKA - Publish only; the chat-messages consumer persists and delivers. If the producer
+        // refuses the event (disabled or saturated) the message takes the direct path below, and if
+        // the broker fails the send later it takes the direct path then, under the same id.
+        if ("kafka".equals(ingestMode) && kafkaService.publishMessage(roomId, messageService.stageMessage(message),
+                () -> acceptLater(roomId, message))) {
+            return;
+        }
+
+        MessageDto messageDto = acceptDirectly(roomId, message);
+
+        // KAFKA - Event feed for downstream consumers; in kafka ingest mode the consumer would relay it again
+        if (!"kafka".equals(ingestMode)) {
+            kafkaService.publishMessage(roomId, messageDto);
+        }
+    }
 
-        // DESIGN PATTERN - Service pattern - Save message to database
-        messageService.saveMessage(message);
+    private MessageDto acceptDirectly(Long roomId, Message message) {
+        // PERFORMANCE - Queue for write-behind persistence; broadcast does not wait for the database
+        MessageDto messageDto = messageService.acceptMessage(message);
 
-        // WEBSOCKET - Send to room subscribers via STOMP
-        messagingTemplate.convertAndSend("/topic/room/" + roomId, message);
+        // WEBSOCKET - Send to room subscribers on every node, de-duplicated by message id
+        clusterFanout.broadcast(RoomDestinations.messages(roomId), messageDto, String.valueOf(messageDto.getId()));
+        return messageDto;
     }
 
-    // WEBSOCKET - Handle real-time typing indicators
+    // KAFKA - Failed sends are reported on a producer I/O thread; do the direct path off that thread
+    private void acceptLater(Long roomId, Message message) {
+        try {
+            inboundExecutor.execute(() -> acceptUnlessStored(roomId, message));
+        } catch (TaskRejectedException e) {
+            acceptUnlessStored(roomId, message);  // Inbound pool saturated: better late on this thread than lost
+        }
+    }
+
+    // KAFKA - The event may have reached the broker despite the error; skip ids the consumer already stored
+    private void acceptUnlessStored(Long roomId, Message message) {
+        MessageDto messageDto = messageService.acceptUnlessStored(message);
+        if (messageDto != null) {
+            clusterFanout.broadcast(RoomDestinations.messages(roomId), messageDto, String.valueOf(messageDto.getId()));
+        }
+    }
+
+    // WEBSOCKET - Handle real-time typing indicators (coalesced, see TypingAggregator)
     @MessageMapping("/chat.typing")
-    public void handleTyping(@Payload Map<String, Object> payload) {
-        String username = (String) payload.get("username");
-        Boolean isTyping = (Boolean) payload.get("isTyping");
-        Long roomId = Long.valueOf(payload.get("roomId").toString());
-
-        Map<String, Object> typingData = Map.of(
-            "username", username,
-            "isTyping", isTyping,
-            "timestamp", LocalDateTime.now().toString()
-        );
-
-        // WEBSOCKET - Send typing indicator to room subscribers
-        messagingTemplate.convertAndSend("/topic/room/" + roomId + "/typing", typingData);
+    public void handleTyping(@Payload TypingFrame frame, SimpMessageHeaderAccessor headerAccessor) {
+        Long roomId = requireRoomId(frame.roomId());
+        String username = sender(headerAccessor, frame.username()).getUsername();
+        presenceService.heartbeat(headerAccessor.getSessionId());
+
+        // PERFORMANCE - No per-keystroke broadcast; the aggregator flushes one frame per room per interval
+        typingAggregator.update(roomId, username, frame.typing());
     }
 
     // WEBSOCKET - Handle user joining chat room
     @MessageMapping("/chat.addUser")
-    public void addUser(@Payload Map<String, Object> payload, SimpMessageHeaderAccessor headerAccessor) {
-        String username = (String) payload.get("username");
-        Long roomId = Long.valueOf(payload.get("roomId").toString());
-
-        Map<String, Object> systemMessage = Map.of(
-            "content", username + " joined the chat",
-            "type", "SYSTEM",
-            "timestamp", LocalDateTime.now().toString()
-        );
+    public void addUser(@Payload JoinRoomFrame frame, SimpMessageHeaderAccessor headerAccessor) {
+        Long roomId = requireRoomId(frame.roomId());
+        String username = sender(headerAccessor, frame.username()).getUsername();
+        presenceService.joinRoom(headerAccessor.getSessionId(), username, roomId);  // PRESENCE - Room presence
 
         // WEBSOCKET - Send system message to room subscribers
-        messagingTemplate.convertAndSend("/topic/room/" + roomId, systemMessage);
+        clusterFanout.broadcast(RoomDestinations.messages(roomId), SystemMessageFrame.joined(username), null);
+    }
+
+    // WEBSOCKET - Delivery / read acknowledgement: moves the user's watermark in the room
+    @MessageMapping("/chat.ack")
+    public void acknowledge(@Payload AckFrame frame, SimpMessageHeaderAccessor headerAccessor) {
+        Long roomId = requireRoomId(frame.roomId());
+        if (frame.messageId() == null) {
+            throw new ValidationException("messageId is required");
+        }
+        ChatPrincipal reader = sender(headerAccessor, frame.username());
+        if (!presenceService.hasJoined(headerAccessor.getSessionId(), roomId)) {
+            throw new ValidationException("Join room " + roomId + " before acknowledging its messages");
+        }
+        presenceService.heartbeat(headerAccessor.getSessionId());
+
+        // PERFORMANCE - In-memory only; persisted and broadcast in the next receipt flush
+        receiptService.acknowledge(reader.getId(), reader.getUsername(), roomId, frame.messageId(), frame.read());
+    }
+
+    // PRESENCE - Periodic client heartbeat keeps the session's user online
+    @MessageMapping("/chat.heartbeat")
+    public void heartbeat(SimpMessageHeaderAccessor headerAccessor) {
+        presenceService.heartbeat(headerAccessor.getSessionId());
+    }
+
+    // JWT - The session principal set at CONNECT; the payload username is only used for anonymous
+    // sessions (app.websocket.auth.required=false) and still has to name an existing user
+    private ChatPrincipal sender(SimpMessageHeaderAccessor headerAccessor, String payloadUsername) {
+        if (headerAccessor.getUser() instanceof ChatPrincipal principal) {
+            return principal;
+        }
+        return ChatPrincipal.of(userLookupCache.getSender(payloadUsername));
+    }
+
+    // RESOLVE SOLUTION - Reject frames without a room instead of failing on a null unboxing
+    private static Long requireRoomId(Long roomId) {
+        if (roomId == null) {
+            throw new ValidationException("roomId is required");
+        }
+        return roomId;
     }
 }
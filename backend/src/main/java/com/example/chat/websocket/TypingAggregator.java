@@ -0,0 +1,126 @@
+package com.example.chat.websocket;
+
+import com.example.chat.cluster.ClusterFanoutService;
+import com.example.chat.cluster.RoomDestinations;
+import com.example.chat.dto.TypingUpdateFrame;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PERFORMANCE - Coalesces typing indicators into at most one frame per room per interval
+ * Keystroke events only update in-memory state. Each flush sends the users who started and
+ * stopped typing since the last flush; a start followed by a stop (or the reverse) inside one
+ * interval cancels out, and typers that stop sending events expire and are reported as stopped.
+ * Frames carry deltas rather than the full list so frames from several nodes compose.
+ */
+@Component
+public class TypingAggregator {
+
+    @Value("${app.typing.ttl-ms:5000}")  // Typers are dropped when no event refreshes them for this long
+    private long ttlMs;
+
+    @Autowired
+    private ClusterFanoutService clusterFanout;  // CLUSTER - Local + cross-node delivery
+
+    private final Map<Long, RoomTyping> rooms = new ConcurrentHashMap<>();
+
+    // WEBSOCKET - Record a typing event; never sends anything itself
+    public void update(Long roomId, String username, boolean typing) {
+        long now = System.nanoTime();
+        rooms.compute(roomId, (id, room) -> {
+            RoomTyping state = room != null ? room : new RoomTyping();
+            if (typing) {
+                state.start(username, now + TimeUnit.MILLISECONDS.toNanos(ttlMs));
+            } else {
+                state.stop(username);
+            }
+            return state;
+        });
+    }
+
+    // WEBSOCKET - One compact frame per room that changed since the last flush
+    @Scheduled(fixedDelayString = "${app.typing.flush-interval-ms:250}")
+    public void flush() {
+        long now = System.nanoTime();
+        for (Long roomId : rooms.keySet()) {
+            TypingUpdateFrame[] frame = new TypingUpdateFrame[1];
+            rooms.computeIfPresent(roomId, (id, room) -> {
+                room.expire(now);
+                if (room.hasChanges()) {
+                    frame[0] = new TypingUpdateFrame(room.drainStarted(), room.drainStopped());
+                }
+                return room.isIdle() ? null : room;
+            });
+            if (frame[0] != null) {
+                clusterFanout.broadcast(RoomDestinations.typing(roomId), frame[0], null);
+            }
+        }
+    }
+
+    int trackedRooms() {
+        return rooms.size();
+    }
+
+    /**
+     * Typing state of one room; only mutated inside ConcurrentHashMap.compute for that room.
+     */
+    private static final class RoomTyping {
+
+        private final Map<String, Long> active = new HashMap<>();  // username -> expiry (nanoTime)
+        private final Set<String> started = new LinkedHashSet<>();
+        private final Set<String> stopped = new LinkedHashSet<>();
+
+        void start(String username, long expiresAt) {
+            if (active.put(username, expiresAt) == null && !stopped.remove(username)) {
+                started.add(username);
+            }
+        }
+
+        void stop(String username) {
+            if (active.remove(username) != null && !started.remove(username)) {
+                stopped.add(username);
+            }
+        }
+
+        void expire(long now) {
+            List<String> expired = new ArrayList<>();
+            active.forEach((username, expiresAt) -> {
+                if (expiresAt - now < 0) {
+                    expired.add(username);
+                }
+            });
+            expired.forEach(this::stop);
+        }
+
+        boolean hasChanges() {
+            return !started.isEmpty() || !stopped.isEmpty();
+        }
+
+        boolean isIdle() {
+            return active.isEmpty() && !hasChanges();
+        }
+
+        List<String> drainStarted() {
+            List<String> users = new ArrayList<>(started);
+            started.clear();
+            return users;
+        }
+
+        List<String> drainStopped() {
+            List<String> users = new ArrayList<>(stopped);
+            stopped.clear();
+            return users;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.chat.archive;
+
+import com.example.chat.model.MessageType;
+import com.example.chat.service.MessageCursor;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * MOCKITO/JACOCO - Two nodes sharing one archive directory
+ * TECHNICAL CONCEPT: MOCKITO/JACOCO
+ */
+class MessageArchiveTest {
+
+    @TempDir
+    Path directory;
+
+    private final LocalDateTime base = LocalDateTime.of(2024, 3, 1, 12, 0);
+
+    private MessageArchive open() {
+        MessageArchive archive = new MessageArchive();
+        ReflectionTestUtils.setField(archive, "enabled", true);
+        ReflectionTestUtils.setField(archive, "directory", directory.toString());
+        ReflectionTestUtils.setField(archive, "roomBuckets", 4);
+        ReflectionTestUtils.setField(archive, "blockSize", 16);
+        archive.init();
+        return archive;
+    }
+
+    // What the migrating node does for one month and bucket
+    private void migrate(MessageArchive archive, long roomId, int count) {
+        Path pending = archive.newPendingSegment(YearMonth.from(base), archive.bucketOf(roomId));
+        try (SegmentFile.Writer writer = SegmentFile.writer(pending, archive.getBlockSize())) {
+            for (int i = 0; i < count; i++) {
+                writer.append(new ArchivedMessage(roomId * 1_000 + i, roomId, 7L, MessageType.TEXT,
+                        base.plusSeconds(i), "message " + i));
+            }
+        }
+        archive.commit(pending);
+    }
+
+    @Test
+    void testOtherNodePicksUpCommittedSegmentsOnRescan() {
+        // MOCKITO/JACOCO - Given: both nodes started on an empty archive
+        MessageArchive migrating = open();
+        MessageArchive other = open();
+        MessageCursor insideMigratedRange = new MessageCursor(base.plusSeconds(5), 1_005L);
+
+        // MOCKITO/JACOCO - When: one node moves a month out of the hot table
+        migrate(migrating, 1L, 10);
+
+        // MOCKITO/JACOCO - Then: the other node sees it after its next rescan, not only after a restart
+        assertTrue(migrating.coversBefore(insideMigratedRange));
+        assertFalse(other.coversBefore(insideMigratedRange));
+
+        other.rescan();
+        assertTrue(other.coversBefore(insideMigratedRange));
+        assertEquals(List.of(YearMonth.from(base)), other.getMonths());
+        assertEquals(1, other.getSegmentCount());
+    }
+
+    @Test
+    void testRescanDoesNotRegisterOwnSegmentsTwice() {
+        MessageArchive archive = open();
+        migrate(archive, 1L, 10);
+        migrate(archive, 2L, 5);
+
+        archive.rescan();
+        archive.rescan();
+
+        assertEquals(2, archive.getSegmentCount());
+    }
+}
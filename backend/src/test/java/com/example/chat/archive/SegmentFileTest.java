@@ -0,0 +1,86 @@
+package com.example.chat.archive;
+
+import com.example.chat.model.MessageType;
+import com.example.chat.service.MessageCursor;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * MOCKITO/JACOCO - Unit tests for cold-tier segment files
+ * TECHNICAL CONCEPT: MOCKITO/JACOCO
+ */
+class SegmentFileTest {
+
+    @TempDir
+    Path directory;
+
+    private final LocalDateTime base = LocalDateTime.of(2024, 3, 1, 0, 0, 0, 123_456_789);
+
+    private Path writeSegment(int perRoom, long... roomIds) {
+        Path file = directory.resolve("part.seg");
+        try (SegmentFile.Writer writer = SegmentFile.writer(file, 16)) {
+            for (long roomId : roomIds) {
+                for (int i = 0; i < perRoom; i++) {
+                    writer.append(new ArchivedMessage(roomId * 1_000 + i, roomId, 7L, MessageType.TEXT,
+                            base.plusSeconds(i / 2), "message " + i + " in room " + roomId));
+                }
+            }
+        }
+        return file;
+    }
+
+    @Test
+    void testReadBeforePagesOneRoomNewestFirst() {
+        SegmentFile segment = SegmentFile.open(writeSegment(100, 1, 2, 3));
+        assertEquals(300, segment.getMessageCount());
+
+        List<Long> ids = new ArrayList<>();
+        MessageCursor cursor = null;
+        List<ArchivedMessage> page;
+        do {
+            page = segment.readBefore(2, cursor, 30);
+            page.forEach(message -> ids.add(message.id()));
+            cursor = page.isEmpty() ? cursor : page.get(page.size() - 1).cursor();
+        } while (page.size() == 30);
+
+        assertEquals(100, ids.size());
+        assertEquals(2_099L, ids.get(0));
+        assertEquals(2_000L, ids.get(99));
+        for (int i = 1; i < ids.size(); i++) {
+            assertTrue(ids.get(i) < ids.get(i - 1));
+        }
+        assertTrue(segment.readBefore(4, null, 10).isEmpty());
+    }
+
+    @Test
+    void testMessagesRoundTripExactly() {
+        SegmentFile segment = SegmentFile.open(writeSegment(3, 5));
+        ArchivedMessage newest = segment.readBefore(5, null, 1).get(0);
+
+        assertEquals(5_002L, newest.id());
+        assertEquals(5L, newest.roomId());
+        assertEquals(7L, newest.senderId());
+        assertEquals(MessageType.TEXT, newest.type());
+        assertEquals(base.plusSeconds(1), newest.createdAt());
+        assertEquals("message 2 in room 5", newest.content());
+        assertEquals(5_002L, segment.newestKey().getId());
+        assertEquals(base.plusSeconds(1), segment.newestKey().getCreatedAt());
+        assertEquals(List.of(5_000L, 5_001L, 5_002L), segment.readIds());
+    }
+
+    @Test
+    void testWriterRejectsOutOfOrderMessages() {
+        try (SegmentFile.Writer writer = SegmentFile.writer(directory.resolve("bad.seg"), 16)) {
+            writer.append(new ArchivedMessage(2, 1, 7, MessageType.TEXT, base, "b"));
+            assertThrows(IllegalArgumentException.class,
+                    () -> writer.append(new ArchivedMessage(1, 1, 7, MessageType.TEXT, base, "a")));
+        }
+    }
+}
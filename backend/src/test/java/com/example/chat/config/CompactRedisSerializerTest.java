@@ -0,0 +1,64 @@
+package com.example.chat.config;
+
+import com.example.chat.dto.MessageDto;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * MOCKITO/JACOCO - Compact codec round trips and reads values left behind by the JSON codec
+ * TECHNICAL CONCEPT: MOCKITO/JACOCO
+ */
+class CompactRedisSerializerTest {
+
+    private final GenericJackson2JsonRedisSerializer json = new GenericJackson2JsonRedisSerializer();
+
+    private static MessageDto message(String content) {
+        MessageDto dto = new MessageDto();
+        dto.setId(42L);
+        dto.setContent(content);
+        dto.setStatus("SENT");
+        return dto;
+    }
+
+    @Test
+    void testRoundTripPlainAndDeflated() {
+        CompactRedisSerializer<MessageDto> compact = new CompactRedisSerializer<>(MessageDto.class, 64);
+
+        byte[] small = compact.serialize(message("hi"));
+        byte[] large = compact.serialize(message("x".repeat(1000)));
+
+        assertEquals(0, small[0]);
+        assertEquals(1, large[0]);
+        assertEquals("hi", compact.deserialize(small).getContent());
+        assertEquals(1000, compact.deserialize(large).getContent().length());
+    }
+
+    @Test
+    void testReadsValuesWrittenByTheJsonCodec() {
+        CompactRedisSerializer<MessageDto> messages = new CompactRedisSerializer<>(
+                TypeFactory.defaultInstance().constructType(MessageDto.class), 1024, json);
+        MessageDto legacy = messages.deserialize(json.serialize(message("from before the deploy")));
+        assertEquals(42L, legacy.getId());
+        assertEquals("from before the deploy", legacy.getContent());
+
+        CompactRedisSerializer<Map<String, Object>> sessions = new CompactRedisSerializer<>(
+                TypeFactory.defaultInstance().constructMapType(Map.class, String.class, Object.class), 1024, json);
+        Map<String, Object> session = new HashMap<>();
+        session.put("username", "alice");
+        assertEquals("alice", sessions.deserialize(json.serialize(session)).get("username"));
+    }
+
+    @Test
+    void testJsonWithoutLegacySerializerIsRejected() {
+        CompactRedisSerializer<MessageDto> compact = new CompactRedisSerializer<>(MessageDto.class, 1024);
+
+        assertThrows(SerializationException.class, () -> compact.deserialize(json.serialize(message("old"))));
+    }
+}
@@ -37,7 +37,7 @@ class AuthControllerTest {
         LoginRequest loginRequest = new LoginRequest("testuser", "password");
         
         // Mock AuthService response
-        when(authService.login(any(LoginRequest.class))).thenReturn(null);
+        when(authService.login(any(LoginRequest.class), any())).thenReturn(null);
         
         mockMvc.perform(post("/auth/login")
                 .contentType(MediaType.APPLICATION_JSON)
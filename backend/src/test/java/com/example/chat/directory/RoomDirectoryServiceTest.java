@@ -0,0 +1,63 @@
+package com.example.chat.directory;
+
+import com.example.chat.dto.ChatRoomDto;
+import com.example.chat.exception.ValidationException;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * MOCKITO/JACOCO - Room directory: prefix range and LIKE pattern, cursors, content ETags
+ * TECHNICAL CONCEPT: MOCKITO/JACOCO
+ */
+class RoomDirectoryServiceTest {
+
+    @Test
+    void testPrefixRangeCoversExactlyThePrefix() {
+        String end = RoomDirectoryService.prefixEnd("gen");
+        assertEquals("geo", end);
+        assertTrue("general".compareTo(end) < 0);
+        assertTrue("geo".compareTo(end) >= 0);
+        assertEquals("b", RoomDirectoryService.prefixEnd("a" + Character.MAX_VALUE));
+    }
+
+    @Test
+    void testLikePatternEscapesWildcards() {
+        assertEquals("100!%!_off!!%", RoomDirectoryService.likePattern("100%_off!"));
+    }
+
+    @Test
+    void testCursorRoundTripsAndRejectsOtherSorts() {
+        RoomCursor cursor = new RoomCursor(RoomSort.CREATED, "2026-01-02T03:04:05", 42L);
+        assertEquals(cursor, RoomCursor.decode(cursor.encode(), RoomSort.CREATED));
+
+        RoomCursor byName = new RoomCursor(RoomSort.NAME, "a|b", 7L);  // Separator inside the name key
+        assertEquals(byName, RoomCursor.decode(byName.encode(), RoomSort.NAME));
+
+        assertThrows(ValidationException.class, () -> RoomCursor.decode(cursor.encode(), RoomSort.NAME));
+        assertThrows(ValidationException.class, () -> RoomCursor.decode("not a cursor", RoomSort.NAME));
+        assertThrows(ValidationException.class, () -> RoomSort.parse("popularity"));
+    }
+
+    @Test
+    void testEtagFollowsContent() {
+        ChatRoomDto general = room(1L, "General");
+        String etag = RoomDirectoryService.etag(List.of(general), null);
+
+        assertEquals(etag, RoomDirectoryService.etag(List.of(room(1L, "General")), null));
+        assertNotEquals(etag, RoomDirectoryService.etag(List.of(room(1L, "Generals")), null));
+        assertNotEquals(etag, RoomDirectoryService.etag(List.of(general), "next"));
+        assertTrue(etag.startsWith("\"") && etag.endsWith("\""));
+    }
+
+    private static ChatRoomDto room(Long id, String name) {
+        ChatRoomDto dto = new ChatRoomDto();
+        dto.setId(id);
+        dto.setName(name);
+        dto.setType("PUBLIC");
+        dto.setCreatedAt("2026-01-02T03:04:05");
+        return dto;
+    }
+}
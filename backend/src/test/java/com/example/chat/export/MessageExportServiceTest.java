@@ -0,0 +1,170 @@
+package com.example.chat.export;
+
+import com.example.chat.archive.MessageArchive;
+import com.example.chat.exception.ValidationException;
+import com.example.chat.model.Message;
+import com.example.chat.model.MessageStatus;
+import com.example.chat.model.MessageType;
+import com.example.chat.model.User;
+import com.example.chat.repository.MessageRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * MOCKITO/JACOCO - Room export: archived rows first, then the hot cursor, in NDJSON, CSV and gzip
+ * TECHNICAL CONCEPT: MOCKITO/JACOCO
+ */
+@ExtendWith(MockitoExtension.class)
+class MessageExportServiceTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2024, 3, 1, 12, 0);
+
+    @Mock
+    private MessageRepository messageRepository;
+
+    @Mock
+    private MessageArchive messageArchive;
+
+    @InjectMocks
+    private MessageExportService exportService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(exportService, "maxConcurrent", 1);
+        ReflectionTestUtils.setField(exportService, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(exportService, "meterRegistry", new SimpleMeterRegistry());
+        exportService.init();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testNdjsonWritesArchivedThenHotMessagesOnePerLine() throws Exception {
+        when(messageArchive.forEachInRoom(eq(1L), anyInt(), any())).thenAnswer(invocation -> {
+            invocation.getArgument(2, Consumer.class).accept(List.of(archived(1L, "from the archive")));
+            return 1L;
+        });
+        when(messageRepository.streamExportByRoomId(1L)).thenReturn(Stream.of(
+                hot(2L, "hello \"world\""), hot(3L, "line one\nline two")));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long count = exportService.export(1L, ExportFormat.NDJSON, false, out);
+
+        assertEquals(3, count);
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, lines.length);
+        ObjectMapper mapper = new ObjectMapper();
+        JsonNode first = mapper.readTree(lines[0]);
+        assertEquals(1L, first.get("id").asLong());
+        assertEquals("alice", first.get("sender").asText());
+        assertEquals("from the archive", first.get("content").asText());
+        assertEquals("hello \"world\"", mapper.readTree(lines[1]).get("content").asText());
+        assertEquals("line one\nline two", mapper.readTree(lines[2]).get("content").asText());
+        assertEquals(T0.plusSeconds(3).toString(), mapper.readTree(lines[2]).get("createdAt").asText());
+    }
+
+    @Test
+    void testCsvQuotesFieldsWithSeparatorsQuotesAndLineBreaks() throws Exception {
+        when(messageRepository.streamExportByRoomId(1L)).thenReturn(Stream.of(
+                hot(2L, "plain"), hot(3L, "a, \"b\"\nc")));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.export(1L, ExportFormat.CSV, false, out);
+
+        assertEquals("id,room_id,sender_id,sender,type,status,created_at,content\r\n"
+                        + "2,1,7,alice,TEXT,SENT," + T0.plusSeconds(2) + ",plain\r\n"
+                        + "3,1,7,alice,TEXT,SENT," + T0.plusSeconds(3) + ",\"a, \"\"b\"\"\nc\"\r\n",
+                out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testCsvNeutralisesCellsThatWouldRunAsFormulas() throws Exception {
+        when(messageRepository.streamExportByRoomId(1L)).thenReturn(Stream.of(
+                hot(2L, "=HYPERLINK(\"http://evil\",\"x\")"), hot(3L, "+1"), hot(4L, "-2+3"),
+                hot(5L, "@SUM(A1)"), hot(6L, "1 + 1 = 2")));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.export(1L, ExportFormat.CSV, false, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertTrue(lines[1].endsWith(",\"'=HYPERLINK(\"\"http://evil\"\",\"\"x\"\")\""));
+        assertTrue(lines[2].endsWith(",'+1"));
+        assertTrue(lines[3].endsWith(",'-2+3"));
+        assertTrue(lines[4].endsWith(",'@SUM(A1)"));
+        assertTrue(lines[5].endsWith(",1 + 1 = 2"));  // Only a leading trigger character counts
+        assertTrue(ExportFormat.isFormula("\tcmd"));
+        assertFalse(ExportFormat.isFormula(""));
+    }
+
+    @Test
+    void testGzipOutputDecompressesToTheSameExport() throws Exception {
+        when(messageRepository.streamExportByRoomId(1L))
+                .thenReturn(Stream.of(hot(2L, "compressed")))
+                .thenReturn(Stream.of(hot(2L, "compressed")));
+
+        ByteArrayOutputStream plain = new ByteArrayOutputStream();
+        exportService.export(1L, ExportFormat.NDJSON, false, plain);
+        ByteArrayOutputStream gzipped = new ByteArrayOutputStream();
+        exportService.export(1L, ExportFormat.NDJSON, true, gzipped);
+
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped.toByteArray()))) {
+            assertArrayEquals(plain.toByteArray(), in.readAllBytes());
+        }
+    }
+
+    @Test
+    void testConcurrentExportsAreCapped() {
+        assertTrue(exportService.tryBeginExport());
+        assertFalse(exportService.tryBeginExport());
+        exportService.endExport();
+        assertTrue(exportService.tryBeginExport());
+    }
+
+    @Test
+    void testUnknownFormatIsRejected() {
+        assertEquals(ExportFormat.CSV, ExportFormat.parse("csv"));
+        assertThrows(ValidationException.class, () -> ExportFormat.parse("xml"));
+    }
+
+    private static ExportedMessage hot(long id, String content) {
+        return new ExportedMessage(id, 1L, 7L, "alice", MessageType.TEXT, MessageStatus.SENT,
+                T0.plusSeconds(id), content);
+    }
+
+    private static Message archived(long id, String content) {
+        User sender = new User();
+        sender.setId(7L);
+        sender.setUsername("alice");
+        Message message = new Message();
+        message.setId(id);
+        message.setChatRoomId(1L);
+        message.setSender(sender);
+        message.setType(MessageType.TEXT);
+        message.setStatus(MessageStatus.SENT);
+        message.setContent(content);
+        message.setCreatedAt(T0.plusSeconds(id));
+        return message;
+    }
+}
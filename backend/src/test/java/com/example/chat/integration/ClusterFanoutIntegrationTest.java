@@ -0,0 +1,142 @@
+package com.example.chat.integration;
+
+import com.example.chat.ChatApplication;
+import com.example.chat.cluster.ClusterBus;
+import com.example.chat.cluster.ClusterEnvelope;
+import com.example.chat.dto.MessagePageDto;
+import com.example.chat.security.JwtTokenProvider;
+import com.example.chat.service.RecentMessageBuffer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+import org.springframework.web.socket.sockjs.client.SockJsClient;
+import org.springframework.web.socket.sockjs.client.WebSocketTransport;
+
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * UAT - Two application contexts sharing the in-memory cluster bus
+ * TECHNICAL CONCEPTS: UAT, WEBSOCKET, CLUSTER
+ */
+class ClusterFanoutIntegrationTest {
+
+    private ConfigurableApplicationContext nodeA;
+    private ConfigurableApplicationContext nodeB;
+
+    @BeforeEach
+    void startNodes() {
+        nodeA = startNode("node-a", 1);
+        nodeB = startNode("node-b", 2);
+    }
+
+    @AfterEach
+    void stopNodes() {
+        nodeA.close();
+        nodeB.close();
+    }
+
+    @Test
+    void testMessageSentOnNodeAReachesSubscriberOnNodeB() throws Exception {
+        // UAT - Subscriber connected to node B only
+        BlockingQueue<Map<String, Object>> received = new LinkedBlockingQueue<>();
+        StompSession subscriber = connect(nodeB);
+        subscriber.subscribe("/topic/room/1", collectInto(received));
+
+        // UAT - Publisher connected to node A only
+        StompSession publisher = connect(nodeA);
+        Thread.sleep(500);  // Let the SUBSCRIBE frame reach node B's broker
+        publisher.send("/app/chat.sendMessage",
+                Map.of("content", "hello from A", "username", "testuser", "roomId", 1));
+
+        Map<String, Object> frame = received.poll(10, TimeUnit.SECONDS);
+        assertNotNull(frame, "message accepted on node A was not delivered on node B");
+        assertEquals("hello from A", frame.get("content"));
+        assertNull(received.poll(500, TimeUnit.MILLISECONDS), "message was delivered twice");
+
+        // CLUSTER - Node B's history buffer holds remote messages too (an unseeded buffer answers a
+        // page only when it also holds an older message, hence the second one)
+        publisher.send("/app/chat.sendMessage",
+                Map.of("content", "second from A", "username", "testuser", "roomId", 1));
+        assertNotNull(received.poll(10, TimeUnit.SECONDS));
+        MessagePageDto history = nodeB.getBean(RecentMessageBuffer.class).read(1L, null, 1);
+        assertNotNull(history, "node B's history buffer missed the remote messages");
+        assertEquals("second from A", history.getMessages().get(0).getContent());
+        assertEquals("SENT", history.getMessages().get(0).getStatus());
+    }
+
+    @Test
+    void testRedeliveredEnvelopeIsDeliveredOnce() throws Exception {
+        BlockingQueue<Map<String, Object>> received = new LinkedBlockingQueue<>();
+        StompSession subscriber = connect(nodeB);
+        subscriber.subscribe("/topic/room/2", collectInto(received));
+        Thread.sleep(500);
+
+        // UAT - The bus hands the same message id to node B twice
+        ClusterEnvelope envelope = new ClusterEnvelope("another-node", "42", "/topic/room/2", "{\"content\":\"once\"}");
+        ClusterBus bus = nodeA.getBean(ClusterBus.class);
+        bus.publish(envelope);
+        bus.publish(envelope);
+
+        Map<String, Object> frame = received.poll(10, TimeUnit.SECONDS);
+        assertNotNull(frame);
+        assertEquals("once", frame.get("content"));
+        assertNull(received.poll(500, TimeUnit.MILLISECONDS), "duplicate envelope was delivered");
+    }
+
+    private ConfigurableApplicationContext startNode(String name, int nodeId) {
+        // Command-line arguments, since default properties would lose to application.yml
+        return new SpringApplicationBuilder(ChatApplication.class)
+                .profiles("test")
+                .run(
+                        "--server.port=0",
+                        "--spring.jmx.enabled=false",
+                        "--spring.datasource.url=jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1",
+                        "--app.cluster.fanout.mode=memory",
+                        "--app.cluster.fanout.channel=cluster-fanout-test",
+                        "--app.messages.node-id=" + nodeId);
+    }
+
+    private StompSession connect(ConfigurableApplicationContext node) throws Exception {
+        WebSocketStompClient client = new WebSocketStompClient(
+                new SockJsClient(List.of(new WebSocketTransport(new StandardWebSocketClient()))));
+        client.setMessageConverter(new MappingJackson2MessageConverter());
+        String port = node.getEnvironment().getProperty("local.server.port");
+        StompHeaders connectHeaders = new StompHeaders();
+        connectHeaders.add("Authorization", "Bearer " + node.getBean(JwtTokenProvider.class).generateToken("testuser"));
+        return client.connectAsync("ws://localhost:" + port + "/api/ws", new WebSocketHttpHeaders(),
+                        connectHeaders, new StompSessionHandlerAdapter() {})
+                .get(10, TimeUnit.SECONDS);
+    }
+
+    private StompFrameHandler collectInto(BlockingQueue<Map<String, Object>> received) {
+        return new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return Map.class;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public void handleFrame(StompHeaders headers, Object payload) {
+                received.add((Map<String, Object>) payload);
+            }
+        };
+    }
+}
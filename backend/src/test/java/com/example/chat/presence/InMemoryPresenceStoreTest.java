@@ -0,0 +1,62 @@
+package com.example.chat.presence;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * MOCKITO/JACOCO - Unit tests for the single-node presence store
+ * TECHNICAL CONCEPT: MOCKITO/JACOCO
+ */
+class InMemoryPresenceStoreTest {
+
+    private InMemoryPresenceStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new InMemoryPresenceStore(4);
+    }
+
+    @Test
+    void testPagesAcrossShardsInUsernameOrder() {
+        for (String name : List.of("erin", "alice", "dave", "carol", "bob")) {
+            store.touch(name, Set.of(), 1_000);
+        }
+
+        assertEquals(List.of("alice", "bob"), store.online(null, 2));
+        assertEquals(List.of("carol", "dave"), store.online("bob", 2));
+        assertEquals(List.of("erin"), store.online("dave", 2));
+        assertEquals(5, store.countOnline());
+    }
+
+    @Test
+    void testSweepRemovesOnlyExpiredUsers() {
+        store.touch("alice", Set.of(1L), 1_000);
+        store.touch("bob", Set.of(1L), 5_000);
+        store.touch("alice", Set.of(1L), 6_000);  // Heartbeat refreshes the old score
+        store.touch("carol", Set.of(2L), 2_000);
+
+        assertEquals(2, store.sweep(5_500));  // bob and carol
+
+        assertEquals(List.of("alice"), store.online(null, 10));
+        assertEquals(List.of("alice"), store.onlineInRoom(1L, null, 10));
+        assertEquals(0, store.countOnlineInRoom(2L));
+    }
+
+    @Test
+    void testRemoveAndLeaveRoom() {
+        store.touch("alice", Set.of(1L, 2L), 1_000);
+        store.leaveRoom(2L, "alice");
+
+        assertEquals(List.of("alice"), store.onlineInRoom(1L, null, 10));
+        assertTrue(store.onlineInRoom(2L, null, 10).isEmpty());
+
+        store.remove("alice", Set.of(1L));
+        assertEquals(0, store.countOnline());
+        assertEquals(0, store.countOnlineInRoom(1L));
+    }
+}
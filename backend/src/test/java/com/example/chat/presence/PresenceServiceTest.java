@@ -0,0 +1,82 @@
+package com.example.chat.presence;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * MOCKITO/JACOCO - Session bookkeeping of PresenceService: idle sessions and disconnects
+ * TECHNICAL CONCEPT: MOCKITO/JACOCO
+ */
+@ExtendWith(MockitoExtension.class)
+class PresenceServiceTest {
+
+    @Mock
+    private PresenceStore presenceStore;  // MOCKITO/JACOCO - Mock shared store
+
+    @InjectMocks
+    private PresenceService presenceService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(presenceService, "ttl", Duration.ofSeconds(90));
+        ReflectionTestUtils.setField(presenceService, "touchInterval", Duration.ZERO);
+    }
+
+    @Test
+    void testSweepKeepsIdleOpenSessionsOnline() {
+        // MOCKITO/JACOCO - Given: a session that sends nothing after joining
+        presenceService.joinRoom("s1", "alice", 1L);
+        clearInvocations(presenceStore);
+
+        // MOCKITO/JACOCO - When
+        presenceService.sweep();
+
+        // MOCKITO/JACOCO - Then: the session is refreshed before anything is expired
+        var order = inOrder(presenceStore);
+        order.verify(presenceStore).touch(eq("alice"), eq(Set.of(1L)), anyLong());
+        order.verify(presenceStore).sweep(anyLong());
+    }
+
+    @Test
+    void testDisconnectedSessionsAreNoLongerRefreshed() {
+        presenceService.register("s1", "alice");
+        presenceService.disconnect("s1");
+        clearInvocations(presenceStore);
+
+        presenceService.sweep();
+
+        verify(presenceStore, never()).touch(any(), anyCollection(), anyLong());
+    }
+
+    @Test
+    void testLastLocalSessionWithdrawsOnlyItsRooms() {
+        // MOCKITO/JACOCO - Given: two tabs of the same user on this node
+        presenceService.joinRoom("s1", "alice", 1L);
+        presenceService.joinRoom("s2", "alice", 2L);
+        assertTrue(presenceService.hasJoined("s1", 1L));
+        assertFalse(presenceService.hasJoined("s1", 2L));
+
+        // MOCKITO/JACOCO - When & Then: the first close leaves only its own room
+        presenceService.disconnect("s1");
+        verify(presenceStore).leaveRoom(1L, "alice");
+        verify(presenceStore, never()).remove(any(), anyCollection());
+
+        // MOCKITO/JACOCO - The last close hands the decision to the store, which knows about other nodes
+        presenceService.disconnect("s2");
+        verify(presenceStore).remove("alice", Set.of(2L));
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.chat.receipt;
+
+import com.example.chat.cluster.ClusterFanoutService;
+import com.example.chat.dto.MessageReceiptsDto;
+import com.example.chat.dto.ReceiptUpdateFrame;
+import com.example.chat.dto.RoomUnreadDto;
+import com.example.chat.exception.ValidationException;
+import com.example.chat.model.ReadReceipt;
+import com.example.chat.repository.MessageRepository;
+import com.example.chat.repository.ReadReceiptRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.ArgumentMatchers.longThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * MOCKITO/JACOCO - Receipt watermarks: coalescing, batched upserts and derived counts
+ * TECHNICAL CONCEPTS: MOCKITO/JACOCO, WEBSOCKET
+ */
+@ExtendWith(MockitoExtension.class)
+class ReceiptServiceTest {
+
+    @Mock
+    private ReadReceiptRepository readReceiptRepository;
+
+    @Mock
+    private MessageRepository messageRepository;
+
+    @Mock
+    private UnreadTracker unreadTracker;
+
+    @Mock
+    private ClusterFanoutService clusterFanout;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private ReceiptService receiptService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(receiptService, "unreadCap", 99);
+        ReflectionTestUtils.setField(receiptService, "maxRooms", 100L);
+        ReflectionTestUtils.setField(receiptService, "roomTtl", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(receiptService, "meterRegistry", new SimpleMeterRegistry());
+        receiptService.init();
+        lenient().when(unreadTracker.isKnownId(eq(1L), longThat(id -> id <= 300))).thenReturn(true);  // Newest message is 300
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testAcksAreCoalescedIntoOneUpsertAndOneFrame() {
+        when(readReceiptRepository.findByChatRoomId(1L)).thenReturn(List.of());
+        when(readReceiptRepository.findAllById(anyIterable())).thenReturn(List.of());
+
+        for (long messageId = 100; messageId <= 200; messageId++) {
+            receiptService.acknowledge(7L, "alice", 1L, messageId, messageId % 2 == 0);
+        }
+        receiptService.acknowledge(7L, "alice", 1L, 150, true);  // Older: no-op
+        receiptService.acknowledge(8L, "bob", 1L, 120, false);
+        assertEquals(2, receiptService.pendingCount());
+
+        receiptService.flush();
+
+        ArgumentCaptor<Iterable<ReadReceipt>> saved = ArgumentCaptor.forClass(Iterable.class);
+        verify(readReceiptRepository, times(1)).saveAll(saved.capture());
+        List<ReadReceipt> rows = new ArrayList<>();
+        saved.getValue().forEach(rows::add);
+        assertEquals(2, rows.size());
+        ReadReceipt alice = rows.stream().filter(r -> r.getUserId() == 7L).findFirst().orElseThrow();
+        assertEquals(200L, alice.getLastDeliveredMessageId());
+        assertEquals(200L, alice.getLastReadMessageId());
+
+        ArgumentCaptor<Object> frame = ArgumentCaptor.forClass(Object.class);
+        verify(clusterFanout, times(1)).broadcast(eq("/topic/room/1/receipts"), frame.capture(), isNull());
+        assertEquals(2, ((ReceiptUpdateFrame) frame.getValue()).receipts().size());
+        assertEquals(0, receiptService.pendingCount());
+
+        receiptService.flush();  // Nothing new
+        verify(readReceiptRepository, times(1)).saveAll(any());
+    }
+
+    @Test
+    void testAcksBeyondTheNewestMessageOrOfUnknownRoomsAreRejected() {
+        // MOCKITO/JACOCO - When & Then: a watermark at Long.MAX_VALUE would cover every future message
+        assertThrows(ValidationException.class, () -> receiptService.acknowledge(7L, "alice", 1L, Long.MAX_VALUE, true));
+        assertThrows(ValidationException.class, () -> receiptService.acknowledge(7L, "alice", 1L, 301, false));
+        assertThrows(ValidationException.class, () -> receiptService.acknowledge(7L, "alice", 42L, 1, true));
+
+        // MOCKITO/JACOCO - Then: nothing is pending and no room's watermarks were loaded
+        assertEquals(0, receiptService.pendingCount());
+        verifyNoInteractions(readReceiptRepository);
+    }
+
+    @Test
+    void testMessageCountsAreDerivedFromWatermarks() {
+        ReadReceipt alice = new ReadReceipt(7L, 1L, "alice");
+        alice.setLastDeliveredMessageId(300);
+        alice.setLastReadMessageId(250);
+        ReadReceipt bob = new ReadReceipt(8L, 1L, "bob");
+        bob.setLastDeliveredMessageId(200);
+        bob.setLastReadMessageId(100);
+        when(readReceiptRepository.findByChatRoomId(1L)).thenReturn(List.of(alice, bob));
+
+        MessageReceiptsDto receipts = receiptService.getMessageReceipts(1L, 200L);
+        assertEquals(2, receipts.getDeliveredCount());
+        assertEquals(1, receipts.getReadCount());
+        assertEquals("READ", receipts.getStatus());
+
+        assertEquals("DELIVERED", receiptService.getMessageReceipts(1L, 280L).getStatus());
+        assertEquals("SENT", receiptService.getMessageReceipts(1L, 301L).getStatus());
+    }
+
+    @Test
+    void testUnreadCountsUseLatestWatermarkAndCap() {
+        ReadReceipt stored = new ReadReceipt(7L, 1L, "alice");
+        stored.setLastReadMessageId(100);
+        when(readReceiptRepository.findByUserId(7L)).thenReturn(List.of(stored));
+        when(readReceiptRepository.findByChatRoomId(1L)).thenReturn(List.of(stored));
+        when(unreadTracker.countUnread(anyLong(), anyLong(), anyLong())).thenReturn(-1L);  // Tails cannot tell
+        when(messageRepository.countUnreadCapped(1L, 150L, 7L, 100)).thenReturn(3L);
+        when(messageRepository.countUnreadCapped(2L, 0L, 7L, 100)).thenReturn(100L);
+
+        receiptService.acknowledge(7L, "alice", 1L, 150, true);  // Not flushed yet
+        List<RoomUnreadDto> counts = receiptService.getUnreadCounts(7L, List.of(1L, 2L));
+
+        assertEquals(150L, counts.get(0).getLastReadMessageId());
+        assertEquals(3, counts.get(0).getUnread());
+        assertFalse(counts.get(0).isCapped());
+        assertEquals(99, counts.get(1).getUnread());
+        assertTrue(counts.get(1).isCapped());
+        verify(messageRepository, times(2)).countUnreadCapped(anyLong(), anyLong(), anyLong(), eq(100));
+    }
+}
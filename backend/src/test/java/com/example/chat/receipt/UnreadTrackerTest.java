@@ -0,0 +1,104 @@
+package com.example.chat.receipt;
+
+import com.example.chat.repository.MessageRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * MOCKITO/JACOCO - Unread tail: exact counts above a watermark, own messages, cap and fallback
+ * TECHNICAL CONCEPT: MOCKITO/JACOCO
+ */
+class UnreadTrackerTest {
+
+    private static final long ALICE = 1L;
+    private static final long BOB = 2L;
+
+    @Test
+    void testCountsOtherUsersMessagesAboveTheWatermark() {
+        UnreadTracker.RoomTail tail = new UnreadTracker.RoomTail(100);
+        tail.seed(List.of());
+        for (long id = 1; id <= 10; id++) {
+            tail.add(id, id % 2 == 0 ? ALICE : BOB);
+        }
+
+        assertEquals(5, tail.count(0, ALICE));  // Bob sent the odd ids
+        assertEquals(2, tail.count(6, ALICE));  // 7 and 9
+        assertEquals(0, tail.count(10, BOB));
+    }
+
+    @Test
+    void testSeedMergesWithMessagesAddedBeforeIt() {
+        UnreadTracker.RoomTail tail = new UnreadTracker.RoomTail(4);
+        tail.add(6, BOB);  // Sent while the seed query ran
+        List<Object[]> newestFirst = new ArrayList<>();
+        for (long id = 6; id >= 1; id--) {
+            newestFirst.add(new Object[]{id, BOB});
+        }
+        tail.seed(newestFirst);
+
+        assertTrue(tail.isSeeded());
+        assertEquals(3, tail.count(3, ALICE));  // 4, 5 and 6 once each
+        assertEquals(4, tail.count(0, ALICE));  // Only the newest 4 are kept: all unread means at least cap + 1
+    }
+
+    @Test
+    void testFullTailOfOtherUsersIsCappedAndOwnMessagesFallBack() {
+        UnreadTracker.RoomTail tail = new UnreadTracker.RoomTail(3);
+        tail.seed(List.of());
+        for (long id = 1; id <= 5; id++) {
+            tail.add(id, BOB);
+        }
+        assertEquals(3, tail.count(0, ALICE));  // unread-cap + 1: shown as "cap+"
+
+        tail.add(6, ALICE);
+        assertEquals(-1, tail.count(0, ALICE));  // Older unread messages may be hidden behind Alice's own
+        assertEquals(1, tail.count(4, ALICE));
+
+        tail.add(2, BOB);  // Older than everything kept: ignored
+        assertEquals(1, tail.count(4, ALICE));
+    }
+
+    @Test
+    void testKnownIdsStopAtTheNewestMessageOfTheRoom() {
+        // MOCKITO/JACOCO - Given: room 1 holds 1..10, then 11 is stored by another node; room 2 is unknown
+        MessageRepository messageRepository = mock(MessageRepository.class);
+        List<Object[]> newestFirst = new ArrayList<>();
+        for (long id = 10; id >= 1; id--) {
+            newestFirst.add(new Object[]{id, BOB});
+        }
+        when(messageRepository.findRecentSenders(eq(1L), any(Pageable.class)))
+                .thenReturn(newestFirst, List.<Object[]>of(new Object[]{11L, BOB}));
+        when(messageRepository.findRecentSenders(eq(2L), any(Pageable.class))).thenReturn(List.of());
+        UnreadTracker tracker = tracker(messageRepository);
+
+        // MOCKITO/JACOCO - When & Then
+        assertTrue(tracker.isKnownId(1L, 10));
+        assertTrue(tracker.isKnownId(1L, 11));  // Not in the tail yet: found in the index
+        assertFalse(tracker.isKnownId(1L, Long.MAX_VALUE));
+        assertFalse(tracker.isKnownId(1L, 0));
+        assertFalse(tracker.isKnownId(2L, 1));
+    }
+
+    private static UnreadTracker tracker(MessageRepository messageRepository) {
+        UnreadTracker tracker = new UnreadTracker();
+        ReflectionTestUtils.setField(tracker, "unreadCap", 99);
+        ReflectionTestUtils.setField(tracker, "maxRooms", 100L);
+        ReflectionTestUtils.setField(tracker, "roomTtl", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(tracker, "messageRepository", messageRepository);
+        ReflectionTestUtils.setField(tracker, "meterRegistry", new SimpleMeterRegistry());
+        tracker.init();
+        return tracker;
+    }
+}
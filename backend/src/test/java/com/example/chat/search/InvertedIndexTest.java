@@ -0,0 +1,79 @@
+package com.example.chat.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * MOCKITO/JACOCO - Unit tests for the in-memory inverted index and its analyzer
+ * TECHNICAL CONCEPT: MOCKITO/JACOCO
+ */
+class InvertedIndexTest {
+
+    @Test
+    void testSearchIntersectsTermsRoomAndSenderNewestFirst() {
+        InvertedIndex index = new InvertedIndex();
+        index.add(1, 10L, 100L, "Deploy the build tonight");
+        index.add(2, 10L, 200L, "the BUILD is green, deploy!");
+        index.add(3, 20L, 100L, "deploy build to staging");
+        index.add(4, 10L, 100L, "lunch?");
+
+        assertArrayEquals(new long[] {3, 2, 1}, index.search(List.of("deploy", "build"), null, null, -1, 10).messageIds());
+        assertArrayEquals(new long[] {2, 1}, index.search(List.of("deploy", "build"), 10L, null, -1, 10).messageIds());
+        assertArrayEquals(new long[] {3, 1}, index.search(List.of("build"), null, 100L, -1, 10).messageIds());
+        assertArrayEquals(new long[] {1}, index.search(List.of("build"), 10L, 100L, -1, 10).messageIds());
+        assertEquals(0, index.search(List.of("build", "unknown"), null, null, -1, 10).messageIds().length);
+        assertEquals(0, index.search(List.of("build"), 30L, null, -1, 10).messageIds().length);
+    }
+
+    @Test
+    void testPagesFollowNextDocAcrossBlocks() {
+        InvertedIndex index = new InvertedIndex();
+        int messages = PostingsList.BLOCK_SIZE * 5 + 17;
+        for (int i = 0; i < messages; i++) {
+            index.add(1_000 + i, (long) (i % 3), null, i % 2 == 0 ? "even message" : "odd message");
+        }
+
+        List<Long> collected = new ArrayList<>();
+        int before = -1;
+        do {
+            InvertedIndex.Hits hits = index.search(List.of("even"), 0L, null, before, 7);
+            for (long id : hits.messageIds()) {
+                collected.add(id);
+            }
+            before = hits.nextDoc();
+        } while (before >= 0);
+
+        List<Long> expected = new ArrayList<>();
+        for (int i = messages - 1; i >= 0; i--) {
+            if (i % 2 == 0 && i % 3 == 0) {
+                expected.add(1_000L + i);
+            }
+        }
+        assertEquals(expected, collected);
+    }
+
+    @Test
+    void testContainsSortedFindsBackfilledIds() {
+        InvertedIndex index = new InvertedIndex();
+        index.add(5, 1L, 1L, "a");
+        index.add(9, 1L, 1L, "b");
+        index.add(7, 1L, 1L, "c");  // Live, after the backfilled prefix
+
+        assertTrue(index.containsSorted(9, 2));
+        assertFalse(index.containsSorted(7, 2));
+    }
+
+    @Test
+    void testAnalyzerTermsAndHighlights() {
+        assertEquals(List.of("héllo", "world", "42"), MessageAnalyzer.terms("Héllo, WORLD... héllo 42"));
+
+        List<int[]> ranges = MessageAnalyzer.highlights("Ship it. ship IT!", List.of("ship"));
+        assertEquals(2, ranges.size());
+        assertArrayEquals(new int[] {0, 4}, ranges.get(0));
+        assertArrayEquals(new int[] {9, 13}, ranges.get(1));
+    }
+}
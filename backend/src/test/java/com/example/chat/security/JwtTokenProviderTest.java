@@ -0,0 +1,89 @@
+package com.example.chat.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JWT - Single-verification API and the verified-token cache
+ * TECHNICAL CONCEPTS: JWT, MOCKITO/JACOCO
+ */
+class JwtTokenProviderTest {
+
+    private static final String SECRET = "testSecretKey12345678901234567890123456789012345678901234567890";
+
+    private JwtTokenProvider jwtTokenProvider;
+
+    @BeforeEach
+    void setUp() {
+        jwtTokenProvider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(jwtTokenProvider, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(jwtTokenProvider, "jwtExpirationInMs", 60_000);
+        jwtTokenProvider.init();
+    }
+
+    private static String tokenExpiringAt(Date expiration) {
+        return Jwts.builder()
+                .setSubject("testuser")
+                .setExpiration(expiration)
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+    }
+
+    @Test
+    void testVerifyTokenReturnsClaims() {
+        String token = jwtTokenProvider.generateToken("testuser");
+
+        Optional<Claims> claims = jwtTokenProvider.verifyToken(token);
+
+        assertTrue(claims.isPresent());
+        assertEquals("testuser", claims.get().getSubject());
+        assertEquals("testuser", jwtTokenProvider.getUsernameFromToken(token));
+        assertTrue(jwtTokenProvider.validateToken(token));
+    }
+
+    @Test
+    void testRepeatedVerificationIsServedFromCache() {
+        String token = jwtTokenProvider.generateToken("testuser");
+
+        Claims first = jwtTokenProvider.verifyToken(token).orElseThrow();
+        Claims second = jwtTokenProvider.verifyToken(token).orElseThrow();
+
+        assertSame(first, second);
+    }
+
+    @Test
+    void testForeignOrMalformedTokenIsRejected() {
+        String token = jwtTokenProvider.generateToken("testuser");
+        jwtTokenProvider.verifyToken(token);  // Cache the genuine token first
+        String tampered = Jwts.builder()
+                .setSubject("testuser")
+                .signWith(Keys.hmacShaKeyFor("anotherSecretKey123456789012345678901234567890".getBytes(StandardCharsets.UTF_8)))
+                .compact();
+
+        assertFalse(jwtTokenProvider.validateToken(tampered));
+        assertFalse(jwtTokenProvider.validateToken("not-a-jwt"));
+        assertFalse(jwtTokenProvider.validateToken(null));
+        assertThrows(JwtException.class, () -> jwtTokenProvider.getUsernameFromToken(tampered));
+    }
+
+    @Test
+    void testCachedVerificationDoesNotOutliveToken() throws InterruptedException {
+        String token = tokenExpiringAt(new Date(System.currentTimeMillis() + 1500));
+        assertTrue(jwtTokenProvider.validateToken(token));
+
+        Thread.sleep(2000);
+
+        assertFalse(jwtTokenProvider.validateToken(token));
+    }
+}
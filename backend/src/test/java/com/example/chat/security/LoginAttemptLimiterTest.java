@@ -0,0 +1,70 @@
+package com.example.chat.security;
+
+import com.example.chat.exception.LoginThrottledException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * PERFORMANCE - Sliding-window login throttling per username and per address
+ * TECHNICAL CONCEPT: MOCKITO/JACOCO
+ */
+class LoginAttemptLimiterTest {
+
+    private final AtomicLong now = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+    private LoginAttemptLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        limiter = new LoginAttemptLimiter();
+        ReflectionTestUtils.setField(limiter, "window", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(limiter, "maxPerUsername", 3);
+        ReflectionTestUtils.setField(limiter, "maxPerAddress", 5);
+        limiter.clock = now::get;
+        limiter.init();
+    }
+
+    private void advance(Duration duration) {
+        now.addAndGet(duration.toNanos());
+    }
+
+    @Test
+    void testUsernameWindowSlides() {
+        limiter.acquire("testuser", null);
+        advance(Duration.ofSeconds(20));
+        limiter.acquire("testuser", null);
+        limiter.acquire("testuser", null);
+
+        LoginThrottledException e = assertThrows(LoginThrottledException.class, () -> limiter.acquire("testuser", null));
+        assertEquals(Duration.ofSeconds(40), e.getRetryAfter());
+
+        advance(Duration.ofSeconds(40));  // The first attempt leaves the window
+        limiter.acquire("testuser", null);
+        assertThrows(LoginThrottledException.class, () -> limiter.acquire("testuser", null));
+        limiter.acquire("admin", null);  // Other usernames are unaffected
+    }
+
+    @Test
+    void testAddressLimitSpansUsernames() {
+        for (int i = 0; i < 5; i++) {
+            limiter.acquire("user" + i, "10.0.0.1");
+        }
+        assertThrows(LoginThrottledException.class, () -> limiter.acquire("user5", "10.0.0.1"));
+        limiter.acquire("user5", "10.0.0.2");
+    }
+
+    @Test
+    void testResetClearsUsernameWindow() {
+        for (int i = 0; i < 3; i++) {
+            limiter.acquire("testuser", null);
+        }
+        limiter.reset("testuser");
+        limiter.acquire("testuser", null);
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.chat.security;
+
+import com.example.chat.exception.AuthenticationException;
+import com.example.chat.model.User;
+import com.example.chat.service.UserLookupCache;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * JWT - STOMP CONNECT authentication and the per-session principal
+ * TECHNICAL CONCEPTS: JWT, MOCKITO/JACOCO
+ */
+@ExtendWith(MockitoExtension.class)
+class StompAuthChannelInterceptorTest {
+
+    @Mock
+    private JwtTokenProvider jwtTokenProvider;
+
+    @Mock
+    private UserLookupCache userLookupCache;
+
+    @Mock
+    private MessageChannel channel;
+
+    @InjectMocks
+    private StompAuthChannelInterceptor interceptor;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(interceptor, "authRequired", true);
+    }
+
+    private static Message<byte[]> frame(StompCommand command, String authorization) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(command);
+        if (authorization != null) {
+            accessor.addNativeHeader("Authorization", authorization);
+        }
+        accessor.setLeaveMutable(true);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+
+    @Test
+    void testValidTokenSetsSessionPrincipal() {
+        User user = new User();
+        user.setId(1L);
+        user.setUsername("testuser");
+        user.setDisplayName("Test User");
+        Claims claims = Jwts.claims().setSubject("testuser");
+        when(jwtTokenProvider.verifyToken("good-token")).thenReturn(Optional.of(claims));
+        when(userLookupCache.getSender("testuser")).thenReturn(user);
+
+        Message<?> result = interceptor.preSend(frame(StompCommand.CONNECT, "Bearer good-token"), channel);
+
+        ChatPrincipal principal = (ChatPrincipal) StompHeaderAccessor.wrap(result).getUser();
+        assertNotNull(principal);
+        assertEquals(1L, principal.getId());
+        assertEquals("testuser", principal.getName());
+        assertEquals("Test User", principal.getDisplayName());
+    }
+
+    @Test
+    void testMissingTokenIsRejectedWhenRequired() {
+        assertThrows(AuthenticationException.class,
+                () -> interceptor.preSend(frame(StompCommand.CONNECT, null), channel));
+    }
+
+    @Test
+    void testMissingTokenIsAnonymousWhenNotRequired() {
+        ReflectionTestUtils.setField(interceptor, "authRequired", false);
+
+        Message<?> result = interceptor.preSend(frame(StompCommand.CONNECT, null), channel);
+
+        assertNull(StompHeaderAccessor.wrap(result).getUser());
+    }
+
+    @Test
+    void testInvalidTokenIsRejected() {
+        when(jwtTokenProvider.verifyToken("bad-token")).thenReturn(Optional.empty());
+
+        assertThrows(AuthenticationException.class,
+                () -> interceptor.preSend(frame(StompCommand.CONNECT, "Bearer bad-token"), channel));
+        verify(userLookupCache, never()).getSender(anyString());
+    }
+
+    @Test
+    void testOtherFramesAreNotVerified() {
+        interceptor.preSend(frame(StompCommand.SEND, "Bearer good-token"), channel);
+
+        verifyNoInteractions(jwtTokenProvider, userLookupCache);
+    }
+}
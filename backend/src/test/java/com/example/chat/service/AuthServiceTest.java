@@ -4,9 +4,12 @@ import com.example.chat.dto.AuthResponse;
 import com.example.chat.dto.LoginRequest;
 import com.example.chat.dto.RegisterRequest;
 import com.example.chat.dto.UserDto;
+import com.example.chat.exception.LoginThrottledException;
 import com.example.chat.model.User;
 import com.example.chat.repository.UserRepository;
 import com.example.chat.security.JwtTokenProvider;
+import com.example.chat.security.LoginAttemptLimiter;
+import com.example.chat.security.PasswordVerificationExecutor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -15,7 +18,9 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.time.Duration;
 import java.util.Optional;
+import java.util.concurrent.Callable;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -38,6 +43,15 @@ class AuthServiceTest {
     @Mock
     private JwtTokenProvider jwtTokenProvider;  // MOCKITO/JACOCO - Mock JWT provider
 
+    @Mock
+    private UserLookupCache userLookupCache;  // MOCKITO/JACOCO - Mock sender cache
+
+    @Mock
+    private LoginAttemptLimiter loginAttemptLimiter;  // MOCKITO/JACOCO - Mock login throttle
+
+    @Mock
+    private PasswordVerificationExecutor passwordVerificationExecutor;  // MOCKITO/JACOCO - Runs tasks inline below
+
     @InjectMocks
     private AuthService authService;  // MOCKITO/JACOCO - Inject mocks into service
 
@@ -47,6 +61,9 @@ class AuthServiceTest {
 
     @BeforeEach
     void setUp() {
+        lenient().when(passwordVerificationExecutor.call(any()))
+                .thenAnswer(invocation -> ((Callable<?>) invocation.getArgument(0)).call());
+
         // MOCKITO/JACOCO - Setup test data
         testUser = new User();
         testUser.setId(1L);
@@ -86,6 +103,39 @@ class AuthServiceTest {
         verify(userRepository).findByUsername("testuser");
         verify(passwordEncoder).matches("password", "encodedPassword");
         verify(jwtTokenProvider).generateToken("testuser");
+        verify(loginAttemptLimiter).acquire("testuser", null);
+        verify(loginAttemptLimiter).reset("testuser");
+        verify(userRepository, never()).save(any(User.class));
+    }
+
+    @Test
+    void testLogin_RehashesWhenCostChanged() {
+        // MOCKITO/JACOCO - Given a hash stored with another bcrypt cost
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+        when(passwordEncoder.matches("password", "encodedPassword")).thenReturn(true);
+        when(passwordEncoder.upgradeEncoding("encodedPassword")).thenReturn(true);
+        when(passwordEncoder.encode("password")).thenReturn("rehashedPassword");
+        when(jwtTokenProvider.generateToken("testuser")).thenReturn("jwt-token");
+
+        // MOCKITO/JACOCO - When
+        authService.login(loginRequest, "10.0.0.1");
+
+        // MOCKITO/JACOCO - Then
+        assertEquals("rehashedPassword", testUser.getPassword());
+        verify(userRepository).save(testUser);
+    }
+
+    @Test
+    void testLogin_Throttled() {
+        // MOCKITO/JACOCO - Given
+        doThrow(new LoginThrottledException("Too many login attempts", Duration.ofSeconds(30)))
+                .when(loginAttemptLimiter).acquire("testuser", "10.0.0.1");
+
+        // MOCKITO/JACOCO - When & Then: refused before any lookup or hashing
+        assertThrows(LoginThrottledException.class, () -> authService.login(loginRequest, "10.0.0.1"));
+        verifyNoInteractions(userRepository);
+        verifyNoInteractions(passwordEncoder);
+        verifyNoInteractions(jwtTokenProvider);
     }
 
     @Test
@@ -136,6 +186,7 @@ class AuthServiceTest {
         verify(passwordEncoder).encode("password123");
         verify(userRepository).save(any(User.class));
         verify(jwtTokenProvider).generateToken("testuser");
+        verify(userLookupCache).invalidate("testuser");
     }
 
     @Test
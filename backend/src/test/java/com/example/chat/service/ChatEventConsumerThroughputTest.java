@@ -0,0 +1,173 @@
+package com.example.chat.service;
+
+import com.example.chat.cluster.ClusterFanoutService;
+import com.example.chat.config.KafkaConfig;
+import com.example.chat.dto.MessageDto;
+import com.example.chat.dto.UserDto;
+import com.example.chat.model.Message;
+import com.example.chat.model.MessageStatus;
+import com.example.chat.model.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.BatchConsumerAwareMessageListener;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testcontainers.containers.KafkaContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * KAFKA - End-to-end consumer under load: producer -> chat-messages -> batch persist -> relay
+ * Persistence and the WebSocket side are mocks; the broker is a throwaway container, so the
+ * test is skipped when Docker is not available.
+ * TECHNICAL CONCEPTS: KAFKA, MOCKITO/JACOCO
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class ChatEventConsumerThroughputTest {
+
+    private static final int EVENTS = 20_000;
+    private static final int ROOMS = 24;
+    private static final int PARTITIONS = 6;
+
+    @Container
+    private static final KafkaContainer KAFKA =
+            new KafkaContainer(DockerImageName.parse("confluentinc/cp-kafka:7.4.0"));
+
+    private static KafkaConfig kafkaConfig;
+    private static SimpleMeterRegistry meterRegistry;
+
+    @BeforeAll
+    static void createTopic() throws Exception {
+        try (AdminClient admin = AdminClient.create(
+                Map.of(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, KAFKA.getBootstrapServers()))) {
+            admin.createTopics(List.of(new NewTopic(KafkaService.MESSAGE_TOPIC, PARTITIONS, (short) 1)))
+                    .all().get(30, TimeUnit.SECONDS);
+        }
+        kafkaConfig = new KafkaConfig();
+        ReflectionTestUtils.setField(kafkaConfig, "bootstrapServers", KAFKA.getBootstrapServers());
+        ReflectionTestUtils.setField(kafkaConfig, "consumerGroupId", "throughput-test");
+        ReflectionTestUtils.setField(kafkaConfig, "consumerConcurrency", 3);
+        ReflectionTestUtils.setField(kafkaConfig, "maxPollRecords", 500);
+        ReflectionTestUtils.setField(kafkaConfig, "fetchMaxWaitMs", 100);
+        ReflectionTestUtils.setField(kafkaConfig, "lingerMs", 10);
+        ReflectionTestUtils.setField(kafkaConfig, "batchSize", 65536);
+        ReflectionTestUtils.setField(kafkaConfig, "compressionType", "lz4");
+        ReflectionTestUtils.setField(kafkaConfig, "bufferMemory", 33554432L);
+        ReflectionTestUtils.setField(kafkaConfig, "maxBlockMs", 10000L);
+        ReflectionTestUtils.setField(kafkaConfig, "deliveryTimeoutMs", 120000);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterAll
+    static void closeRegistry() {
+        meterRegistry.close();
+    }
+
+    private static MessageDto message(long id, long roomId) {
+        UserDto sender = new UserDto();
+        sender.setUsername("user" + roomId);
+        MessageDto dto = new MessageDto();
+        dto.setId(id);
+        dto.setContent("message " + id + " in room " + roomId);
+        dto.setType("TEXT");
+        dto.setStatus("PENDING");
+        dto.setSender(sender);
+        dto.setCreatedAt("2024-06-01T12:00:00");
+        return dto;
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testConsumerRelaysEveryEventInRoomOrder() throws Exception {
+        MessageService messageService = mock(MessageService.class);
+        when(messageService.saveConsumedBatch(anyList())).thenAnswer(invocation -> {
+            List<Message> batch = invocation.getArgument(0);
+            batch.forEach(m -> m.setStatus(MessageStatus.SENT));
+            return batch;
+        });
+        UserLookupCache userLookupCache = mock(UserLookupCache.class);
+        when(userLookupCache.getSender(anyString())).thenAnswer(invocation -> {
+            User user = new User();
+            user.setId(1L);
+            user.setUsername(invocation.getArgument(0));
+            return user;
+        });
+
+        // Relayed ids per room, in relay order
+        Map<String, List<Long>> relayed = new ConcurrentHashMap<>();
+        CountDownLatch allRelayed = new CountDownLatch(EVENTS);
+        ClusterFanoutService clusterFanout = mock(ClusterFanoutService.class);
+        doAnswer(invocation -> {
+            relayed.computeIfAbsent(invocation.getArgument(0), d -> Collections.synchronizedList(new ArrayList<>()))
+                    .add(((MessageDto) invocation.getArgument(1)).getId());
+            allRelayed.countDown();
+            return null;
+        }).when(clusterFanout).broadcast(anyString(), any(), anyString());
+
+        ChatEventConsumer consumer = new ChatEventConsumer();
+        ReflectionTestUtils.setField(consumer, "messageService", messageService);
+        ReflectionTestUtils.setField(consumer, "userLookupCache", userLookupCache);
+        ReflectionTestUtils.setField(consumer, "clusterFanout", clusterFanout);
+        ReflectionTestUtils.setField(consumer, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(consumer, "meterRegistry", meterRegistry);
+        consumer.init();
+
+        ContainerProperties properties = new ContainerProperties(KafkaService.MESSAGE_TOPIC);
+        properties.setMessageListener((BatchConsumerAwareMessageListener<String, String>) consumer::onEvents);
+        ConcurrentMessageListenerContainer<String, String> container =
+                new ConcurrentMessageListenerContainer<>(kafkaConfig.consumerFactory(meterRegistry), properties);
+        container.setConcurrency(3);
+        container.start();
+
+        KafkaService kafkaService = new KafkaService();
+        ReflectionTestUtils.setField(kafkaService, "enabled", true);
+        ReflectionTestUtils.setField(kafkaService, "maxInFlightEvents", 10_000);
+        ReflectionTestUtils.setField(kafkaService, "overflowPolicy", "block");
+        ReflectionTestUtils.setField(kafkaService, "blockTimeoutMs", 10_000L);
+        ReflectionTestUtils.setField(kafkaService, "kafkaTemplate", new KafkaTemplate<>(kafkaConfig.producerFactory()));
+        ReflectionTestUtils.setField(kafkaService, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(kafkaService, "meterRegistry", meterRegistry);
+        kafkaService.init();
+
+        try {
+            for (int i = 0; i < EVENTS; i++) {
+                long roomId = i % ROOMS;
+                assertTrue(kafkaService.publishMessage(roomId, message(i, roomId)));
+            }
+            assertTrue(allRelayed.await(60, TimeUnit.SECONDS), "not all events were relayed");
+        } finally {
+            container.stop();
+        }
+
+        // Room key -> one partition -> relayed in send order
+        assertEquals(ROOMS, relayed.size());
+        for (List<Long> ids : relayed.values()) {
+            for (int i = 1; i < ids.size(); i++) {
+                assertTrue(ids.get(i - 1) < ids.get(i), "room order violated");
+            }
+        }
+        assertEquals(EVENTS, meterRegistry.counter("chat.kafka.consumer.consumed").count());
+        assertFalse(meterRegistry.find("chat.kafka.consumer.lag").gauges().isEmpty());
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.chat.service;
+
+import com.example.chat.dto.MessageDto;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.mock.MockProducerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * KAFKA - Keyed publishing, overflow policy and completion metrics against a MockProducer
+ * TECHNICAL CONCEPTS: KAFKA, MOCKITO/JACOCO
+ */
+class KafkaServiceTest {
+
+    private MockProducer<String, String> producer;
+    private SimpleMeterRegistry meterRegistry;
+    private KafkaService kafkaService;
+
+    @BeforeEach
+    void setUp() {
+        // Records stay unacknowledged until the test completes or fails them. KafkaTemplate closes
+        // the producer after every send, which is a no-op for the shared producer of
+        // DefaultKafkaProducerFactory but would close this one for good.
+        producer = new MockProducer<>(false, new StringSerializer(), new StringSerializer()) {
+            @Override
+            public void close() {
+            }
+
+            @Override
+            public void close(Duration timeout) {
+            }
+        };
+        meterRegistry = new SimpleMeterRegistry();
+        kafkaService = new KafkaService();
+        ReflectionTestUtils.setField(kafkaService, "enabled", true);
+        ReflectionTestUtils.setField(kafkaService, "maxInFlightEvents", 2);
+        ReflectionTestUtils.setField(kafkaService, "overflowPolicy", "drop");
+        ReflectionTestUtils.setField(kafkaService, "kafkaTemplate",
+                new KafkaTemplate<>(new MockProducerFactory<>(() -> producer)));
+        ReflectionTestUtils.setField(kafkaService, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(kafkaService, "meterRegistry", meterRegistry);
+        kafkaService.init();
+    }
+
+    private static MessageDto message(long id) {
+        MessageDto dto = new MessageDto();
+        dto.setId(id);
+        dto.setContent("hello " + id);
+        return dto;
+    }
+
+    private double counter(String name) {
+        return meterRegistry.counter(name).count();
+    }
+
+    @Test
+    void testMessageEventsAreKeyedByRoom() throws Exception {
+        assertTrue(kafkaService.publishMessage(7L, message(1L)));
+
+        ProducerRecord<String, String> record = producer.history().get(0);
+        assertEquals(KafkaService.MESSAGE_TOPIC, record.topic());
+        assertEquals("7", record.key());
+        JsonNode event = new ObjectMapper().readTree(record.value());
+        assertEquals("MESSAGE", event.get("type").asText());
+        assertEquals(7L, event.get("roomId").asLong());
+        assertEquals("hello 1", event.get("message").get("content").asText());
+    }
+
+    @Test
+    void testDropPolicyBoundsUnacknowledgedEvents() {
+        assertTrue(kafkaService.publishMessage(1L, message(1L)));
+        assertTrue(kafkaService.publishMessage(1L, message(2L)));
+        assertFalse(kafkaService.publishMessage(1L, message(3L)));  // Both slots in flight
+        assertEquals(1.0, counter("chat.kafka.producer.dropped"));
+        assertEquals(2.0, meterRegistry.get("chat.kafka.producer.in_flight").gauge().value());
+
+        producer.completeNext();
+        assertEquals(1.0, counter("chat.kafka.producer.acked"));
+        assertTrue(kafkaService.publishMessage(1L, message(4L)));  // Slot released by the ack
+        assertEquals(3, producer.history().size());
+    }
+
+    @Test
+    void testFailedSendReleasesSlotAndIsCounted() {
+        kafkaService.publishMessage(1L, message(1L));
+        kafkaService.publishMessage(1L, message(2L));
+
+        producer.errorNext(new RuntimeException("broker unavailable"));
+        producer.completeNext();
+
+        assertEquals(1.0, counter("chat.kafka.producer.failed"));
+        assertEquals(1.0, counter("chat.kafka.producer.acked"));
+        assertEquals(0.0, meterRegistry.get("chat.kafka.producer.in_flight").gauge().value());
+        assertEquals(2L, meterRegistry.timer("chat.kafka.producer.ack").count());
+    }
+
+    @Test
+    void testFailureCallbackRunsOnlyForSendsTheBrokerFailed() {
+        AtomicInteger failures = new AtomicInteger();
+        assertTrue(kafkaService.publishMessage(1L, message(1L), failures::incrementAndGet));
+        assertTrue(kafkaService.publishMessage(1L, message(2L), failures::incrementAndGet));
+
+        producer.completeNext();
+        assertEquals(0, failures.get());
+        producer.errorNext(new RuntimeException("broker unavailable"));
+        assertEquals(1, failures.get());
+    }
+
+    @Test
+    void testDisabledPublisherSendsNothing() {
+        ReflectionTestUtils.setField(kafkaService, "enabled", false);
+
+        assertFalse(kafkaService.sendUserActivity("alice", "login"));
+        assertTrue(producer.history().isEmpty());
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.chat.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * MOCKITO/JACOCO - Message ids: node bits, ordering, and the node id a cluster must configure
+ * TECHNICAL CONCEPT: MOCKITO/JACOCO
+ */
+class MessageIdGeneratorTest {
+
+    @Test
+    void testClusteredNodeWithoutNodeIdFailsAtStartup() {
+        assertThrows(IllegalStateException.class, () -> new MessageIdGenerator(-1, "redis"));
+        assertThrows(IllegalStateException.class, () -> new MessageIdGenerator(-1, "memory"));
+        assertThrows(IllegalStateException.class, () -> new MessageIdGenerator(1024, "none"));
+
+        assertEquals(7, new MessageIdGenerator(7, "redis").getNodeId());
+        assertTrue(new MessageIdGenerator(-1, "none").getNodeId() <= 1023);  // Single node may derive one
+    }
+
+    @Test
+    void testNodesNeverShareIdsAndIdsIncrease() {
+        MessageIdGenerator nodeA = new MessageIdGenerator(1, "redis");
+        MessageIdGenerator nodeB = new MessageIdGenerator(2, "redis");
+
+        Set<Long> ids = new HashSet<>();
+        long previous = 0;
+        for (int i = 0; i < 10_000; i++) {
+            long id = nodeA.nextId();
+            assertTrue(id > previous);
+            previous = id;
+            assertTrue(ids.add(id));
+            assertTrue(ids.add(nodeB.nextId()));
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package com.example.chat.service;
+
+import com.example.chat.archive.MessageArchive;
+import com.example.chat.dto.MessageDto;
+import com.example.chat.exception.ValidationException;
+import com.example.chat.model.Message;
+import com.example.chat.model.MessageStatus;
+import com.example.chat.model.MessageType;
+import com.example.chat.model.User;
+import com.example.chat.receipt.UnreadTracker;
+import com.example.chat.repository.MessageRepository;
+import com.example.chat.search.MessageSearchIndex;
+import com.example.chat.summary.RoomSummaryService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * MOCKITO/JACOCO - Unit tests for MessageService keyset pagination and room summary recording
+ * TECHNICAL CONCEPT: MOCKITO/JACOCO
+ */
+@ExtendWith(MockitoExtension.class)
+class MessageServiceTest {
+
+    @Mock
+    private MessageRepository messageRepository;  // MOCKITO/JACOCO - Mock repository
+
+    @Mock
+    private UserLookupCache userLookupCache;  // MOCKITO/JACOCO - Mock sender cache
+
+    @Mock
+    private RecentMessageBuffer recentMessageBuffer;  // MOCKITO/JACOCO - Mock hot-room buffer
+
+    @Mock
+    private MessageArchive messageArchive;  // MOCKITO/JACOCO - Cold tier disabled unless stubbed
+
+    @Mock
+    private RoomSummaryService roomSummaryService;  // MOCKITO/JACOCO - Mock room list summaries
+
+    @Mock
+    private MessageWriteBehindQueue writeBehindQueue;  // MOCKITO/JACOCO - Mock write-behind pipeline
+
+    @Mock
+    private MessageIdGenerator messageIdGenerator;  // MOCKITO/JACOCO - Mock id source
+
+    @Mock
+    private MessageSearchIndex searchIndex;  // MOCKITO/JACOCO - Mock search index
+
+    @Mock
+    private RedisService redisService;  // MOCKITO/JACOCO - Mock Redis tails
+
+    @Mock
+    private UnreadTracker unreadTracker;  // MOCKITO/JACOCO - Mock unread tails
+
+    @InjectMocks
+    private MessageService messageService;  // MOCKITO/JACOCO - Inject mocks into service
+
+    private final LocalDateTime base = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    private List<Message> newestFirst(long fromId, int count) {
+        List<Message> messages = new ArrayList<>();
+        for (long id = fromId; id > fromId - count; id--) {
+            Message message = new Message();
+            message.setId(id);
+            message.setChatRoomId(1L);
+            message.setCreatedAt(base.plusSeconds(id));
+            messages.add(message);
+        }
+        return messages;
+    }
+
+    @Test
+    void testGetMessagesBefore_FirstPageHasCursor() {
+        // MOCKITO/JACOCO - Given: limit + 1 rows means another page exists
+        when(messageRepository.findLatestByRoomId(eq(1L), any(Pageable.class))).thenReturn(newestFirst(10, 4));
+
+        // MOCKITO/JACOCO - When
+        MessageHistoryPage page = messageService.getMessagesBefore(1L, null, 3);
+
+        // MOCKITO/JACOCO - Then: oldest first, cursor points at the oldest returned message
+        assertEquals(3, page.getMessages().size());
+        assertEquals(8L, page.getMessages().get(0).getId());
+        assertEquals(10L, page.getMessages().get(2).getId());
+        assertTrue(page.hasMore());
+
+        MessageCursor cursor = MessageCursor.decode(page.getNextCursor());
+        assertEquals(8L, cursor.getId());
+        assertEquals(base.plusSeconds(8), cursor.getCreatedAt());
+    }
+
+    @Test
+    void testGetMessagesBefore_SeeksFromCursor() {
+        // MOCKITO/JACOCO - Given
+        String before = new MessageCursor(base.plusSeconds(8), 8L).encode();
+        when(messageRepository.findByRoomIdBefore(eq(1L), eq(base.plusSeconds(8)), eq(8L), any(Pageable.class)))
+                .thenReturn(newestFirst(7, 2));
+
+        // MOCKITO/JACOCO - When
+        MessageHistoryPage page = messageService.getMessagesBefore(1L, before, 3);
+
+        // MOCKITO/JACOCO - Then: fewer rows than the limit means the start of the room
+        assertEquals(2, page.getMessages().size());
+        assertFalse(page.hasMore());
+        assertNull(page.getNextCursor());
+        verify(messageRepository, never()).findAll();
+    }
+
+    private static Message outgoing(Long id) {
+        User sender = new User();
+        sender.setId(7L);
+        sender.setUsername("alice");
+        Message message = new Message();
+        message.setId(id);
+        message.setChatRoomId(1L);
+        message.setContent("hello");
+        message.setType(MessageType.TEXT);
+        message.setStatus(MessageStatus.SENT);
+        message.setSender(sender);
+        message.setCreatedAt(LocalDateTime.now());
+        return message;
+    }
+
+    @Test
+    void testAcceptMessage_QueuedMessageIsNotCountedYet() {
+        // MOCKITO/JACOCO - Given: the write-behind queue takes the message
+        Message message = outgoing(null);
+        when(messageIdGenerator.nextId()).thenReturn(100L);
+        when(writeBehindQueue.isEnabled()).thenReturn(true);
+        when(writeBehindQueue.submit(message)).thenReturn(true);
+
+        // MOCKITO/JACOCO - When
+        messageService.acceptMessage(message);
+
+        // MOCKITO/JACOCO - Then: the queue's flush counts it once the row is durable, but it can be acknowledged now
+        assertEquals(100L, message.getId());
+        verify(roomSummaryService, never()).record(any());
+        verify(unreadTracker).record(message);
+    }
+
+    @Test
+    void testAcceptMessage_SaturatedQueuePersistsOnCallerThread() {
+        // MOCKITO/JACOCO - Given: the write-behind queue is full and rejects the message
+        Message message = outgoing(100L);
+        when(writeBehindQueue.isEnabled()).thenReturn(true);
+        when(writeBehindQueue.submit(message)).thenReturn(false);
+        when(messageRepository.save(message)).thenReturn(message);
+
+        // MOCKITO/JACOCO - When
+        MessageDto dto = messageService.acceptMessage(message);
+
+        // MOCKITO/JACOCO - Then: the row is written synchronously and reported as durable
+        verify(messageRepository).save(message);
+        assertEquals(MessageStatus.SENT, message.getStatus());
+        assertEquals("SENT", dto.getStatus());
+        verify(roomSummaryService).record(message);
+    }
+
+    @Test
+    void testSaveConsumedBatch_CountedOnlyAfterCommit() {
+        // MOCKITO/JACOCO - Given: a transaction is in progress
+        Message message = outgoing(100L);
+        when(messageRepository.findExistingIds(any())).thenReturn(List.of());
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // MOCKITO/JACOCO - When
+            messageService.saveConsumedBatch(List.of(message));
+
+            // MOCKITO/JACOCO - Then: nothing is counted until the commit, and a rollback would count nothing
+            verify(roomSummaryService, never()).record(any());
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            verify(roomSummaryService).record(message);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testSaveConsumedBatch_ReturnsOnlyNewlyStoredMessages() {
+        // MOCKITO/JACOCO - Given: 100 was already stored by the sending node's fallback
+        Message stored = outgoing(100L);
+        Message fresh = outgoing(101L);
+        when(messageRepository.findExistingIds(any())).thenReturn(List.of(100L));
+
+        // MOCKITO/JACOCO - When
+        List<Message> relayed = messageService.saveConsumedBatch(List.of(stored, fresh, fresh));
+
+        // MOCKITO/JACOCO - Then: only 101 is inserted and handed back for broadcasting
+        assertEquals(List.of(fresh), relayed);
+        verify(messageRepository).saveAll(List.of(fresh));
+        verify(roomSummaryService, never()).record(stored);
+    }
+
+    @Test
+    void testAcceptUnlessStored_SkipsMessagesTheConsumerStored() {
+        // MOCKITO/JACOCO - Given: the publish failed ambiguously and the consumer stored 100 anyway
+        Message message = outgoing(100L);
+        message.setStatus(MessageStatus.PENDING);
+        when(messageRepository.existsById(100L)).thenReturn(true);
+
+        // MOCKITO/JACOCO - When & Then: nothing to insert or broadcast
+        assertNull(messageService.acceptUnlessStored(message));
+        verify(messageRepository, never()).save(any());
+        verifyNoInteractions(writeBehindQueue, recentMessageBuffer, roomSummaryService);
+    }
+
+    @Test
+    void testAcceptUnlessStored_InsertRaceIsNotAFailure() {
+        // MOCKITO/JACOCO - Given: the consumer inserts 100 between the check and the insert
+        Message message = outgoing(100L);
+        message.setStatus(MessageStatus.PENDING);
+        when(messageRepository.existsById(100L)).thenReturn(false);
+        when(messageRepository.save(message)).thenThrow(new DataIntegrityViolationException("duplicate key"));
+
+        // MOCKITO/JACOCO - When & Then
+        assertNull(messageService.acceptUnlessStored(message));
+        verifyNoInteractions(roomSummaryService);
+    }
+
+    @Test
+    void testAcceptUnlessStored_PersistsSynchronouslyWhenAbsent() {
+        // MOCKITO/JACOCO - Given: the event never reached the broker
+        Message message = outgoing(100L);
+        message.setStatus(MessageStatus.PENDING);
+        when(messageRepository.existsById(100L)).thenReturn(false);
+        when(messageRepository.save(message)).thenReturn(message);
+
+        // MOCKITO/JACOCO - When
+        MessageDto dto = messageService.acceptUnlessStored(message);
+
+        // MOCKITO/JACOCO - Then: stored directly, not through the write-behind queue
+        assertEquals("SENT", dto.getStatus());
+        verify(roomSummaryService).record(message);
+        verifyNoInteractions(writeBehindQueue);
+    }
+
+    @Test
+    void testGetMessagesBefore_InvalidCursor() {
+        // MOCKITO/JACOCO - When & Then
+        assertThrows(ValidationException.class, () -> messageService.getMessagesBefore(1L, "not-a-cursor", 20));
+        verifyNoInteractions(messageRepository);
+    }
+}
@@ -0,0 +1,276 @@
+package com.example.chat.service;
+
+import com.example.chat.cluster.ClusterFanoutService;
+import com.example.chat.dto.MessageStatusFrame;
+import com.example.chat.model.Message;
+import com.example.chat.model.MessageStatus;
+import com.example.chat.repository.MessageRepository;
+import com.example.chat.search.MessageSearchIndex;
+import com.example.chat.summary.RoomSummaryService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+/**
+ * MOCKITO/JACOCO - Write-behind pipeline: size and time flushes, back-pressure, retries, poison rows, drain on stop
+ * TECHNICAL CONCEPT: MOCKITO/JACOCO
+ */
+@ExtendWith(MockitoExtension.class)
+class MessageWriteBehindQueueTest {
+
+    @Mock
+    private MessageRepository messageRepository;  // MOCKITO/JACOCO - Records every flushed batch
+
+    @Mock
+    private PlatformTransactionManager transactionManager;  // MOCKITO/JACOCO - Commits are no-ops
+
+    @Mock
+    private ClusterFanoutService clusterFanout;  // MOCKITO/JACOCO - Captures status frames
+
+    @Mock
+    private MessageSearchIndex searchIndex;
+
+    @Mock
+    private RoomSummaryService roomSummaryService;
+
+    @Mock
+    private RedisService redisService;
+
+    @Mock
+    private RecentMessageBuffer recentMessageBuffer;  // MOCKITO/JACOCO - Holds accepted messages as SENT
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private MessageWriteBehindQueue queue;
+
+    // saveAll receives the writer's reusable batch list, so copy it at call time
+    private final List<List<Long>> batches = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(queue, "enabled", true);
+        ReflectionTestUtils.setField(queue, "queueCapacity", 100);
+        ReflectionTestUtils.setField(queue, "batchSize", 3);
+        ReflectionTestUtils.setField(queue, "flushIntervalMs", 50L);
+        ReflectionTestUtils.setField(queue, "offerTimeoutMs", 10L);
+        ReflectionTestUtils.setField(queue, "shutdownTimeoutMs", 5000L);
+        ReflectionTestUtils.setField(queue, "retryAttempts", 2);
+        ReflectionTestUtils.setField(queue, "retryBackoffMs", 5L);
+        ReflectionTestUtils.setField(queue, "meterRegistry", meterRegistry);
+        lenient().when(messageRepository.saveAll(anyIterable())).thenAnswer(invocation -> {
+            List<Long> ids = new ArrayList<>();
+            for (Message message : invocation.<Iterable<Message>>getArgument(0)) {
+                ids.add(message.getId());
+            }
+            batches.add(ids);
+            return invocation.getArgument(0);
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (queue.isRunning()) {
+            queue.stop();
+        }
+    }
+
+    private static Message pending(long id) {
+        Message message = new Message();
+        message.setId(id);
+        message.setChatRoomId(1L);
+        message.setContent("message " + id);
+        message.setStatus(MessageStatus.PENDING);
+        return message;
+    }
+
+    private double counter(String name) {
+        return meterRegistry.counter(name).count();
+    }
+
+    @Test
+    void testFullBatchFlushesWithoutWaitingForTheInterval() {
+        // MOCKITO/JACOCO - Given: an interval far longer than the test
+        ReflectionTestUtils.setField(queue, "flushIntervalMs", 60_000L);
+        ReflectionTestUtils.setField(queue, "shutdownTimeoutMs", 100L);  // Idle writer is still polling
+        queue.init();
+        queue.start();
+
+        // MOCKITO/JACOCO - When
+        List<Message> messages = List.of(pending(1), pending(2), pending(3));
+        messages.forEach(message -> assertTrue(queue.submit(message)));
+
+        // MOCKITO/JACOCO - Then: the third message completes the batch and triggers one saveAll
+        verify(messageRepository, timeout(2000)).saveAll(anyIterable());
+        assertEquals(List.of(List.of(1L, 2L, 3L)), batches);
+        messages.forEach(message -> assertEquals(MessageStatus.SENT, message.getStatus()));
+        verify(clusterFanout, timeout(2000)).broadcast(eq("/topic/room/1/status"),
+                eq(new MessageStatusFrame("SENT", List.of(1L, 2L, 3L))), isNull());
+    }
+
+    @Test
+    void testPartialBatchFlushesWhenTheIntervalElapses() {
+        // MOCKITO/JACOCO - Given: a batch size that will never be reached
+        ReflectionTestUtils.setField(queue, "batchSize", 100);
+        queue.init();
+        queue.start();
+
+        // MOCKITO/JACOCO - When
+        assertTrue(queue.submit(pending(1)));
+        assertTrue(queue.submit(pending(2)));
+
+        // MOCKITO/JACOCO - Then: the deadline flushes what arrived
+        verify(messageRepository, timeout(2000)).saveAll(anyIterable());
+        assertEquals(List.of(List.of(1L, 2L)), batches);
+        verify(roomSummaryService, timeout(2000).times(2)).record(any(Message.class));
+        assertEquals(2.0, counter("chat.messages.write_behind.persisted"));
+    }
+
+    @Test
+    void testSaturatedQueueRejectsSoTheCallerPersists() {
+        // MOCKITO/JACOCO - Given: accepting submissions but no writer draining a one-slot queue
+        ReflectionTestUtils.setField(queue, "queueCapacity", 1);
+        queue.init();
+        ReflectionTestUtils.setField(queue, "running", true);
+
+        // MOCKITO/JACOCO - When
+        assertTrue(queue.submit(pending(1)));
+        boolean accepted = queue.submit(pending(2));
+
+        // MOCKITO/JACOCO - Then: the offer times out instead of blocking the inbound thread
+        assertFalse(accepted);
+        assertEquals(1.0, counter("chat.messages.write_behind.rejected"));
+        assertEquals(1.0, meterRegistry.get("chat.messages.write_behind.queue_depth").gauge().value());
+    }
+
+    @Test
+    void testStoppedOrDisabledQueueRejects() {
+        queue.init();
+        assertFalse(queue.submit(pending(1)));  // Never started
+
+        ReflectionTestUtils.setField(queue, "enabled", false);
+        queue.start();
+        assertFalse(queue.isRunning());
+        assertFalse(queue.submit(pending(2)));
+        verifyNoInteractions(messageRepository);
+    }
+
+    @Test
+    void testPoisonRowFailsAloneWhenTheBatchIsRetried() {
+        // MOCKITO/JACOCO - Given: the batch insert fails and one row cannot be saved at all
+        doThrow(new IllegalStateException("constraint")).when(messageRepository).saveAll(anyIterable());
+        when(messageRepository.save(any(Message.class))).thenAnswer(invocation -> {
+            Message message = invocation.getArgument(0);
+            if (message.getId() == 2L) {
+                throw new IllegalStateException("poison");
+            }
+            return message;
+        });
+        queue.init();
+        queue.start();
+
+        // MOCKITO/JACOCO - When
+        Message good1 = pending(1);
+        Message poison = pending(2);
+        Message good3 = pending(3);
+        List.of(good1, poison, good3).forEach(queue::submit);
+
+        // MOCKITO/JACOCO - Then: only the poison row is FAILED and reported as such
+        verify(clusterFanout, timeout(2000)).broadcast(eq("/topic/room/1/status"),
+                eq(new MessageStatusFrame("FAILED", List.of(2L))), isNull());
+        verify(clusterFanout).broadcast(eq("/topic/room/1/status"),
+                eq(new MessageStatusFrame("SENT", List.of(1L, 3L))), isNull());
+        assertEquals(MessageStatus.SENT, good1.getStatus());
+        assertEquals(MessageStatus.FAILED, poison.getStatus());
+        assertEquals(MessageStatus.SENT, good3.getStatus());
+        verify(roomSummaryService).record(good1);
+        verify(roomSummaryService).record(good3);
+        verify(roomSummaryService, never()).record(poison);
+        verify(recentMessageBuffer).remove(poison);  // History stops serving it
+        verify(recentMessageBuffer, never()).remove(good1);
+        verify(messageRepository, times(3)).saveAll(anyIterable());  // First try plus two retries
+        assertEquals(2.0, counter("chat.messages.write_behind.retried"));
+        assertEquals(2.0, counter("chat.messages.write_behind.persisted"));
+        assertEquals(1.0, counter("chat.messages.write_behind.failed"));
+    }
+
+    @Test
+    void testShortOutageIsRetriedWithoutLosingTheBatch() {
+        // MOCKITO/JACOCO - Given: the database is unavailable for the first two attempts
+        doThrow(new IllegalStateException("connection refused"))
+                .doThrow(new IllegalStateException("connection refused"))
+                .doAnswer(invocation -> invocation.getArgument(0))
+                .when(messageRepository).saveAll(anyIterable());
+        queue.init();
+        queue.start();
+
+        // MOCKITO/JACOCO - When
+        List<Message> messages = List.of(pending(1), pending(2), pending(3));
+        messages.forEach(queue::submit);
+
+        // MOCKITO/JACOCO - Then: the third attempt stores the whole batch; nothing is FAILED
+        verify(clusterFanout, timeout(2000)).broadcast(eq("/topic/room/1/status"),
+                eq(new MessageStatusFrame("SENT", List.of(1L, 2L, 3L))), isNull());
+        messages.forEach(message -> assertEquals(MessageStatus.SENT, message.getStatus()));
+        verify(messageRepository, never()).save(any(Message.class));
+        verifyNoInteractions(recentMessageBuffer);
+        assertEquals(2.0, counter("chat.messages.write_behind.retried"));
+        assertEquals(3.0, counter("chat.messages.write_behind.persisted"));
+        assertEquals(0.0, counter("chat.messages.write_behind.failed"));
+    }
+
+    @Test
+    void testStopDrainsEverythingAccepted() {
+        // MOCKITO/JACOCO - Given: more messages queued than one batch holds
+        queue.init();
+        queue.start();
+        for (long id = 1; id <= 10; id++) {
+            assertTrue(queue.submit(pending(id)));
+        }
+
+        // MOCKITO/JACOCO - When
+        queue.stop();
+
+        // MOCKITO/JACOCO - Then: every accepted message was written before stop() returned
+        List<Long> written = batches.stream().flatMap(List::stream).sorted().toList();
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L), written);
+        assertTrue(batches.stream().allMatch(batch -> batch.size() <= 3));
+        assertFalse(queue.submit(pending(11)));
+    }
+
+    @Test
+    void testStopFlushesSubmissionsThatRacedWithShutdown() {
+        // MOCKITO/JACOCO - Given: messages queued while no writer thread is left to take them
+        queue.init();
+        ReflectionTestUtils.setField(queue, "running", true);
+        queue.submit(pending(1));
+        queue.submit(pending(2));
+
+        // MOCKITO/JACOCO - When
+        queue.stop();
+
+        // MOCKITO/JACOCO - Then: the stopping thread flushes them
+        assertEquals(List.of(List.of(1L, 2L)), batches);
+        verify(redisService, timeout(1000)).cachePersisted(any());
+        verify(transactionManager, atLeastOnce()).commit(any());
+    }
+}
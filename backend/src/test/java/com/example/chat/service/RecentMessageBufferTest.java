@@ -0,0 +1,224 @@
+package com.example.chat.service;
+
+import com.example.chat.dto.MessageDto;
+import com.example.chat.dto.MessagePageDto;
+import com.example.chat.model.Message;
+import com.example.chat.model.MessageStatus;
+import com.example.chat.model.MessageType;
+import com.example.chat.model.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * MOCKITO/JACOCO - Hot-room ring buffer: wrap-around, cursor pages, seeding after writes, whole rooms
+ * TECHNICAL CONCEPT: MOCKITO/JACOCO
+ */
+class RecentMessageBufferTest {
+
+    private static final Long ROOM = 1L;
+    private static final LocalDateTime T0 = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private RecentMessageBuffer buffer;
+
+    @BeforeEach
+    void setUp() {
+        buffer = new RecentMessageBuffer();
+        ReflectionTestUtils.setField(buffer, "enabled", true);
+        ReflectionTestUtils.setField(buffer, "capacity", 5);
+        ReflectionTestUtils.setField(buffer, "maxRooms", 10);
+        ReflectionTestUtils.setField(buffer, "idleTimeout", Duration.ofMinutes(10));
+        ReflectionTestUtils.setField(buffer, "meterRegistry", meterRegistry);
+        buffer.registerMetrics();
+    }
+
+    private static Message message(long id) {
+        User sender = new User();
+        sender.setId(7L);
+        sender.setUsername("alice");
+        Message message = new Message();
+        message.setId(id);
+        message.setChatRoomId(ROOM);
+        message.setContent("message " + id);
+        message.setType(MessageType.TEXT);
+        message.setStatus(MessageStatus.SENT);
+        message.setSender(sender);
+        message.setCreatedAt(T0.plusSeconds(id));
+        return message;
+    }
+
+    // Database order for seeding: newest first
+    private static List<Message> newestFirst(long fromId, long toId) {
+        List<Message> rows = new ArrayList<>();
+        for (long id = fromId; id >= toId; id--) {
+            rows.add(message(id));
+        }
+        return rows;
+    }
+
+    private static List<Long> ids(MessagePageDto page) {
+        return page.getMessages().stream().map(MessageDto::getId).toList();
+    }
+
+    private static String cursor(long id) {
+        return MessageCursor.of(message(id)).encode();
+    }
+
+    private double requests(String result) {
+        return meterRegistry.get("chat.history.buffer.requests").tag("result", result).counter().count();
+    }
+
+    @Test
+    void testWrapAroundKeepsTheNewestInOrder() {
+        // MOCKITO/JACOCO - Given: an empty room, then more messages than the ring holds
+        buffer.seed(ROOM, List.of(), true);
+        for (long id = 1; id <= 8; id++) {
+            buffer.record(message(id));
+        }
+        buffer.record(message(6));  // Duplicate
+        buffer.record(message(2));  // Older than everything kept
+
+        // MOCKITO/JACOCO - When
+        MessagePageDto page = buffer.read(ROOM, null, 4);
+
+        // MOCKITO/JACOCO - Then: 4..8 survive; overflow means the start of the room is no longer held
+        assertEquals(List.of(5L, 6L, 7L, 8L), ids(page));
+        assertTrue(page.isHasMore());
+        assertEquals(cursor(5), page.getNextCursor());
+        assertEquals(List.of(5L), ids(buffer.read(ROOM, cursor(6), 1)));
+        assertNull(buffer.read(ROOM, cursor(5), 1), "whether anything precedes 4 is unknown after overflow");
+        assertNull(buffer.read(ROOM, null, 5));
+    }
+
+    @Test
+    void testOutOfOrderCommitIsSlottedByCreatedAt() {
+        buffer.seed(ROOM, List.of(), true);
+        buffer.record(message(1));
+        buffer.record(message(3));
+        buffer.record(message(2));
+
+        assertEquals(List.of(1L, 2L, 3L), ids(buffer.read(ROOM, null, 10)));
+    }
+
+    @Test
+    void testCursorPagesWalkBackToTheStartOfTheRoom() {
+        // MOCKITO/JACOCO - Given: the whole room fits in the ring
+        buffer.seed(ROOM, newestFirst(5, 1), true);
+
+        // MOCKITO/JACOCO - When & Then
+        MessagePageDto newest = buffer.read(ROOM, null, 2);
+        assertEquals(List.of(4L, 5L), ids(newest));
+        assertEquals(cursor(4), newest.getNextCursor());
+
+        MessagePageDto middle = buffer.read(ROOM, newest.getNextCursor(), 2);
+        assertEquals(List.of(2L, 3L), ids(middle));
+        assertTrue(middle.isHasMore());
+
+        MessagePageDto oldest = buffer.read(ROOM, middle.getNextCursor(), 2);
+        assertEquals(List.of(1L), ids(oldest));
+        assertFalse(oldest.isHasMore());
+        assertNull(oldest.getNextCursor());
+    }
+
+    @Test
+    void testSeedMergesMessagesRecordedBeforeTheFirstRead() {
+        // MOCKITO/JACOCO - Given: a restart, then two sends before anyone reads the room
+        buffer.record(message(11));
+        buffer.record(message(12));
+        assertNull(buffer.read(ROOM, null, 4));
+
+        // MOCKITO/JACOCO - When: the first read warms the room from the database (12 is already stored)
+        buffer.seed(ROOM, newestFirst(12, 1), false);
+
+        // MOCKITO/JACOCO - Then: the tail is served from memory straight away, without duplicates
+        MessagePageDto page = buffer.read(ROOM, null, 4);
+        assertNotNull(page, "a partial buffer must not keep missing after it was seeded");
+        assertEquals(List.of(9L, 10L, 11L, 12L), ids(page));
+        assertEquals(List.of(9L), ids(buffer.read(ROOM, cursor(10), 1)));
+        assertEquals(1.0, requests("miss"));
+        assertEquals(2.0, requests("hit"));
+
+        // MOCKITO/JACOCO - A second seed (a concurrent warm-up) leaves the tail alone
+        buffer.record(message(13));
+        buffer.seed(ROOM, newestFirst(5, 1), false);
+        assertEquals(List.of(10L, 11L, 12L, 13L), ids(buffer.read(ROOM, null, 4)));
+    }
+
+    @Test
+    void testWholeRoomAnswersShortRoomsWithoutMore() {
+        // MOCKITO/JACOCO - Given: a three-message room, seeded as the whole room
+        buffer.seed(ROOM, newestFirst(3, 1), true);
+
+        // MOCKITO/JACOCO - Then: a page larger than the room is still a hit
+        MessagePageDto page = buffer.read(ROOM, null, 50);
+        assertEquals(List.of(1L, 2L, 3L), ids(page));
+        assertFalse(page.isHasMore());
+
+        // MOCKITO/JACOCO - A message recorded before seeding is part of the whole room too
+        buffer.record(message(20, 2L));
+        buffer.seed(2L, List.of(message(19, 2L)), true);
+        assertEquals(List.of(19L, 20L), ids(buffer.read(2L, null, 50)));
+    }
+
+    @Test
+    void testPartialSeedsDoNotClaimTheWholeRoom() {
+        buffer.seed(ROOM, newestFirst(3, 1), false);
+        assertNull(buffer.read(ROOM, null, 50));
+
+        buffer.seed(2L, rooms(2L, newestFirst(9, 1)), true);  // More rows than the ring holds
+        assertNull(buffer.read(2L, null, 50));
+        assertEquals(4, buffer.read(2L, null, 4).getMessages().size());
+
+        // Recorded plus seeded rows overflowing the ring
+        for (long id = 10; id <= 12; id++) {
+            buffer.record(message(id, 3L));
+        }
+        buffer.seed(3L, rooms(3L, newestFirst(4, 1)), true);
+        assertNull(buffer.read(3L, null, 50));
+    }
+
+    @Test
+    void testRemovedMessageIsNoLongerServed() {
+        // MOCKITO/JACOCO - Given: a whole room whose newest message then fails to persist
+        buffer.seed(ROOM, newestFirst(4, 1), true);
+        buffer.record(message(5));
+
+        // MOCKITO/JACOCO - When
+        buffer.remove(message(3));
+        buffer.remove(message(42));  // Never buffered
+
+        // MOCKITO/JACOCO - Then
+        assertEquals(List.of(1L, 2L, 4L, 5L), ids(buffer.read(ROOM, null, 50)));
+        buffer.record(message(6));
+        assertEquals(List.of(4L, 5L, 6L), ids(buffer.read(ROOM, null, 3)));
+    }
+
+    @Test
+    void testDisabledBufferNeverAnswers() {
+        ReflectionTestUtils.setField(buffer, "enabled", false);
+        buffer.seed(ROOM, newestFirst(3, 1), true);
+        buffer.record(message(4));
+
+        assertNull(buffer.read(ROOM, null, 1));
+    }
+
+    private static Message message(long id, Long roomId) {
+        Message message = message(id);
+        message.setChatRoomId(roomId);
+        return message;
+    }
+
+    private static List<Message> rooms(Long roomId, List<Message> messages) {
+        messages.forEach(message -> message.setChatRoomId(roomId));
+        return messages;
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.chat.service;
+
+import com.example.chat.config.RedisConfig;
+import com.example.chat.dto.MessageDto;
+import com.example.chat.model.Message;
+import com.example.chat.model.MessageStatus;
+import com.example.chat.model.MessageType;
+import com.example.chat.model.User;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * MOCKITO/JACOCO - Room message caching: list order, trim length and TTL, scripted and pipelined
+ * Runs against a throwaway Redis container; skipped when Docker is not available. Throughput is
+ * compared in the benchmark profile (RedisMessageCacheBenchmark).
+ * TECHNICAL CONCEPTS: REDIS, MOCKITO/JACOCO
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class RedisServiceTest {
+
+    @Container
+    private static final GenericContainer<?> REDIS =
+            new GenericContainer<>(DockerImageName.parse("redis:7-alpine")).withExposedPorts(6379);
+
+    private static LettuceConnectionFactory connectionFactory;
+    private static RedisTemplate<String, MessageDto> roomMessages;
+    private static RedisService redisService;
+
+    @BeforeAll
+    static void connect() {
+        connectionFactory = new LettuceConnectionFactory(REDIS.getHost(), REDIS.getMappedPort(6379));
+        connectionFactory.afterPropertiesSet();
+        RedisConfig redisConfig = new RedisConfig();
+        ReflectionTestUtils.setField(redisConfig, "roomMessagesCodec", "compact");
+        ReflectionTestUtils.setField(redisConfig, "userSessionCodec", "compact");
+        ReflectionTestUtils.setField(redisConfig, "compressionThreshold", 1024);
+        roomMessages = redisConfig.roomMessageRedisTemplate(connectionFactory);
+        redisService = new RedisService();
+        ReflectionTestUtils.setField(redisService, "messageCacheEnabled", true);
+        ReflectionTestUtils.setField(redisService, "roomMessageRedisTemplate", roomMessages);
+        ReflectionTestUtils.setField(redisService, "userSessionRedisTemplate",
+                redisConfig.userSessionRedisTemplate(connectionFactory));
+    }
+
+    @AfterAll
+    static void disconnect() {
+        connectionFactory.destroy();
+    }
+
+    @BeforeEach
+    void clear() {
+        connectionFactory.getConnection().serverCommands().flushAll();
+    }
+
+    private static MessageDto message(long id) {
+        MessageDto message = new MessageDto();
+        message.setId(id);
+        message.setContent("message " + id);
+        return message;
+    }
+
+    private static List<Long> ids(String key) {
+        return roomMessages.opsForList().range(key, 0, -1).stream().map(MessageDto::getId).toList();
+    }
+
+    private static void assertHasTtl(String key) {
+        Long ttl = roomMessages.getExpire(key);
+        assertNotNull(ttl);
+        assertTrue(ttl > 0 && ttl <= 3600, "expected a TTL of at most one hour, was " + ttl);
+    }
+
+    @Test
+    void testScriptedCacheKeepsNewestHundredWithTtl() {
+        for (long id = 1; id <= 150; id++) {
+            redisService.cacheMessage("1", message(id));
+        }
+
+        List<Long> cached = ids("room_messages:1");
+        assertEquals(100, cached.size());
+        assertEquals(150L, cached.get(0));  // Newest first
+        assertEquals(51L, cached.get(99));
+        assertHasTtl("room_messages:1");
+    }
+
+    @Test
+    void testPipelinedBatchMatchesOneByOne() {
+        List<MessageDto> room1 = new ArrayList<>();
+        for (long id = 1; id <= 120; id++) {
+            room1.add(message(id));
+        }
+        redisService.cacheMessages(Map.of("1", room1, "2", List.of(message(500), message(501))));
+
+        List<Long> cached = ids("room_messages:1");
+        assertEquals(100, cached.size());
+        assertEquals(120L, cached.get(0));
+        assertEquals(21L, cached.get(99));
+        assertEquals(List.of(501L, 500L), ids("room_messages:2"));
+        assertHasTtl("room_messages:1");
+        assertHasTtl("room_messages:2");
+    }
+
+    @Test
+    void testPersistedMessagesAreCachedPerRoom() {
+        User sender = new User();
+        sender.setId(7L);
+        sender.setUsername("alice");
+        List<Message> persisted = new ArrayList<>();
+        for (long id = 1; id <= 3; id++) {
+            Message message = new Message();
+            message.setId(id);
+            message.setChatRoomId(id == 3 ? 2L : 1L);
+            message.setContent("persisted " + id);
+            message.setType(MessageType.TEXT);
+            message.setStatus(MessageStatus.SENT);
+            message.setSender(sender);
+            message.setCreatedAt(LocalDateTime.now());
+            persisted.add(message);
+        }
+
+        redisService.cachePersisted(persisted);
+        redisService.cachePersisted(persisted.subList(0, 1));  // Single message: scripted path
+
+        assertEquals(List.of(1L, 2L, 1L), ids("room_messages:1"));
+        assertEquals(List.of(3L), ids("room_messages:2"));
+    }
+}
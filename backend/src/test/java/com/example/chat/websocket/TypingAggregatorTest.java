@@ -0,0 +1,116 @@
+package com.example.chat.websocket;
+
+import com.example.chat.cluster.ClusterFanoutService;
+import com.example.chat.dto.TypingUpdateFrame;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+/**
+ * MOCKITO/JACOCO - Typing coalescing behaviour and a 500-member room load simulation
+ * TECHNICAL CONCEPTS: MOCKITO/JACOCO, WEBSOCKET
+ */
+@ExtendWith(MockitoExtension.class)
+class TypingAggregatorTest {
+
+    private static final String TOPIC = "/topic/room/1/typing";
+
+    @Mock
+    private ClusterFanoutService clusterFanout;  // MOCKITO/JACOCO - Counts outgoing frames
+
+    @InjectMocks
+    private TypingAggregator typingAggregator;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(typingAggregator, "ttlMs", 5000L);
+    }
+
+    private TypingUpdateFrame lastFrame() {
+        ArgumentCaptor<Object> frame = ArgumentCaptor.forClass(Object.class);
+        verify(clusterFanout, atLeastOnce()).broadcast(eq(TOPIC), frame.capture(), isNull());
+        return (TypingUpdateFrame) frame.getValue();
+    }
+
+    @Test
+    void testRepeatedStartsProduceSingleFrame() {
+        typingAggregator.update(1L, "alice", true);
+        typingAggregator.update(1L, "alice", true);
+        typingAggregator.update(1L, "bob", true);
+        typingAggregator.flush();
+
+        assertEquals(List.of("alice", "bob"), lastFrame().started());
+        assertEquals(List.of(), lastFrame().stopped());
+
+        // MOCKITO/JACOCO - Still typing: refreshes only, nothing to send
+        typingAggregator.update(1L, "alice", true);
+        typingAggregator.flush();
+        verify(clusterFanout, times(1)).broadcast(eq(TOPIC), any(), isNull());
+    }
+
+    @Test
+    void testToggleWithinIntervalIsDropped() {
+        typingAggregator.update(1L, "alice", true);
+        typingAggregator.update(1L, "alice", false);
+        typingAggregator.flush();
+
+        verifyNoInteractions(clusterFanout);
+        assertEquals(0, typingAggregator.trackedRooms());
+    }
+
+    @Test
+    void testStaleTyperExpires() {
+        ReflectionTestUtils.setField(typingAggregator, "ttlMs", -1L);
+        typingAggregator.update(1L, "alice", true);
+        typingAggregator.flush();  // Started and expired in the same interval: cancels out
+
+        verifyNoInteractions(clusterFanout);
+        assertEquals(0, typingAggregator.trackedRooms());
+    }
+
+    @Test
+    void testLoad_500MemberRoom() {
+        // UAT - 500 members typing, 10 keystroke events each per second, for 10 seconds.
+        // Flushing every 250 ms gives 4 flush opportunities per simulated second.
+        int members = 500;
+        int eventsPerMemberPerSecond = 10;
+        int seconds = 10;
+        int flushesPerSecond = 4;
+
+        long events = 0;
+        for (int second = 0; second < seconds; second++) {
+            for (int flush = 0; flush < flushesPerSecond; flush++) {
+                for (int burst = 0; burst < eventsPerMemberPerSecond / flushesPerSecond + 1; burst++) {
+                    for (int member = 0; member < members; member++) {
+                        // Every member stops typing for one interval every other second
+                        boolean typing = !(second % 2 == 1 && flush == 0);
+                        typingAggregator.update(1L, "user" + member, typing);
+                        events++;
+                    }
+                }
+                typingAggregator.flush();
+            }
+        }
+
+        long framesBefore = events;  // Previously one broadcast per event
+        long framesAfter = mockingDetails(clusterFanout).getInvocations().size();
+
+        assertTrue(framesAfter > 0, "typing changes must still be published");
+        assertTrue(framesAfter <= (long) seconds * flushesPerSecond, "at most one frame per room per flush interval");
+        assertTrue(framesBefore / framesAfter >= 1000,
+                "expected at least three orders of magnitude fewer frames, got " + framesBefore / framesAfter + "x");
+    }
+}